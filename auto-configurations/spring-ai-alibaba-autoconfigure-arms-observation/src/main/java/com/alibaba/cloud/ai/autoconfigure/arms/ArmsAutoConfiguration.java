@@ -37,12 +37,16 @@ public class ArmsAutoConfiguration {
 	@ConditionalOnProperty(prefix = ArmsCommonProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
 	ToolCallingManager toolCallingManager(ToolCallbackResolver toolCallbackResolver,
 			ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
-			ObjectProvider<ObservationRegistry> observationRegistry) {
-		return ObservableToolCallingManager.builder()
+			ObjectProvider<ObservationRegistry> observationRegistry, ArmsCommonProperties properties) {
+		ArmsCommonProperties.ToolCalling toolCalling = properties.getToolCalling();
+		ObservableToolCallingManager.Builder builder = ObservableToolCallingManager.builder()
 			.observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
 			.toolCallbackResolver(toolCallbackResolver)
 			.toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
-			.build();
+			.maxParallelism(toolCalling.getMaxParallelism())
+			.defaultToolTimeout(toolCalling.getTimeout());
+		toolCalling.getTimeouts().forEach(builder::toolTimeout);
+		return builder.build();
 	}
 
 }
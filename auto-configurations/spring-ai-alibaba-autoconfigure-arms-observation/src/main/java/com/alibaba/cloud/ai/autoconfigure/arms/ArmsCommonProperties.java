@@ -15,6 +15,10 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.arms;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -33,6 +37,11 @@ public class ArmsCommonProperties {
 	 */
 	private boolean enabled = false;
 
+	/**
+	 * Execution of the tool calls requested by the model.
+	 */
+	private final ToolCalling toolCalling = new ToolCalling();
+
 	public boolean isEnabled() {
 		return enabled;
 	}
@@ -41,4 +50,52 @@ public class ArmsCommonProperties {
 		this.enabled = enabled;
 	}
 
+	public ToolCalling getToolCalling() {
+		return toolCalling;
+	}
+
+	public static class ToolCalling {
+
+		/**
+		 * Maximum number of tool calls of a response executed at the same time. 1
+		 * executes them one after another.
+		 */
+		private int maxParallelism = 1;
+
+		/**
+		 * Timeout of the calls to tools without a timeout of their own.
+		 */
+		private Duration timeout;
+
+		/**
+		 * Timeouts of the calls to specific tools, by tool name.
+		 */
+		private Map<String, Duration> timeouts = new HashMap<>();
+
+		public int getMaxParallelism() {
+			return maxParallelism;
+		}
+
+		public void setMaxParallelism(int maxParallelism) {
+			this.maxParallelism = maxParallelism;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public Map<String, Duration> getTimeouts() {
+			return timeouts;
+		}
+
+		public void setTimeouts(Map<String, Duration> timeouts) {
+			this.timeouts = timeouts;
+		}
+
+	}
+
 }
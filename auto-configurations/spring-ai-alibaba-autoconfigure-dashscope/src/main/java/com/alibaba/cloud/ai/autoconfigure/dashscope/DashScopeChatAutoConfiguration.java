@@ -17,9 +17,12 @@ package com.alibaba.cloud.ai.autoconfigure.dashscope;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatModel;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 
 import org.springframework.ai.chat.observation.ChatModelObservationConvention;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.model.tool.DefaultToolExecutionEligibilityPredicate;
 import org.springframework.ai.model.tool.ToolCallingManager;
 import org.springframework.ai.model.tool.ToolExecutionEligibilityPredicate;
@@ -83,7 +86,9 @@ public class DashScopeChatAutoConfiguration {
 				ObjectProvider<WebClient.Builder> webClientBuilderProvider,
 				ObjectProvider<RestClient.Builder> restClientBuilderProvider,
 				ObjectProvider<ChatModelObservationConvention> observationConvention,
-				ObjectProvider<ToolExecutionEligibilityPredicate> dashscopeToolExecutionEligibilityPredicate
+				ObjectProvider<ToolExecutionEligibilityPredicate> dashscopeToolExecutionEligibilityPredicate,
+				ObjectProvider<MeterRegistry> meterRegistry,
+				ObjectProvider<EmbeddingModel> embeddingModel
 		) {
 
 			var dashscopeApi = dashscopeChatApi(
@@ -107,6 +112,24 @@ public class DashScopeChatAutoConfiguration {
 
 			observationConvention.ifAvailable(dashscopeModel::setObservationConvention);
 
+			DashScopeChatProperties.ResponseCache responseCache = chatProperties.getResponseCache();
+			if (responseCache.isEnabled()) {
+				DashScopeChatResponseCache.Builder cache = DashScopeChatResponseCache.builder()
+						.maximumSize(responseCache.getMaximumSize())
+						.ttl(responseCache.getTtl())
+						.meterRegistry(meterRegistry.getIfUnique());
+				if (responseCache.getSemantic().isEnabled()) {
+					EmbeddingModel semanticEmbeddingModel = embeddingModel.getIfUnique();
+					if (semanticEmbeddingModel == null) {
+						throw new IllegalStateException(
+								"The semantic response cache requires a unique EmbeddingModel bean");
+					}
+					cache.embeddingModel(semanticEmbeddingModel)
+						.similarityThreshold(responseCache.getSemantic().getSimilarityThreshold());
+				}
+				dashscopeModel.setResponseCache(cache.build());
+			}
+
 			return dashscopeModel;
 		}
 
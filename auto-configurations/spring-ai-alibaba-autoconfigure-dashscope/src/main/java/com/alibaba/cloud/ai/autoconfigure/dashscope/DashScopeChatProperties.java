@@ -15,7 +15,10 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.dashscope;
 
+import java.time.Duration;
+
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatResponseCache;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -57,6 +60,8 @@ public class DashScopeChatProperties extends DashScopeParentProperties {
 		.withTemperature(DEFAULT_TEMPERATURE)
 		.build();
 
+	private final ResponseCache responseCache = new ResponseCache();
+
 	public DashScopeChatProperties() {
 		super.setBaseUrl(DEFAULT_BASE_URL);
 	}
@@ -71,6 +76,11 @@ public class DashScopeChatProperties extends DashScopeParentProperties {
 		this.options = options;
 	}
 
+	public ResponseCache getResponseCache() {
+
+		return this.responseCache;
+	}
+
 	public boolean isEnabled() {
 
 		return this.enabled;
@@ -81,4 +91,89 @@ public class DashScopeChatProperties extends DashScopeParentProperties {
 		this.enabled = enabled;
 	}
 
+	/**
+	 * Caching of the responses to repeated requests.
+	 */
+	public static class ResponseCache {
+
+		/**
+		 * Enable the response cache.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of cached responses.
+		 */
+		private long maximumSize = DashScopeChatResponseCache.DEFAULT_MAXIMUM_SIZE;
+
+		/**
+		 * How long responses are cached once received.
+		 */
+		private Duration ttl = DashScopeChatResponseCache.DEFAULT_TTL;
+
+		private final Semantic semantic = new Semantic();
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public long getMaximumSize() {
+			return this.maximumSize;
+		}
+
+		public void setMaximumSize(long maximumSize) {
+			this.maximumSize = maximumSize;
+		}
+
+		public Duration getTtl() {
+			return this.ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		public Semantic getSemantic() {
+			return this.semantic;
+		}
+
+	}
+
+	/**
+	 * Matching of requests on the embeddings of their last user message.
+	 */
+	public static class Semantic {
+
+		/**
+		 * Enable semantic matching, using the EmbeddingModel bean.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Minimum cosine similarity of the matched messages.
+		 */
+		private double similarityThreshold = DashScopeChatResponseCache.DEFAULT_SIMILARITY_THRESHOLD;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getSimilarityThreshold() {
+			return this.similarityThreshold;
+		}
+
+		public void setSimilarityThreshold(double similarityThreshold) {
+			this.similarityThreshold = similarityThreshold;
+		}
+
+	}
+
 }
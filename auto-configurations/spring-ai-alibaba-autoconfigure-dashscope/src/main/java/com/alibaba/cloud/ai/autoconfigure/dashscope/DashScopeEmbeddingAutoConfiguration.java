@@ -17,7 +17,9 @@
 package com.alibaba.cloud.ai.autoconfigure.dashscope;
 
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingBatcher;
 import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.embedding.observation.EmbeddingModelObservationConvention;
 import org.springframework.ai.retry.autoconfigure.SpringAiRetryAutoConfiguration;
@@ -63,7 +65,8 @@ public class DashScopeEmbeddingAutoConfiguration {
 			ObjectProvider<WebClient.Builder> webClientBuilderProvider,
 			ObjectProvider<RestClient.Builder> restClientBuilderProvider, RetryTemplate retryTemplate,
 			ResponseErrorHandler responseErrorHandler, ObjectProvider<ObservationRegistry> observationRegistry,
-			ObjectProvider<EmbeddingModelObservationConvention> observationConvention) {
+			ObjectProvider<EmbeddingModelObservationConvention> observationConvention,
+			ObjectProvider<MeterRegistry> meterRegistry) {
 
 		var dashScopeApi = dashscopeEmbeddingApi(commonProperties, embeddingProperties,
 				restClientBuilderProvider.getIfAvailable(RestClient::builder),
@@ -75,6 +78,15 @@ public class DashScopeEmbeddingAutoConfiguration {
 
 		observationConvention.ifAvailable(embeddingModel::setObservationConvention);
 
+		DashScopeEmbeddingProperties.Batching batching = embeddingProperties.getBatching();
+		if (batching.isEnabled()) {
+			embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder()
+				.window(batching.getWindow())
+				.maxBatchSize(batching.getMaxBatchSize())
+				.maxBatchTokens(batching.getMaxBatchTokens())
+				.meterRegistry(meterRegistry.getIfUnique()));
+		}
+
 		return embeddingModel;
 	}
 
@@ -16,6 +16,9 @@
 
 package com.alibaba.cloud.ai.autoconfigure.dashscope;
 
+import java.time.Duration;
+
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingBatcher;
 import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
 import org.springframework.ai.document.MetadataMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -40,6 +43,8 @@ public class DashScopeEmbeddingProperties extends DashScopeParentProperties {
 		.withModel(DEFAULT_EMBEDDING_MODEL)
 		.build();
 
+	private final Batching batching = new Batching();
+
 	public DashScopeEmbeddingOptions getOptions() {
 		return this.options;
 	}
@@ -56,6 +61,10 @@ public class DashScopeEmbeddingProperties extends DashScopeParentProperties {
 		this.metadataMode = metadataMode;
 	}
 
+	public Batching getBatching() {
+		return this.batching;
+	}
+
 	public boolean isEnabled() {
 		return this.enabled;
 	}
@@ -64,4 +73,63 @@ public class DashScopeEmbeddingProperties extends DashScopeParentProperties {
 		this.enabled = enabled;
 	}
 
+	/**
+	 * Coalescing of concurrent single-text embedding calls into batched requests.
+	 */
+	public static class Batching {
+
+		/**
+		 * Enable batching of single-text calls.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How long the first text of a batch waits for others.
+		 */
+		private Duration window = DashScopeEmbeddingBatcher.DEFAULT_WINDOW;
+
+		/**
+		 * Maximum number of texts per request.
+		 */
+		private int maxBatchSize = DashScopeEmbeddingBatcher.DEFAULT_MAX_BATCH_SIZE;
+
+		/**
+		 * Maximum estimated number of tokens per request.
+		 */
+		private int maxBatchTokens = Integer.MAX_VALUE;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getWindow() {
+			return this.window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public int getMaxBatchSize() {
+			return this.maxBatchSize;
+		}
+
+		public void setMaxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+
+		public int getMaxBatchTokens() {
+			return this.maxBatchTokens;
+		}
+
+		public void setMaxBatchTokens(int maxBatchTokens) {
+			this.maxBatchTokens = maxBatchTokens;
+		}
+
+	}
+
 }
@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.graph;
 
+import com.alibaba.cloud.ai.graph.AsyncGraphLifecycleListener;
 import com.alibaba.cloud.ai.graph.CompileConfig;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.observation.GraphObservationLifecycleListener;
@@ -29,6 +30,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -62,21 +64,48 @@ public class GraphObservationAutoConfiguration {
 		return new GraphObservationLifecycleListener(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
 	}
 
+	/**
+	 * Wraps the GraphObservationLifecycleListener in asynchronous mode. As a bean, its
+	 * buffered events are flushed and its thread stopped when the context is closed.
+	 * @param listener the graph observation lifecycle listener
+	 * @param properties the graph observation properties
+	 * @return the asynchronous listener
+	 */
+	@Bean(destroyMethod = "close")
+	@ConditionalOnMissingBean
+	@ConditionalOnSingleCandidate(GraphObservationLifecycleListener.class)
+	@ConditionalOnProperty(prefix = GraphObservationProperties.CONFIG_PREFIX, name = "async", havingValue = "true")
+	public AsyncGraphLifecycleListener asyncGraphObservationLifecycleListener(
+			GraphObservationLifecycleListener listener, GraphObservationProperties properties) {
+		return new AsyncGraphLifecycleListener(listener, properties.getAsyncBufferSize());
+	}
+
 	/**
 	 * Creates a default CompileConfig with observation support.
 	 * @param observationRegistry the observation registry
 	 * @param graphObservationLifecycleListeners the graph observation lifecycle listener
+	 * @param asyncGraphLifecycleListeners the listener wrapping it in asynchronous mode
+	 * @param properties the graph observation properties
 	 * @return configured CompileConfig with observation support
 	 */
 	@Bean
 	@ConditionalOnMissingBean
 	public CompileConfig observationGraphCompileConfig(ObjectProvider<ObservationRegistry> observationRegistry,
-			ObjectProvider<GraphObservationLifecycleListener> graphObservationLifecycleListeners) {
+			ObjectProvider<GraphObservationLifecycleListener> graphObservationLifecycleListeners,
+			ObjectProvider<AsyncGraphLifecycleListener> asyncGraphLifecycleListeners,
+			GraphObservationProperties properties) {
 
 		CompileConfig.Builder builder = CompileConfig.builder()
 			.observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
 
-		graphObservationLifecycleListeners.ifUnique(builder::withLifecycleListener);
+		AsyncGraphLifecycleListener asyncListener = properties.isAsync() ? asyncGraphLifecycleListeners.getIfUnique()
+				: null;
+		if (asyncListener != null) {
+			builder.withLifecycleListener(asyncListener);
+		}
+		else {
+			graphObservationLifecycleListeners.ifUnique(builder::withLifecycleListener);
+		}
 
 		return builder.build();
 	}
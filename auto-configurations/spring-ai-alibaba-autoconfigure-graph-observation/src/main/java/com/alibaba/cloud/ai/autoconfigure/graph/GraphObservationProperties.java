@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.graph;
 
+import com.alibaba.cloud.ai.graph.AsyncGraphLifecycleListener;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -33,6 +34,18 @@ public class GraphObservationProperties {
 	 */
 	private boolean enabled = true;
 
+	/**
+	 * Whether to notify the observation listener asynchronously, off the thread
+	 * executing the graph.
+	 */
+	private boolean async = false;
+
+	/**
+	 * Maximum number of lifecycle events buffered in asynchronous mode. Events are
+	 * dropped when the buffer is full.
+	 */
+	private int asyncBufferSize = AsyncGraphLifecycleListener.DEFAULT_BUFFER_SIZE;
+
 	public boolean isEnabled() {
 		return enabled;
 	}
@@ -41,4 +54,20 @@ public class GraphObservationProperties {
 		this.enabled = enabled;
 	}
 
+	public boolean isAsync() {
+		return async;
+	}
+
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public int getAsyncBufferSize() {
+		return asyncBufferSize;
+	}
+
+	public void setAsyncBufferSize(int asyncBufferSize) {
+		this.asyncBufferSize = asyncBufferSize;
+	}
+
 }
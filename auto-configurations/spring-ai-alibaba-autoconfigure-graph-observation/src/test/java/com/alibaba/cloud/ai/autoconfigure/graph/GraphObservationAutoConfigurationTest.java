@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.graph;
 
+import com.alibaba.cloud.ai.graph.AsyncGraphLifecycleListener;
 import com.alibaba.cloud.ai.graph.CompileConfig;
 import com.alibaba.cloud.ai.graph.observation.GraphObservationLifecycleListener;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -63,12 +64,28 @@ class GraphObservationAutoConfigurationTest {
 		this.contextRunner.withUserConfiguration(TestConfiguration.class).run(context -> {
 			assertThat(context).hasSingleBean(GraphObservationLifecycleListener.class);
 			assertThat(context).hasSingleBean(CompileConfig.class);
+			assertThat(context).doesNotHaveBean(AsyncGraphLifecycleListener.class);
 
 			GraphObservationProperties properties = context.getBean(GraphObservationProperties.class);
 			assertThat(properties.isEnabled()).isTrue();
 		});
 	}
 
+	@Test
+	void shouldWrapListenerWhenAsync() {
+		this.contextRunner.withPropertyValues("spring.ai.alibaba.graph.observation.async=true")
+			.withUserConfiguration(TestConfiguration.class)
+			.run(context -> {
+				CompileConfig compileConfig = context.getBean(CompileConfig.class);
+				assertThat(context).hasSingleBean(AsyncGraphLifecycleListener.class);
+				assertThat(compileConfig.lifecycleListeners()).singleElement()
+					.isSameAs(context.getBean(AsyncGraphLifecycleListener.class))
+					.isInstanceOfSatisfying(AsyncGraphLifecycleListener.class,
+							listener -> assertThat(listener.delegate())
+								.isSameAs(context.getBean(GraphObservationLifecycleListener.class)));
+			});
+	}
+
 	@Test
 	void shouldConfigureObservationHandlersWhenMeterRegistryPresent() {
 		this.contextRunner.withUserConfiguration(TestConfigurationWithMeterRegistry.class).run(context -> {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.fasterxml.jackson.databind.ObjectReader;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Decodes a server-sent event stream of {@link ChatCompletionChunk} straight from the
+ * received buffers. The data of each event is gathered as bytes and parsed by a shared
+ * {@link ObjectReader}, without building a String per event. Events whose data is
+ * {@code [DONE]} end the stream; other fields, such as {@code id} or {@code event}, are
+ * ignored.
+ */
+final class ChatCompletionChunkDecoder {
+
+	private static final ObjectReader CHUNK_READER = ModelOptionsUtils.OBJECT_MAPPER
+		.readerFor(ChatCompletionChunk.class);
+
+	private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] DONE_DATA = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Emitted for the {@code [DONE]} event, and never passed downstream.
+	 */
+	private static final ChatCompletionChunk DONE = new ChatCompletionChunk(null, null, null);
+
+	private byte[] line = new byte[256];
+
+	private int lineLength;
+
+	private boolean afterCarriageReturn;
+
+	private byte[] data = new byte[1024];
+
+	private int dataLength;
+
+	private boolean hasData;
+
+	private ChatCompletionChunkDecoder() {
+	}
+
+	/**
+	 * Decodes the chunks of an event stream. The buffers are released once read.
+	 * @param body the response body
+	 * @return the chunks, up to the {@code [DONE]} event
+	 */
+	static Flux<ChatCompletionChunk> decode(Flux<DataBuffer> body) {
+		return Flux.defer(() -> {
+			ChatCompletionChunkDecoder decoder = new ChatCompletionChunkDecoder();
+			return body.concatMapIterable(decoder::decode).concatWith(Mono.fromSupplier(decoder::endOfStream));
+		}).takeWhile(chunk -> chunk != DONE).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+	private List<ChatCompletionChunk> decode(DataBuffer buffer) {
+		List<ChatCompletionChunk> chunks = new ArrayList<>(1);
+		try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+			while (iterator.hasNext()) {
+				read(iterator.next(), chunks);
+			}
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+		return chunks;
+	}
+
+	private void read(ByteBuffer bytes, List<ChatCompletionChunk> chunks) {
+		while (bytes.hasRemaining()) {
+			byte b = bytes.get();
+			if (b == '\n' && this.afterCarriageReturn) {
+				// second half of a CRLF line ending
+				this.afterCarriageReturn = false;
+			}
+			else if (b == '\n' || b == '\r') {
+				this.afterCarriageReturn = b == '\r';
+				endOfLine(chunks);
+			}
+			else {
+				this.afterCarriageReturn = false;
+				if (this.lineLength == this.line.length) {
+					this.line = Arrays.copyOf(this.line, this.line.length * 2);
+				}
+				this.line[this.lineLength++] = b;
+			}
+		}
+	}
+
+	private void endOfLine(List<ChatCompletionChunk> chunks) {
+		if (this.lineLength > 0) {
+			appendData();
+			return;
+		}
+		ChatCompletionChunk chunk = dispatch();
+		if (chunk != null) {
+			chunks.add(chunk);
+		}
+	}
+
+	/**
+	 * Appends the value of the current line to the data of the event, if it is a data
+	 * line.
+	 */
+	private void appendData() {
+		if (startsWith(this.line, this.lineLength, DATA_FIELD)) {
+			int start = DATA_FIELD.length;
+			if (start < this.lineLength && this.line[start] == ' ') {
+				start++;
+			}
+			int length = this.lineLength - start + (this.hasData ? 1 : 0);
+			if (this.dataLength + length > this.data.length) {
+				this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.dataLength + length));
+			}
+			if (this.hasData) {
+				this.data[this.dataLength++] = '\n';
+			}
+			System.arraycopy(this.line, start, this.data, this.dataLength, this.lineLength - start);
+			this.dataLength += this.lineLength - start;
+			this.hasData = true;
+		}
+		this.lineLength = 0;
+	}
+
+	/**
+	 * Dispatches the last event when the stream does not end with a blank line.
+	 */
+	private ChatCompletionChunk endOfStream() {
+		if (this.lineLength > 0) {
+			appendData();
+		}
+		return dispatch();
+	}
+
+	private ChatCompletionChunk dispatch() {
+		if (!this.hasData) {
+			return null;
+		}
+		int length = this.dataLength;
+		this.dataLength = 0;
+		this.hasData = false;
+		if (length == DONE_DATA.length && startsWith(this.data, length, DONE_DATA)) {
+			return DONE;
+		}
+		try {
+			return CHUNK_READER.readValue(this.data, 0, length);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(
+					"Failed to parse chat completion chunk: " + new String(this.data, 0, length, StandardCharsets.UTF_8),
+					e);
+		}
+	}
+
+	private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+		if (length < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -31,6 +31,8 @@ import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.TokenUsage;
 
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Helper class to support Streaming function calling. It can merge the streamed
@@ -162,6 +164,27 @@ public class DashScopeAiStreamFunctionCallingHelper {
 		return new ChatCompletionFunction(name, arguments.toString());
 	}
 
+	/**
+	 * Merge the chunks of a stream. Each chunk is passed on by itself, except for the
+	 * chunks of a streamed tool call, which are merged up to the one finishing the call.
+	 * The result is the same as folding each group of chunks with
+	 * {@link #merge(ChatCompletionChunk, ChatCompletionChunk)}, but the arguments of the
+	 * tool calls are appended to a builder instead of being copied at every chunk.
+	 * @param chunks the streamed chunks
+	 * @return the merged chunks
+	 */
+	public Flux<ChatCompletionChunk> mergeToolCallChunks(Flux<ChatCompletionChunk> chunks) {
+		return Flux.defer(() -> {
+			ChunkAccumulator accumulator = new ChunkAccumulator();
+			return chunks.<ChatCompletionChunk>handle((chunk, sink) -> {
+				ChatCompletionChunk merged = accumulator.add(chunk);
+				if (merged != null) {
+					sink.next(merged);
+				}
+			}).concatWith(Mono.fromSupplier(accumulator::flush));
+		});
+	}
+
 	/**
 	 * @param chatCompletion the ChatCompletionChunk to check
 	 * @return true if the ChatCompletionChunk is a streaming tool function call.
@@ -207,4 +230,228 @@ public class DashScopeAiStreamFunctionCallingHelper {
 		return new ChatCompletion(chunk.requestId(), chunk.output(), chunk.usage());
 	}
 
+	/**
+	 * Accumulates the chunks of a tool call, keeping the first choice as is until a
+	 * second one is merged into it.
+	 */
+	private final class ChunkAccumulator {
+
+		private boolean insideTool;
+
+		private boolean pending;
+
+		private String id;
+
+		private TokenUsage usage;
+
+		private Choice single;
+
+		private MergedChoice merged;
+
+		/**
+		 * Adds a chunk, and returns the merged chunk if it completes a group.
+		 */
+		ChatCompletionChunk add(ChatCompletionChunk chunk) {
+			if (isStreamingToolFunctionCall(chunk)) {
+				this.insideTool = true;
+			}
+			accumulate(chunk);
+			if (this.insideTool && !isStreamingToolFunctionCallFinish(chunk)) {
+				return null;
+			}
+			this.insideTool = false;
+			return build();
+		}
+
+		/**
+		 * Returns the merged chunk of an unfinished tool call at the end of the stream.
+		 */
+		ChatCompletionChunk flush() {
+			return this.pending ? build() : null;
+		}
+
+		private void accumulate(ChatCompletionChunk chunk) {
+			this.pending = true;
+			if (chunk.requestId() != null) {
+				this.id = chunk.requestId();
+			}
+			if (chunk.usage() != null) {
+				this.usage = chunk.usage();
+			}
+			Choice current = chunk.output() == null || CollectionUtils.isEmpty(chunk.output().choices()) ? null
+					: chunk.output().choices().get(0);
+
+			// compatibility of incremental_output false for streaming function call
+			if (!incrementalOutput && isStreamingToolFunctionCall(chunk)) {
+				this.single = isStreamingToolFunctionCallFinish(chunk) ? current : null;
+				this.merged = null;
+				return;
+			}
+
+			if (current == null) {
+				return;
+			}
+			if (this.single == null && this.merged == null) {
+				this.single = current;
+				return;
+			}
+			if (this.merged == null) {
+				this.merged = new MergedChoice(this.single);
+				this.single = null;
+			}
+			this.merged.merge(current);
+		}
+
+		private ChatCompletionChunk build() {
+			Choice choice = this.merged != null ? this.merged.toChoice() : this.single;
+			ChatCompletionChunk chunk = new ChatCompletionChunk(this.id,
+					new ChatCompletionOutput(null, choice == null ? List.of() : List.of(choice)), this.usage);
+			this.pending = false;
+			this.id = null;
+			this.usage = null;
+			this.single = null;
+			this.merged = null;
+			return chunk;
+		}
+
+	}
+
+	private static final class MergedChoice {
+
+		private ChatCompletionFinishReason finishReason;
+
+		private String content;
+
+		private Role role;
+
+		private String name;
+
+		private String toolCallId;
+
+		private String reasoningContent;
+
+		private final List<MergedToolCall> toolCalls = new ArrayList<>();
+
+		MergedChoice(Choice first) {
+			this.finishReason = first.finishReason();
+			ChatCompletionMessage message = first.message();
+			if (message != null) {
+				this.content = message.content();
+				this.role = message.role();
+				this.name = message.name();
+				this.toolCallId = message.toolCallId();
+				this.reasoningContent = message.reasoningContent();
+				if (message.toolCalls() != null) {
+					message.toolCalls().forEach(toolCall -> this.toolCalls.add(new MergedToolCall(toolCall)));
+				}
+			}
+		}
+
+		void merge(Choice current) {
+			if (current.finishReason() != null) {
+				this.finishReason = current.finishReason();
+			}
+			ChatCompletionMessage message = current.message();
+			if (message == null) {
+				return;
+			}
+			if (message.content() != null) {
+				this.content = message.content();
+			}
+			if (message.role() != null) {
+				this.role = message.role();
+			}
+			if (StringUtils.hasText(message.name())) {
+				this.name = message.name();
+			}
+			if (StringUtils.hasText(message.toolCallId())) {
+				this.toolCallId = message.toolCallId();
+			}
+			if (message.reasoningContent() != null) {
+				this.reasoningContent = message.reasoningContent();
+			}
+			if (!CollectionUtils.isEmpty(message.toolCalls())) {
+				if (message.toolCalls().size() > 1) {
+					throw new IllegalStateException("Currently only one tool call is supported per message!");
+				}
+				ToolCall toolCall = message.toolCalls().get(0);
+				if (StringUtils.hasText(toolCall.id()) || this.toolCalls.isEmpty()) {
+					this.toolCalls.add(new MergedToolCall(toolCall));
+				}
+				else {
+					this.toolCalls.get(this.toolCalls.size() - 1).merge(toolCall);
+				}
+			}
+		}
+
+		Choice toChoice() {
+			List<ToolCall> calls = new ArrayList<>(this.toolCalls.size());
+			this.toolCalls.forEach(toolCall -> calls.add(toolCall.toToolCall()));
+			return new Choice(this.finishReason,
+					new ChatCompletionMessage(this.content != null ? this.content : "",
+							this.role != null ? this.role : Role.ASSISTANT, this.name, this.toolCallId, calls,
+							this.reasoningContent));
+		}
+
+	}
+
+	private static final class MergedToolCall {
+
+		private String id;
+
+		private String type;
+
+		/**
+		 * The function as received, until the arguments of another one are appended.
+		 */
+		private ChatCompletionFunction function;
+
+		private String functionName;
+
+		private StringBuilder arguments;
+
+		MergedToolCall(ToolCall toolCall) {
+			this.id = toolCall.id();
+			this.type = toolCall.type();
+			this.function = toolCall.function();
+		}
+
+		void merge(ToolCall current) {
+			if (StringUtils.hasText(current.id())) {
+				this.id = current.id();
+			}
+			if (StringUtils.hasText(current.type())) {
+				this.type = current.type();
+			}
+			ChatCompletionFunction currentFunction = current.function();
+			if (this.function == null && this.arguments == null) {
+				this.function = currentFunction;
+				return;
+			}
+			if (currentFunction == null) {
+				return;
+			}
+			if (this.arguments == null) {
+				this.functionName = this.function.name();
+				this.arguments = new StringBuilder();
+				if (this.function.arguments() != null) {
+					this.arguments.append(this.function.arguments());
+				}
+				this.function = null;
+			}
+			if (StringUtils.hasText(currentFunction.name())) {
+				this.functionName = currentFunction.name();
+			}
+			if (currentFunction.arguments() != null) {
+				this.arguments.append(currentFunction.arguments());
+			}
+		}
+
+		ToolCall toToolCall() {
+			return new ToolCall(this.id, this.type, this.arguments != null
+					? new ChatCompletionFunction(this.functionName, this.arguments.toString()) : this.function);
+		}
+
+	}
+
 }
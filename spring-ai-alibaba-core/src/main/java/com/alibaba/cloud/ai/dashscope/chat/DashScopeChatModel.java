@@ -133,6 +133,11 @@ public class DashScopeChatModel implements ChatModel {
 	 */
 	private ChatModelObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
 
+	/**
+	 * Cache of the completions of repeated requests, if any.
+	 */
+	private DashScopeChatResponseCache responseCache;
+
 	public DashScopeChatModel(DashScopeApi dashscopeApi, DashScopeChatOptions defaultOptions,
 			ToolCallingManager toolCallingManager, RetryTemplate retryTemplate,
 			ObservationRegistry observationRegistry) {
@@ -186,7 +191,7 @@ public class DashScopeChatModel implements ChatModel {
 					this.observationRegistry)
 			.observe(() -> {
 				// Use pure reactive WebClient call
-				return this.dashscopeApi.chatCompletion(request, getAdditionalHttpHeaders(prompt))
+				return chatCompletion(prompt, request)
 					.map(completionResponse -> {
 						ChatResponse chatResponse = toChatResponse(completionResponse, previousChatResponse, request,
 								null);
@@ -236,8 +241,7 @@ public class DashScopeChatModel implements ChatModel {
 		return Flux.deferContextual(contextView -> {
 			ChatCompletionRequest request = createRequest(prompt, true);
 
-			Flux<ChatCompletionChunk> completionChunks = this.retryTemplate
-				.execute(ctx -> this.dashscopeApi.chatCompletionStream(request, getAdditionalHttpHeaders(prompt)));
+			Flux<ChatCompletionChunk> completionChunks = chatCompletionStream(prompt, request);
 
 			// For chunked responses, only the first chunk contains the choice role.
 			// The rest of the chunks with same ID share the same role.
@@ -292,6 +296,31 @@ public class DashScopeChatModel implements ChatModel {
 		});
 	}
 
+	private Mono<ChatCompletion> chatCompletion(Prompt prompt, ChatCompletionRequest request) {
+		if (!isResponseCacheEnabled(prompt)) {
+			return this.dashscopeApi.chatCompletion(request, getAdditionalHttpHeaders(prompt));
+		}
+		MultiValueMap<String, String> headers = getAdditionalHttpHeaders(prompt);
+		return this.responseCache.call(request, headers,
+				Mono.defer(() -> this.dashscopeApi.chatCompletion(request, headers)));
+	}
+
+	private Flux<ChatCompletionChunk> chatCompletionStream(Prompt prompt, ChatCompletionRequest request) {
+		if (!isResponseCacheEnabled(prompt)) {
+			return this.retryTemplate
+				.execute(ctx -> this.dashscopeApi.chatCompletionStream(request, getAdditionalHttpHeaders(prompt)));
+		}
+		// only call DashScope on a cache miss
+		MultiValueMap<String, String> headers = getAdditionalHttpHeaders(prompt);
+		return this.responseCache.stream(request, headers, Flux.defer(
+				() -> this.retryTemplate.execute(ctx -> this.dashscopeApi.chatCompletionStream(request, headers))));
+	}
+
+	private boolean isResponseCacheEnabled(Prompt prompt) {
+		return this.responseCache != null && !(prompt.getOptions() instanceof DashScopeChatOptions options
+				&& Boolean.FALSE.equals(options.getEnableResponseCache()));
+	}
+
 	private static String finishReasonToMetadataValue(DashScopeApi.ChatCompletionFinishReason finishReason) {
 		if (finishReason == null || finishReason == DashScopeApi.ChatCompletionFinishReason.NULL) {
 			return "";
@@ -587,6 +616,15 @@ public class DashScopeChatModel implements ChatModel {
 		this.observationConvention = observationConvention;
 	}
 
+	/**
+	 * Use the provided cache for the completions of repeated requests. Requests whose
+	 * options disable the response cache always call DashScope.
+	 * @param responseCache the response cache, or {@code null} to disable caching
+	 */
+	public void setResponseCache(DashScopeChatResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
 	/**
 	 * Returns a builder pre-populated with the current configuration for mutation.
 	 */
@@ -615,6 +653,7 @@ public class DashScopeChatModel implements ChatModel {
 			this.retryTemplate = dashScopeChatModel.retryTemplate;
 			this.observationRegistry = dashScopeChatModel.observationRegistry;
 			this.toolExecutionEligibilityPredicate = dashScopeChatModel.toolExecutionEligibilityPredicate;
+			this.responseCache = dashScopeChatModel.responseCache;
 		}
 
 		private DashScopeApi dashScopeApi;
@@ -632,6 +671,8 @@ public class DashScopeChatModel implements ChatModel {
 
 		private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
+		private DashScopeChatResponseCache responseCache;
+
 		public Builder dashScopeApi(DashScopeApi dashScopeApi) {
 			this.dashScopeApi = dashScopeApi;
 			return this;
@@ -663,15 +704,18 @@ public class DashScopeChatModel implements ChatModel {
 			return this;
 		}
 
-		public DashScopeChatModel build() {
+		public Builder responseCache(DashScopeChatResponseCache responseCache) {
+			this.responseCache = responseCache;
+			return this;
+		}
 
-			if (this.toolCallingManager != null) {
-				return new DashScopeChatModel(this.dashScopeApi, this.defaultOptions, this.toolCallingManager,
-						this.retryTemplate, this.observationRegistry, this.toolExecutionEligibilityPredicate);
-			}
+		public DashScopeChatModel build() {
 
-			return new DashScopeChatModel(this.dashScopeApi, this.defaultOptions, DEFAULT_TOOL_CALLING_MANAGER,
+			DashScopeChatModel chatModel = new DashScopeChatModel(this.dashScopeApi, this.defaultOptions,
+					this.toolCallingManager != null ? this.toolCallingManager : DEFAULT_TOOL_CALLING_MANAGER,
 					this.retryTemplate, this.observationRegistry, this.toolExecutionEligibilityPredicate);
+			chatModel.setResponseCache(this.responseCache);
+			return chatModel;
 		}
 
 	}
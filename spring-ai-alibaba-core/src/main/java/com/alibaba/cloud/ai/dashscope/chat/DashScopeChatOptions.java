@@ -144,6 +144,11 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
    */
   private @JsonProperty("parallel_tool_calls") Boolean parallelToolCalls;
 
+  /**
+   * Whether the response cache of the chat model, if any, is used. Set to false to always call the model.
+   */
+  private @JsonProperty("enable_response_cache") Boolean enableResponseCache;
+
   /**
    * Optional HTTP headers to be added to the chat completion request.
    */
@@ -263,6 +268,14 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
       this.parallelToolCalls = parallelToolCalls;
   }
 
+  public Boolean getEnableResponseCache() {
+    return enableResponseCache;
+  }
+
+  public void setEnableResponseCache(Boolean enableResponseCache) {
+    this.enableResponseCache = enableResponseCache;
+  }
+
   public void setHttpHeaders(Map<String, String> httpHeaders) {
     this.httpHeaders = httpHeaders;
   }
@@ -461,6 +474,11 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
       return this;
     }
 
+    public DashscopeChatOptionsBuilder withEnableResponseCache(Boolean enableResponseCache) {
+      this.options.enableResponseCache = enableResponseCache;
+      return this;
+    }
+
     public DashscopeChatOptionsBuilder withHttpHeaders(Map<String, String> httpHeaders) {
       this.options.httpHeaders = httpHeaders;
       return this;
@@ -612,6 +630,7 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
             .withVlHighResolutionImages(fromOptions.getVlHighResolutionImages())
             .withEnableThinking(fromOptions.getEnableThinking())
             .withParallelToolCalls(fromOptions.getParallelToolCalls())
+            .withEnableResponseCache(fromOptions.getEnableResponseCache())
             .withSearchOptions(fromOptions.getSearchOptions())
             .withHttpHeaders(fromOptions.getHttpHeaders())
             .build();
@@ -645,6 +664,7 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
             Objects.equals(multiModel, that.multiModel) &&
             Objects.equals(searchOptions, that.searchOptions) &&
             Objects.equals(parallelToolCalls, that.parallelToolCalls) &&
+            Objects.equals(enableResponseCache, that.enableResponseCache) &&
             Objects.equals(httpHeaders, that.httpHeaders) &&
             Objects.equals(toolContext, that.toolContext);
   }
@@ -654,7 +674,8 @@ public class DashScopeChatOptions implements ToolCallingChatOptions {
     return Objects.hash(model, stream, temperature, seed, topP, topK, stop, enableSearch,
             responseFormat, incrementalOutput, repetitionPenalty, tools, toolChoice,
             vlHighResolutionImages, enableThinking, toolCallbacks, toolNames,
-            internalToolExecutionEnabled, multiModel, searchOptions, parallelToolCalls, httpHeaders, toolContext);
+            internalToolExecutionEnabled, multiModel, searchOptions, parallelToolCalls, enableResponseCache, httpHeaders,
+            toolContext);
   }
 
   @Override
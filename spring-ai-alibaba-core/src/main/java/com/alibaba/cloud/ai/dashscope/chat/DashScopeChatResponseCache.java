@@ -0,0 +1,579 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.chat;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletion;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionFinishReason;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput.Choice;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionRequest;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.TokenUsage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches the completions of a {@link DashScopeChatModel}, so that repeated prompts are
+ * answered without calling DashScope. Completions are kept for {@code ttl} after they are
+ * received, up to {@code maximumSize} of them.
+ *
+ * <p>
+ * In exact mode, a completion is reused for the same request: the SHA-256 hash of the
+ * request with its keys sorted and of its additional HTTP headers, such as the workspace,
+ * ignoring whether it is streamed. A completion received with {@code call} is therefore
+ * replayed to {@code stream}, as a single chunk, and the other way around. Only streams
+ * of text ending with {@code stop} are cached.
+ * </p>
+ *
+ * <p>
+ * Semantic mode is enabled by giving an {@link EmbeddingModel}. A request missing from
+ * the cache then reuses the completion of a request which only differs by its last user
+ * message, when the cosine similarity of the embeddings of both messages is at least
+ * {@code similarityThreshold}. Requests with tools, or whose last message is not a text
+ * user message, are only matched exactly. The embeddings are searched in-process,
+ * exhaustively, and at most {@code maximumSize} of them are kept, the oldest being
+ * discarded first.
+ * </p>
+ *
+ * <p>
+ * When a {@link MeterRegistry} is given, lookups are counted in {@value #CACHE_METRIC}
+ * tagged with the {@code mode} ({@code exact} or {@code semantic}) and the
+ * {@code result} ({@code hit} or {@code miss}).
+ * </p>
+ */
+public final class DashScopeChatResponseCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(DashScopeChatResponseCache.class);
+
+	public static final String CACHE_METRIC = "spring.ai.alibaba.dashscope.chat.cache";
+
+	public static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+	public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+	public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.95;
+
+	private static final ObjectMapper CANONICAL_MAPPER = ModelOptionsUtils.OBJECT_MAPPER.copy()
+		.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+	};
+
+	private static final Lookup MISS = new Lookup(null, null);
+
+	private final Cache<String, ChatCompletion> completions;
+
+	private final EmbeddingModel embeddingModel;
+
+	private final double similarityThreshold;
+
+	private final long maximumSize;
+
+	/**
+	 * The embeddings of the last user messages, by the hash of the rest of the request.
+	 */
+	private final Cache<String, Deque<SemanticEntry>> semanticIndexes;
+
+	/**
+	 * All the embeddings of the semantic indexes, oldest first.
+	 */
+	private final Deque<SemanticEntry> semanticEntries = new ArrayDeque<>();
+
+	private final Metrics metrics;
+
+	private DashScopeChatResponseCache(Builder builder) {
+		this.completions = Caffeine.newBuilder()
+			.maximumSize(builder.maximumSize)
+			.expireAfterWrite(builder.ttl)
+			.build();
+		this.embeddingModel = builder.embeddingModel;
+		this.similarityThreshold = builder.similarityThreshold;
+		this.maximumSize = builder.maximumSize;
+		this.semanticIndexes = this.embeddingModel == null ? null
+				: Caffeine.newBuilder().maximumSize(builder.maximumSize).expireAfterAccess(builder.ttl).build();
+		this.metrics = builder.meterRegistry == null ? null : new Metrics(builder.meterRegistry);
+	}
+
+	/**
+	 * Returns the cached completion of a request, or the given one, which is cached.
+	 * @param request the request
+	 * @param headers the additional HTTP headers of the request
+	 * @param completion the completion of the request by DashScope
+	 * @return the completion
+	 */
+	Mono<ChatCompletion> call(ChatCompletionRequest request, MultiValueMap<String, String> headers,
+			Mono<ChatCompletion> completion) {
+		return Mono.defer(() -> {
+			RequestKey key = key(request, headers);
+			return lookup(key).flatMap(lookup -> lookup.hit() != null ? Mono.just(lookup.hit())
+					: completion.doOnNext(result -> put(key, lookup.vector(), result)));
+		});
+	}
+
+	/**
+	 * Replays the cached completion of a request as a single chunk, or returns the given
+	 * chunks, which are cached once complete.
+	 * @param request the request
+	 * @param headers the additional HTTP headers of the request
+	 * @param chunks the chunks streamed by DashScope
+	 * @return the chunks
+	 */
+	Flux<ChatCompletionChunk> stream(ChatCompletionRequest request, MultiValueMap<String, String> headers,
+			Flux<ChatCompletionChunk> chunks) {
+		return Flux.defer(() -> {
+			RequestKey key = key(request, headers);
+			boolean incremental = request.parameters() != null
+					&& Boolean.TRUE.equals(request.parameters().incrementalOutput());
+			return lookup(key).flatMapMany(lookup -> {
+				if (lookup.hit() != null) {
+					ChatCompletion hit = lookup.hit();
+					return Flux.just(new ChatCompletionChunk(hit.requestId(), hit.output(), hit.usage()));
+				}
+				StreamAccumulator accumulator = new StreamAccumulator(incremental);
+				return chunks.doOnNext(accumulator::add).doOnComplete(() -> {
+					ChatCompletion completion = accumulator.completion();
+					if (completion != null) {
+						put(key, lookup.vector(), completion);
+					}
+				});
+			});
+		});
+	}
+
+	private Mono<Lookup> lookup(RequestKey key) {
+		ChatCompletion cached = this.completions.getIfPresent(key.exact());
+		record(this.metrics == null ? null : cached != null ? this.metrics.exactHits : this.metrics.exactMisses);
+		if (cached != null) {
+			return Mono.just(new Lookup(cached, null));
+		}
+		if (key.semanticText() == null) {
+			return Mono.just(MISS);
+		}
+		return this.embeddingModel.embed(key.semanticText()).map(embedding -> {
+			float[] vector = normalize(embedding);
+			ChatCompletion similar = vector != null ? findSimilar(key.partition(), vector) : null;
+			record(this.metrics == null ? null
+					: similar != null ? this.metrics.semanticHits : this.metrics.semanticMisses);
+			return new Lookup(similar, vector);
+		}).defaultIfEmpty(MISS).onErrorResume(ex -> {
+			logger.warn("Failed to embed the prompt, looking up the response cache by exact match only", ex);
+			return Mono.just(MISS);
+		});
+	}
+
+	private ChatCompletion findSimilar(String partition, float[] vector) {
+		Deque<SemanticEntry> index = this.semanticIndexes.getIfPresent(partition);
+		if (index == null) {
+			return null;
+		}
+		ChatCompletion best = null;
+		double bestSimilarity = this.similarityThreshold;
+		synchronized (index) {
+			Iterator<SemanticEntry> entries = index.iterator();
+			while (entries.hasNext()) {
+				SemanticEntry entry = entries.next();
+				ChatCompletion completion = this.completions.getIfPresent(entry.key());
+				if (completion == null) {
+					// expired or evicted
+					entries.remove();
+					continue;
+				}
+				double similarity = dot(entry.vector(), vector);
+				if (similarity >= bestSimilarity) {
+					best = completion;
+					bestSimilarity = similarity;
+				}
+			}
+		}
+		return best;
+	}
+
+	private void put(RequestKey key, float[] vector, ChatCompletion completion) {
+		if (completion.output() == null || CollectionUtils.isEmpty(completion.output().choices())) {
+			return;
+		}
+		this.completions.put(key.exact(), completion);
+		if (vector != null) {
+			SemanticEntry entry = new SemanticEntry(key.partition(), vector, key.exact());
+			Deque<SemanticEntry> index = this.semanticIndexes.get(key.partition(), partition -> new ArrayDeque<>());
+			synchronized (index) {
+				index.addLast(entry);
+			}
+			SemanticEntry evicted = null;
+			synchronized (this.semanticEntries) {
+				this.semanticEntries.addLast(entry);
+				if (this.semanticEntries.size() > this.maximumSize) {
+					evicted = this.semanticEntries.removeFirst();
+				}
+			}
+			if (evicted != null) {
+				remove(evicted);
+			}
+		}
+	}
+
+	private void remove(SemanticEntry entry) {
+		Deque<SemanticEntry> index = this.semanticIndexes.getIfPresent(entry.partition());
+		if (index != null) {
+			synchronized (index) {
+				index.remove(entry);
+			}
+		}
+	}
+
+	private RequestKey key(ChatCompletionRequest request, MultiValueMap<String, String> headers) {
+		Map<String, Object> tree = CANONICAL_MAPPER.convertValue(request, MAP_TYPE);
+		// whether the completion is streamed does not change it
+		tree.remove("stream");
+		if (tree.get("parameters") instanceof Map<?, ?> parameters) {
+			parameters.remove("stream");
+			parameters.remove("incremental_output");
+		}
+		tree.put("multi_model", request.multiModel());
+		// the headers select the workspace, among others
+		if (!CollectionUtils.isEmpty(headers)) {
+			Map<String, Object> names = new TreeMap<>();
+			headers.forEach((name, values) -> names.put(name.toLowerCase(Locale.ROOT), values));
+			tree.put("http_headers", names);
+		}
+		String exact = hash(tree);
+
+		String semanticText = semanticText(request);
+		if (semanticText == null) {
+			return new RequestKey(exact, null, null);
+		}
+		if (tree.get("input") instanceof Map<?, ?> input && input.get("messages") instanceof List<?> messages) {
+			messages.remove(messages.size() - 1);
+		}
+		return new RequestKey(exact, hash(tree), semanticText);
+	}
+
+	private String semanticText(ChatCompletionRequest request) {
+		if (this.embeddingModel == null || request.input() == null
+				|| CollectionUtils.isEmpty(request.input().messages())) {
+			return null;
+		}
+		if (request.parameters() != null && !CollectionUtils.isEmpty(request.parameters().tools())) {
+			return null;
+		}
+		List<ChatCompletionMessage> messages = request.input().messages();
+		ChatCompletionMessage last = messages.get(messages.size() - 1);
+		return last.role() == ChatCompletionMessage.Role.USER && last.rawContent() instanceof String text
+				&& StringUtils.hasText(text) ? text : null;
+	}
+
+	private static String hash(Map<String, Object> tree) {
+		try {
+			return DigestUtils.sha256Hex(CANONICAL_MAPPER.writeValueAsBytes(tree));
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to serialize the chat completion request", e);
+		}
+	}
+
+	private static float[] normalize(float[] vector) {
+		double norm = Math.sqrt(dot(vector, vector));
+		if (norm == 0) {
+			return null;
+		}
+		float[] unit = new float[vector.length];
+		for (int i = 0; i < vector.length; i++) {
+			unit[i] = (float) (vector[i] / norm);
+		}
+		return unit;
+	}
+
+	private static double dot(float[] a, float[] b) {
+		if (a.length != b.length) {
+			return 0;
+		}
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	private static void record(Counter counter) {
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
+	/**
+	 * Discards all cached completions.
+	 */
+	public void invalidateAll() {
+		this.completions.invalidateAll();
+		if (this.semanticIndexes != null) {
+			this.semanticIndexes.invalidateAll();
+			synchronized (this.semanticEntries) {
+				this.semanticEntries.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of cached completions.
+	 * @return the estimated number of completions
+	 */
+	public long estimatedSize() {
+		return this.completions.estimatedSize();
+	}
+
+	/**
+	 * Returns the number of embeddings kept for semantic matching.
+	 * @return the number of embeddings
+	 */
+	int semanticEntryCount() {
+		synchronized (this.semanticEntries) {
+			return this.semanticEntries.size();
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @param exact the hash of the request
+	 * @param partition the hash of the request without its last message, if semantic
+	 * @param semanticText the text of the last message, if semantic
+	 */
+	private record RequestKey(String exact, String partition, String semanticText) {
+	}
+
+	/**
+	 * @param hit the cached completion, if any
+	 * @param vector the normalized embedding of the request, if semantic
+	 */
+	private record Lookup(ChatCompletion hit, float[] vector) {
+	}
+
+	/**
+	 * @param partition the partition of the request
+	 * @param vector the normalized embedding of its last message
+	 * @param key the hash of the request
+	 */
+	private record SemanticEntry(String partition, float[] vector, String key) {
+	}
+
+	/**
+	 * Rebuilds the completion of a stream of text, from deltas or from cumulative chunks.
+	 */
+	private static final class StreamAccumulator {
+
+		private final boolean incremental;
+
+		private final StringBuilder content = new StringBuilder();
+
+		private final StringBuilder reasoningContent = new StringBuilder();
+
+		private String requestId;
+
+		private ChatCompletionFinishReason finishReason;
+
+		private TokenUsage usage;
+
+		private boolean cacheable = true;
+
+		StreamAccumulator(boolean incremental) {
+			this.incremental = incremental;
+		}
+
+		void add(ChatCompletionChunk chunk) {
+			if (!this.cacheable) {
+				return;
+			}
+			if (this.requestId == null) {
+				this.requestId = chunk.requestId();
+			}
+			if (chunk.usage() != null) {
+				this.usage = chunk.usage();
+			}
+			if (chunk.output() == null || CollectionUtils.isEmpty(chunk.output().choices())) {
+				return;
+			}
+			if (chunk.output().choices().size() > 1) {
+				this.cacheable = false;
+				return;
+			}
+			Choice choice = chunk.output().choices().get(0);
+			if (choice.finishReason() != null && choice.finishReason() != ChatCompletionFinishReason.NULL) {
+				this.finishReason = choice.finishReason();
+			}
+			ChatCompletionMessage message = choice.message();
+			if (message == null) {
+				return;
+			}
+			if (!CollectionUtils.isEmpty(message.toolCalls())
+					|| (message.rawContent() != null && !(message.rawContent() instanceof String))) {
+				this.cacheable = false;
+				return;
+			}
+			append(this.content, (String) message.rawContent());
+			append(this.reasoningContent, message.reasoningContent());
+		}
+
+		private void append(StringBuilder text, String value) {
+			if (value == null) {
+				return;
+			}
+			if (!this.incremental) {
+				text.setLength(0);
+			}
+			text.append(value);
+		}
+
+		ChatCompletion completion() {
+			if (!this.cacheable || this.finishReason != ChatCompletionFinishReason.STOP) {
+				return null;
+			}
+			ChatCompletionMessage message = new ChatCompletionMessage(this.content.toString(),
+					ChatCompletionMessage.Role.ASSISTANT, null, null, null,
+					this.reasoningContent.isEmpty() ? null : this.reasoningContent.toString());
+			return new ChatCompletion(this.requestId,
+					new ChatCompletionOutput(null, List.of(new Choice(this.finishReason, message))), this.usage);
+		}
+
+	}
+
+	private static final class Metrics {
+
+		private final Counter exactHits;
+
+		private final Counter exactMisses;
+
+		private final Counter semanticHits;
+
+		private final Counter semanticMisses;
+
+		Metrics(MeterRegistry registry) {
+			this.exactHits = counter(registry, "exact", "hit");
+			this.exactMisses = counter(registry, "exact", "miss");
+			this.semanticHits = counter(registry, "semantic", "hit");
+			this.semanticMisses = counter(registry, "semantic", "miss");
+		}
+
+		private static Counter counter(MeterRegistry registry, String mode, String result) {
+			return Counter.builder(CACHE_METRIC).tag("mode", mode).tag("result", result).register(registry);
+		}
+
+	}
+
+	public static final class Builder {
+
+		private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+		private Duration ttl = DEFAULT_TTL;
+
+		private EmbeddingModel embeddingModel;
+
+		private double similarityThreshold = DEFAULT_SIMILARITY_THRESHOLD;
+
+		private MeterRegistry meterRegistry;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the maximum number of cached completions, and of embeddings kept for
+		 * semantic matching.
+		 * @param maximumSize the maximum size, {@value #DEFAULT_MAXIMUM_SIZE} by default
+		 * @return this builder
+		 */
+		public Builder maximumSize(long maximumSize) {
+			Assert.isTrue(maximumSize >= 0, "maximumSize must not be negative");
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		/**
+		 * Sets how long completions are cached once received.
+		 * @param ttl the time to live, 10 minutes by default
+		 * @return this builder
+		 */
+		public Builder ttl(Duration ttl) {
+			Assert.notNull(ttl, "ttl must not be null");
+			Assert.isTrue(ttl.isPositive(), "ttl must be positive");
+			this.ttl = ttl;
+			return this;
+		}
+
+		/**
+		 * Enables semantic matching, with the model embedding the last user messages.
+		 * @param embeddingModel the embedding model, none by default for exact matching
+		 * only
+		 * @return this builder
+		 */
+		public Builder embeddingModel(EmbeddingModel embeddingModel) {
+			this.embeddingModel = embeddingModel;
+			return this;
+		}
+
+		/**
+		 * Sets the minimum cosine similarity of semantic matches.
+		 * @param similarityThreshold the threshold, {@value #DEFAULT_SIMILARITY_THRESHOLD}
+		 * by default
+		 * @return this builder
+		 */
+		public Builder similarityThreshold(double similarityThreshold) {
+			Assert.isTrue(similarityThreshold > 0 && similarityThreshold <= 1,
+					"similarityThreshold must be in (0, 1]");
+			this.similarityThreshold = similarityThreshold;
+			return this;
+		}
+
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+			return this;
+		}
+
+		public DashScopeChatResponseCache build() {
+			return new DashScopeChatResponseCache(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Coalesces concurrent single-text embedding calls into batched requests. Texts submitted
+ * within {@code window} of the first pending one are sent together, unless the batch
+ * reaches {@code maxBatchSize} texts or {@code maxBatchTokens} tokens first, in which case
+ * it is sent right away. Identical texts that are pending or in flight share a single
+ * request slot and result.
+ *
+ * <p>
+ * Tokens are estimated by the length of the texts, an upper bound of their token count.
+ * When a {@link MeterRegistry} is given, the size of the sent batches is recorded in the
+ * {@value #BATCH_SIZE_METRIC} distribution summary.
+ * </p>
+ */
+public final class DashScopeEmbeddingBatcher {
+
+	public static final String BATCH_SIZE_METRIC = "spring.ai.alibaba.dashscope.embedding.batch.size";
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofMillis(5);
+
+	/**
+	 * The per-request text limit of {@code text-embedding-v3} and {@code v4}; v1 and v2
+	 * accept up to 25 texts.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 10;
+
+	private final Function<List<String>, Mono<EmbeddingResponse>> batchCall;
+
+	private final Duration window;
+
+	private final int maxBatchSize;
+
+	private final int maxBatchTokens;
+
+	private final Scheduler scheduler;
+
+	private final DistributionSummary batchSizes;
+
+	/**
+	 * The results of the texts pending or in flight, shared by identical submissions.
+	 */
+	private final Map<String, Sinks.One<float[]>> inFlight = new HashMap<>();
+
+	private Batch pending;
+
+	private DashScopeEmbeddingBatcher(Function<List<String>, Mono<EmbeddingResponse>> batchCall, Builder builder) {
+		this.batchCall = batchCall;
+		this.window = builder.window;
+		this.maxBatchSize = builder.maxBatchSize;
+		this.maxBatchTokens = builder.maxBatchTokens;
+		this.scheduler = builder.scheduler;
+		this.batchSizes = builder.meterRegistry == null ? null
+				: DistributionSummary.builder(BATCH_SIZE_METRIC)
+					.description("Number of texts per DashScope embedding request")
+					.publishPercentileHistogram()
+					.register(builder.meterRegistry);
+	}
+
+	/**
+	 * Embeds a text as part of the next batch. Nothing is submitted until the returned
+	 * {@link Mono} is subscribed.
+	 * @param text the text to embed
+	 * @return the embedding of the text
+	 */
+	public Mono<float[]> embed(String text) {
+		Assert.notNull(text, "Text must not be null");
+		return Mono.defer(() -> submit(text));
+	}
+
+	private Mono<float[]> submit(String text) {
+		List<Batch> ready = new ArrayList<>(2);
+		Sinks.One<float[]> sink;
+		synchronized (this) {
+			sink = this.inFlight.get(text);
+			if (sink != null) {
+				return sink.asMono();
+			}
+			sink = Sinks.one();
+			this.inFlight.put(text, sink);
+
+			if (this.pending != null && this.pending.tokens + text.length() > this.maxBatchTokens) {
+				ready.add(this.pending);
+				this.pending = null;
+			}
+			if (this.pending == null) {
+				Batch batch = new Batch();
+				this.pending = batch;
+				this.scheduler.schedule(() -> flush(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			this.pending.add(text, sink);
+			if (this.pending.sinks.size() >= this.maxBatchSize) {
+				ready.add(this.pending);
+				this.pending = null;
+			}
+		}
+		ready.forEach(this::send);
+		return sink.asMono();
+	}
+
+	private void flush(Batch batch) {
+		synchronized (this) {
+			if (this.pending != batch) {
+				// already sent because it was full
+				return;
+			}
+			this.pending = null;
+		}
+		send(batch);
+	}
+
+	private void send(Batch batch) {
+		List<String> texts = new ArrayList<>(batch.sinks.keySet());
+		if (this.batchSizes != null) {
+			this.batchSizes.record(texts.size());
+		}
+		Mono.defer(() -> this.batchCall.apply(texts))
+			.switchIfEmpty(Mono.error(() -> new IllegalStateException(
+					"No embeddings returned for " + texts.size() + " texts")))
+			.subscribe(response -> complete(batch, response), error -> fail(batch, error));
+	}
+
+	private void complete(Batch batch, EmbeddingResponse response) {
+		float[][] embeddings = new float[batch.sinks.size()][];
+		for (Embedding embedding : response.getResults()) {
+			Integer index = embedding.getIndex();
+			if (index != null && index >= 0 && index < embeddings.length) {
+				embeddings[index] = embedding.getOutput();
+			}
+		}
+		int index = 0;
+		for (Map.Entry<String, Sinks.One<float[]>> entry : batch.sinks.entrySet()) {
+			release(entry.getKey());
+			float[] embedding = embeddings[index++];
+			if (embedding != null) {
+				entry.getValue().tryEmitValue(embedding);
+			}
+			else {
+				entry.getValue().tryEmitError(new IllegalStateException("No embedding returned for text"));
+			}
+		}
+	}
+
+	private void fail(Batch batch, Throwable error) {
+		for (Map.Entry<String, Sinks.One<float[]>> entry : batch.sinks.entrySet()) {
+			release(entry.getKey());
+			entry.getValue().tryEmitError(error);
+		}
+	}
+
+	private synchronized void release(String text) {
+		this.inFlight.remove(text);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static final class Batch {
+
+		private final Map<String, Sinks.One<float[]>> sinks = new LinkedHashMap<>();
+
+		private long tokens;
+
+		void add(String text, Sinks.One<float[]> sink) {
+			this.sinks.put(text, sink);
+			this.tokens += text.length();
+		}
+
+	}
+
+	public static final class Builder {
+
+		private Duration window = DEFAULT_WINDOW;
+
+		private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+		private int maxBatchTokens = Integer.MAX_VALUE;
+
+		private Scheduler scheduler = Schedulers.parallel();
+
+		private MeterRegistry meterRegistry;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets how long the first text of a batch waits for others.
+		 * @param window the batching window, 5 ms by default
+		 * @return this builder
+		 */
+		public Builder window(Duration window) {
+			Assert.notNull(window, "window must not be null");
+			Assert.isTrue(!window.isNegative(), "window must not be negative");
+			this.window = window;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of texts per request.
+		 * @param maxBatchSize the maximum batch size, {@value #DEFAULT_MAX_BATCH_SIZE}
+		 * by default
+		 * @return this builder
+		 */
+		public Builder maxBatchSize(int maxBatchSize) {
+			Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+			this.maxBatchSize = maxBatchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum estimated number of tokens per request. A single text larger
+		 * than this is still sent, on its own.
+		 * @param maxBatchTokens the maximum batch tokens, unbounded by default
+		 * @return this builder
+		 */
+		public Builder maxBatchTokens(int maxBatchTokens) {
+			Assert.isTrue(maxBatchTokens > 0, "maxBatchTokens must be positive");
+			this.maxBatchTokens = maxBatchTokens;
+			return this;
+		}
+
+		public Builder scheduler(Scheduler scheduler) {
+			Assert.notNull(scheduler, "scheduler must not be null");
+			this.scheduler = scheduler;
+			return this;
+		}
+
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+			return this;
+		}
+
+		/**
+		 * Creates a batcher sending its batches with the given call.
+		 * @param batchCall embeds a list of texts, the index of each embedding being the
+		 * index of its text
+		 * @return the batcher
+		 */
+		public DashScopeEmbeddingBatcher build(Function<List<String>, Mono<EmbeddingResponse>> batchCall) {
+			Assert.notNull(batchCall, "batchCall must not be null");
+			return new DashScopeEmbeddingBatcher(batchCall, this);
+		}
+
+	}
+
+}
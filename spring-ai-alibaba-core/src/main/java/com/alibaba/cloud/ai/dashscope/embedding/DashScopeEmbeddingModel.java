@@ -78,6 +78,11 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 	 */
 	private EmbeddingModelObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
 
+	/**
+	 * Coalesces single-text calls, if batching is enabled.
+	 */
+	private DashScopeEmbeddingBatcher batcher;
+
 	public DashScopeEmbeddingModel(DashScopeApi dashScopeApi) {
 		this(dashScopeApi, MetadataMode.EMBED);
 	}
@@ -121,6 +126,14 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 		return this.embed(document.getFormattedContent(this.metadataMode));
 	}
 
+	@Override
+	public Mono<float[]> embed(String text) {
+		if (this.batcher != null) {
+			return this.batcher.embed(text);
+		}
+		return super.embed(text);
+	}
+
 	@Override
 	public Mono<EmbeddingResponse> call(EmbeddingRequest request) {
 		// Before moving any further, build the final request EmbeddingRequest,
@@ -212,6 +225,16 @@ public class DashScopeEmbeddingModel extends AbstractEmbeddingModel {
 		return new EmbeddingResponseMetadata(model, usage, map);
 	}
 
+	/**
+	 * Coalesce concurrent single-text calls, such as {@link #embed(Document)}, into
+	 * batched requests using the default options.
+	 * @param batching the batching settings, or {@code null} to send each text on its own
+	 */
+	public void setBatching(DashScopeEmbeddingBatcher.Builder batching) {
+		this.batcher = batching == null ? null
+				: batching.build(texts -> this.call(new EmbeddingRequest(texts, this.defaultOptions)));
+	}
+
 	/**
 	 * Use the provided convention for reporting observation data
 	 * @param observationConvention The provided convention
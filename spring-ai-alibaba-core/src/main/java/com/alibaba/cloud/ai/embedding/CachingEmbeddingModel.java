@@ -0,0 +1,329 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.embedding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.AbstractEmbeddingModel;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * An {@link EmbeddingModel} caching the vectors of another one, keyed by the SHA-256
+ * hash of the model, dimension, text type and text. Only the texts missing from the cache
+ * are sent to the delegate model, in a single request.
+ *
+ * <p>
+ * Vectors are kept in a bounded in-heap tier, evicting with Caffeine's W-TinyLFU policy,
+ * and optionally in a {@link MappedEmbeddingStore} so that the cache survives restarts.
+ * The disk tier is read and written on the bounded elastic scheduler, and only when the
+ * heap tier misses. Callers get copies of the cached vectors.
+ * When a {@link MeterRegistry} is given, lookups are counted in {@value #CACHE_METRIC}
+ * tagged with the {@code tier} ({@code heap} or {@code disk}) and the {@code result}
+ * ({@code hit} or {@code miss}), and heap evictions in {@value #EVICTION_METRIC}.
+ * </p>
+ *
+ * <p>
+ * The options of a request are resolved against {@code defaultOptions}, which should be
+ * the default options of the delegate model, so that requests with and without explicit
+ * options share entries.
+ * </p>
+ */
+public class CachingEmbeddingModel extends AbstractEmbeddingModel {
+
+	public static final String CACHE_METRIC = "spring.ai.alibaba.embedding.cache";
+
+	public static final String EVICTION_METRIC = "spring.ai.alibaba.embedding.cache.evictions";
+
+	public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+	private final EmbeddingModel delegate;
+
+	private final EmbeddingOptions defaultOptions;
+
+	private final MetadataMode metadataMode;
+
+	private final Cache<String, float[]> heap;
+
+	private final MappedEmbeddingStore store;
+
+	private final Metrics metrics;
+
+	protected CachingEmbeddingModel(Builder builder) {
+		this.delegate = builder.delegate;
+		this.defaultOptions = builder.defaultOptions;
+		this.metadataMode = builder.metadataMode;
+		this.store = builder.store;
+		this.metrics = builder.meterRegistry == null ? null : new Metrics(builder.meterRegistry);
+		Caffeine<Object, Object> caffeine = Caffeine.newBuilder().maximumSize(builder.maximumSize);
+		if (this.metrics != null) {
+			caffeine.removalListener((key, value, cause) -> {
+				if (cause.wasEvicted()) {
+					this.metrics.evictions.increment();
+				}
+			});
+		}
+		this.heap = caffeine.build();
+	}
+
+	@Override
+	public Mono<float[]> embed(Document document) {
+		Assert.notNull(document, "Document must not be null");
+		return this.embed(document.getFormattedContent(this.metadataMode));
+	}
+
+	@Override
+	public Mono<EmbeddingResponse> call(EmbeddingRequest request) {
+		String keyPrefix = keyPrefix(request.getOptions());
+		List<String> texts = request.getInstructions();
+		String[] keys = new String[texts.size()];
+		float[][] vectors = new float[texts.size()][];
+		boolean heapMiss = false;
+		for (int i = 0; i < texts.size(); i++) {
+			keys[i] = DigestUtils.sha256Hex(keyPrefix + texts.get(i));
+			vectors[i] = this.heap.getIfPresent(keys[i]);
+			record(this.metrics == null ? null : vectors[i] != null ? this.metrics.heapHits : this.metrics.heapMisses);
+			heapMiss |= vectors[i] == null;
+		}
+		if (!heapMiss || this.store == null) {
+			return embedMissing(request, keys, vectors);
+		}
+		// the disk tier blocks on page faults and on its lock
+		return Mono.fromCallable(() -> {
+			for (int i = 0; i < keys.length; i++) {
+				if (vectors[i] == null) {
+					vectors[i] = diskLookup(keys[i]);
+				}
+			}
+			return vectors;
+		}).subscribeOn(Schedulers.boundedElastic()).flatMap(found -> embedMissing(request, keys, found));
+	}
+
+	/**
+	 * Sends the texts without a vector to the delegate model, and caches their vectors.
+	 */
+	private Mono<EmbeddingResponse> embedMissing(EmbeddingRequest request, String[] keys, float[][] vectors) {
+		List<String> texts = request.getInstructions();
+		// the texts to embed, each with the indexes of the request it answers
+		Map<String, List<Integer>> misses = new LinkedHashMap<>();
+		for (int i = 0; i < vectors.length; i++) {
+			if (vectors[i] == null) {
+				misses.computeIfAbsent(texts.get(i), text -> new ArrayList<>(1)).add(i);
+			}
+		}
+		if (misses.isEmpty()) {
+			return Mono.just(response(vectors, new EmbeddingResponseMetadata()));
+		}
+
+		List<String> missingTexts = new ArrayList<>(misses.keySet());
+		return this.delegate.call(new EmbeddingRequest(missingTexts, request.getOptions())).flatMap(response -> {
+			Map<String, float[]> embedded = new LinkedHashMap<>();
+			for (Embedding embedding : response.getResults()) {
+				Integer index = embedding.getIndex();
+				if (index == null || index < 0 || index >= missingTexts.size()) {
+					continue;
+				}
+				for (int requestIndex : misses.get(missingTexts.get(index))) {
+					vectors[requestIndex] = embedding.getOutput();
+				}
+				String key = keys[misses.get(missingTexts.get(index)).get(0)];
+				this.heap.put(key, embedding.getOutput());
+				embedded.put(key, embedding.getOutput());
+			}
+			if (this.store == null || embedded.isEmpty()) {
+				return Mono.just(response(vectors, response.getMetadata()));
+			}
+			return Mono.fromCallable(() -> {
+				embedded.forEach(this.store::put);
+				return response(vectors, response.getMetadata());
+			}).subscribeOn(Schedulers.boundedElastic());
+		});
+	}
+
+	private float[] diskLookup(String key) {
+		float[] vector = this.store.get(key);
+		record(this.metrics == null ? null : vector != null ? this.metrics.diskHits : this.metrics.diskMisses);
+		if (vector != null) {
+			this.heap.put(key, vector);
+		}
+		return vector;
+	}
+
+	private static void record(Counter counter) {
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
+	/**
+	 * Returns the part of the cache key identifying the effective options of a request.
+	 */
+	private String keyPrefix(EmbeddingOptions options) {
+		String model = option(options, this.defaultOptions, EmbeddingOptions::getModel);
+		Integer dimensions = option(options, this.defaultOptions, EmbeddingOptions::getDimensions);
+		String textType = option(textTypeOptions(options), textTypeOptions(this.defaultOptions),
+				DashScopeEmbeddingOptions::getTextType);
+		return model + '\0' + dimensions + '\0' + textType + '\0';
+	}
+
+	private static DashScopeEmbeddingOptions textTypeOptions(EmbeddingOptions options) {
+		return options instanceof DashScopeEmbeddingOptions dashScopeOptions ? dashScopeOptions : null;
+	}
+
+	private static <O, T> T option(O options, O defaultOptions, Function<O, T> getter) {
+		T value = options != null ? getter.apply(options) : null;
+		return value != null || defaultOptions == null ? value : getter.apply(defaultOptions);
+	}
+
+	/**
+	 * Builds a response with copies of the vectors, so that callers cannot alter the
+	 * cached ones.
+	 */
+	private static EmbeddingResponse response(float[][] vectors, EmbeddingResponseMetadata metadata) {
+		List<Embedding> embeddings = new ArrayList<>(vectors.length);
+		for (int i = 0; i < vectors.length; i++) {
+			if (vectors[i] != null) {
+				embeddings.add(new Embedding(vectors[i].clone(), i));
+			}
+		}
+		return new EmbeddingResponse(embeddings, metadata);
+	}
+
+	/**
+	 * Returns the number of vectors in the heap tier.
+	 * @return the estimated number of vectors
+	 */
+	public long heapSize() {
+		return this.heap.estimatedSize();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static final class Metrics {
+
+		private final Counter heapHits;
+
+		private final Counter heapMisses;
+
+		private final Counter diskHits;
+
+		private final Counter diskMisses;
+
+		private final Counter evictions;
+
+		Metrics(MeterRegistry registry) {
+			this.heapHits = counter(registry, "heap", "hit");
+			this.heapMisses = counter(registry, "heap", "miss");
+			this.diskHits = counter(registry, "disk", "hit");
+			this.diskMisses = counter(registry, "disk", "miss");
+			this.evictions = Counter.builder(EVICTION_METRIC).tag("tier", "heap").register(registry);
+		}
+
+		private static Counter counter(MeterRegistry registry, String tier, String result) {
+			return Counter.builder(CACHE_METRIC).tag("tier", tier).tag("result", result).register(registry);
+		}
+
+	}
+
+	public static class Builder {
+
+		private EmbeddingModel delegate;
+
+		private EmbeddingOptions defaultOptions;
+
+		private MetadataMode metadataMode = MetadataMode.EMBED;
+
+		private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+		private MappedEmbeddingStore store;
+
+		private MeterRegistry meterRegistry;
+
+		protected Builder() {
+		}
+
+		public Builder delegate(EmbeddingModel delegate) {
+			this.delegate = delegate;
+			return this;
+		}
+
+		public Builder defaultOptions(EmbeddingOptions defaultOptions) {
+			this.defaultOptions = defaultOptions;
+			return this;
+		}
+
+		public Builder metadataMode(MetadataMode metadataMode) {
+			this.metadataMode = metadataMode;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of vectors of the heap tier.
+		 * @param maximumSize the maximum size, {@value #DEFAULT_MAXIMUM_SIZE} by default
+		 * @return this builder
+		 */
+		public Builder maximumSize(long maximumSize) {
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		/**
+		 * Sets the on-disk tier. The store is not closed by the model.
+		 * @param store the store, none by default
+		 * @return this builder
+		 */
+		public Builder store(MappedEmbeddingStore store) {
+			this.store = store;
+			return this;
+		}
+
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.meterRegistry = meterRegistry;
+			return this;
+		}
+
+		public CachingEmbeddingModel build() {
+			Assert.notNull(this.delegate, "delegate must not be null");
+			Assert.notNull(this.metadataMode, "metadataMode must not be null");
+			Assert.isTrue(this.maximumSize >= 0, "maximumSize must not be negative");
+			return new CachingEmbeddingModel(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.embedding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * An on-disk embedding store, keeping the vectors of a {@link CachingEmbeddingModel}
+ * across restarts. Vectors are appended to a memory-mapped file as packed 32-bit or
+ * 16-bit floats, and the offsets of the entries are indexed in heap when the file is
+ * opened.
+ *
+ * <p>
+ * Each entry is a marker byte, the 32-byte SHA-256 key, the precision and dimension of
+ * the vector, then its components. The marker is written last, so an entry cut short by
+ * a crash is ignored on the next open. Once the file reaches {@code maxBytes}, new
+ * vectors are no longer stored.
+ * </p>
+ *
+ * <p>
+ * The file is locked while the store is open: another store, in this process or in
+ * another one, fails to open it until the store is closed.
+ * </p>
+ */
+public final class MappedEmbeddingStore implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedEmbeddingStore.class);
+
+	public static final long DEFAULT_MAX_BYTES = 1L << 30;
+
+	private static final int MAGIC = 0x53414543;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final int KEY_SIZE = 32;
+
+	private static final int ENTRY_HEADER_SIZE = 1 + KEY_SIZE + 1 + 4;
+
+	private static final byte ENTRY_MARKER = 1;
+
+	private static final int MIN_CAPACITY = 1 << 20;
+
+	private static final HexFormat HEX = HexFormat.of();
+
+	/**
+	 * The encoding of the stored vectors.
+	 */
+	public enum Precision {
+
+		/**
+		 * 32-bit floats, stored as is.
+		 */
+		FLOAT32(4),
+
+		/**
+		 * IEEE 754 half-precision floats, halving the size of the file at the cost of
+		 * about three significant digits.
+		 */
+		FLOAT16(2);
+
+		private final int bytes;
+
+		Precision(int bytes) {
+			this.bytes = bytes;
+		}
+
+	}
+
+	private final FileChannel channel;
+
+	private final Precision precision;
+
+	private final int maxBytes;
+
+	private final Map<String, Integer> offsets = new HashMap<>();
+
+	private MappedByteBuffer buffer;
+
+	private int end;
+
+	private boolean full;
+
+	private MappedEmbeddingStore(FileChannel channel, Precision precision, int maxBytes) {
+		this.channel = channel;
+		this.precision = precision;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Opens a store with 32-bit vectors and the default size limit, creating its file if
+	 * needed.
+	 * @param file the file of the store
+	 * @return the store
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static MappedEmbeddingStore open(Path file) throws IOException {
+		return open(file, Precision.FLOAT32, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Opens a store, creating its file if needed. Entries already in the file keep their
+	 * precision.
+	 * @param file the file of the store
+	 * @param precision the precision of the vectors stored from now on
+	 * @param maxBytes the size limit of the file, at most 2 GB
+	 * @return the store
+	 * @throws IOException if the file cannot be opened, is not an embedding store, or is
+	 * already open
+	 */
+	public static MappedEmbeddingStore open(Path file, Precision precision, long maxBytes) throws IOException {
+		Assert.notNull(file, "file must not be null");
+		Assert.notNull(precision, "precision must not be null");
+		Assert.isTrue(maxBytes > HEADER_SIZE && maxBytes <= Integer.MAX_VALUE,
+				"maxBytes must be positive and at most 2 GB");
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (!tryLock(channel)) {
+				throw new IOException("Embedding store " + file + " is already open");
+			}
+			MappedEmbeddingStore store = new MappedEmbeddingStore(channel, precision, (int) maxBytes);
+			store.load();
+			return store;
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Locks the whole file, released when the channel is closed.
+	 * @return false if the file is locked by another channel
+	 */
+	private static boolean tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock() != null;
+		}
+		catch (OverlappingFileLockException e) {
+			// locked by another channel of this process
+			return false;
+		}
+	}
+
+	private void load() throws IOException {
+		long size = this.channel.size();
+		map((int) Math.min(Math.max(size, MIN_CAPACITY), this.maxBytes));
+		if (size == 0) {
+			this.buffer.putInt(0, MAGIC);
+			this.buffer.putInt(4, VERSION);
+			this.end = HEADER_SIZE;
+			return;
+		}
+		if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+			throw new IOException("Not an embedding store file");
+		}
+		int offset = HEADER_SIZE;
+		while (offset + ENTRY_HEADER_SIZE <= this.buffer.capacity() && this.buffer.get(offset) == ENTRY_MARKER) {
+			byte[] key = new byte[KEY_SIZE];
+			this.buffer.get(offset + 1, key);
+			int length = ENTRY_HEADER_SIZE + this.buffer.getInt(offset + 1 + KEY_SIZE + 1)
+					* Precision.values()[this.buffer.get(offset + 1 + KEY_SIZE)].bytes;
+			if (offset + length > this.buffer.capacity()) {
+				break;
+			}
+			this.offsets.put(HEX.formatHex(key), offset);
+			offset += length;
+		}
+		this.end = offset;
+	}
+
+	/**
+	 * Returns the vector stored under a key.
+	 * @param key the hex SHA-256 key
+	 * @return the vector, or {@code null} if absent
+	 */
+	public synchronized float[] get(String key) {
+		Integer offset = this.offsets.get(key);
+		if (offset == null) {
+			return null;
+		}
+		Precision entryPrecision = Precision.values()[this.buffer.get(offset + 1 + KEY_SIZE)];
+		float[] vector = new float[this.buffer.getInt(offset + 1 + KEY_SIZE + 1)];
+		int position = offset + ENTRY_HEADER_SIZE;
+		for (int i = 0; i < vector.length; i++, position += entryPrecision.bytes) {
+			vector[i] = entryPrecision == Precision.FLOAT32 ? this.buffer.getFloat(position)
+					: fromHalf(this.buffer.getShort(position));
+		}
+		return vector;
+	}
+
+	/**
+	 * Stores a vector, unless its key is already present or the file is full.
+	 * @param key the hex SHA-256 key
+	 * @param vector the vector
+	 */
+	public synchronized void put(String key, float[] vector) {
+		if (this.full || this.offsets.containsKey(key)) {
+			return;
+		}
+		long length = ENTRY_HEADER_SIZE + (long) vector.length * this.precision.bytes;
+		if (this.end + length > this.maxBytes) {
+			this.full = true;
+			logger.warn("Embedding store reached its size limit of {} bytes, new vectors are not stored",
+					this.maxBytes);
+			return;
+		}
+		int offset = this.end;
+		ensureCapacity(offset + (int) length);
+		this.buffer.put(offset + 1, HEX.parseHex(key));
+		this.buffer.put(offset + 1 + KEY_SIZE, (byte) this.precision.ordinal());
+		this.buffer.putInt(offset + 1 + KEY_SIZE + 1, vector.length);
+		int position = offset + ENTRY_HEADER_SIZE;
+		for (float component : vector) {
+			if (this.precision == Precision.FLOAT32) {
+				this.buffer.putFloat(position, component);
+			}
+			else {
+				this.buffer.putShort(position, toHalf(component));
+			}
+			position += this.precision.bytes;
+		}
+		this.buffer.put(offset, ENTRY_MARKER);
+		this.offsets.put(key, offset);
+		this.end = position;
+	}
+
+	/**
+	 * Returns the number of stored vectors.
+	 * @return the number of vectors
+	 */
+	public synchronized int size() {
+		return this.offsets.size();
+	}
+
+	/**
+	 * Writes the stored vectors to the storage device.
+	 */
+	public synchronized void flush() {
+		this.buffer.force();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		flush();
+		this.channel.close();
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= this.buffer.capacity()) {
+			return;
+		}
+		int newCapacity = (int) Math.min(Math.max(2L * this.buffer.capacity(), capacity), this.maxBytes);
+		try {
+			map(newCapacity);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void map(int capacity) throws IOException {
+		this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	/**
+	 * Converts a float to the bits of the nearest half-precision float, rounding ties to
+	 * even.
+	 */
+	static short toHalf(float value) {
+		int bits = Float.floatToRawIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int exponent = (bits >>> 23) & 0xff;
+		int mantissa = bits & 0x7fffff;
+		if (exponent == 0xff) {
+			// infinity, or NaN
+			return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+		}
+		int halfExponent = exponent - 127 + 15;
+		if (halfExponent >= 0x1f) {
+			return (short) (sign | 0x7c00);
+		}
+		int half;
+		int shift;
+		if (halfExponent <= 0) {
+			if (halfExponent < -10) {
+				return (short) sign;
+			}
+			// subnormal
+			mantissa |= 0x800000;
+			shift = 14 - halfExponent;
+			half = mantissa >>> shift;
+		}
+		else {
+			shift = 13;
+			half = halfExponent << 10 | mantissa >>> shift;
+		}
+		int remainder = mantissa & ((1 << shift) - 1);
+		int halfway = 1 << (shift - 1);
+		if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+			// may carry into the exponent, which is the correct rounding
+			half++;
+		}
+		return (short) (sign | half);
+	}
+
+	/**
+	 * Converts the bits of a half-precision float to a float.
+	 */
+	static float fromHalf(short bits) {
+		int sign = (bits & 0x8000) << 16;
+		int exponent = (bits >>> 10) & 0x1f;
+		int mantissa = bits & 0x3ff;
+		if (exponent == 0x1f) {
+			return Float.intBitsToFloat(sign | 0x7f800000 | mantissa << 13);
+		}
+		if (exponent == 0) {
+			float value = mantissa * 0x1p-24f;
+			return sign != 0 ? -value : value;
+		}
+		return Float.intBitsToFloat(sign | (exponent + 112) << 23 | mantissa << 13);
+	}
+
+}
@@ -18,13 +18,17 @@ package com.alibaba.cloud.ai.tool;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationContext;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationConvention;
 import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationDocumentation;
+import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,11 +53,22 @@ import org.springframework.ai.tool.resolution.ToolCallbackResolver;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Inspired from org.springframework.ai.model.tool.DefaultToolCallingManager.
  *
+ * <p>
+ * By default the tool calls of a response are executed one after another. With a
+ * {@code maxParallelism} greater than one, up to that many calls run at the same time on
+ * the bounded elastic scheduler, and the tool responses keep the order of the tool calls.
+ * A {@link SequentialToolCallback} never runs alongside other calls. Each call is
+ * observed in its own span, and may be given a timeout, after which it fails with a
+ * {@link ToolExecutionException} handled by the {@link ToolExecutionExceptionProcessor}.
+ * </p>
+ *
  * @author Lumian
  */
 public class ObservableToolCallingManager implements ToolCallingManager {
@@ -81,6 +96,12 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 
 	private final ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
 
+	private final int maxParallelism;
+
+	private final Duration defaultToolTimeout;
+
+	private final Map<String, Duration> toolTimeouts;
+
 	// TODO Mandatory Convention as ARMS implementation until the Spring AI project
 	// officially supports for observation
 	private final ArmsToolCallingObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
@@ -88,13 +109,24 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	public ObservableToolCallingManager(ObservationRegistry observationRegistry,
 			ToolCallbackResolver toolCallbackResolver,
 			ToolExecutionExceptionProcessor toolExecutionExceptionProcessor) {
+		this(observationRegistry, toolCallbackResolver, toolExecutionExceptionProcessor, 1, null, Map.of());
+	}
+
+	public ObservableToolCallingManager(ObservationRegistry observationRegistry,
+			ToolCallbackResolver toolCallbackResolver, ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+			int maxParallelism, Duration defaultToolTimeout, Map<String, Duration> toolTimeouts) {
 		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
 		Assert.notNull(toolCallbackResolver, "toolCallbackResolver cannot be null");
 		Assert.notNull(toolExecutionExceptionProcessor, "toolCallExceptionConverter cannot be null");
+		Assert.isTrue(maxParallelism > 0, "maxParallelism must be positive");
+		Assert.notNull(toolTimeouts, "toolTimeouts cannot be null");
 
 		this.observationRegistry = observationRegistry;
 		this.toolCallbackResolver = toolCallbackResolver;
 		this.toolExecutionExceptionProcessor = toolExecutionExceptionProcessor;
+		this.maxParallelism = maxParallelism;
+		this.defaultToolTimeout = defaultToolTimeout;
+		this.toolTimeouts = Map.copyOf(toolTimeouts);
 	}
 
 	@Override
@@ -139,18 +171,16 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 
 		ToolContext toolContext = buildToolContext(prompt, assistantMessage);
 
-		return Mono.fromCallable(() -> {
-			InternalToolExecutionResult internalToolExecutionResult = executeToolCall(prompt, assistantMessage,
-					toolContext);
-
-			List<Message> conversationHistory = buildConversationHistoryAfterToolExecution(prompt.getInstructions(),
-					assistantMessage, internalToolExecutionResult.toolResponseMessage());
+		return Mono.defer(() -> executeToolCall(prompt, assistantMessage, toolContext))
+			.map(internalToolExecutionResult -> {
+				List<Message> conversationHistory = buildConversationHistoryAfterToolExecution(
+						prompt.getInstructions(), assistantMessage, internalToolExecutionResult.toolResponseMessage());
 
-			return ToolExecutionResult.builder()
-				.conversationHistory(conversationHistory)
-				.returnDirect(internalToolExecutionResult.returnDirect())
-				.build();
-		});
+				return ToolExecutionResult.builder()
+					.conversationHistory(conversationHistory)
+					.returnDirect(internalToolExecutionResult.returnDirect())
+					.build();
+			});
 	}
 
 	private static ToolContext buildToolContext(Prompt prompt, AssistantMessage assistantMessage) {
@@ -176,25 +206,23 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	}
 
 	/**
-	 * Execute the tool call and return the response message.
+	 * Execute the tool calls and return the response message.
 	 */
-	private InternalToolExecutionResult executeToolCall(Prompt prompt, AssistantMessage assistantMessage,
+	private Mono<InternalToolExecutionResult> executeToolCall(Prompt prompt, AssistantMessage assistantMessage,
 			ToolContext toolContext) {
 		List<ToolCallback> toolCallbacks = List.of();
 		if (prompt.getOptions() instanceof ToolCallingChatOptions toolCallingChatOptions) {
 			toolCallbacks = toolCallingChatOptions.getToolCallbacks();
 		}
 
-		List<ToolResponseMessage.ToolResponse> toolResponses = new ArrayList<>();
+		// consecutive calls that may run together, a sequential tool being alone
+		List<List<PendingToolCall>> batches = new ArrayList<>();
 
 		Boolean returnDirect = null;
 
 		for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
 
-			logger.debug("Executing tool call: {}", toolCall.name());
-
 			String toolName = toolCall.name();
-			String toolInputArguments = toolCall.arguments();
 
 			ToolCallback toolCallback = toolCallbacks.stream()
 				.filter(tool -> toolName.equals(tool.getToolDefinition().name()))
@@ -212,33 +240,76 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 				returnDirect = returnDirect && toolCallback.getToolMetadata().returnDirect();
 			}
 
+			PendingToolCall pendingToolCall = new PendingToolCall(toolCall, toolCallback, returnDirect);
+			if (batches.isEmpty() || toolCallback instanceof SequentialToolCallback
+					|| batches.get(batches.size() - 1).get(0).toolCallback() instanceof SequentialToolCallback) {
+				batches.add(new ArrayList<>());
+			}
+			batches.get(batches.size() - 1).add(pendingToolCall);
+		}
+
+		boolean allReturnDirect = Boolean.TRUE.equals(returnDirect);
+		return Flux.fromIterable(batches)
+			.concatMap(batch -> Flux.fromIterable(batch)
+				.flatMapSequential(pendingToolCall -> executeToolCall(pendingToolCall, toolContext),
+						this.maxParallelism))
+			.collectList()
+			.map(toolResponses -> new InternalToolExecutionResult(new ToolResponseMessage(toolResponses, Map.of()),
+					allReturnDirect));
+	}
+
+	/**
+	 * Execute a single tool call in its own observation.
+	 */
+	private Mono<ToolResponseMessage.ToolResponse> executeToolCall(PendingToolCall pendingToolCall,
+			ToolContext toolContext) {
+		AssistantMessage.ToolCall toolCall = pendingToolCall.toolCall();
+		ToolCallback toolCallback = pendingToolCall.toolCallback();
+
+		Mono<ToolResponseMessage.ToolResponse> toolResponse = Mono.deferContextual(contextView -> {
+			logger.debug("Executing tool call: {}", toolCall.name());
+
 			ArmsToolCallingObservationContext observationContext = ArmsToolCallingObservationContext.builder()
 				.toolCall(toolCall)
 				.description(toolCallback.getToolDefinition().description())
-				.returnDirect(returnDirect)
+				.returnDirect(pendingToolCall.returnDirect())
 				.build();
 
-			String toolResult = ArmsToolCallingObservationDocumentation.EXECUTE_TOOL_OPERATION
-				.observation(this.observationConvention, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext,
-						this.observationRegistry)
-				.observe(() -> {
-					String result;
-					try {
-						result = toolCallback.call(toolInputArguments, toolContext).block();
-					}
-					catch (ToolExecutionException ex) {
-						observationContext.setError(ex);
-						result = toolExecutionExceptionProcessor.process(ex);
-					}
-
-					observationContext.setToolResult(result);
-					return result;
-				});
-
-			toolResponses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolName, toolResult));
-		}
+			Observation observation = ArmsToolCallingObservationDocumentation.EXECUTE_TOOL_OPERATION.observation(
+					this.observationConvention, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext,
+					this.observationRegistry);
+
+			observation.parentObservation(contextView.getOrDefault(ObservationThreadLocalAccessor.KEY, null)).start();
+
+			Mono<String> toolResult = Mono.defer(() -> {
+				// tools doing their work when called, rather than when subscribed, see the
+				// observation as the current one
+				try (Observation.Scope scope = observation.openScope()) {
+					return toolCallback.call(toolCall.arguments(), toolContext);
+				}
+			});
+
+			Duration timeout = this.toolTimeouts.getOrDefault(toolCall.name(), this.defaultToolTimeout);
+			if (timeout != null) {
+				toolResult = toolResult.timeout(timeout,
+						Mono.error(() -> new ToolExecutionException(toolCallback.getToolDefinition(),
+								new TimeoutException(
+										"Tool call " + toolCall.name() + " did not complete within " + timeout))));
+			}
 
-		return new InternalToolExecutionResult(new ToolResponseMessage(toolResponses, Map.of()), returnDirect);
+			return toolResult.onErrorResume(ToolExecutionException.class, ex -> {
+				observationContext.setError(ex);
+				return Mono.fromCallable(() -> this.toolExecutionExceptionProcessor.process(ex));
+			})
+				.doOnNext(observationContext::setToolResult)
+				.map(result -> new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), result))
+				.defaultIfEmpty(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), null))
+				.doOnError(observation::error)
+				.doFinally(signalType -> observation.stop())
+				.contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+		});
+
+		return this.maxParallelism > 1 ? toolResponse.subscribeOn(Schedulers.boundedElastic()) : toolResponse;
 	}
 
 	/**
@@ -288,6 +359,10 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 	private record InternalToolExecutionResult(ToolResponseMessage toolResponseMessage, boolean returnDirect) {
 	}
 
+	private record PendingToolCall(AssistantMessage.ToolCall toolCall, ToolCallback toolCallback,
+			boolean returnDirect) {
+	}
+
 	public static ObservableToolCallingManager.Builder builder() {
 		return new ObservableToolCallingManager.Builder();
 	}
@@ -300,6 +375,12 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 
 		private ToolExecutionExceptionProcessor toolExecutionExceptionProcessor = DEFAULT_TOOL_EXECUTION_EXCEPTION_PROCESSOR;
 
+		private int maxParallelism = 1;
+
+		private Duration defaultToolTimeout;
+
+		private final Map<String, Duration> toolTimeouts = new HashMap<>();
+
 		private Builder() {
 		}
 
@@ -319,9 +400,43 @@ public class ObservableToolCallingManager implements ToolCallingManager {
 			return this;
 		}
 
+		/**
+		 * Sets the maximum number of tool calls executed at the same time.
+		 * @param maxParallelism the maximum parallelism, 1 by default to execute the
+		 * calls one after another
+		 * @return this builder
+		 */
+		public ObservableToolCallingManager.Builder maxParallelism(int maxParallelism) {
+			this.maxParallelism = maxParallelism;
+			return this;
+		}
+
+		/**
+		 * Sets the timeout of the calls to tools without a timeout of their own.
+		 * @param defaultToolTimeout the timeout, none by default
+		 * @return this builder
+		 */
+		public ObservableToolCallingManager.Builder defaultToolTimeout(Duration defaultToolTimeout) {
+			this.defaultToolTimeout = defaultToolTimeout;
+			return this;
+		}
+
+		/**
+		 * Sets the timeout of the calls to a tool.
+		 * @param toolName the name of the tool
+		 * @param timeout the timeout
+		 * @return this builder
+		 */
+		public ObservableToolCallingManager.Builder toolTimeout(String toolName, Duration timeout) {
+			Assert.hasText(toolName, "toolName cannot be empty");
+			Assert.notNull(timeout, "timeout cannot be null");
+			this.toolTimeouts.put(toolName, timeout);
+			return this;
+		}
+
 		public ObservableToolCallingManager build() {
 			return new ObservableToolCallingManager(observationRegistry, toolCallbackResolver,
-					toolExecutionExceptionProcessor);
+					toolExecutionExceptionProcessor, maxParallelism, defaultToolTimeout, toolTimeouts);
 		}
 
 	}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.tool;
+
+import org.springframework.ai.tool.ToolCallback;
+
+/**
+ * A {@link ToolCallback} that must not run concurrently with other tool calls, for
+ * instance because it changes state that the other tools read. When an
+ * {@link ObservableToolCallingManager} executes tool calls in parallel, such a tool waits
+ * for the calls before it to complete, runs alone, and only then are the calls after it
+ * started.
+ */
+public interface SequentialToolCallback extends ToolCallback {
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+/**
+ * Tests for ChatCompletionChunkDecoder.
+ */
+class ChatCompletionChunkDecoderTests {
+
+	private static final String STREAM = """
+			id:1
+			event:result
+			:HTTP_STATUS/200
+			data:{"output":{"choices":[{"message":{"content":"你好","role":"assistant"}}]},"request_id":"r-1"}
+
+			id:2
+			event:result
+			:HTTP_STATUS/200
+			data: {"output":{"choices":[{"message":{"content":"，世界","role":"assistant"},"finish_reason":"stop"}]},"usage":{"total_tokens":12},"request_id":"r-1"}
+
+			""";
+
+	@Test
+	void decodesEventsSplitAcrossBuffers() {
+		byte[] bytes = STREAM.replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8);
+		for (int size : new int[] { 1, 7, 64, bytes.length }) {
+			StepVerifier.create(ChatCompletionChunkDecoder.decode(buffers(bytes, size)).map(this::content))
+				.expectNext("你好", "，世界")
+				.verifyComplete();
+		}
+	}
+
+	@Test
+	void stopsAtDone() {
+		String stream = "data:{\"request_id\":\"r-1\"}\n\ndata:[DONE]\n\ndata:{\"request_id\":\"r-2\"}\n\n";
+
+		StepVerifier
+			.create(ChatCompletionChunkDecoder.decode(buffers(stream.getBytes(StandardCharsets.UTF_8), 5))
+				.map(ChatCompletionChunk::requestId))
+			.expectNext("r-1")
+			.verifyComplete();
+	}
+
+	@Test
+	void dispatchesTheLastEventWithoutBlankLine() {
+		String stream = "data:{\"request_id\":\"r-1\"}";
+
+		StepVerifier
+			.create(ChatCompletionChunkDecoder.decode(buffers(stream.getBytes(StandardCharsets.UTF_8), 4))
+				.map(ChatCompletionChunk::requestId))
+			.expectNext("r-1")
+			.verifyComplete();
+	}
+
+	private Flux<DataBuffer> buffers(byte[] bytes, int size) {
+		return Flux.range(0, (bytes.length + size - 1) / size)
+			.map(i -> DefaultDataBufferFactory.sharedInstance
+				.wrap(Arrays.copyOfRange(bytes, i * size, Math.min(bytes.length, (i + 1) * size))));
+	}
+
+	private String content(ChatCompletionChunk chunk) {
+		return chunk.output().choices().get(0).message().content();
+	}
+
+}
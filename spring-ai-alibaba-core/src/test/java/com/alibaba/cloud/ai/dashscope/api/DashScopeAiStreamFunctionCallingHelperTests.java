@@ -28,6 +28,7 @@ import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput.Choi
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.TokenUsage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -212,6 +213,69 @@ public class DashScopeAiStreamFunctionCallingHelperTests {
 		assertEquals("{\"param2\":\"value2\"}", toolCalls.get(2).function().arguments());
 	}
 
+	@Test
+	void testMergeToolCallChunksMatchesMerge() {
+		// Streamed tool call chunks are merged into one, other chunks are passed on
+		List<ChatCompletionChunk> chunks = List.of(createSimpleChunk("request-1", "Hi", Role.ASSISTANT, null),
+				createChunkWithToolCall("request-1", "tool-1", "get_weather", "{\"city\""),
+				createChunkWithToolCall("request-1", null, null, ":\"Hangzhou\"}"),
+				createChunkWithToolCall("request-1", null, null, null, ChatCompletionFinishReason.TOOL_CALLS),
+				createSimpleChunk("request-1", "Done", Role.ASSISTANT, ChatCompletionFinishReason.STOP));
+
+		for (DashScopeAiStreamFunctionCallingHelper chunkMerger : List.of(helper, helperWithIncrementalOutput)) {
+			ChatCompletionChunk seed = new ChatCompletionChunk(null, null, null);
+			ChatCompletionChunk toolCall = seed;
+			for (ChatCompletionChunk chunk : chunks.subList(1, 4)) {
+				toolCall = chunkMerger.merge(toolCall, chunk);
+			}
+			List<ChatCompletionChunk> expected = List.of(chunkMerger.merge(seed, chunks.get(0)), toolCall,
+					chunkMerger.merge(seed, chunks.get(4)));
+
+			List<ChatCompletionChunk> merged = chunkMerger.mergeToolCallChunks(Flux.fromIterable(chunks))
+				.collectList()
+				.block();
+
+			assertEquals(expected, merged);
+		}
+		ChatCompletionChunk toolCall = helperWithIncrementalOutput
+			.mergeToolCallChunks(Flux.fromIterable(chunks))
+			.elementAt(1)
+			.block();
+		assertEquals("{\"city\":\"Hangzhou\"}",
+				toolCall.output().choices().get(0).message().toolCalls().get(0).function().arguments());
+	}
+
+	@Test
+	void testMergeToolCallChunksKeepsContentOfNullContentChunks() {
+		// Tool call and finish chunks may carry no content at all
+		ChatCompletionChunk first = new ChatCompletionChunk("request-1",
+				new ChatCompletionOutput(null,
+						List.of(new Choice(null,
+								new ChatCompletionMessage("Checking", Role.ASSISTANT, null, null,
+										List.of(new ToolCall("tool-1", "function",
+												new ChatCompletionFunction("get_weather", "{}"))),
+										null)))),
+				null);
+		ChatCompletionChunk finish = new ChatCompletionChunk("request-1",
+				new ChatCompletionOutput(null,
+						List.of(new Choice(ChatCompletionFinishReason.TOOL_CALLS,
+								new ChatCompletionMessage(null, Role.ASSISTANT, null, null, null, null)))),
+				null);
+
+		for (DashScopeAiStreamFunctionCallingHelper chunkMerger : List.of(helper, helperWithIncrementalOutput)) {
+			ChatCompletionChunk seed = new ChatCompletionChunk(null, null, null);
+			ChatCompletionChunk expected = chunkMerger.merge(chunkMerger.merge(seed, first), finish);
+
+			ChatCompletionChunk merged = chunkMerger.mergeToolCallChunks(Flux.just(first, finish)).blockLast();
+
+			assertEquals(expected, merged);
+		}
+		ChatCompletionChunk merged = helperWithIncrementalOutput.mergeToolCallChunks(Flux.just(first, finish))
+			.blockLast();
+		assertEquals("Checking", merged.output().choices().get(0).message().content());
+		assertEquals(ChatCompletionFinishReason.TOOL_CALLS, merged.output().choices().get(0).finishReason());
+	}
+
 	// Helper method: Create a simple ChatCompletionChunk
 	private ChatCompletionChunk createSimpleChunk(String requestId, String content, Role role,
 			ChatCompletionFinishReason finishReason) {
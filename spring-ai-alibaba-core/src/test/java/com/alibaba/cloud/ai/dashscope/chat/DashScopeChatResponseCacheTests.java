@@ -0,0 +1,243 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.chat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletion;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionChunk;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionFinishReason;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionMessage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionOutput.Choice;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.ChatCompletionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for DashScopeChatResponseCache.
+ */
+class DashScopeChatResponseCacheTests {
+
+	private static final DashScopeChatOptions DEFAULT_OPTIONS = DashScopeChatOptions.builder()
+		.withModel("qwen-turbo")
+		.withTemperature(0.7)
+		.build();
+
+	private DashScopeApi dashScopeApi;
+
+	@BeforeEach
+	void setUp() {
+		dashScopeApi = Mockito.mock(DashScopeApi.class);
+		// each prompt is answered with itself
+		when(dashScopeApi.chatCompletion(any(), any())).thenAnswer(invocation -> {
+			ChatCompletionRequest request = invocation.getArgument(0);
+			List<ChatCompletionMessage> messages = request.input().messages();
+			return Mono.just(completion("re: " + messages.get(messages.size() - 1).content()));
+		});
+	}
+
+	@Test
+	void repeatedCallsAreAnsweredFromTheCache() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder().meterRegistry(meterRegistry));
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(chatModel.call(new Prompt("Hello")))
+				.assertNext(response -> assertThat(response.getResult().getOutput().getText()).isEqualTo("re: Hello"))
+				.verifyComplete();
+		}
+
+		verify(dashScopeApi, times(1)).chatCompletion(any(), any());
+		assertThat(meterRegistry.get(DashScopeChatResponseCache.CACHE_METRIC)
+			.tags("mode", "exact", "result", "hit")
+			.counter()
+			.count()).isEqualTo(1);
+		assertThat(meterRegistry.get(DashScopeChatResponseCache.CACHE_METRIC)
+			.tags("mode", "exact", "result", "miss")
+			.counter()
+			.count()).isEqualTo(1);
+	}
+
+	@Test
+	void optionsCanBypassTheCache() {
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder());
+		Prompt bypassing = new Prompt("Hello", DashScopeChatOptions.builder().withEnableResponseCache(false).build());
+
+		StepVerifier.create(chatModel.call(new Prompt("Hello"))).expectNextCount(1).verifyComplete();
+		StepVerifier.create(chatModel.call(bypassing)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(chatModel.call(new Prompt("Hello", DashScopeChatOptions.builder().withTopK(5).build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		verify(dashScopeApi, times(3)).chatCompletion(any(), any());
+	}
+
+	@Test
+	void responsesAreNotSharedAcrossWorkspaces() {
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder());
+
+		for (String workspace : List.of("ws-1", "ws-2", "ws-1")) {
+			Prompt prompt = new Prompt("Hello", DashScopeChatOptions.builder()
+				.withHttpHeaders(Map.of("X-DashScope-WorkSpace", workspace))
+				.build());
+			StepVerifier.create(chatModel.call(prompt)).expectNextCount(1).verifyComplete();
+		}
+
+		verify(dashScopeApi, times(2)).chatCompletion(any(), any());
+	}
+
+	@Test
+	void cachedResponsesAreReplayedToStreams() {
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder());
+
+		StepVerifier.create(chatModel.call(new Prompt("Hello"))).expectNextCount(1).verifyComplete();
+		StepVerifier.create(chatModel.stream(new Prompt("Hello")))
+			.assertNext(response -> assertThat(response.getResult().getOutput().getText()).isEqualTo("re: Hello"))
+			.verifyComplete();
+
+		verify(dashScopeApi, never()).chatCompletionStream(any(), any());
+	}
+
+	@Test
+	void completedStreamsAreCached() {
+		when(dashScopeApi.chatCompletionStream(any(), any())).thenReturn(Flux.just(chunk("Hel", null),
+				chunk("lo", null), chunk("!", ChatCompletionFinishReason.STOP)));
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder());
+
+		StepVerifier.create(chatModel.stream(new Prompt("Hi"))).expectNextCount(3).verifyComplete();
+		StepVerifier.create(chatModel.call(new Prompt("Hi")))
+			.assertNext(response -> assertThat(response.getResult().getOutput().getText()).isEqualTo("Hello!"))
+			.verifyComplete();
+
+		verify(dashScopeApi, never()).chatCompletion(any(), any());
+	}
+
+	@Test
+	void expiredResponsesAreRequestedAgain() throws InterruptedException {
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder().ttl(Duration.ofMillis(50)));
+
+		StepVerifier.create(chatModel.call(new Prompt("Hello"))).expectNextCount(1).verifyComplete();
+		Thread.sleep(150);
+		StepVerifier.create(chatModel.call(new Prompt("Hello"))).expectNextCount(1).verifyComplete();
+
+		verify(dashScopeApi, times(2)).chatCompletion(any(), any());
+	}
+
+	@Test
+	void similarPromptsShareResponses() {
+		Map<String, float[]> embeddings = Map.of("What is the capital of France?", new float[] { 1f, 0f },
+				"what's the capital of france", new float[] { 0.99f, 0.1f }, "How tall is Mount Everest?",
+				new float[] { 0f, 1f });
+		EmbeddingModel embeddingModel = Mockito.mock(EmbeddingModel.class);
+		when(embeddingModel.embed(anyString()))
+			.thenAnswer(invocation -> Mono.just(embeddings.get(invocation.<String>getArgument(0))));
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		DashScopeChatModel chatModel = chatModel(DashScopeChatResponseCache.builder()
+			.embeddingModel(embeddingModel)
+			.similarityThreshold(0.9)
+			.meterRegistry(meterRegistry));
+
+		StepVerifier.create(chatModel.call(new Prompt("What is the capital of France?")))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier.create(chatModel.call(new Prompt("what's the capital of france")))
+			.assertNext(response -> assertThat(response.getResult().getOutput().getText())
+				.isEqualTo("re: What is the capital of France?"))
+			.verifyComplete();
+		StepVerifier.create(chatModel.call(new Prompt("How tall is Mount Everest?")))
+			.assertNext(response -> assertThat(response.getResult().getOutput().getText())
+				.isEqualTo("re: How tall is Mount Everest?"))
+			.verifyComplete();
+		// the rest of the conversation must be the same
+		StepVerifier
+			.create(chatModel.call(new Prompt(
+					List.of(new SystemMessage("Answer in French."), new UserMessage("what's the capital of france")))))
+			.assertNext(response -> assertThat(response.getResult().getOutput().getText())
+				.isEqualTo("re: what's the capital of france"))
+			.verifyComplete();
+
+		verify(dashScopeApi, times(3)).chatCompletion(any(), any());
+		assertThat(meterRegistry.get(DashScopeChatResponseCache.CACHE_METRIC)
+			.tags("mode", "semantic", "result", "hit")
+			.counter()
+			.count()).isEqualTo(1);
+	}
+
+	@Test
+	void embeddingsAreBoundedAcrossConversations() {
+		EmbeddingModel embeddingModel = Mockito.mock(EmbeddingModel.class);
+		when(embeddingModel.embed(anyString())).thenReturn(Mono.just(new float[] { 1f, 0f }));
+		DashScopeChatResponseCache responseCache = DashScopeChatResponseCache.builder()
+			.maximumSize(2)
+			.embeddingModel(embeddingModel)
+			.build();
+		DashScopeChatModel chatModel = chatModel(responseCache);
+
+		for (int i = 0; i < 5; i++) {
+			Prompt prompt = new Prompt(List.of(new SystemMessage("Conversation " + i), new UserMessage("Hello")));
+			StepVerifier.create(chatModel.call(prompt)).expectNextCount(1).verifyComplete();
+		}
+
+		assertThat(responseCache.semanticEntryCount()).isEqualTo(2);
+	}
+
+	private DashScopeChatModel chatModel(DashScopeChatResponseCache.Builder responseCache) {
+		return chatModel(responseCache.build());
+	}
+
+	private DashScopeChatModel chatModel(DashScopeChatResponseCache responseCache) {
+		return DashScopeChatModel.builder()
+			.dashScopeApi(dashScopeApi)
+			.defaultOptions(DEFAULT_OPTIONS)
+			.responseCache(responseCache)
+			.build();
+	}
+
+	private static ChatCompletion completion(String content) {
+		ChatCompletionMessage message = new ChatCompletionMessage(content, ChatCompletionMessage.Role.ASSISTANT);
+		return new ChatCompletion("request-id",
+				new ChatCompletionOutput(null, List.of(new Choice(ChatCompletionFinishReason.STOP, message))), null);
+	}
+
+	private static ChatCompletionChunk chunk(String content, ChatCompletionFinishReason finishReason) {
+		ChatCompletionMessage message = new ChatCompletionMessage(content, ChatCompletionMessage.Role.ASSISTANT);
+		return new ChatCompletionChunk("request-id",
+				new ChatCompletionOutput(null, List.of(new Choice(finishReason, message))), null);
+	}
+
+}
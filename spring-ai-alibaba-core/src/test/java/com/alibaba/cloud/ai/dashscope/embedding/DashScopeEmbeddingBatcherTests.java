@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dashscope.embedding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.Embedding;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingList;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.EmbeddingUsage;
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi.Embeddings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.ai.document.MetadataMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for DashScopeEmbeddingBatcher, through the batching of
+ * DashScopeEmbeddingModel.
+ */
+class DashScopeEmbeddingBatcherTests {
+
+	private DashScopeApi dashScopeApi;
+
+	private DashScopeEmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() {
+		dashScopeApi = Mockito.mock(DashScopeApi.class);
+		// each text is embedded as its length
+		when(dashScopeApi.embeddings(any())).thenAnswer(invocation -> {
+			DashScopeApi.EmbeddingRequest request = invocation.getArgument(0);
+			List<Embedding> embeddings = new ArrayList<>();
+			List<String> texts = request.input().texts();
+			for (int i = texts.size() - 1; i >= 0; i--) {
+				embeddings.add(new Embedding(i, new float[] { texts.get(i).length() }));
+			}
+			return Mono.just(new EmbeddingList("request-id", null, null, new Embeddings(embeddings),
+					new EmbeddingUsage((long) texts.size())));
+		});
+		embeddingModel = new DashScopeEmbeddingModel(dashScopeApi, MetadataMode.EMBED);
+	}
+
+	@Test
+	void concurrentCallsAreCoalesced() {
+		embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder().window(Duration.ofMillis(50)));
+
+		StepVerifier
+			.create(Mono.zip(embeddingModel.embed("a"), embeddingModel.embed("bb"),
+					embeddingModel.embed("ccc")))
+			.assertNext(embeddings -> {
+				assertThat(embeddings.getT1()).containsExactly(1f);
+				assertThat(embeddings.getT2()).containsExactly(2f);
+				assertThat(embeddings.getT3()).containsExactly(3f);
+			})
+			.verifyComplete();
+
+		assertThat(sentTexts(1)).containsExactly(List.of("a", "bb", "ccc"));
+	}
+
+	@Test
+	void identicalTextsShareOneSlot() {
+		embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder().window(Duration.ofMillis(50)));
+
+		StepVerifier.create(Mono.zip(embeddingModel.embed("same"), embeddingModel.embed("same")))
+			.assertNext(embeddings -> assertThat(embeddings.getT1()).isSameAs(embeddings.getT2()))
+			.verifyComplete();
+
+		assertThat(sentTexts(1)).containsExactly(List.of("same"));
+	}
+
+	@Test
+	void batchesAreSplitBySizeAndTokens() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder()
+			.window(Duration.ofMillis(50))
+			.maxBatchSize(2)
+			.maxBatchTokens(5)
+			.meterRegistry(meterRegistry));
+
+		StepVerifier
+			.create(Mono.zip(embeddingModel.embed("a"), embeddingModel.embed("b"), embeddingModel.embed("cccc"),
+					embeddingModel.embed("dd")))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(sentTexts(3)).containsExactly(List.of("a", "b"), List.of("cccc"), List.of("dd"));
+		var batchSizes = meterRegistry.get(DashScopeEmbeddingBatcher.BATCH_SIZE_METRIC).summary();
+		assertThat(batchSizes.count()).isEqualTo(3);
+		assertThat(batchSizes.totalAmount()).isEqualTo(4);
+	}
+
+	@Test
+	void failuresAreReportedToEveryCaller() {
+		when(dashScopeApi.embeddings(any()))
+			.thenReturn(Mono.just(new EmbeddingList("request-id", "ERROR_CODE", "Error message", null, null)));
+		embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder().window(Duration.ofMillis(50)));
+
+		Mono<float[]> first = embeddingModel.embed("a");
+		Mono<float[]> second = embeddingModel.embed("b");
+		StepVerifier.create(Mono.zip(first.onErrorReturn(new float[0]), second))
+			.expectErrorMatches(error -> error.getMessage().contains("Embedding failed"))
+			.verify();
+
+		// failed texts are no longer in flight, and are sent again
+		StepVerifier.create(embeddingModel.embed("a")).expectError().verify();
+		verify(dashScopeApi, times(2)).embeddings(any());
+	}
+
+	@Test
+	void emptyResponsesFailTheBatch() {
+		when(dashScopeApi.embeddings(any())).thenReturn(Mono.empty());
+		embeddingModel.setBatching(DashScopeEmbeddingBatcher.builder().window(Duration.ofMillis(50)));
+
+		StepVerifier.create(embeddingModel.embed("a"))
+			.expectErrorMatches(error -> error.getMessage().contains("No embeddings returned"))
+			.verify();
+	}
+
+	private List<List<String>> sentTexts(int requests) {
+		ArgumentCaptor<DashScopeApi.EmbeddingRequest> captor = ArgumentCaptor
+			.forClass(DashScopeApi.EmbeddingRequest.class);
+		verify(dashScopeApi, times(requests)).embeddings(captor.capture());
+		return captor.getAllValues().stream().map(request -> request.input().texts()).toList();
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.embedding;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for CachingEmbeddingModel and its on-disk tier.
+ */
+class CachingEmbeddingModelTests {
+
+	private static final DashScopeEmbeddingOptions DEFAULT_OPTIONS = DashScopeEmbeddingOptions.builder()
+		.withModel("text-embedding-v3")
+		.withTextType("document")
+		.build();
+
+	private EmbeddingModel delegate;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	void setUp() {
+		delegate = Mockito.mock(EmbeddingModel.class);
+		// each text is embedded as its length and its first character
+		when(delegate.call(any())).thenAnswer(invocation -> {
+			EmbeddingRequest request = invocation.getArgument(0);
+			List<Embedding> embeddings = new ArrayList<>();
+			List<String> texts = request.getInstructions();
+			for (int i = 0; i < texts.size(); i++) {
+				embeddings.add(new Embedding(new float[] { texts.get(i).length(), texts.get(i).charAt(0) / 3f }, i));
+			}
+			return Mono.just(new EmbeddingResponse(embeddings));
+		});
+	}
+
+	@Test
+	void onlyMissingTextsAreSentToTheDelegate() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+			.delegate(delegate)
+			.defaultOptions(DEFAULT_OPTIONS)
+			.meterRegistry(meterRegistry)
+			.build();
+
+		StepVerifier.create(model.embed("a")).expectNextCount(1).verifyComplete();
+		StepVerifier.create(model.embedForResponse(List.of("bb", "a", "bb"))).assertNext(response -> {
+			assertThat(response.getResults()).extracting(Embedding::getIndex).containsExactly(0, 1, 2);
+			assertThat(response.getResults().get(0).getOutput()[0]).isEqualTo(2f);
+			assertThat(response.getResults().get(1).getOutput()[0]).isEqualTo(1f);
+			assertThat(response.getResults().get(2).getOutput()[0]).isEqualTo(2f);
+		}).verifyComplete();
+
+		ArgumentCaptor<EmbeddingRequest> captor = ArgumentCaptor.forClass(EmbeddingRequest.class);
+		verify(delegate, times(2)).call(captor.capture());
+		assertThat(captor.getAllValues()).extracting(EmbeddingRequest::getInstructions)
+			.containsExactly(List.of("a"), List.of("bb"));
+		assertThat(meterRegistry.get(CachingEmbeddingModel.CACHE_METRIC)
+			.tags("tier", "heap", "result", "hit")
+			.counter()
+			.count()).isEqualTo(1);
+		assertThat(meterRegistry.get(CachingEmbeddingModel.CACHE_METRIC)
+			.tags("tier", "heap", "result", "miss")
+			.counter()
+			.count()).isEqualTo(3);
+	}
+
+	@Test
+	void optionsArePartOfTheKey() {
+		CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+			.delegate(delegate)
+			.defaultOptions(DEFAULT_OPTIONS)
+			.build();
+
+		StepVerifier.create(model.call(new EmbeddingRequest(List.of("a"), null))).expectNextCount(1).verifyComplete();
+		StepVerifier.create(model.call(new EmbeddingRequest(List.of("a"), DEFAULT_OPTIONS)))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier
+			.create(model.call(new EmbeddingRequest(List.of("a"),
+					DashScopeEmbeddingOptions.builder().withTextType("query").build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		verify(delegate, times(2)).call(any());
+	}
+
+	@Test
+	void diskTierSurvivesRestarts() throws Exception {
+		Path file = tempDir.resolve("embeddings.bin");
+		try (MappedEmbeddingStore store = MappedEmbeddingStore.open(file, MappedEmbeddingStore.Precision.FLOAT16,
+				MappedEmbeddingStore.DEFAULT_MAX_BYTES)) {
+			CachingEmbeddingModel model = CachingEmbeddingModel.builder().delegate(delegate).store(store).build();
+			StepVerifier.create(model.embedForResponse(List.of("a", "bb"))).expectNextCount(1).verifyComplete();
+		}
+
+		try (MappedEmbeddingStore store = MappedEmbeddingStore.open(file)) {
+			assertThat(store.size()).isEqualTo(2);
+			CachingEmbeddingModel model = CachingEmbeddingModel.builder().delegate(delegate).store(store).build();
+			StepVerifier.create(model.embed("bb"))
+				.assertNext(vector -> assertThat(vector).containsExactly(new float[] { 2f, 'b' / 3f }, within(0.05f)))
+				.verifyComplete();
+		}
+		verify(delegate, times(1)).call(any());
+	}
+
+	@Test
+	void cachedVectorsAreReturnedAsCopies() {
+		CachingEmbeddingModel model = CachingEmbeddingModel.builder().delegate(delegate).build();
+
+		StepVerifier.create(model.embed("a")).assertNext(vector -> vector[0] = 42f).verifyComplete();
+		StepVerifier.create(model.embed("a"))
+			.assertNext(vector -> assertThat(vector[0]).isEqualTo(1f))
+			.verifyComplete();
+	}
+
+	@Test
+	void storeFileIsLockedWhileOpen() throws Exception {
+		Path file = tempDir.resolve("embeddings.bin");
+		try (MappedEmbeddingStore store = MappedEmbeddingStore.open(file)) {
+			assertThatIOException().isThrownBy(() -> MappedEmbeddingStore.open(file));
+		}
+		MappedEmbeddingStore.open(file).close();
+	}
+
+	@Test
+	void halfPrecisionRoundTrips() {
+		for (float value : new float[] { 0f, -0f, 1f, -2.5f, 65504f, 6.1035156e-5f, 5.9604645e-8f }) {
+			assertThat(MappedEmbeddingStore.fromHalf(MappedEmbeddingStore.toHalf(value))).isEqualTo(value);
+		}
+		assertThat(MappedEmbeddingStore.fromHalf(MappedEmbeddingStore.toHalf(1e6f))).isInfinite();
+		assertThat(MappedEmbeddingStore.fromHalf(MappedEmbeddingStore.toHalf(Float.NaN))).isNaN();
+	}
+
+}
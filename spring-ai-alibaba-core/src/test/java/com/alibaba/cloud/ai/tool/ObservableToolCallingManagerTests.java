@@ -0,0 +1,204 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.tool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import com.alibaba.cloud.ai.tool.observation.ArmsToolCallingObservationConvention;
+import io.micrometer.observation.tck.TestObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistryAssert;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.DefaultToolDefinition;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the concurrent execution of ObservableToolCallingManager.
+ */
+class ObservableToolCallingManagerTests {
+
+	private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	@Test
+	void sequentialByDefault() {
+		List<ToolCallback> tools = List.of(tool("a", 30), tool("b", 10));
+
+		StepVerifier.create(ObservableToolCallingManager.builder().build().executeToolCalls(prompt(tools),
+				response("a", "b")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).containsExactly("a", "b"))
+			.verifyComplete();
+
+		assertThat(this.maxRunning).hasValue(1);
+		assertThat(this.events).containsExactly("start a", "end a", "start b", "end b");
+	}
+
+	@Test
+	void concurrentCallsKeepTheToolCallOrder() {
+		List<ToolCallback> tools = List.of(tool("a", 150), tool("b", 100), tool("c", 50));
+		TestObservationRegistry observationRegistry = TestObservationRegistry.create();
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.observationRegistry(observationRegistry)
+			.maxParallelism(4)
+			.build();
+
+		StepVerifier.create(manager.executeToolCalls(prompt(tools), response("a", "b", "c")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).containsExactly("a", "b",
+					"c"))
+			.verifyComplete();
+
+		assertThat(this.maxRunning).hasValue(3);
+		TestObservationRegistryAssert.assertThat(observationRegistry)
+			.hasNumberOfObservationsEqualTo(3)
+			.forAllObservationsWithNameEqualTo(ArmsToolCallingObservationConvention.DEFAULT_OPERATION_NAME,
+					observation -> observation.hasBeenStarted().hasBeenStopped());
+	}
+
+	@Test
+	void maxParallelismIsHonored() {
+		List<ToolCallback> tools = List.of(tool("a", 50), tool("b", 50), tool("c", 50), tool("d", 50));
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder().maxParallelism(2).build();
+
+		StepVerifier.create(manager.executeToolCalls(prompt(tools), response("a", "b", "c", "d")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).containsExactly("a", "b",
+					"c", "d"))
+			.verifyComplete();
+
+		assertThat(this.maxRunning).hasValue(2);
+	}
+
+	@Test
+	void sequentialToolsRunAlone() {
+		List<ToolCallback> tools = List.of(tool("a", 50), sequentialTool("s", 10), tool("b", 50), tool("c", 10));
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder().maxParallelism(4).build();
+
+		StepVerifier.create(manager.executeToolCalls(prompt(tools), response("a", "s", "b", "c")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).containsExactly("a", "s", "b",
+					"c"))
+			.verifyComplete();
+
+		assertThat(this.events.subList(0, 4)).containsExactly("start a", "end a", "start s", "end s");
+		assertThat(this.events.subList(4, 8)).containsExactlyInAnyOrder("start b", "start c", "end b", "end c");
+	}
+
+	@Test
+	void timedOutCallsAreHandledAsToolExecutionFailures() {
+		List<ToolCallback> tools = List.of(tool("a", 10), tool("slow", 5_000));
+		ObservableToolCallingManager manager = ObservableToolCallingManager.builder()
+			.maxParallelism(2)
+			.defaultToolTimeout(Duration.ofSeconds(10))
+			.toolTimeout("slow", Duration.ofMillis(50))
+			.build();
+
+		StepVerifier.create(manager.executeToolCalls(prompt(tools), response("a", "slow")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).first().isEqualTo("a"))
+			.verifyComplete();
+
+		StepVerifier.create(manager.executeToolCalls(prompt(tools), response("slow")))
+			.assertNext(result -> assertThat(responseData(result.conversationHistory())).singleElement()
+				.asString()
+				.contains("slow", "did not complete within PT0.05S"))
+			.verifyComplete();
+	}
+
+	private ToolCallback tool(String name, long delayMillis) {
+		return new DelayedToolCallback(name, delayMillis);
+	}
+
+	private ToolCallback sequentialTool(String name, long delayMillis) {
+		return new SequentialDelayedToolCallback(name, delayMillis);
+	}
+
+	private static Prompt prompt(List<ToolCallback> tools) {
+		return new Prompt("What now?", DashScopeChatOptions.builder().withToolCallbacks(tools).build());
+	}
+
+	private static ChatResponse response(String... toolNames) {
+		List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+		for (String toolName : toolNames) {
+			toolCalls.add(new AssistantMessage.ToolCall("call-" + toolName, "function", toolName, "{}"));
+		}
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), toolCalls))));
+	}
+
+	private static List<String> responseData(List<Message> conversationHistory) {
+		ToolResponseMessage toolResponseMessage = (ToolResponseMessage) conversationHistory
+			.get(conversationHistory.size() - 1);
+		return toolResponseMessage.getResponses().stream().map(ToolResponseMessage.ToolResponse::responseData).toList();
+	}
+
+	private class DelayedToolCallback implements ToolCallback {
+
+		private final String name;
+
+		private final long delayMillis;
+
+		DelayedToolCallback(String name, long delayMillis) {
+			this.name = name;
+			this.delayMillis = delayMillis;
+		}
+
+		@Override
+		public ToolDefinition getToolDefinition() {
+			return DefaultToolDefinition.builder().name(this.name).description(this.name).inputSchema("{}").build();
+		}
+
+		@Override
+		public Mono<String> call(String toolInput) {
+			return Mono.fromRunnable(() -> {
+				events.add("start " + this.name);
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			})
+				.then(Mono.delay(Duration.ofMillis(this.delayMillis)))
+				.then(Mono.fromCallable(() -> {
+					running.decrementAndGet();
+					events.add("end " + this.name);
+					return this.name;
+				}))
+				.doOnCancel(running::decrementAndGet);
+		}
+
+	}
+
+	private class SequentialDelayedToolCallback extends DelayedToolCallback implements SequentialToolCallback {
+
+		SequentialDelayedToolCallback(String name, long delayMillis) {
+			super(name, delayMillis);
+		}
+
+	}
+
+}
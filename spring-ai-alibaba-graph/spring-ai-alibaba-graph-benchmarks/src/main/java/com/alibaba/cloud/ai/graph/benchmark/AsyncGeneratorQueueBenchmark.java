@@ -0,0 +1,158 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Measures the CPU burned by a consumer of {@link AsyncGeneratorQueue} while the
+ * producer is idle between tokens, as happens while an LLM is generating.
+ *
+ * <p>
+ * The {@code consumerCpuNanos} secondary result is the consumer thread CPU time per
+ * second of wall time: {@code 1e9} means the stream keeps a full core busy.
+ * {@code spin} replays the former {@code queue.poll()} loop for comparison.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AsyncGeneratorQueueBenchmark {
+
+	@Param({ "spin", "parking", "bounded" })
+	public String generator;
+
+	@Param({ "10" })
+	public int tokens;
+
+	@Param({ "5" })
+	public int tokenIntervalMillis;
+
+	private ExecutorService producers;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class CpuCounters {
+
+		public long consumerCpuNanos;
+
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		producers = Executors.newCachedThreadPool();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		producers.shutdownNow();
+	}
+
+	@Benchmark
+	public void idleStream(CpuCounters counters, Blackhole blackhole) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		long cpuStart = threads.getCurrentThreadCpuTime();
+
+		AsyncGenerator<String> stream = switch (generator) {
+			case "spin" -> {
+				var queue = new LinkedBlockingQueue<AsyncGenerator.Data<String>>();
+				producers.execute(() -> {
+					produce(queue);
+					queue.add(AsyncGenerator.Data.done());
+				});
+				yield new SpinningGenerator<>(queue);
+			}
+			case "bounded" -> AsyncGeneratorQueue.bounded(4, this::produce, producers);
+			default -> AsyncGeneratorQueue.of(new LinkedBlockingQueue<>(), this::produce, producers);
+		};
+		for (String token : stream) {
+			blackhole.consume(token);
+		}
+
+		counters.consumerCpuNanos += threads.getCurrentThreadCpuTime() - cpuStart;
+	}
+
+	private void produce(BlockingQueue<AsyncGenerator.Data<String>> queue) {
+		try {
+			for (int i = 0; i < tokens; i++) {
+				Thread.sleep(tokenIntervalMillis);
+				queue.put(AsyncGenerator.Data.of(completedFuture("token_" + i)));
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The former {@code AsyncGeneratorQueue.Generator} implementation, kept as baseline.
+	 */
+	static class SpinningGenerator<E> implements AsyncGenerator<E> {
+
+		private final BlockingQueue<Data<E>> queue;
+
+		private Data<E> isEnd;
+
+		SpinningGenerator(BlockingQueue<Data<E>> queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public Data<E> next() {
+			while (isEnd == null) {
+				Data<E> value = queue.poll();
+				if (value != null) {
+					if (value.isDone()) {
+						isEnd = value;
+					}
+					return value;
+				}
+			}
+			return isEnd;
+		}
+
+	}
+
+}
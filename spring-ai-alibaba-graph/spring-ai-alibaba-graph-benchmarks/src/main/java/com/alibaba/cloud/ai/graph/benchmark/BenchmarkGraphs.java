@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+
+/**
+ * Graph shapes and state payloads shared by the benchmark suites. Nodes do no real work
+ * so that the measurements reflect the overhead of the graph runtime itself.
+ */
+public final class BenchmarkGraphs {
+
+	static final String MESSAGES = "messages";
+
+	static final String STEPS = "steps";
+
+	/**
+	 * The graph topologies exercised by {@link CompiledGraphBenchmark}.
+	 */
+	public enum Shape {
+
+		/**
+		 * {@code START -> node_0 -> ... -> node_n -> END}.
+		 */
+		LINEAR,
+		/**
+		 * A router node choosing one of two branches by a conditional edge, in a loop of
+		 * {@code nodes} steps.
+		 */
+		BRANCHING,
+		/**
+		 * {@code START -> fan_out -> (branch_0 .. branch_n) -> join -> END}, compiled
+		 * into a {@code ParallelNode}.
+		 */
+		PARALLEL
+
+	}
+
+	private BenchmarkGraphs() {
+	}
+
+	static KeyStrategyFactory keyStrategyFactory() {
+		return () -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put(MESSAGES, new AppendStrategy());
+			keyStrategyMap.put(STEPS, new ReplaceStrategy());
+			return keyStrategyMap;
+		};
+	}
+
+	static StateGraph build(Shape shape, int nodes) throws GraphStateException {
+		return switch (shape) {
+			case LINEAR -> linear(nodes);
+			case BRANCHING -> branching(nodes);
+			case PARALLEL -> parallel(nodes);
+		};
+	}
+
+	static StateGraph linear(int nodes) throws GraphStateException {
+		StateGraph graph = new StateGraph(keyStrategyFactory());
+		String previous = START;
+		for (int i = 0; i < nodes; i++) {
+			String id = "node_" + i;
+			final int step = i;
+			graph.addNode(id, node_async(state -> Map.of(MESSAGES, "message_" + step, STEPS, step)));
+			graph.addEdge(previous, id);
+			previous = id;
+		}
+		return graph.addEdge(previous, END);
+	}
+
+	static StateGraph branching(int nodes) throws GraphStateException {
+		return new StateGraph(keyStrategyFactory())
+			.addNode("router", node_async(state -> Map.of(STEPS, state.value(STEPS, 0) + 1)))
+			.addNode("left", node_async(state -> Map.of(MESSAGES, "left")))
+			.addNode("right", node_async(state -> Map.of(MESSAGES, "right")))
+			.addEdge(START, "router")
+			.addConditionalEdges("router", edge_async(state -> {
+				int steps = state.value(STEPS, 0);
+				if (steps >= nodes) {
+					return "end";
+				}
+				return (steps % 2 == 0) ? "left" : "right";
+			}), Map.of("left", "left", "right", "right", "end", END))
+			.addEdge("left", "router")
+			.addEdge("right", "router");
+	}
+
+	static StateGraph parallel(int branches) throws GraphStateException {
+		StateGraph graph = new StateGraph(keyStrategyFactory())
+			.addNode("fan_out", node_async(state -> Map.of(STEPS, 0)))
+			.addNode("join", node_async(state -> Map.of(STEPS, 1)))
+			.addEdge(START, "fan_out")
+			.addEdge("join", END);
+		for (int i = 0; i < branches; i++) {
+			String id = "branch_" + i;
+			final int branch = i;
+			graph.addNode(id, node_async(state -> Map.of(MESSAGES, "branch_" + branch)));
+			graph.addEdge("fan_out", id);
+			graph.addEdge(id, "join");
+		}
+		return graph;
+	}
+
+	static List<Object> messages(int size) {
+		List<Object> messages = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			messages.add("message_" + i);
+		}
+		return messages;
+	}
+
+	static Map<String, Object> state(int messages) {
+		Map<String, Object> state = new HashMap<>();
+		state.put(MESSAGES, messages(messages));
+		state.put(STEPS, messages);
+		return state;
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.RedisSaver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@code put} and {@code get} of {@link MemorySaver}, {@link FileSystemSaver}
+ * and {@link RedisSaver}.
+ *
+ * <p>
+ * Every iteration starts from a fresh thread pre-filled with {@code history} checkpoints,
+ * then {@code put} keeps appending to it, which is what a running graph does. The Redis
+ * suite starts an embedded {@code redis-server} on a free local port unless the
+ * {@code benchmark.redis.address} system property points to an existing instance.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckpointSaverBenchmark {
+
+	@Param({ "memory", "file", "redis" })
+	public String saverType;
+
+	@Param({ "10", "100" })
+	public int history;
+
+	@Param({ "10", "1000" })
+	public int messages;
+
+	private RedisServer redisServer;
+
+	private RedissonClient redisson;
+
+	private Path folder;
+
+	private BaseCheckpointSaver saver;
+
+	private RunnableConfig config;
+
+	private RunnableConfig oldestConfig;
+
+	private Map<String, Object> state;
+
+	@Setup(Level.Trial)
+	public void startBackends() throws IOException {
+		state = BenchmarkGraphs.state(messages);
+		if (!"redis".equals(saverType)) {
+			return;
+		}
+		String address = System.getProperty("benchmark.redis.address");
+		if (address == null) {
+			int port;
+			try (ServerSocket socket = new ServerSocket(0)) {
+				port = socket.getLocalPort();
+			}
+			redisServer = new RedisServer(port);
+			redisServer.start();
+			address = "redis://127.0.0.1:" + port;
+		}
+		Config redisConfig = new Config();
+		redisConfig.useSingleServer().setAddress(address);
+		redisson = Redisson.create(redisConfig);
+	}
+
+	@Setup(Level.Iteration)
+	public void newThread() throws Exception {
+		saver = switch (saverType) {
+			case "memory" -> new MemorySaver();
+			case "file" -> {
+				folder = Files.createTempDirectory("graph-benchmark");
+				yield new FileSystemSaver(folder, new StateGraph().getStateSerializer());
+			}
+			case "redis" -> new RedisSaver(redisson);
+			default -> throw new IllegalArgumentException("unknown saver type: " + saverType);
+		};
+		config = RunnableConfig.builder().threadId(UUID.randomUUID().toString()).build();
+		for (int i = 0; i < history; i++) {
+			RunnableConfig result = saver.put(config, checkpoint());
+			if (i == 0) {
+				oldestConfig = result;
+			}
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteThread() throws IOException {
+		saver.clear(config);
+		if (folder != null) {
+			try (Stream<Path> paths = Files.walk(folder)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+			folder = null;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stopBackends() {
+		if (redisson != null) {
+			redisson.shutdown();
+		}
+		if (redisServer != null) {
+			try {
+				redisServer.stop();
+			}
+			catch (Exception ignored) {
+			}
+		}
+	}
+
+	private Checkpoint checkpoint() {
+		return Checkpoint.builder().nodeId("node").nextNodeId("next").state(state).build();
+	}
+
+	@Benchmark
+	public RunnableConfig put() throws Exception {
+		return saver.put(config, checkpoint());
+	}
+
+	@Benchmark
+	public Optional<Checkpoint> getLatest() {
+		return saver.get(config);
+	}
+
+	@Benchmark
+	public Optional<Checkpoint> getById() {
+		// the oldest checkpoint is the worst case for savers scanning the history
+		return saver.get(oldestConfig);
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.DeltaCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.checkpoint.constant.SaverConstant.MEMORY;
+
+/**
+ * Measures {@link CompiledGraph#invoke(Map, RunnableConfig)} and
+ * {@link CompiledGraph#stream(Map, RunnableConfig)} over linear, branching and
+ * {@code ParallelNode} fan-out graphs, without a checkpoint saver, with full checkpoints
+ * and with delta checkpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledGraphBenchmark {
+
+	@Param({ "LINEAR", "BRANCHING", "PARALLEL" })
+	public BenchmarkGraphs.Shape shape;
+
+	@Param({ "8", "32" })
+	public int nodes;
+
+	@Param({ "none", "full", "delta" })
+	public String checkpoints;
+
+	private CompiledGraph graph;
+
+	private final Map<String, Object> inputs = Map.of(BenchmarkGraphs.MESSAGES, "input");
+
+	@Setup
+	public void setup() throws Exception {
+		var stateGraph = BenchmarkGraphs.build(shape, nodes);
+		var builder = CompileConfig.builder();
+		switch (checkpoints) {
+			case "none" -> builder.saverConfig(SaverConfig.builder().build());
+			case "full" -> builder.saverConfig(SaverConfig.builder().register(MEMORY, new MemorySaver()).build());
+			case "delta" -> builder.saverConfig(SaverConfig.builder()
+				.register(MEMORY, new DeltaCheckpointSaver(new MemorySaver(), stateGraph.getStateSerializer()))
+				.build());
+			default -> throw new IllegalArgumentException("unknown checkpoint mode: " + checkpoints);
+		}
+		graph = stateGraph.compile(builder.build());
+		graph.setMaxIterations(nodes * 4 + 8);
+	}
+
+	private RunnableConfig config() {
+		// a fresh thread per run keeps the saver history from growing across runs
+		return RunnableConfig.builder().threadId(Thread.currentThread().getName() + System.nanoTime()).build();
+	}
+
+	@Benchmark
+	public Optional<OverAllState> invoke() throws Exception {
+		return graph.invoke(inputs, config());
+	}
+
+	@Benchmark
+	public void stream(Blackhole blackhole) throws Exception {
+		for (NodeOutput output : graph.stream(inputs, config())) {
+			blackhole.consume(output);
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * <p>
+ * Without arguments every suite of this module is executed in both
+ * {@link Mode#Throughput} (ops/s) and {@link Mode#SampleTime} (latency percentiles,
+ * including p0.99) with the {@link GCProfiler} attached, so that allocation rate
+ * ({@code gc.alloc.rate.norm}) is published alongside the timings. Results are written
+ * as JSON to {@code jmh-result.json}.
+ * </p>
+ *
+ * <p>
+ * When arguments are given they are passed verbatim to the JMH command line, e.g.
+ * {@code java -jar benchmarks.jar CompiledGraphBenchmark -prof gc}.
+ * </p>
+ */
+public final class GraphBenchmarkRunner {
+
+	private GraphBenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		Options options = new OptionsBuilder().include(GraphBenchmarkRunner.class.getPackageName() + ".*Benchmark")
+			.mode(Mode.Throughput)
+			.mode(Mode.SampleTime)
+			.addProfiler(GCProfiler.class)
+			.resultFormat(ResultFormatType.JSON)
+			.result("jmh-result.json")
+			.build();
+
+		new Runner(options).run();
+	}
+
+}
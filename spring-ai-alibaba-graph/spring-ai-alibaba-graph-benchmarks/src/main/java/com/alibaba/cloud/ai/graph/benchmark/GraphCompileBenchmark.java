@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StateGraph#compile(CompileConfig)} of an unchanged graph, with the same
+ * config each time and with a new config each time, as done by
+ * {@link StateGraph#compile()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphCompileBenchmark {
+
+	@Param({ "LINEAR", "BRANCHING", "PARALLEL" })
+	public BenchmarkGraphs.Shape shape;
+
+	@Param({ "8", "32" })
+	public int nodes;
+
+	private StateGraph stateGraph;
+
+	private CompileConfig config;
+
+	@Setup
+	public void setup() throws Exception {
+		stateGraph = BenchmarkGraphs.build(shape, nodes);
+		config = CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build();
+	}
+
+	@Benchmark
+	public CompiledGraph sameConfig() throws Exception {
+		return stateGraph.compile(config);
+	}
+
+	@Benchmark
+	public CompiledGraph newConfig() throws Exception {
+		return stateGraph.compile(CompileConfig.builder().saverConfig(SaverConfig.builder().build()).build());
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.OverAllStateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single node step of state merging: {@link OverAllState#updateState(Map,
+ * Map, Map)} and {@link OverAllState#updateState(Map)} appending to a large message list
+ * handled by {@code AppendStrategy} or replacing a single key, plus
+ * {@link OverAllState#snapShot()}, on a state with a configurable number of extra keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverAllStateBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int messages;
+
+	@Param({ "10", "100" })
+	public int keys;
+
+	private Map<String, KeyStrategy> keyStrategies;
+
+	private Map<String, Object> state;
+
+	private OverAllState overAllState;
+
+	private final Map<String, Object> appendOne = Map.of(BenchmarkGraphs.MESSAGES, "message");
+
+	private final Map<String, Object> replaceOne = Map.of(BenchmarkGraphs.STEPS, 1);
+
+	private final Map<String, Object> appendMany = Map.of(BenchmarkGraphs.MESSAGES,
+			List.of("message_a", "message_b", "message_c"));
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		keyStrategies = BenchmarkGraphs.keyStrategyFactory().apply();
+		Map<String, Object> initial = new HashMap<>(BenchmarkGraphs.state(messages));
+		for (int i = 0; i < keys; i++) {
+			initial.put("key_" + i, "value_" + i);
+		}
+		// the graph runtime always feeds back the map returned by the previous update
+		state = OverAllState.updateState(Map.of(), initial, keyStrategies);
+		overAllState = OverAllStateBuilder.builder().withKeyStrategies(keyStrategies).withData(initial).build();
+	}
+
+	@Benchmark
+	public Map<String, Object> staticAppendOne() {
+		return OverAllState.updateState(state, appendOne, keyStrategies);
+	}
+
+	@Benchmark
+	public Map<String, Object> staticAppendMany() {
+		return OverAllState.updateState(state, appendMany, keyStrategies);
+	}
+
+	@Benchmark
+	public Map<String, Object> staticReplaceOne() {
+		// a single changed key: should not depend on the state size
+		return OverAllState.updateState(state, replaceOne, keyStrategies);
+	}
+
+	@Benchmark
+	public OverAllState snapShot() {
+		return overAllState.snapShot().orElseThrow();
+	}
+
+	@Benchmark
+	public Map<String, Object> instanceAppendOne() {
+		// the instance keeps growing: this is what a long ReAct loop does to its state
+		return overAllState.updateState(appendOne);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StateSerializer#writeObject(Object)} and
+ * {@link StateSerializer#cloneObject(Object)}, which runs on every checkpoint, for the
+ * default Jackson serializer, plain Java serialization and the
+ * {@link BinaryStateSerializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateSerializerBenchmark {
+
+	@Param({ "jackson", "java", "binary" })
+	public String serializer;
+
+	@Param({ "10", "1000" })
+	public int messages;
+
+	private StateSerializer<OverAllState> stateSerializer;
+
+	private OverAllState state;
+
+	/**
+	 * Serializes the state data with an {@link java.io.ObjectOutputStream}.
+	 */
+	static class JavaStateSerializer extends StateSerializer<OverAllState> {
+
+		JavaStateSerializer() {
+			super(OverAllState::new);
+		}
+
+		@Override
+		public void write(OverAllState object, ObjectOutput out) throws IOException {
+			out.writeObject(new HashMap<>(object.data()));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public OverAllState read(ObjectInput in) throws IOException, ClassNotFoundException {
+			return stateOf((Map<String, Object>) in.readObject());
+		}
+
+	}
+
+	@Setup
+	public void setup() {
+		stateSerializer = switch (serializer) {
+			case "jackson" -> new StateGraph().getStateSerializer();
+			case "java" -> new JavaStateSerializer();
+			case "binary" -> new BinaryStateSerializer();
+			default -> throw new IllegalArgumentException("unknown serializer: " + serializer);
+		};
+		Map<String, Object> data = new HashMap<>(BenchmarkGraphs.state(messages));
+		for (int i = 0; i < 10; i++) {
+			data.put("key_" + i, "value_" + i);
+		}
+		state = new OverAllState(data);
+	}
+
+	@Benchmark
+	public byte[] writeObject() throws IOException {
+		return stateSerializer.writeObject(state);
+	}
+
+	@Benchmark
+	public OverAllState cloneObject() throws Exception {
+		return stateSerializer.cloneObject(state);
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.benchmark;
+
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.streaming.StreamingChatGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures streaming a chat answer of {@code tokens} chunks through
+ * {@link StreamingChatGenerator}, up to the mapped final result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingChatGeneratorBenchmark {
+
+	@Param({ "100", "5000" })
+	public int tokens;
+
+	private List<ChatResponse> chunks;
+
+	@Setup
+	public void setup() {
+		chunks = new ArrayList<>(tokens);
+		for (int i = 0; i < tokens; i++) {
+			chunks.add(new ChatResponse(List.of(new Generation(new AssistantMessage("token_" + i + " ")))));
+		}
+	}
+
+	@Benchmark
+	public Object stream() {
+		var generator = StreamingChatGenerator.builder()
+			.startingNode("llm")
+			.mapResult(response -> Map.of("messages", response.getResult().getOutput()))
+			.build(Flux.fromIterable(chunks));
+		AsyncGenerator.Data<?> data;
+		while (!(data = generator.next()).isDone()) {
+			// drain
+		}
+		return data.resultValue().orElseThrow();
+	}
+
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A {@link GraphLifecycleListener} that takes the delegate listener off the critical
+ * path of the graph. Events are recorded into a bounded ring buffer and replayed, in
+ * order, by a single daemon thread, so that slow listeners such as
+ * {@link com.alibaba.cloud.ai.graph.observation.GraphObservationLifecycleListener} do not
+ * delay node execution. The thread is started by the first event and stops once no event
+ * arrived for a minute and no graph is running, so a listener that is never closed does
+ * not keep it alive.
+ *
+ * <p>
+ * When the buffer is full the event is dropped rather than blocking the graph; dropped
+ * events are counted by {@link #droppedEvents()}. Since callbacks no longer run on the
+ * thread that executes the graph, listeners relying on thread locals of that thread will
+ * not see them. The callbacks of a graph run, from {@code onStart} to {@code onComplete}
+ * or {@code onError}, are however all delivered on the same thread, so a scope opened by
+ * the former is closed on the thread that opened it. A run that is interrupted never
+ * completes, and keeps the thread alive until the listener is closed.
+ * </p>
+ *
+ * <p>
+ * {@link #wrapNodeAction(String, Supplier)} is forwarded to the delegate on the graph
+ * thread, once the events published before it have been delivered, so that the delegate
+ * can bind the node scope it opened in {@code before} to the node body.
+ * </p>
+ *
+ * @see CompileConfig.Builder#withAsyncLifecycleListener(GraphLifecycleListener)
+ */
+public class AsyncGraphLifecycleListener implements GraphLifecycleListener, AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(AsyncGraphLifecycleListener.class);
+
+	/**
+	 * The default number of buffered events.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
+	private enum Type {
+
+		START, BEFORE, AFTER, ERROR, COMPLETE, FLUSH, STOP
+
+	}
+
+	private static final Event STOP = new Event(Type.STOP, null, null, null, null, null, null);
+
+	private record Event(Type type, String nodeId, Map<String, Object> state, RunnableConfig config, Throwable error,
+			Long time, CountDownLatch delivered) {
+
+		Event(Type type, String nodeId, Map<String, Object> state, RunnableConfig config, Throwable error, Long time) {
+			this(type, nodeId, state, config, error, time, null);
+		}
+
+	}
+
+	private final GraphLifecycleListener delegate;
+
+	private final ArrayBlockingQueue<Event> buffer;
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final long keepAliveMillis;
+
+	private final boolean wrapsNodeActions;
+
+	private final String workerName = "graph-lifecycle-listener-" + THREAD_COUNTER.incrementAndGet();
+
+	private final Object workerLock = new Object();
+
+	// guarded by workerLock, null while idle
+	private Thread worker;
+
+	// graph runs started but not yet completed, only accessed by the worker
+	private int runningGraphs;
+
+	private volatile boolean closed;
+
+	public AsyncGraphLifecycleListener(GraphLifecycleListener delegate) {
+		this(delegate, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates an asynchronous listener.
+	 * @param delegate the listener notified off the graph thread
+	 * @param bufferSize the maximum number of events waiting to be delivered
+	 */
+	public AsyncGraphLifecycleListener(GraphLifecycleListener delegate, int bufferSize) {
+		this(delegate, bufferSize, DEFAULT_KEEP_ALIVE_MILLIS);
+	}
+
+	AsyncGraphLifecycleListener(GraphLifecycleListener delegate, int bufferSize, long keepAliveMillis) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("bufferSize must be at least 1");
+		}
+		this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		this.keepAliveMillis = keepAliveMillis;
+		this.wrapsNodeActions = overridesWrapNodeAction(delegate);
+	}
+
+	private static boolean overridesWrapNodeAction(GraphLifecycleListener delegate) {
+		try {
+			return delegate.getClass()
+				.getMethod("wrapNodeAction", String.class, Supplier.class)
+				.getDeclaringClass() != GraphLifecycleListener.class;
+		}
+		catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	public GraphLifecycleListener delegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the number of events dropped because the buffer was full.
+	 * @return the dropped events count
+	 */
+	public long droppedEvents() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Returns the number of events waiting to be delivered.
+	 * @return the pending events count
+	 */
+	public int pendingEvents() {
+		return buffer.size();
+	}
+
+	@Override
+	public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+		publish(new Event(Type.START, nodeId, state, config, null, null));
+	}
+
+	@Override
+	public void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+		publish(new Event(Type.BEFORE, nodeId, state, config, null, curTime));
+	}
+
+	/**
+	 * Forwards to the delegate on the calling thread. When the delegate decorates node
+	 * actions, waits first for the events already published, such as the {@code before}
+	 * of this node, to be delivered to it.
+	 */
+	@Override
+	public <T> Supplier<T> wrapNodeAction(String nodeId, Supplier<T> action) {
+		if (!wrapsNodeActions) {
+			return action;
+		}
+		CountDownLatch delivered = new CountDownLatch(1);
+		if (offer(new Event(Type.FLUSH, nodeId, null, null, null, null, delivered))) {
+			try {
+				if (!delivered.await(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					log.debug("Events before node {} not delivered in time", nodeId);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return delegate.wrapNodeAction(nodeId, action);
+	}
+
+	@Override
+	public void after(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+		publish(new Event(Type.AFTER, nodeId, state, config, null, curTime));
+	}
+
+	@Override
+	public void onError(String nodeId, Map<String, Object> state, Throwable ex, RunnableConfig config) {
+		publish(new Event(Type.ERROR, nodeId, state, config, ex, null));
+	}
+
+	@Override
+	public void onComplete(String nodeId, Map<String, Object> state, RunnableConfig config) {
+		publish(new Event(Type.COMPLETE, nodeId, state, config, null, null));
+	}
+
+	private void publish(Event event) {
+		if (!offer(event)) {
+			dropped.increment();
+		}
+	}
+
+	private boolean offer(Event event) {
+		if (closed || !buffer.offer(event)) {
+			return false;
+		}
+		synchronized (workerLock) {
+			if (worker == null) {
+				worker = new Thread(this::dispatch, workerName);
+				worker.setDaemon(true);
+				worker.start();
+			}
+		}
+		return true;
+	}
+
+	private void dispatch() {
+		while (true) {
+			Event event;
+			try {
+				event = buffer.poll(keepAliveMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				event = STOP;
+			}
+			if (event == null && runningGraphs > 0) {
+				// keep the thread that opened the scopes of the running graphs
+				continue;
+			}
+			if (event == null || event == STOP) {
+				synchronized (workerLock) {
+					// an event published after the poll timed out saw this thread running
+					if (event == STOP || buffer.isEmpty()) {
+						worker = null;
+						return;
+					}
+				}
+				continue;
+			}
+			try {
+				switch (event.type()) {
+					case START -> {
+						runningGraphs++;
+						delegate.onStart(event.nodeId(), event.state(), event.config());
+					}
+					case BEFORE -> delegate.before(event.nodeId(), event.state(), event.config(), event.time());
+					case AFTER -> delegate.after(event.nodeId(), event.state(), event.config(), event.time());
+					case ERROR -> {
+						runningGraphs = Math.max(0, runningGraphs - 1);
+						delegate.onError(event.nodeId(), event.state(), event.error(), event.config());
+					}
+					case COMPLETE -> {
+						runningGraphs = Math.max(0, runningGraphs - 1);
+						delegate.onComplete(event.nodeId(), event.state(), event.config());
+					}
+					case FLUSH -> event.delivered().countDown();
+				}
+			}
+			catch (Exception ex) {
+				log.debug("Error occurred during listener processing: {}", ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting events and waits, for up to five seconds, for the buffered ones to
+	 * be delivered.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		Thread current;
+		synchronized (workerLock) {
+			current = worker;
+		}
+		if (current == null) {
+			return;
+		}
+		try {
+			if (buffer.offer(STOP, 5, TimeUnit.SECONDS)) {
+				current.join(TimeUnit.SECONDS.toMillis(5));
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -18,10 +18,13 @@ package com.alibaba.cloud.ai.graph;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.executor.NodeExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 
 import java.util.Collection;
 import java.util.Deque;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
@@ -51,6 +54,14 @@ public class CompileConfig {
 
 	private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
+	private NodeExecutor nodeExecutor = NodeExecutor.defaultExecutor();
+
+	private NodeExecutor parallelExecutor;
+
+	private int maxParallelBranches = Integer.MAX_VALUE;
+
+	private MeterRegistry meterRegistry;
+
 	/**
 	 * Returns the current state of the thread release flag.
 	 *
@@ -77,6 +88,41 @@ public class CompileConfig {
 		return observationRegistry;
 	}
 
+	/**
+	 * Gets the executor used to run node actions.
+	 * @return The node executor.
+	 */
+	public NodeExecutor nodeExecutor() {
+		return nodeExecutor;
+	}
+
+	/**
+	 * Gets the executor used to dispatch the branches of a parallel node. Defaults to
+	 * the {@link #nodeExecutor() node executor}.
+	 * @return The parallel branch executor.
+	 */
+	public NodeExecutor parallelExecutor() {
+		return parallelExecutor != null ? parallelExecutor : nodeExecutor;
+	}
+
+	/**
+	 * Gets the maximum number of branches of a single parallel node running at the same
+	 * time.
+	 * @return The maximum number of concurrent branches.
+	 */
+	public int maxParallelBranches() {
+		return maxParallelBranches;
+	}
+
+	/**
+	 * Gets the meter registry used to record parallel branch latencies and node cache
+	 * hits and misses, if any.
+	 * @return An Optional containing the meter registry.
+	 */
+	public Optional<MeterRegistry> meterRegistry() {
+		return ofNullable(meterRegistry);
+	}
+
 	/**
 	 * Returns the array of interrupts that will occur before the specified node
 	 * (deprecated).
@@ -190,6 +236,57 @@ public class CompileConfig {
 			return this;
 		}
 
+		/**
+		 * Sets the executor used to run node actions. Defaults to
+		 * {@link NodeExecutor#defaultExecutor()}, which runs sequential nodes on the
+		 * thread that drives the graph; use {@link NodeExecutor#direct()} to run parallel
+		 * branches there too.
+		 * @param nodeExecutor The NodeExecutor to use.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder nodeExecutor(NodeExecutor nodeExecutor) {
+			this.config.nodeExecutor = Objects.requireNonNull(nodeExecutor, "nodeExecutor cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the executor used to dispatch the branches of parallel nodes. Defaults to
+		 * the node executor.
+		 * @param parallelExecutor The NodeExecutor to use for parallel branches.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder parallelExecutor(NodeExecutor parallelExecutor) {
+			this.config.parallelExecutor = Objects.requireNonNull(parallelExecutor,
+					"parallelExecutor cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of branches of a single parallel node running at the
+		 * same time. The remaining branches start as soon as running ones complete.
+		 * Unbounded by default.
+		 * @param maxParallelBranches The maximum number of concurrent branches.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder maxParallelBranches(int maxParallelBranches) {
+			if (maxParallelBranches < 1) {
+				throw new IllegalArgumentException("maxParallelBranches must be at least 1");
+			}
+			this.config.maxParallelBranches = maxParallelBranches;
+			return this;
+		}
+
+		/**
+		 * Sets the meter registry used to record the latency of each parallel branch as
+		 * a {@code spring.ai.alibaba.graph.parallel.branch} timer.
+		 * @param meterRegistry The MeterRegistry to use.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			this.config.meterRegistry = meterRegistry;
+			return this;
+		}
+
 		/**
 		 * Sets the saver configuration for checkpoints.
 		 * @param saverConfig The SaverConfig to use.
@@ -254,6 +351,19 @@ public class CompileConfig {
 			return this;
 		}
 
+		/**
+		 * Adds a lifecycle listener notified asynchronously through a bounded buffer,
+		 * off the thread that executes the graph. The delivering thread stops on its own
+		 * once the graph is idle; to flush pending events, add an
+		 * {@link AsyncGraphLifecycleListener} with {@link #withLifecycleListener} and
+		 * close it instead.
+		 * @param listener The listener to wrap in an {@link AsyncGraphLifecycleListener}.
+		 * @return This builder instance for method chaining.
+		 */
+		public Builder withAsyncLifecycleListener(GraphLifecycleListener listener) {
+			return withLifecycleListener(new AsyncGraphLifecycleListener(listener));
+		}
+
 		/**
 		 * Finalizes the configuration and returns the compiled instance.
 		 * @return The configured CompileConfig object.
@@ -283,6 +393,10 @@ public class CompileConfig {
 		this.releaseThread = config.releaseThread;
 		this.lifecycleListeners = config.lifecycleListeners;
 		this.observationRegistry = config.observationRegistry;
+		this.nodeExecutor = config.nodeExecutor;
+		this.parallelExecutor = config.parallelExecutor;
+		this.maxParallelBranches = config.maxParallelBranches;
+		this.meterRegistry = config.meterRegistry;
 	}
 
 }
@@ -22,14 +22,18 @@ import com.alibaba.cloud.ai.graph.action.Command;
 import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.DeltaCheckpointSaver;
 import com.alibaba.cloud.ai.graph.exception.Errors;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.exception.RunnableErrors;
+import com.alibaba.cloud.ai.graph.executor.NodeExecutor;
 import com.alibaba.cloud.ai.graph.internal.edge.Edge;
+import com.alibaba.cloud.ai.graph.internal.edge.EdgeCondition;
 import com.alibaba.cloud.ai.graph.internal.edge.EdgeValue;
 import com.alibaba.cloud.ai.graph.internal.node.CommandNode;
-import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+import com.alibaba.cloud.ai.graph.internal.node.Node;
+import com.alibaba.cloud.ai.graph.internal.node.SubStateGraphNode;
 import com.alibaba.cloud.ai.graph.state.StateSnapshot;
 import com.alibaba.cloud.ai.graph.streaming.AsyncGeneratorUtils;
 import com.alibaba.cloud.ai.graph.utils.SystemClock;
@@ -41,9 +45,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Deque;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -51,11 +54,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
 import static com.alibaba.cloud.ai.graph.StateGraph.ERROR;
@@ -97,14 +98,14 @@ public class CompiledGraph {
 	private final Map<String, KeyStrategy> keyStrategyMap;
 
 	/**
-	 * The Nodes.
+	 * The execution plan shared by the compilations of the state graph.
 	 */
-	final Map<String, AsyncNodeActionWithConfig> nodes = new LinkedHashMap<>();
+	private final GraphPlan plan;
 
 	/**
-	 * The Edges.
+	 * The node actions by plan index.
 	 */
-	final Map<String, EdgeValue> edges = new LinkedHashMap<>();
+	private final AsyncNodeActionWithConfig[] actions;
 
 	private final ProcessedNodesEdgesAndConfig processedData;
 
@@ -115,6 +116,11 @@ public class CompiledGraph {
 	 */
 	public final CompileConfig compileConfig;
 
+	/**
+	 * The lifecycle listeners in notification (LIFO) order, captured at compile time.
+	 */
+	private final GraphLifecycleListener[] lifecycleListeners;
+
 	/**
 	 * Constructs a CompiledGraph with the given StateGraph.
 	 * @param stateGraph the StateGraph to be used in this CompiledGraph
@@ -123,16 +129,11 @@ public class CompiledGraph {
 	 */
 	protected CompiledGraph(StateGraph stateGraph, CompileConfig compileConfig) throws GraphStateException {
 		this.stateGraph = stateGraph;
-		this.keyStrategyMap = Objects.isNull(stateGraph.getOverAllStateFactory())
-				? stateGraph.getKeyStrategyFactory()
-					.apply()
-					.entrySet()
-					.stream()
-					.map(e -> Map.entry(e.getKey(), e.getValue()))
-					.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
-				: stateGraph.getOverAllStateFactory().create().keyStrategies();
+		this.plan = stateGraph.plan();
+		this.keyStrategyMap = plan.keyStrategyMap();
 
-		this.processedData = ProcessedNodesEdgesAndConfig.process(stateGraph, compileConfig);
+		this.processedData = new ProcessedNodesEdgesAndConfig(plan.nodes(), plan.edges(), Set.of(), Set.of())
+			.withInterrupts(stateGraph, compileConfig);
 
 		// CHECK INTERRUPTIONS
 		for (String interruption : processedData.interruptsBefore()) {
@@ -152,62 +153,11 @@ public class CompiledGraph {
 			.interruptsAfter(processedData.interruptsAfter())
 			.build();
 
-		// EVALUATES NODES
-		for (var n : processedData.nodes().elements) {
-			var factory = n.actionFactory();
-			Objects.requireNonNull(factory, format("action factory for node id '%s' is null!", n.id()));
-			nodes.put(n.id(), factory.apply(compileConfig));
-		}
-
-		// EVALUATE EDGES
-		for (var e : processedData.edges().elements) {
-			var targets = e.targets();
-			if (targets.size() == 1) {
-				edges.put(e.sourceId(), targets.get(0));
-			}
-			else {
-				Supplier<Stream<EdgeValue>> parallelNodeStream = () -> targets.stream()
-					.filter(target -> nodes.containsKey(target.id()));
-
-				var parallelNodeEdges = parallelNodeStream.get()
-					.map(target -> new Edge(target.id()))
-					.filter(ee -> processedData.edges().elements.contains(ee))
-					.map(ee -> processedData.edges().elements.indexOf(ee))
-					.map(index -> processedData.edges().elements.get(index))
-					.toList();
-
-				var parallelNodeTargets = parallelNodeEdges.stream()
-					.map(ee -> ee.target().id())
-					.collect(Collectors.toSet());
-
-				if (parallelNodeTargets.size() > 1) {
-
-					var conditionalEdges = parallelNodeEdges.stream()
-						.filter(ee -> ee.target().value() != null)
-						.toList();
-					if (!conditionalEdges.isEmpty()) {
-						throw Errors.unsupportedConditionalEdgeOnParallelNode.exception(e.sourceId(),
-								conditionalEdges.stream().map(Edge::sourceId).toList());
-					}
-					throw Errors.illegalMultipleTargetsOnParallelNode.exception(e.sourceId(), parallelNodeTargets);
-				}
-
-				var actions = parallelNodeStream.get()
-					// .map( target -> nodes.remove(target.id()) )
-					.map(target -> nodes.get(target.id()))
-					.toList();
-
-				var parallelNode = new ParallelNode(e.sourceId(), actions, keyStrategyMap);
-
-				nodes.put(parallelNode.id(), parallelNode.actionFactory().apply(compileConfig));
-
-				edges.put(e.sourceId(), new EdgeValue(parallelNode.id()));
-
-				edges.put(parallelNode.id(), new EdgeValue(parallelNodeTargets.iterator().next()));
-
-			}
+		var listeners = new ArrayList<>(this.compileConfig.lifecycleListeners());
+		Collections.reverse(listeners);
+		this.lifecycleListeners = listeners.toArray(new GraphLifecycleListener[0]);
 
-		}
+		this.actions = plan.actions(compileConfig);
 	}
 
 	public Collection<StateSnapshot> getStateHistory(RunnableConfig config) {
@@ -305,32 +255,31 @@ public class CompiledGraph {
 		this.maxIterations = maxIterations;
 	}
 
-	private Command nextNodeId(EdgeValue route, Map<String, Object> state, String nodeId, RunnableConfig config)
+	private Command nextNodeId(int index, Map<String, Object> state, String nodeId, RunnableConfig config)
 			throws Exception {
 
-		if (route == null) {
-			throw RunnableErrors.missingEdge.exception(nodeId);
-		}
-		if (route.id() != null) {
-			return new Command(route.id(), state);
+		int successor = index != GraphPlan.NO_ROUTE ? plan.successor(index) : GraphPlan.NO_ROUTE;
+		if (successor != GraphPlan.NO_ROUTE) {
+			return new Command(plan.id(successor), state);
 		}
-		if (route.value() != null) {
+		EdgeCondition condition = index != GraphPlan.NO_ROUTE ? plan.condition(index) : null;
+		if (condition != null) {
 			OverAllState derefState = stateGraph.getStateFactory().apply(state);
 
-			var command = route.value().action().apply(derefState, config).get();
+			var command = condition.action().apply(derefState, config).get();
 
 			var newRoute = command.gotoNode();
 
-			String result = route.value().mappings().get(newRoute);
-			if (result == null) {
+			int result = plan.route(index, newRoute);
+			if (result == GraphPlan.NO_ROUTE) {
 				throw RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
 			}
 
 			var currentState = OverAllState.updateState(state, command.update(), keyStrategyMap);
 
-			return new Command(result, currentState);
+			return new Command(plan.id(result), currentState);
 		}
-		throw RunnableErrors.executionError.exception(format("invalid edge value for nodeId: [%s] !", nodeId));
+		throw RunnableErrors.missingEdge.exception(nodeId);
 	}
 
 	/**
@@ -341,13 +290,12 @@ public class CompiledGraph {
 	 * @throws Exception if there is an error determining the next node ID
 	 */
 	private Command nextNodeId(String nodeId, Map<String, Object> state, RunnableConfig config) throws Exception {
-		return nextNodeId(edges.get(nodeId), state, nodeId, config);
+		return nextNodeId(plan.indexOf(nodeId), state, nodeId, config);
 
 	}
 
 	private Command getEntryPoint(Map<String, Object> state, RunnableConfig config) throws Exception {
-		var entryPoint = this.edges.get(START);
-		return nextNodeId(entryPoint, state, "entryPoint", config);
+		return nextNodeId(GraphPlan.START_INDEX, state, "entryPoint", config);
 	}
 
 	private boolean shouldInterruptBefore(String nodeId, String previousNodeId) {
@@ -367,8 +315,15 @@ public class CompiledGraph {
 	private Optional<Checkpoint> addCheckpoint(RunnableConfig config, String nodeId, Map<String, Object> state,
 			String nextNodeId) throws Exception {
 		if (compileConfig.checkpointSaver().isPresent()) {
-			var cp = Checkpoint.builder().nodeId(nodeId).state(cloneState(state)).nextNodeId(nextNodeId).build();
-			compileConfig.checkpointSaver().get().put(config, cp);
+			BaseCheckpointSaver saver = compileConfig.checkpointSaver().get();
+			// a delta saver clones only the values that changed since the previous
+			// checkpoint, the state itself is an immutable snapshot
+			var cp = Checkpoint.builder()
+				.nodeId(nodeId)
+				.state(saver instanceof DeltaCheckpointSaver ? new OverAllState(state) : cloneState(state))
+				.nextNodeId(nextNodeId)
+				.build();
+			saver.put(config, cp);
 			return Optional.of(cp);
 		}
 		return Optional.empty();
@@ -805,54 +760,66 @@ public class CompiledGraph {
 		private CompletableFuture<Data<Output>> evaluateAction(AsyncNodeActionWithConfig action,
 				OverAllState withState) {
 			doListeners(NODE_BEFORE, null);
-			return action.apply(withState, config).thenApply(updateState -> {
-				try {
-					if (action instanceof CommandNode.AsyncCommandNodeActionWithConfig) {
-						AsyncCommandAction commandAction = (AsyncCommandAction) updateState.get("command");
-						Command command = commandAction.apply(withState, config).join();
+			Supplier<CompletableFuture<Map<String, Object>>> nodeAction = () -> action.apply(withState, config);
+			for (GraphLifecycleListener listener : lifecycleListeners) {
+				nodeAction = listener.wrapNodeAction(currentNodeId, nodeAction);
+			}
+			NodeExecutor executor = compileConfig.nodeExecutor();
+			if (executor == NodeExecutor.defaultExecutor()) {
+				// the graph thread waits for the node anyway: run it here rather than hop
+				executor = NodeExecutor.direct();
+			}
+			return CompletableFuture.supplyAsync(nodeAction, executor)
+				.thenCompose(Function.identity())
+				.thenApply(updateState -> {
+					try {
+						if (action instanceof CommandNode.AsyncCommandNodeActionWithConfig) {
+							AsyncCommandAction commandAction = (AsyncCommandAction) updateState.get("command");
+							Command command = commandAction.apply(withState, config).join();
+
+							this.currentState = OverAllState.updateState(currentState, command.update(),
+									keyStrategyMap);
+							this.overAllState.updateState(command.update());
+							nextNodeId = command.gotoNode();
+							return Data.of(getNodeOutput());
+						}
+
+						Optional<Data<Output>> embed = getEmbedGenerator(updateState);
+						if (embed.isPresent()) {
+							return embed.get();
+						}
+
+						this.currentState = OverAllState.updateState(currentState, updateState, keyStrategyMap);
+						this.overAllState.updateState(updateState);
+						var nextNodeCommand = nextNodeId(currentNodeId, overAllState, currentState, config);
+						nextNodeId = nextNodeCommand.gotoNode();
+						this.currentState = nextNodeCommand.update();
 
-						this.currentState = OverAllState.updateState(currentState, command.update(), keyStrategyMap);
-						this.overAllState.updateState(command.update());
-						nextNodeId = command.gotoNode();
 						return Data.of(getNodeOutput());
 					}
-
-					Optional<Data<Output>> embed = getEmbedGenerator(updateState);
-					if (embed.isPresent()) {
-						return embed.get();
+					catch (Exception e) {
+						throw new CompletionException(e);
 					}
-
-					this.currentState = OverAllState.updateState(currentState, updateState, keyStrategyMap);
-					this.overAllState.updateState(updateState);
-					var nextNodeCommand = nextNodeId(currentNodeId, overAllState, currentState, config);
-					nextNodeId = nextNodeCommand.gotoNode();
-					this.currentState = nextNodeCommand.update();
-
-					return Data.of(getNodeOutput());
-				}
-				catch (Exception e) {
-					throw new CompletionException(e);
-				}
-			}).whenComplete((outputData, throwable) -> doListeners(NODE_AFTER, null));
+				})
+				.whenComplete((outputData, throwable) -> doListeners(NODE_AFTER, null));
 		}
 
 		private Command nextNodeId(String nodeId, OverAllState overAllState, Map<String, Object> state,
 				RunnableConfig config) throws Exception {
-			EdgeValue route = edges.get(nodeId);
+			int index = plan.indexOf(nodeId);
 
-			if (route == null) {
-				throw RunnableErrors.missingEdge.exception(nodeId);
-			}
-			if (route.id() != null) {
-				return new Command(route.id(), state);
+			int successor = index != GraphPlan.NO_ROUTE ? plan.successor(index) : GraphPlan.NO_ROUTE;
+			if (successor != GraphPlan.NO_ROUTE) {
+				return new Command(plan.id(successor), state);
 			}
-			if (route.value() != null) {
-				var command = route.value().action().apply(overAllState, config).get();
+			EdgeCondition condition = index != GraphPlan.NO_ROUTE ? plan.condition(index) : null;
+			if (condition != null) {
+				var command = condition.action().apply(overAllState, config).get();
 
 				var newRoute = command.gotoNode();
 
-				String result = route.value().mappings().get(newRoute);
-				if (result == null) {
+				int result = plan.route(index, newRoute);
+				if (result == GraphPlan.NO_ROUTE) {
 					throw RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
 				}
 
@@ -860,9 +827,9 @@ public class CompiledGraph {
 
 				overAllState.updateState(command.update());
 
-				return new Command(result, currentState);
+				return new Command(plan.id(result), currentState);
 			}
-			throw RunnableErrors.executionError.exception(format("invalid edge value for nodeId: [%s] !", nodeId));
+			throw RunnableErrors.missingEdge.exception(nodeId);
 		}
 
 		/**
@@ -952,7 +919,8 @@ public class CompiledGraph {
 
 				currentNodeId = nextNodeId;
 
-				var action = nodes.get(currentNodeId);
+				int index = plan.indexOf(currentNodeId);
+				var action = index != GraphPlan.NO_ROUTE ? actions[index] : null;
 
 				if (action == null)
 					throw RunnableErrors.missingNode.exception(currentNodeId);
@@ -967,39 +935,31 @@ public class CompiledGraph {
 		}
 
 		private void doListeners(String scene, Exception e) {
-			Deque<GraphLifecycleListener> listeners = new LinkedBlockingDeque<>(compileConfig.lifecycleListeners());
-
-			processListenersLIFO(listeners, scene, e);
-		}
-
-		private void processListenersLIFO(Deque<GraphLifecycleListener> listeners, String scene, Exception e) {
-			if (listeners.isEmpty()) {
+			GraphLifecycleListener[] listeners = lifecycleListeners;
+			if (listeners.length == 0) {
 				return;
 			}
-
-			GraphLifecycleListener listener = listeners.pollLast();
-
-			try {
-				if (START.equals(scene)) {
-					listener.onStart(START, this.currentState, this.config);
-				}
-				else if (END.equals(scene)) {
-					listener.onComplete(END, this.currentState, this.config);
-				}
-				else if (ERROR.equals(scene)) {
-					listener.onError(this.currentNodeId, this.currentState, e, this.config);
-				}
-				else if (NODE_BEFORE.equals(scene)) {
-					listener.before(this.currentNodeId, this.currentState, this.config, SystemClock.now());
+			for (GraphLifecycleListener listener : listeners) {
+				try {
+					if (START.equals(scene)) {
+						listener.onStart(START, this.currentState, this.config);
+					}
+					else if (END.equals(scene)) {
+						listener.onComplete(END, this.currentState, this.config);
+					}
+					else if (ERROR.equals(scene)) {
+						listener.onError(this.currentNodeId, this.currentState, e, this.config);
+					}
+					else if (NODE_BEFORE.equals(scene)) {
+						listener.before(this.currentNodeId, this.currentState, this.config, SystemClock.now());
+					}
+					else if (NODE_AFTER.equals(scene)) {
+						listener.after(this.currentNodeId, this.currentState, this.config, SystemClock.now());
+					}
 				}
-				else if (NODE_AFTER.equals(scene)) {
-					listener.after(this.currentNodeId, this.currentState, this.config, SystemClock.now());
+				catch (Exception ex) {
+					log.debug("Error occurred during listener processing: {}", ex.getMessage());
 				}
-
-				processListenersLIFO(listeners, scene, e);
-			}
-			catch (Exception ex) {
-				log.debug("Error occurred during listener processing: {}", ex.getMessage());
 			}
 		}
 
@@ -1014,32 +974,70 @@ record ProcessedNodesEdgesAndConfig(StateGraph.Nodes nodes, StateGraph.Edges edg
 		Set<String> interruptsAfter) {
 
 	/**
-	 * Instantiates a new Processed nodes edges and config.
+	 * Process processed nodes edges and config.
 	 * @param stateGraph the state graph
 	 * @param config the config
+	 * @return the processed nodes edges and config
+	 * @throws GraphStateException the graph state exception
 	 */
-	ProcessedNodesEdgesAndConfig(StateGraph stateGraph, CompileConfig config) {
-		this(stateGraph.nodes, stateGraph.edges, config.interruptsBefore(), config.interruptsAfter());
+	static ProcessedNodesEdgesAndConfig process(StateGraph stateGraph, CompileConfig config)
+			throws GraphStateException {
+		return processTopology(stateGraph).withInterrupts(stateGraph, config);
 	}
 
 	/**
-	 * Process processed nodes edges and config.
-	 * @param stateGraph the state graph
+	 * Returns these nodes and edges with the interruptions of the config, those set on
+	 * subgraphs being moved to the nodes the subgraphs were inlined into.
+	 * @param stateGraph the state graph the nodes and edges were processed from
 	 * @param config the config
 	 * @return the processed nodes edges and config
-	 * @throws GraphStateException the graph state exception
+	 * @throws GraphStateException if an interruption after a subgraph is requested
 	 */
-	static ProcessedNodesEdgesAndConfig process(StateGraph stateGraph, CompileConfig config)
+	ProcessedNodesEdgesAndConfig withInterrupts(StateGraph stateGraph, CompileConfig config)
 			throws GraphStateException {
+		var interruptsBefore = config.interruptsBefore();
+		var interruptsAfter = config.interruptsAfter();
 
-		var subgraphNodes = stateGraph.nodes.onlySubStateGraphNodes();
+		for (var subgraphNode : stateGraph.nodes.onlySubStateGraphNodes()) {
+
+			var sgEdgeStartRealTargetId = entryIdOf(subgraphNode);
+
+			// Process Interruption (Before) Subgraph(s)
+			interruptsBefore = interruptsBefore.stream()
+				.map(interrupt -> Objects.equals(subgraphNode.id(), interrupt) ? sgEdgeStartRealTargetId : interrupt)
+				.collect(Collectors.toUnmodifiableSet());
+
+			// Process Interruption (After) Subgraph(s)
+			if (interruptsAfter.contains(subgraphNode.id())) {
 
-		if (subgraphNodes.isEmpty()) {
-			return new ProcessedNodesEdgesAndConfig(stateGraph, config);
+				var edgeWithSubgraphSourceId = stateGraph.edges.edgeBySourceId(subgraphNode.id()).orElseThrow();
+
+				throw new GraphStateException(interruptAfterSubgraphMessage(edgeWithSubgraphSourceId));
+			}
 		}
 
-		var interruptsBefore = config.interruptsBefore();
-		var interruptsAfter = config.interruptsAfter();
+		return new ProcessedNodesEdgesAndConfig(nodes, edges, interruptsBefore, interruptsAfter);
+	}
+
+	private static String interruptAfterSubgraphMessage(Edge edge) {
+		var message = "'interruption after' on subgraph is not supported yet!";
+		if (edge.isParallel() || edge.target().id() == null) {
+			return message;
+		}
+		return format("%s consider to use 'interruption before' node: '%s'", message, edge.target().id());
+	}
+
+	/**
+	 * Copies the nodes and edges of the given graph, inlining its subgraphs. The result
+	 * has no interruptions.
+	 * @param stateGraph the state graph
+	 * @return the processed nodes and edges
+	 * @throws GraphStateException if a subgraph cannot be inlined
+	 */
+	static ProcessedNodesEdgesAndConfig processTopology(StateGraph stateGraph) throws GraphStateException {
+
+		var subgraphNodes = stateGraph.nodes.onlySubStateGraphNodes();
+
 		var nodes = new StateGraph.Nodes(stateGraph.nodes.exceptSubStateGraphNodes());
 		var edges = new StateGraph.Edges(stateGraph.edges.elements);
 
@@ -1052,23 +1050,12 @@ record ProcessedNodesEdgesAndConfig(StateGraph.Nodes nodes, StateGraph.Edges edg
 			//
 			var sgEdgeStart = sgWorkflow.edges.edgeBySourceId(START).orElseThrow();
 
-			if (sgEdgeStart.isParallel()) {
-				throw new GraphStateException("subgraph not support start with parallel branches yet!");
-			}
-
-			var sgEdgeStartTarget = sgEdgeStart.target();
+			var sgEntryId = entryIdOf(subgraphNode);
 
-			if (sgEdgeStartTarget.id() == null) {
-				throw new GraphStateException(format("the target for node '%s' is null!", subgraphNode.id()));
+			if (hasEntryNode(sgEdgeStart)) {
+				nodes.elements.add(passThroughNode(sgEntryId));
 			}
 
-			var sgEdgeStartRealTargetId = subgraphNode.formatId(sgEdgeStartTarget.id());
-
-			// Process Interruption (Before) Subgraph(s)
-			interruptsBefore = interruptsBefore.stream()
-				.map(interrupt -> Objects.equals(subgraphNode.id(), interrupt) ? sgEdgeStartRealTargetId : interrupt)
-				.collect(Collectors.toUnmodifiableSet());
-
 			var edgesWithSubgraphTargetId = edges.edgesByTargetId(subgraphNode.id());
 
 			if (edgesWithSubgraphTargetId.isEmpty()) {
@@ -1080,7 +1067,7 @@ record ProcessedNodesEdgesAndConfig(StateGraph.Nodes nodes, StateGraph.Edges edg
 
 				var newEdge = edgeWithSubgraphTargetId.withSourceAndTargetIdsUpdated(subgraphNode, Function.identity(),
 						id -> new EdgeValue((Objects.equals(id, subgraphNode.id())
-								? subgraphNode.formatId(sgEdgeStartTarget.id()) : id)));
+								? sgEntryId : id)));
 				edges.elements.remove(edgeWithSubgraphTargetId);
 				edges.elements.add(newEdge);
 			}
@@ -1091,26 +1078,34 @@ record ProcessedNodesEdgesAndConfig(StateGraph.Nodes nodes, StateGraph.Edges edg
 
 			var edgeWithSubgraphSourceId = edges.edgeBySourceId(subgraphNode.id()).orElseThrow();
 
+			// a subgraph routing to parallel branches exits through a pass-through node
+			// holding the parallel edge, the branches being able to join only on a node
+			EdgeValue sgExitTarget;
 			if (edgeWithSubgraphSourceId.isParallel()) {
-				throw new GraphStateException("subgraph not support routes to parallel branches yet!");
+				var sgExitId = subgraphNode.formatId(END);
+				nodes.elements.add(passThroughNode(sgExitId));
+				edges.elements.add(new Edge(sgExitId, edgeWithSubgraphSourceId.targets()));
+				sgExitTarget = new EdgeValue(sgExitId);
 			}
-
-			// Process Interruption (After) Subgraph(s)
-			if (interruptsAfter.contains(subgraphNode.id())) {
-
-				var exceptionMessage = (edgeWithSubgraphSourceId.target()
-					.id() == null) ? "'interruption after' on subgraph is not supported yet!" : format(
-							"'interruption after' on subgraph is not supported yet! consider to use 'interruption before' node: '%s'",
-							edgeWithSubgraphSourceId.target().id());
-				throw new GraphStateException(exceptionMessage);
+			else {
+				sgExitTarget = edgeWithSubgraphSourceId.target();
 			}
+			edges.elements.remove(edgeWithSubgraphSourceId);
+
+			Function<String, EdgeValue> sgTarget = id -> (Objects.equals(id, END) ? sgExitTarget
+					: new EdgeValue(subgraphNode.formatId(id)));
 
 			sgEdgesEnd.stream()
-				.map(e -> e.withSourceAndTargetIdsUpdated(subgraphNode, subgraphNode::formatId,
-						id -> (Objects.equals(id, END) ? edgeWithSubgraphSourceId.target()
-								: new EdgeValue(subgraphNode.formatId(id)))))
+				.filter(e -> !Objects.equals(e.sourceId(), START))
+				.map(e -> e.withSourceAndTargetIdsUpdated(subgraphNode, subgraphNode::formatId, sgTarget))
 				.forEach(edges.elements::add);
-			edges.elements.remove(edgeWithSubgraphSourceId);
+
+			// a subgraph starting with parallel branches or a conditional edge is entered
+			// through a pass-through node holding its start edge
+			if (hasEntryNode(sgEdgeStart)) {
+				edges.elements.add(sgEdgeStart.withSourceAndTargetIdsUpdated(subgraphNode, subgraphNode::formatId,
+						sgTarget));
+			}
 
 			//
 			// Process edges
@@ -1143,6 +1138,25 @@ record ProcessedNodesEdgesAndConfig(StateGraph.Nodes nodes, StateGraph.Edges edg
 			}).forEach(nodes.elements::add);
 		}
 
-		return new ProcessedNodesEdgesAndConfig(nodes, edges, interruptsBefore, interruptsAfter);
+		return new ProcessedNodesEdgesAndConfig(nodes, edges, Set.of(), Set.of());
+	}
+
+	/**
+	 * Returns the id of the first node run when entering the given subgraph once inlined.
+	 * @param subgraphNode the subgraph node
+	 * @return the id of the inlined start target, or of the pass-through entry node if
+	 * the subgraph has no single start target
+	 */
+	private static String entryIdOf(SubStateGraphNode subgraphNode) {
+		var sgEdgeStart = subgraphNode.subGraph().edges.edgeBySourceId(START).orElseThrow();
+		return subgraphNode.formatId(hasEntryNode(sgEdgeStart) ? START : sgEdgeStart.target().id());
+	}
+
+	private static boolean hasEntryNode(Edge sgEdgeStart) {
+		return sgEdgeStart.isParallel() || sgEdgeStart.target().id() == null;
+	}
+
+	private static Node passThroughNode(String id) {
+		return new Node(id, config -> AsyncNodeActionWithConfig.node_async((state, c) -> Map.of()));
 	}
 }
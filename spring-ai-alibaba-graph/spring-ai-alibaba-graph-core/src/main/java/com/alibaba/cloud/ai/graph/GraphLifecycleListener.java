@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.graph;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Interface for listening to graph lifecycle events, allowing callbacks to be triggered
@@ -46,6 +47,20 @@ public interface GraphLifecycleListener {
 	default void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
 	}
 
+	/**
+	 * Decorates the action of a node before it is handed to the node executor. The
+	 * returned supplier runs on the executor thread, which makes this the place to bind
+	 * thread-local context (such as the current observation) for the node body, opening
+	 * and closing it on that same thread.
+	 * @param nodeId The unique identifier of the node.
+	 * @param action The node action to decorate.
+	 * @param <T> The type of the action result.
+	 * @return the decorated action, or {@code action} itself when there is nothing to bind
+	 */
+	default <T> Supplier<T> wrapNodeAction(String nodeId, Supplier<T> action) {
+		return action;
+	}
+
 	/**
 	 * Callback triggered after a node in the graph completes execution.
 	 * @param nodeId The unique identifier of the node.
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph;
+
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.exception.Errors;
+import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.internal.edge.Edge;
+import com.alibaba.cloud.ai.graph.internal.edge.EdgeCondition;
+import com.alibaba.cloud.ai.graph.internal.edge.EdgeValue;
+import com.alibaba.cloud.ai.graph.internal.node.Node;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static java.lang.String.format;
+
+/**
+ * The immutable execution plan of a {@link StateGraph}: its subgraphs inlined, its
+ * parallel edges turned into parallel nodes, its node ids interned to int indexes and its
+ * edges stored as routing tables indexed by source node, so that routing a step costs an
+ * id lookup and an array access.
+ * <p>
+ * The plan does not depend on the {@link CompileConfig}, so the graph keeps it across
+ * compilations until it is changed. The node actions, which do depend on the config and
+ * may hold state, are created anew for every compilation.
+ */
+final class GraphPlan {
+
+	/**
+	 * The index of {@link StateGraph#START}.
+	 */
+	static final int START_INDEX = 0;
+
+	/**
+	 * Returned for unknown node ids, nodes without outgoing edge and unmapped routes.
+	 */
+	static final int NO_ROUTE = -1;
+
+	private final long version;
+
+	private final StateGraph.Nodes nodes;
+
+	private final StateGraph.Edges edges;
+
+	private final Map<String, KeyStrategy> keyStrategyMap;
+
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	private final String[] ids;
+
+	/**
+	 * The node defining the action of each index, {@code null} for {@code START},
+	 * {@code END}, parallel nodes and unknown targets.
+	 */
+	private final Node[] definitions;
+
+	/**
+	 * The branches of each parallel node, {@code null} for the other nodes.
+	 */
+	private final ParallelBranches[] parallels;
+
+	/**
+	 * The fixed successor of each node, or {@link #NO_ROUTE} when it is conditional or
+	 * missing.
+	 */
+	private final int[] successors;
+
+	private final EdgeCondition[] conditions;
+
+	/**
+	 * The target index of each route label, for the nodes with a conditional edge.
+	 */
+	private final Map<String, Integer>[] routes;
+
+	private record ParallelBranches(String sourceId, int[] branches) {
+	}
+
+	@SuppressWarnings("unchecked")
+	private GraphPlan(long version, ProcessedNodesEdgesAndConfig topology, Map<String, KeyStrategy> keyStrategyMap)
+			throws GraphStateException {
+		this.version = version;
+		this.nodes = topology.nodes();
+		this.edges = topology.edges();
+		this.keyStrategyMap = keyStrategyMap;
+
+		List<String> interned = new ArrayList<>();
+		intern(interned, START);
+		intern(interned, END);
+		for (var node : nodes.elements) {
+			Objects.requireNonNull(node.actionFactory(), format("action factory for node id '%s' is null!", node.id()));
+			intern(interned, node.id());
+		}
+		for (var edge : edges.elements) {
+			intern(interned, edge.sourceId());
+			for (var target : edge.targets()) {
+				if (target.id() != null) {
+					intern(interned, target.id());
+				}
+				else if (target.value() != null) {
+					target.value().mappings().values().forEach(id -> intern(interned, id));
+				}
+			}
+			if (edge.isParallel()) {
+				intern(interned, ParallelNode.formatId(edge.sourceId()));
+			}
+		}
+
+		int size = interned.size();
+		this.ids = interned.toArray(new String[0]);
+		this.definitions = new Node[size];
+		this.parallels = new ParallelBranches[size];
+		this.successors = new int[size];
+		this.conditions = new EdgeCondition[size];
+		this.routes = new Map[size];
+		Arrays.fill(successors, NO_ROUTE);
+
+		for (var node : nodes.elements) {
+			definitions[indexOf(node.id())] = node;
+		}
+		// a later edge from the same source replaces an earlier one
+		for (var edge : edges.elements) {
+			int source = indexOf(edge.sourceId());
+			if (edge.isParallel()) {
+				addParallelEdge(source, edge);
+			}
+			else {
+				addEdge(source, edge.target());
+			}
+		}
+	}
+
+	/**
+	 * Creates the plan of the given graph, inlining its subgraphs.
+	 * @param stateGraph the graph, already validated
+	 * @param version the modification count the plan is created for
+	 * @return the plan
+	 * @throws GraphStateException if the subgraphs or the parallel edges are invalid
+	 */
+	static GraphPlan of(StateGraph stateGraph, long version) throws GraphStateException {
+		var keyStrategyMap = Objects.isNull(stateGraph.getOverAllStateFactory())
+				? stateGraph.getKeyStrategyFactory()
+					.apply()
+					.entrySet()
+					.stream()
+					.map(e -> Map.entry(e.getKey(), e.getValue()))
+					.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
+				: stateGraph.getOverAllStateFactory().create().keyStrategies();
+
+		return new GraphPlan(version, ProcessedNodesEdgesAndConfig.processTopology(stateGraph), keyStrategyMap);
+	}
+
+	private void intern(List<String> interned, String id) {
+		if (indexes.putIfAbsent(id, interned.size()) == null) {
+			interned.add(id);
+		}
+	}
+
+	private void addEdge(int source, EdgeValue target) {
+		conditions[source] = null;
+		routes[source] = null;
+		successors[source] = NO_ROUTE;
+		if (target.id() != null) {
+			successors[source] = indexOf(target.id());
+		}
+		else if (target.value() != null) {
+			Map<String, Integer> route = new HashMap<>();
+			target.value().mappings().forEach((label, id) -> route.put(label, indexOf(id)));
+			conditions[source] = target.value();
+			routes[source] = route;
+		}
+	}
+
+	private void addParallelEdge(int source, Edge edge) throws GraphStateException {
+		var branchIds = edge.targets()
+			.stream()
+			.map(EdgeValue::id)
+			.filter(id -> id != null && nodes.anyMatchById(id))
+			.toList();
+
+		// the branches must all join on the same node
+		var branchEdges = branchIds.stream().flatMap(id -> edges.edgeBySourceId(id).stream()).toList();
+
+		Set<String> joinIds = branchEdges.stream()
+			.map(branchEdge -> branchEdge.target().id())
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+
+		if (joinIds.size() > 1) {
+			var conditionalEdges = branchEdges.stream()
+				.filter(branchEdge -> branchEdge.target().value() != null)
+				.toList();
+			if (!conditionalEdges.isEmpty()) {
+				throw Errors.unsupportedConditionalEdgeOnParallelNode.exception(edge.sourceId(),
+						conditionalEdges.stream().map(Edge::sourceId).toList());
+			}
+			throw Errors.illegalMultipleTargetsOnParallelNode.exception(edge.sourceId(), joinIds);
+		}
+
+		int parallel = indexOf(ParallelNode.formatId(edge.sourceId()));
+		parallels[parallel] = new ParallelBranches(edge.sourceId(),
+				branchIds.stream().mapToInt(this::indexOf).toArray());
+		addEdge(source, new EdgeValue(ids[parallel]));
+		var joinId = joinIds.isEmpty() ? null : joinIds.iterator().next();
+		successors[parallel] = joinId != null ? indexOf(joinId) : NO_ROUTE;
+	}
+
+	long version() {
+		return version;
+	}
+
+	StateGraph.Nodes nodes() {
+		return nodes;
+	}
+
+	StateGraph.Edges edges() {
+		return edges;
+	}
+
+	Map<String, KeyStrategy> keyStrategyMap() {
+		return keyStrategyMap;
+	}
+
+	/**
+	 * Returns the index of the given node id.
+	 * @param id the node id
+	 * @return the index, or {@link #NO_ROUTE} if the plan does not know the id
+	 */
+	int indexOf(String id) {
+		Integer index = indexes.get(id);
+		return index != null ? index : NO_ROUTE;
+	}
+
+	String id(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Returns the fixed successor of the given node.
+	 * @param index the node index
+	 * @return the successor index, or {@link #NO_ROUTE} if the node has a conditional
+	 * edge or no outgoing edge
+	 */
+	int successor(int index) {
+		return successors[index];
+	}
+
+	/**
+	 * Returns the conditional edge of the given node.
+	 * @param index the node index
+	 * @return the condition, or {@code null} if the node has no conditional edge
+	 */
+	EdgeCondition condition(int index) {
+		return conditions[index];
+	}
+
+	/**
+	 * Resolves a label returned by the conditional edge of the given node.
+	 * @param index the node index, with a conditional edge
+	 * @param label the route label
+	 * @return the target index, or {@link #NO_ROUTE} if the label is not mapped
+	 */
+	int route(int index, String label) {
+		Integer target = routes[index].get(label);
+		return target != null ? target : NO_ROUTE;
+	}
+
+	/**
+	 * Creates the node actions by node index for the given config, {@code null} for the
+	 * indexes without action. Each call creates new actions, so that compiled graphs do
+	 * not share them.
+	 * @param config the compile config handed to the node action factories
+	 * @return the actions by node index
+	 * @throws GraphStateException if an action factory fails
+	 */
+	AsyncNodeActionWithConfig[] actions(CompileConfig config) throws GraphStateException {
+		var actions = new AsyncNodeActionWithConfig[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			if (definitions[i] != null) {
+				actions[i] = definitions[i].actionFactory().apply(config);
+			}
+		}
+		for (int i = 0; i < ids.length; i++) {
+			var parallel = parallels[i];
+			if (parallel != null) {
+				var branchActions = new LinkedHashMap<String, AsyncNodeActionWithConfig>();
+				for (int branch : parallel.branches()) {
+					branchActions.put(ids[branch], actions[branch]);
+				}
+				actions[i] = new ParallelNode(parallel.sourceId(), branchActions, keyStrategyMap).actionFactory()
+					.apply(config);
+			}
+		}
+		return actions;
+	}
+
+}
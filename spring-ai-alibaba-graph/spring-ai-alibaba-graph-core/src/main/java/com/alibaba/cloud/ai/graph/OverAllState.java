@@ -23,16 +23,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.BinaryOperator;
-import java.util.function.Function;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import com.alibaba.cloud.ai.graph.state.PersistentMap;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 
-import static com.alibaba.cloud.ai.graph.utils.CollectionsUtils.entryOf;
-import static java.util.Collections.unmodifiableMap;
 import static java.util.Optional.ofNullable;
 
 /**
@@ -54,10 +48,10 @@ import static java.util.Optional.ofNullable;
  * control how new values are merged with existing ones.</li>
  * <li><strong>Resume Mode:</strong> Supports a resume flag indicating whether the state
  * is used for resuming execution.</li>
- * <li><strong>Immutable Views:</strong> Provides unmodifiable views of data and
- * strategies via {@link #data()} and {@link #keyStrategies()}.</li>
+ * <li><strong>Immutable Data:</strong> Data is held in a {@link PersistentMap}; updates
+ * copy only the changed path, and {@link #data()} returns an immutable snapshot.</li>
  * <li><strong>Snapshots:</strong> Allows creating snapshots of the current state via
- * {@link #snapShot()}.</li>
+ * {@link #snapShot()} without copying the data.</li>
  * <li><strong>Human Feedback:</strong> Supports integration of human feedback and
  * interruption messages during execution.</li>
  * </ul>
@@ -82,9 +76,10 @@ public final class OverAllState implements Serializable {
 
 	/**
 	 * Internal map storing the actual state data. All get/set operations on state values
-	 * go through this map.
+	 * go through this map. It is normally a {@link PersistentMap} and is replaced, never
+	 * mutated, on update; other maps (e.g. set by a deserializer) are converted lazily.
 	 */
-	private final Map<String, Object> data;
+	private Map<String, Object> data;
 
 	/**
 	 * Mapping of keys to their respective update strategies. Determines how values for
@@ -120,7 +115,7 @@ public final class OverAllState implements Serializable {
 	 * Reset.
 	 */
 	public void reset() {
-		this.data.clear();
+		this.data = PersistentMap.empty();
 	}
 
 	/**
@@ -128,7 +123,7 @@ public final class OverAllState implements Serializable {
 	 * @return the optional
 	 */
 	public Optional<OverAllState> snapShot() {
-		return Optional.of(new OverAllState(new HashMap<>(this.data), new HashMap<>(this.keyStrategies), this.resume));
+		return Optional.of(new OverAllState(this.data, new HashMap<>(this.keyStrategies), this.resume));
 	}
 
 	/**
@@ -136,7 +131,7 @@ public final class OverAllState implements Serializable {
 	 * @param resume the is resume
 	 */
 	public OverAllState(boolean resume) {
-		this.data = new HashMap<>();
+		this.data = PersistentMap.empty();
 		this.keyStrategies = new HashMap<>();
 		this.resume = resume;
 	}
@@ -146,7 +141,7 @@ public final class OverAllState implements Serializable {
 	 * @param data the data
 	 */
 	public OverAllState(Map<String, Object> data) {
-		this.data = new HashMap<>(data);
+		this.data = PersistentMap.from(data);
 		this.keyStrategies = new HashMap<>();
 		this.resume = false;
 	}
@@ -155,7 +150,7 @@ public final class OverAllState implements Serializable {
 	 * Instantiates a new Over all state.
 	 */
 	public OverAllState() {
-		this.data = new HashMap<>();
+		this.data = PersistentMap.empty();
 		this.keyStrategies = new HashMap<>();
 		this.registerKeyAndStrategy(OverAllState.DEFAULT_INPUT_KEY, new ReplaceStrategy());
 		this.resume = false;
@@ -168,7 +163,7 @@ public final class OverAllState implements Serializable {
 	 * @param resume the resume
 	 */
 	protected OverAllState(Map<String, Object> data, Map<String, KeyStrategy> keyStrategies, Boolean resume) {
-		this.data = data;
+		this.data = PersistentMap.from(data);
 		this.keyStrategies = keyStrategies;
 		this.registerKeyAndStrategy(OverAllState.DEFAULT_INPUT_KEY, new ReplaceStrategy());
 		this.resume = resume;
@@ -241,7 +236,7 @@ public final class OverAllState implements Serializable {
 	 * human feedback intact.
 	 */
 	public void clear() {
-		this.data.clear();
+		this.data = PersistentMap.empty();
 	}
 
 	/**
@@ -254,8 +249,7 @@ public final class OverAllState implements Serializable {
 	public void cover(OverAllState overAllState) {
 		this.keyStrategies.clear();
 		this.keyStrategies.putAll(overAllState.keyStrategies());
-		this.data.clear();
-		this.data.putAll(overAllState.data());
+		this.data = overAllState.persistentData();
 		this.resume = overAllState.resume;
 		this.humanFeedback = overAllState.humanFeedback;
 	}
@@ -275,10 +269,7 @@ public final class OverAllState implements Serializable {
 			return this;
 		}
 
-		Map<String, KeyStrategy> keyStrategies = keyStrategies();
-		input.keySet().stream().filter(key -> keyStrategies.containsKey(key)).forEach(key -> {
-			this.data.put(key, keyStrategies.get(key).apply(value(key, null), input.get(key)));
-		});
+		this.data = applyStrategies(input);
 		return this;
 	}
 
@@ -318,13 +309,28 @@ public final class OverAllState implements Serializable {
 	 * @return the map
 	 */
 	public Map<String, Object> updateState(Map<String, Object> partialState) {
-		Map<String, KeyStrategy> keyStrategies = keyStrategies();
-		partialState.keySet().stream().filter(key -> keyStrategies.containsKey(key)).forEach(key -> {
-			this.data.put(key, keyStrategies.get(key).apply(value(key, null), partialState.get(key)));
-		});
+		this.data = applyStrategies(partialState);
 		return data();
 	}
 
+	private PersistentMap<String, Object> applyStrategies(Map<String, Object> partialState) {
+		PersistentMap<String, Object> result = persistentData();
+		for (Map.Entry<String, Object> entry : partialState.entrySet()) {
+			KeyStrategy strategy = keyStrategies.get(entry.getKey());
+			if (strategy != null) {
+				result = result.plus(entry.getKey(), strategy.apply(result.get(entry.getKey()), entry.getValue()));
+			}
+		}
+		return result;
+	}
+
+	private PersistentMap<String, Object> persistentData() {
+		if (!(data instanceof PersistentMap)) {
+			data = PersistentMap.from(data);
+		}
+		return (PersistentMap<String, Object>) data;
+	}
+
 	/**
 	 * Updates the internal state based on a schema-defined strategy.
 	 * <p>
@@ -378,8 +384,7 @@ public final class OverAllState implements Serializable {
 			return state;
 		}
 
-		return Stream.concat(state.entrySet().stream(), partialState.entrySet().stream())
-			.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, OverAllState::mergeFunction));
+		return PersistentMap.from(state).plusAll(partialState);
 	}
 
 	/**
@@ -398,8 +403,32 @@ public final class OverAllState implements Serializable {
 
 		Map<String, Object> updatedPartialState = updatePartialStateFromSchema(state, partialState, keyStrategies);
 
-		return Stream.concat(state.entrySet().stream(), updatedPartialState.entrySet().stream())
-			.collect(toMapRemovingNulls(Map.Entry::getKey, Map.Entry::getValue, (currentValue, newValue) -> newValue));
+		PersistentMap<String, Object> result = withoutNullValues(state);
+		for (Map.Entry<String, Object> entry : updatedPartialState.entrySet()) {
+			result = entry.getValue() == null ? result.minus(entry.getKey())
+					: result.plus(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Converts the state to a {@link PersistentMap}, dropping null values. A
+	 * {@link PersistentMap} produced by {@link #updateState(Map, Map, Map)} never holds
+	 * null values and is returned as is.
+	 * @param state the state
+	 * @return the persistent state
+	 */
+	private static PersistentMap<String, Object> withoutNullValues(Map<String, Object> state) {
+		if (state instanceof PersistentMap<String, Object> persistent) {
+			return persistent;
+		}
+		PersistentMap<String, Object> result = PersistentMap.empty();
+		for (Map.Entry<String, Object> entry : state.entrySet()) {
+			if (entry.getValue() != null) {
+				result = result.plus(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -415,56 +444,14 @@ public final class OverAllState implements Serializable {
 		if (keyStrategies == null || keyStrategies.isEmpty()) {
 			return partialState;
 		}
-		return partialState.entrySet().stream().map(entry -> {
-
+		Map<String, Object> result = new HashMap<>(partialState.size());
+		for (Map.Entry<String, Object> entry : partialState.entrySet()) {
 			KeyStrategy channel = keyStrategies.get(entry.getKey());
-			if (channel != null) {
-				Object newValue = channel.apply(state.get(entry.getKey()), entry.getValue());
-				return entryOf(entry.getKey(), newValue);
-			}
-
-			return entry;
-		}).collect(toMapAllowingNulls(Map.Entry::getKey, Map.Entry::getValue));
-	}
-
-	private static <T, K, U> Collector<T, ?, Map<K, U>> toMapRemovingNulls(Function<? super T, ? extends K> keyMapper,
-			Function<? super T, ? extends U> valueMapper, BinaryOperator<U> mergeFunction) {
-		return Collector.of(HashMap::new, (map, element) -> {
-			K key = keyMapper.apply(element);
-			U value = valueMapper.apply(element);
-			if (value == null) {
-				map.remove(key);
-			}
-			else {
-				map.merge(key, value, mergeFunction);
-			}
-		}, (map1, map2) -> {
-			map2.forEach((key, value) -> {
-				if (value != null) {
-					map1.merge(key, value, mergeFunction);
-				}
-			});
-			return map1;
-		}, Collector.Characteristics.UNORDERED);
-	}
-
-	private static <T, K, U> Collector<T, ?, Map<K, U>> toMapAllowingNulls(Function<? super T, ? extends K> keyMapper,
-			Function<? super T, ? extends U> valueMapper) {
-		return Collector.of(HashMap::new,
-				(map, element) -> map.put(keyMapper.apply(element), valueMapper.apply(element)), (map1, map2) -> {
-					map1.putAll(map2);
-					return map1;
-				}, Collector.Characteristics.UNORDERED);
-	}
-
-	/**
-	 * Merges the current value with the new value using the appropriate merge function.
-	 * @param currentValue the current value
-	 * @param newValue the new value
-	 * @return the merged value
-	 */
-	private static Object mergeFunction(Object currentValue, Object newValue) {
-		return newValue;
+			Object newValue = channel != null ? channel.apply(state.get(entry.getKey()), entry.getValue())
+					: entry.getValue();
+			result.put(entry.getKey(), newValue);
+		}
+		return result;
 	}
 
 	/**
@@ -480,7 +467,7 @@ public final class OverAllState implements Serializable {
 	 * @return the map
 	 */
 	public final Map<String, Object> data() {
-		return unmodifiableMap(data);
+		return persistentData();
 	}
 
 	/**
@@ -19,6 +19,8 @@ import com.alibaba.cloud.ai.graph.action.AsyncCommandAction;
 import com.alibaba.cloud.ai.graph.action.AsyncEdgeAction;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.cache.CachedNodeAction;
+import com.alibaba.cloud.ai.graph.cache.NodeCachePolicy;
 import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.constant.SaverConstant;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
@@ -107,7 +109,19 @@ public class StateGraph {
 	/**
 	 * Serializer for the state.
 	 */
-	private final PlainTextStateSerializer stateSerializer;
+	private final StateSerializer<OverAllState> stateSerializer;
+
+	/**
+	 * Number of changes made to the nodes and edges, used to tell whether the cached plan
+	 * is still current.
+	 */
+	private volatile long modCount;
+
+	/**
+	 * The plan of the last compilation, reused until the graph or one of its subgraphs
+	 * changes.
+	 */
+	private volatile GraphPlan plan;
 
 	/**
 	 * Jackson-based serializer for state.
@@ -149,6 +163,32 @@ public class StateGraph {
 		this.stateSerializer = stateSerializer;
 	}
 
+	/**
+	 * Constructs a StateGraph with the specified name, key strategy factory, and state
+	 * serializer, e.g. a
+	 * {@link com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer}.
+	 * @param name the name of the graph
+	 * @param keyStrategyFactory the factory for providing key strategies
+	 * @param stateSerializer the state serializer to use
+	 */
+	public StateGraph(String name, KeyStrategyFactory keyStrategyFactory,
+			StateSerializer<OverAllState> stateSerializer) {
+		this.name = name;
+		this.keyStrategyFactory = keyStrategyFactory;
+		this.stateSerializer = stateSerializer;
+	}
+
+	/**
+	 * Constructs a StateGraph with the specified key strategy factory and state
+	 * serializer.
+	 * @param keyStrategyFactory the factory for providing key strategies
+	 * @param stateSerializer the state serializer to use
+	 */
+	public StateGraph(KeyStrategyFactory keyStrategyFactory, StateSerializer<OverAllState> stateSerializer) {
+		this.keyStrategyFactory = keyStrategyFactory;
+		this.stateSerializer = stateSerializer;
+	}
+
 	/**
 	 * Constructs a StateGraph with the given key strategy factory and name.
 	 * @param keyStrategyFactory the factory for providing key strategies
@@ -310,6 +350,46 @@ public class StateGraph {
 		return addNode(id, node);
 	}
 
+	/**
+	 * Adds a node whose results are cached: while the values of the input keys of the
+	 * policy are unchanged, the action runs once and its result is reused.
+	 * @param id the identifier of the node
+	 * @param action the asynchronous node action to be performed by the node
+	 * @param cachePolicy the cache policy of the node
+	 * @return this state graph instance
+	 * @throws GraphStateException if the node identifier is invalid or the node already
+	 * exists
+	 */
+	public StateGraph addNode(String id, AsyncNodeAction action, NodeCachePolicy cachePolicy)
+			throws GraphStateException {
+		return addNode(id, AsyncNodeActionWithConfig.of(action), cachePolicy);
+	}
+
+	/**
+	 * Adds a node whose results are cached: while the values of the input keys of the
+	 * policy are unchanged, the action runs once and its result is reused.
+	 * @param id the identifier of the node
+	 * @param actionWithConfig the action to be performed by the node
+	 * @param cachePolicy the cache policy of the node
+	 * @return this state graph instance
+	 * @throws GraphStateException if the node identifier is invalid or the node already
+	 * exists
+	 * @throws IllegalArgumentException if the policy has an explicit cache but neither
+	 * the policy nor the graph provides a namespace
+	 */
+	public StateGraph addNode(String id, AsyncNodeActionWithConfig actionWithConfig, NodeCachePolicy cachePolicy)
+			throws GraphStateException {
+		Objects.requireNonNull(cachePolicy, "cachePolicy cannot be null");
+		String namespace = cachePolicy.namespace().orElse(name);
+		if (namespace == null && cachePolicy.isSharedCache()) {
+			throw new IllegalArgumentException(String.format(
+					"node '%s' uses a shared cache: set a namespace on its cache policy or name the graph", id));
+		}
+		Node node = new Node(id, (config) -> new CachedNodeAction(namespace, id, actionWithConfig, cachePolicy,
+				stateSerializer, config));
+		return addNode(id, node);
+	}
+
 	/**
 	 * Adds a node to the graph with the specified identifier and node instance.
 	 * @param id the identifier of the node
@@ -331,6 +411,7 @@ public class StateGraph {
 		}
 
 		nodes.elements.add(node);
+		modCount++;
 		return this;
 	}
 
@@ -356,6 +437,7 @@ public class StateGraph {
 		}
 
 		nodes.elements.add(node);
+		modCount++;
 		return this;
 	}
 
@@ -384,6 +466,7 @@ public class StateGraph {
 		}
 
 		nodes.elements.add(node);
+		modCount++;
 		return this;
 	}
 
@@ -411,6 +494,7 @@ public class StateGraph {
 		else {
 			edges.elements.add(newEdge);
 		}
+		modCount++;
 
 		return this;
 	}
@@ -441,6 +525,7 @@ public class StateGraph {
 		else {
 			edges.elements.add(newEdge);
 		}
+		modCount++;
 		return this;
 	}
 
@@ -497,9 +582,35 @@ public class StateGraph {
 	public CompiledGraph compile(CompileConfig config) throws GraphStateException {
 		Objects.requireNonNull(config, "config cannot be null");
 
+		return new CompiledGraph(this, config);
+	}
+
+	/**
+	 * Validates the graph and returns its execution plan, creating the plan only if the
+	 * graph or one of its subgraphs changed since the last call.
+	 * @return the plan
+	 * @throws GraphStateException if there are errors related to the graph state
+	 */
+	GraphPlan plan() throws GraphStateException {
+		long version = version();
 		validateGraph();
+		var plan = this.plan;
+		if (plan == null || plan.version() != version) {
+			plan = GraphPlan.of(this, version);
+			this.plan = plan;
+		}
+		return plan;
+	}
 
-		return new CompiledGraph(this, config);
+	/**
+	 * Returns a number that grows whenever this graph or one of its subgraphs changes.
+	 */
+	private long version() {
+		long version = modCount;
+		for (var subgraphNode : nodes.onlySubStateGraphNodes()) {
+			version += subgraphNode.subGraph().version();
+		}
+		return version;
 	}
 
 	/**
@@ -214,6 +214,14 @@ public interface AsyncGenerator<E> extends Iterable<E>, AsyncGeneratorOperators<
 			return resultValue == null ? Optional.empty() : Optional.of(resultValue);
 		}
 
+		/**
+		 * Returns the future of the element, or {@code null} for done and embed data.
+		 * @return the element future
+		 */
+		public CompletableFuture<E> data() {
+			return data;
+		}
+
 		public boolean isDone() {
 			return data == null && embed == null;
 		}
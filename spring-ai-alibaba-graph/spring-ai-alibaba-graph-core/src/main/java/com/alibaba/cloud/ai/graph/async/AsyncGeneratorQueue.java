@@ -16,15 +16,22 @@
 package com.alibaba.cloud.ai.graph.async;
 
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static java.util.concurrent.ForkJoinPool.commonPool;
 
 /**
- * Represents a queue-based asynchronous generator.
+ * Represents a queue-based asynchronous generator. The consumer side parks on the queue
+ * while waiting for the producer, so an idle stream does not consume CPU. Using a
+ * {@link BoundedQueue} additionally makes a producer that inserts with
+ * {@link BlockingQueue#put(Object)} wait when the consumer falls behind, until the
+ * consumer closes the generator.
  */
 public class AsyncGeneratorQueue {
 
@@ -33,10 +40,12 @@ public class AsyncGeneratorQueue {
 	 *
 	 * @param <E> the type of elements in the queue
 	 */
-	public static class Generator<E> implements AsyncGenerator<E> {
+	public static class Generator<E> implements AsyncGenerator<E>, AutoCloseable {
 
 		AsyncGenerator.Data<E> isEnd = null;
 
+		private volatile boolean closed;
+
 		final BlockingQueue<AsyncGenerator.Data<E>> queue;
 
 		/**
@@ -52,21 +61,102 @@ public class AsyncGeneratorQueue {
 		}
 
 		/**
-		 * Retrieves the next element from the queue asynchronously.
+		 * Retrieves the next element from the queue, waiting for the producer if none is
+		 * available yet.
 		 * @return the next element from the queue
 		 */
 		@Override
 		public Data<E> next() {
-			while (isEnd == null) {
-				Data<E> value = queue.poll();
-				if (value != null) {
-					if (value.isDone()) {
-						isEnd = value;
-					}
-					return value;
+			if (isEnd != null) {
+				return isEnd;
+			}
+			if (closed) {
+				isEnd = Data.done();
+				return isEnd;
+			}
+			Data<E> value;
+			try {
+				value = queue.take();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				isEnd = Data.done();
+				return Data.error(ex);
+			}
+			if (value.isDone() || closed) {
+				isEnd = closed ? Data.done() : value;
+				return isEnd;
+			}
+			return value;
+		}
+
+		/**
+		 * Stops consuming: the pending elements are dropped, a producer waiting in
+		 * {@link BoundedQueue#put(Object)} is cancelled and {@link #next()} returns done
+		 * from now on.
+		 */
+		@Override
+		public void close() {
+			closed = true;
+			if (queue instanceof BoundedQueue<?> bounded) {
+				bounded.close();
+			}
+			queue.clear();
+			// wakes up a consumer waiting in next()
+			queue.offer(Data.done());
+		}
+
+	}
+
+	/**
+	 * Bounded queue between a producer and the {@link Generator} consuming it. Producers
+	 * insert with {@link #put(Object)}, which waits for free space; {@code add} and
+	 * {@code offer} keep the {@link BlockingQueue} contract and fail when the queue is
+	 * full.
+	 *
+	 * @param <E> the type of elements in the queue
+	 */
+	public static class BoundedQueue<E> extends ArrayBlockingQueue<E> {
+
+		// how often a waiting producer checks whether the consumer closed the queue
+		private static final long CLOSE_CHECK_MILLIS = 100;
+
+		private volatile boolean closed;
+
+		/**
+		 * Creates a bounded queue with the given capacity.
+		 * @param capacity the maximum number of elements waiting to be consumed
+		 */
+		public BoundedQueue(int capacity) {
+			super(capacity);
+		}
+
+		/**
+		 * Inserts the element, waiting for space to become available.
+		 * @param e the element to add
+		 * @throws InterruptedException if interrupted while waiting
+		 * @throws CancellationException if the consumer closed the queue
+		 */
+		@Override
+		public void put(E e) throws InterruptedException {
+			while (!closed) {
+				if (offer(e, CLOSE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+					return;
 				}
 			}
-			return isEnd;
+			throw new CancellationException("the consumer closed the queue");
+		}
+
+		/**
+		 * Makes waiting and later {@link #put(Object)} calls fail, for a producer whose
+		 * consumer stopped consuming.
+		 */
+		void close() {
+			closed = true;
+		}
+
+		boolean isClosed() {
+			return closed;
 		}
 
 	}
@@ -103,13 +193,16 @@ public class AsyncGeneratorQueue {
 			try {
 				consumer.accept(queue);
 			}
+			catch (CancellationException ex) {
+				// the generator was closed while the producer was waiting
+			}
 			catch (Throwable ex) {
 				CompletableFuture<E> error = new CompletableFuture<>();
 				error.completeExceptionally(ex);
-				queue.add(AsyncGenerator.Data.of(error));
+				put(queue, AsyncGenerator.Data.of(error));
 			}
 			finally {
-				queue.add(AsyncGenerator.Data.done());
+				put(queue, AsyncGenerator.Data.done());
 			}
 
 		});
@@ -117,6 +210,41 @@ public class AsyncGeneratorQueue {
 		return new Generator<>(queue);
 	}
 
+	/**
+	 * Inserts a terminal element, waiting for free space unless the generator was closed.
+	 */
+	private static <E> void put(BlockingQueue<AsyncGenerator.Data<E>> queue, AsyncGenerator.Data<E> data) {
+		if (queue instanceof BoundedQueue<?> bounded && bounded.isClosed()) {
+			return;
+		}
+		try {
+			queue.put(data);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		catch (CancellationException ex) {
+			// the generator was closed meanwhile
+		}
+	}
+
+	/**
+	 * Creates an AsyncGenerator backed by a {@link BoundedQueue}. A producer inserting
+	 * with {@link BlockingQueue#put(Object)} waits whenever {@code capacity} elements are
+	 * pending, so a slow consumer throttles it instead of letting the queue grow without
+	 * limit. Closing the returned generator cancels a waiting producer.
+	 * @param <E> the type of elements in the queue
+	 * @param capacity the maximum number of pending elements
+	 * @param consumer the consumer for processing elements from the queue
+	 * @param executor the executor for asynchronous processing
+	 * @return an AsyncGenerator instance
+	 */
+	public static <E> AsyncGenerator<E> bounded(int capacity, Consumer<BlockingQueue<AsyncGenerator.Data<E>>> consumer,
+			Executor executor) {
+		BlockingQueue<AsyncGenerator.Data<E>> queue = new BoundedQueue<>(capacity);
+		return of(queue, consumer, executor);
+	}
+
 	/**
 	 * Creates an AsyncGenerator from the provided queue, executor, and consumer.
 	 * @param <E> the type of elements in the queue
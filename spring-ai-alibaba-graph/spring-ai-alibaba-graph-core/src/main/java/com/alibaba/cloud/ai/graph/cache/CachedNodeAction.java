@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.async.internal.reactive.GeneratorSubscriber;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a node action through a {@link NodeCache}: the result is looked up under a
+ * SHA-256 hash of the namespace, the node id and the serialized values of the input keys
+ * of the {@link NodeCachePolicy} (of the whole state if it declares none), and the action
+ * runs only on a miss. Results holding async generators are streamed, hence never
+ * stored.
+ */
+public class CachedNodeAction implements AsyncNodeActionWithConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(CachedNodeAction.class);
+
+	/**
+	 * The name of the counter of the cache lookups of each cached node, tagged with the
+	 * {@code node} id and the {@code result}, {@code hit} or {@code miss}.
+	 */
+	public static final String CACHE_METRIC = "spring.ai.alibaba.graph.node.cache";
+
+	private final String namespace;
+
+	private final String nodeId;
+
+	private final AsyncNodeActionWithConfig action;
+
+	private final NodeCachePolicy policy;
+
+	private final StateSerializer<OverAllState> serializer;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	/**
+	 * Creates the cached action of a node.
+	 * @param namespace the namespace of the cache keys, typically the graph name, or
+	 * {@code null}
+	 * @param nodeId the id of the node, part of the cache key
+	 * @param action the action run on misses
+	 * @param policy the cache policy
+	 * @param serializer the serializer of the input values hashed into the cache key
+	 * @param config the compile config, whose meter registry records the hits and misses
+	 */
+	public CachedNodeAction(String namespace, String nodeId, AsyncNodeActionWithConfig action,
+			NodeCachePolicy policy, StateSerializer<OverAllState> serializer, CompileConfig config) {
+		this.namespace = namespace != null ? namespace : "";
+		this.nodeId = nodeId;
+		this.action = action;
+		this.policy = policy;
+		this.serializer = serializer;
+		MeterRegistry meterRegistry = config.meterRegistry().orElse(null);
+		this.hits = meterRegistry != null ? counter(meterRegistry, "hit") : null;
+		this.misses = meterRegistry != null ? counter(meterRegistry, "miss") : null;
+	}
+
+	private Counter counter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder(CACHE_METRIC)
+			.description("Cache lookups of graph nodes")
+			.tag("node", nodeId)
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+
+	@Override
+	public CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config) {
+		Optional<String> key = keyOf(state);
+		if (key.isEmpty()) {
+			return action.apply(state, config);
+		}
+		Optional<Map<String, Object>> cached = policy.cache().get(key.get());
+		if (cached.isPresent()) {
+			increment(hits);
+			return CompletableFuture.completedFuture(cached.get());
+		}
+		increment(misses);
+		return action.apply(state, config).thenApply(result -> {
+			if (result != null && isCacheable(result)) {
+				try {
+					policy.cache().put(key.get(), result, policy.ttl().orElse(null));
+				}
+				catch (RuntimeException e) {
+					// a cache failure must not fail the node
+					log.warn("cannot cache result of node '{}': {}", nodeId, e.getMessage());
+				}
+			}
+			return result;
+		});
+	}
+
+	private static void increment(Counter counter) {
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
+	/**
+	 * Returns the cache key of the given state, or nothing if an input value cannot be
+	 * serialized, in which case the node runs uncached.
+	 */
+	Optional<String> keyOf(OverAllState state) {
+		Map<String, Object> inputs = new HashMap<>();
+		if (policy.inputKeys().isEmpty()) {
+			inputs.putAll(state.data());
+		}
+		for (String inputKey : policy.inputKeys()) {
+			state.value(inputKey).ifPresent(value -> inputs.put(inputKey, value));
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(nodeId.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(serializer.writeObject(new OverAllState(inputs)));
+			return Optional.of(HexFormat.of().formatHex(digest.digest()));
+		}
+		catch (IOException e) {
+			log.debug("cannot compute cache key of node '{}': {}", nodeId, e.getMessage());
+			return Optional.empty();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isCacheable(Map<String, Object> result) {
+		for (Object value : result.values()) {
+			if (value instanceof AsyncGenerator<?> || value instanceof GeneratorSubscriber) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process {@link NodeCache} holding at most {@code maximumSize} results. When full,
+ * the least recently used result is evicted; expired results are dropped when read.
+ *
+ * <p>
+ * Results are stored as returned by the node, without copy, so nodes must not mutate
+ * the maps they return.
+ * </p>
+ */
+public class MemoryNodeCache implements NodeCache {
+
+	/**
+	 * The number of results kept by {@link #MemoryNodeCache()}.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+	private record Entry(Map<String, Object> result, long expiresAt) {
+
+		boolean isExpired(long now) {
+			return expiresAt != 0 && now - expiresAt >= 0;
+		}
+
+	}
+
+	private final LinkedHashMap<String, Entry> entries;
+
+	/**
+	 * Creates a cache keeping up to {@link #DEFAULT_MAXIMUM_SIZE} results.
+	 */
+	public MemoryNodeCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Creates a cache keeping up to the given number of results.
+	 * @param maximumSize the maximum number of results
+	 */
+	public MemoryNodeCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("maximumSize must be at least 1");
+		}
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	@Override
+	public synchronized Optional<Map<String, Object>> get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return Optional.empty();
+		}
+		if (entry.isExpired(System.nanoTime())) {
+			entries.remove(key);
+			return Optional.empty();
+		}
+		return Optional.of(entry.result());
+	}
+
+	@Override
+	public synchronized void put(String key, Map<String, Object> result, Duration ttl) {
+		// 0 stands for no expiration, a computed deadline of 0 is moved by a nanosecond
+		long expiresAt = 0;
+		if (ttl != null) {
+			expiresAt = System.nanoTime() + ttl.toNanos();
+			if (expiresAt == 0) {
+				expiresAt = 1;
+			}
+		}
+		entries.put(key, new Entry(result, expiresAt));
+	}
+
+	/**
+	 * Returns the number of results held, including the expired ones not read since.
+	 * @return the number of results
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+}
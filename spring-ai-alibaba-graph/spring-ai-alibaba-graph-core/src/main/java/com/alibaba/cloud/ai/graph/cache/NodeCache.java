@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage of the results of cached nodes, keyed by a hash of the namespace, the node id
+ * and the values of its input keys.
+ *
+ * <p>
+ * Implementations must be thread safe: the same cache is typically shared by the nodes
+ * of many graphs and threads.
+ * </p>
+ *
+ * @see NodeCachePolicy
+ * @see MemoryNodeCache
+ * @see RedisNodeCache
+ */
+public interface NodeCache {
+
+	/**
+	 * Returns the result stored under the given key, if it did not expire.
+	 * @param key the cache key
+	 * @return the node result
+	 */
+	Optional<Map<String, Object>> get(String key);
+
+	/**
+	 * Stores a node result.
+	 * @param key the cache key
+	 * @param result the node result
+	 * @param ttl how long the result is kept, or {@code null} to keep it until evicted
+	 */
+	void put(String key, Map<String, Object> result, Duration ttl);
+
+}
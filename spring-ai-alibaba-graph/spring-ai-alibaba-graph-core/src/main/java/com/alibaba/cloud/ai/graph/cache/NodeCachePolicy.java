@@ -0,0 +1,159 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Describes how the results of a node are cached: the cache they are stored in, the
+ * namespace separating them from the results of other graphs sharing that cache, the
+ * state keys the node reads, whose values make up the cache key, and how long results
+ * are kept.
+ *
+ * <p>
+ * Only deterministic nodes should be cached: a node whose result depends on anything
+ * but its input keys, or that has side effects, returns stale results on hits.
+ * </p>
+ *
+ * @see com.alibaba.cloud.ai.graph.StateGraph#addNode(String,
+ * com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig, NodeCachePolicy)
+ */
+public final class NodeCachePolicy {
+
+	private final NodeCache cache;
+
+	private final boolean sharedCache;
+
+	private final String namespace;
+
+	private final List<String> inputKeys;
+
+	private final Duration ttl;
+
+	private NodeCachePolicy(Builder builder) {
+		this.cache = builder.cache;
+		this.sharedCache = builder.sharedCache;
+		this.namespace = builder.namespace;
+		this.inputKeys = builder.inputKeys;
+		this.ttl = builder.ttl;
+	}
+
+	public NodeCache cache() {
+		return cache;
+	}
+
+	/**
+	 * Returns whether the cache was given to the builder, hence may be shared with other
+	 * policies, rather than created for this policy alone.
+	 * @return whether the cache may be shared
+	 */
+	public boolean isSharedCache() {
+		return sharedCache;
+	}
+
+	public Optional<String> namespace() {
+		return Optional.ofNullable(namespace);
+	}
+
+	/**
+	 * Returns the state keys read by the node. When empty, the whole state makes up the
+	 * cache key.
+	 * @return the input keys
+	 */
+	public List<String> inputKeys() {
+		return inputKeys;
+	}
+
+	public Optional<Duration> ttl() {
+		return Optional.ofNullable(ttl);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private NodeCache cache;
+
+		private boolean sharedCache;
+
+		private String namespace;
+
+		private List<String> inputKeys = List.of();
+
+		private Duration ttl;
+
+		/**
+		 * Sets the cache the results are stored in. By default, each policy gets its own
+		 * {@link MemoryNodeCache}.
+		 * @param cache the cache
+		 * @return this builder
+		 */
+		public Builder cache(NodeCache cache) {
+			this.cache = cache;
+			return this;
+		}
+
+		/**
+		 * Sets the namespace of the cache keys, which keeps apart nodes of different
+		 * graphs that have the same id and share a cache. Defaults to the name of the
+		 * graph; one of the two is required when the cache is set explicitly.
+		 * @param namespace the namespace
+		 * @return this builder
+		 */
+		public Builder namespace(String namespace) {
+			this.namespace = namespace;
+			return this;
+		}
+
+		/**
+		 * Sets the state keys read by the node. If none is set, the values of the whole
+		 * state make up the cache key.
+		 * @param inputKeys the input keys
+		 * @return this builder
+		 */
+		public Builder inputKeys(String... inputKeys) {
+			this.inputKeys = List.of(inputKeys);
+			return this;
+		}
+
+		/**
+		 * Sets how long results are kept. By default they are kept until evicted.
+		 * @param ttl the time to live of the results
+		 * @return this builder
+		 */
+		public Builder ttl(Duration ttl) {
+			if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+				throw new IllegalArgumentException("ttl must be positive");
+			}
+			this.ttl = ttl;
+			return this;
+		}
+
+		public NodeCachePolicy build() {
+			sharedCache = cache != null;
+			if (cache == null) {
+				cache = new MemoryNodeCache();
+			}
+			return new NodeCachePolicy(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NodeCache} storing each result under {@code graph:node-cache:<key>}, serialized
+ * with a {@link StateSerializer}. Expiration and eviction are left to Redis: results are
+ * stored with their TTL, and the size of the cache is bounded by the {@code maxmemory}
+ * policy of the server.
+ */
+public class RedisNodeCache implements NodeCache {
+
+	private static final Logger log = LoggerFactory.getLogger(RedisNodeCache.class);
+
+	private static final String PREFIX = "graph:node-cache:";
+
+	private final RedissonClient redisson;
+
+	private final StateSerializer<OverAllState> serializer;
+
+	/**
+	 * Creates a cache on the given client.
+	 * @param redisson the redisson client
+	 * @param serializer the serializer of the results
+	 */
+	public RedisNodeCache(RedissonClient redisson, StateSerializer<OverAllState> serializer) {
+		this.redisson = Objects.requireNonNull(redisson, "redisson cannot be null");
+		this.serializer = Objects.requireNonNull(serializer, "serializer cannot be null");
+	}
+
+	private RBucket<byte[]> bucket(String key) {
+		return redisson.getBucket(PREFIX + key, ByteArrayCodec.INSTANCE);
+	}
+
+	@Override
+	public Optional<Map<String, Object>> get(String key) {
+		byte[] bytes = bucket(key).get();
+		if (bytes == null) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(serializer.readObject(bytes).data());
+		}
+		catch (IOException | ClassNotFoundException e) {
+			// an unreadable result, e.g. written by another version, is a miss
+			log.warn("cannot read cached result '{}': {}", key, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	@Override
+	public void put(String key, Map<String, Object> result, Duration ttl) {
+		byte[] bytes;
+		try {
+			bytes = serializer.writeObject(new OverAllState(result));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (ttl != null) {
+			bucket(key).set(bytes, ttl.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		else {
+			bucket(key).set(bytes);
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import com.alibaba.cloud.ai.graph.OverAllState;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 public class Checkpoint implements Serializable {
@@ -33,6 +34,18 @@ public class Checkpoint implements Serializable {
 
 	private String nextNodeId = null;
 
+	/**
+	 * Id of the checkpoint this one is a delta of, or {@code null} if {@link #state}
+	 * holds the full state.
+	 */
+	private String parentId = null;
+
+	/**
+	 * Keys present in the parent checkpoint but removed in this one. Only meaningful
+	 * for delta checkpoints.
+	 */
+	private Set<String> removedKeys = Set.of();
+
 	private Checkpoint() {
 	}
 
@@ -41,6 +54,8 @@ public class Checkpoint implements Serializable {
 		this.state = checkpoint.state;
 		this.nodeId = checkpoint.nodeId;
 		this.nextNodeId = checkpoint.nextNodeId;
+		this.parentId = checkpoint.parentId;
+		this.removedKeys = checkpoint.removedKeys;
 	}
 
 	public String getId() {
@@ -79,10 +94,28 @@ public class Checkpoint implements Serializable {
 		return this;
 	}
 
+	public String getParentId() {
+		return parentId;
+	}
+
+	public Checkpoint setParentId(String parentId) {
+		this.parentId = parentId;
+		return this;
+	}
+
+	public Set<String> getRemovedKeys() {
+		return removedKeys;
+	}
+
+	public Checkpoint setRemovedKeys(Set<String> removedKeys) {
+		this.removedKeys = removedKeys != null ? removedKeys : Set.of();
+		return this;
+	}
+
 	@Override
 	public String toString() {
 		return "Checkpoint{" + "id='" + id + '\'' + ", state=" + state + ", nodeId='" + nodeId + '\'' + ", nextNodeId='"
-				+ nextNodeId + '\'' + '}';
+				+ nextNodeId + '\'' + ", parentId='" + parentId + '\'' + '}';
 	}
 
 	public static Builder builder() {
@@ -118,6 +151,16 @@ public class Checkpoint implements Serializable {
 			return this;
 		}
 
+		public Builder parentId(String parentId) {
+			result.parentId = parentId;
+			return this;
+		}
+
+		public Builder removedKeys(Set<String> removedKeys) {
+			result.setRemovedKeys(removedKeys);
+			return this;
+		}
+
 		public Checkpoint build() {
 			Objects.requireNonNull(result.id, "Checkpoint.id cannot be null");
 			Objects.requireNonNull(result.state, "Checkpoint.state cannot be null");
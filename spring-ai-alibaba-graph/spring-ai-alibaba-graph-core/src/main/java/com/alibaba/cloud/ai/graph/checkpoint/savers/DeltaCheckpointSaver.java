@@ -0,0 +1,338 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint.savers;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.state.PersistentMap;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that stores only the keys changed since the
+ * parent checkpoint, plus a full snapshot every {@code snapshotInterval} checkpoints.
+ * Only the changed values are cloned, instead of the whole state on every step.
+ *
+ * <p>
+ * Checkpoints returned by {@link #get(RunnableConfig)}, {@link #list(RunnableConfig)}
+ * and {@link #release(RunnableConfig)} are replayed to their full state, so callers see
+ * exactly what a plain saver would have returned. A value that is still the instance
+ * put with the previous checkpoint is taken as unchanged, since the graph replaces the
+ * values it updates, so state values must not be mutated in place. Other values are
+ * compared with {@link Object#equals(Object)} against the previous checkpoint: types
+ * without a value-based {@code equals} are simply stored on every step.
+ * </p>
+ *
+ * <pre>{@code
+ * var saver = new DeltaCheckpointSaver(new MemorySaver(), stateGraph.getStateSerializer());
+ * }</pre>
+ */
+public class DeltaCheckpointSaver implements BaseCheckpointSaver {
+
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+	private final BaseCheckpointSaver delegate;
+
+	private final StateSerializer stateSerializer;
+
+	private final int snapshotInterval;
+
+	// latest checkpoint written by this saver for each thread, with its full state
+	private final ConcurrentHashMap<String, Head> headsByThread = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, ReentrantLock> locksByThread = new ConcurrentHashMap<>();
+
+	// sources holds the values as put, before cloning, to detect unchanged ones by identity
+	private record Head(String id, PersistentMap<String, Object> state, Map<String, Object> sources, int depth) {
+	}
+
+	public DeltaCheckpointSaver(BaseCheckpointSaver delegate, StateSerializer stateSerializer) {
+		this(delegate, stateSerializer, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Instantiates a new Delta checkpoint saver.
+	 * @param delegate the saver that stores the (delta) checkpoints
+	 * @param stateSerializer the serializer used to clone changed values
+	 * @param snapshotInterval the number of checkpoints between two full snapshots; 1
+	 * stores every checkpoint in full
+	 */
+	public DeltaCheckpointSaver(BaseCheckpointSaver delegate, StateSerializer stateSerializer, int snapshotInterval) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+		this.stateSerializer = Objects.requireNonNull(stateSerializer, "stateSerializer cannot be null");
+		if (snapshotInterval < 1) {
+			throw new IllegalArgumentException("snapshotInterval must be greater than 0");
+		}
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * Locks the given thread. {@link #release(RunnableConfig)} drops the lock of a thread,
+	 * so a lock that is no longer registered once acquired is given up for the current
+	 * one.
+	 */
+	private ReentrantLock lock(String threadId) {
+		while (true) {
+			ReentrantLock lock = locksByThread.computeIfAbsent(threadId, k -> new ReentrantLock());
+			lock.lock();
+			if (locksByThread.get(threadId) == lock) {
+				return lock;
+			}
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Collection<Checkpoint> list(RunnableConfig config) {
+		return resolveAll(delegate.list(config));
+	}
+
+	@Override
+	public Optional<Checkpoint> get(RunnableConfig config) {
+		Optional<Checkpoint> checkpoint = delegate.get(config);
+		if (checkpoint.isEmpty() || checkpoint.get().getParentId() == null) {
+			return checkpoint;
+		}
+		String id = checkpoint.get().getId();
+		Head head = headsByThread.get(config.threadId().orElse(THREAD_ID_DEFAULT));
+		if (head != null && head.id().equals(id)) {
+			return Optional.of(full(checkpoint.get(), head.state()));
+		}
+		return Optional.of(resolve(checkpoint.get(), delegate.list(config)));
+	}
+
+	@Override
+	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		Lock lock = lock(threadId);
+		try {
+			if (config.checkPointId().isPresent()) {
+				return replace(config, checkpoint);
+			}
+
+			Head head = headOf(threadId, config);
+			Map<String, Object> state = checkpoint.getState();
+			Checkpoint stored;
+			Head newHead;
+			if (head == null || head.depth() + 1 >= snapshotInterval) {
+				PersistentMap<String, Object> cloned = PersistentMap.from(cloneState(state));
+				stored = full(checkpoint, cloned);
+				newHead = new Head(checkpoint.getId(), cloned, new HashMap<>(state), 0);
+			}
+			else {
+				Map<String, Object> changed = new HashMap<>();
+				state.forEach((key, value) -> {
+					if (value != null && value == head.sources().get(key)) {
+						return;
+					}
+					if (!head.state().containsKey(key) || !Objects.equals(value, head.state().get(key))) {
+						changed.put(key, value);
+					}
+				});
+				Set<String> removedKeys = new HashSet<>();
+				for (String key : head.state().keySet()) {
+					if (!state.containsKey(key)) {
+						removedKeys.add(key);
+					}
+				}
+				Map<String, Object> cloned = changed.isEmpty() ? Map.of() : cloneState(changed);
+				stored = new Checkpoint(checkpoint).setState(cloned)
+					.setParentId(head.id())
+					.setRemovedKeys(removedKeys.isEmpty() ? Set.of() : removedKeys);
+				newHead = new Head(checkpoint.getId(), apply(head.state(), stored), new HashMap<>(state),
+						head.depth() + 1);
+			}
+
+			RunnableConfig result = delegate.put(config, stored);
+			headsByThread.put(threadId, newHead);
+			return result;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Replaces a checkpoint with a full snapshot. Checkpoints recorded as a delta of the
+	 * replaced one are rewritten in full first, so their state does not change.
+	 */
+	private RunnableConfig replace(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+		String checkPointId = config.checkPointId().get();
+		for (Checkpoint child : resolveAll(delegate.list(config), checkPointId)) {
+			delegate.put(RunnableConfig.builder(config).checkPointId(child.getId()).build(), child);
+		}
+		headsByThread.remove(config.threadId().orElse(THREAD_ID_DEFAULT));
+		return delegate.put(config, full(checkpoint, checkpoint.getState()));
+	}
+
+	/**
+	 * Returns the head for the given thread, loading it from the delegate on the first
+	 * write since this saver was created, or since the thread was cleared or released.
+	 */
+	private Head headOf(String threadId, RunnableConfig config) {
+		Head head = headsByThread.get(threadId);
+		if (head != null) {
+			return head;
+		}
+		// the chain length is unknown: force the next checkpoint to be a full snapshot
+		return get(config)
+			.map(cp -> new Head(cp.getId(), PersistentMap.from(cp.getState()), Map.of(), snapshotInterval))
+			.orElse(null);
+	}
+
+	@Override
+	public boolean clear(RunnableConfig config) {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		Lock lock = lock(threadId);
+		try {
+			headsByThread.remove(threadId);
+			return delegate.clear(config);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Tag release(RunnableConfig config) throws Exception {
+		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
+		ReentrantLock lock = lock(threadId);
+		try {
+			headsByThread.remove(threadId);
+			Tag tag = delegate.release(config);
+			return tag != null ? new Tag(tag.threadId(), resolveAll(tag.checkpoints())) : null;
+		}
+		finally {
+			// threads already waiting keep using this lock, later ones create a new one
+			if (!lock.hasQueuedThreads()) {
+				locksByThread.remove(threadId, lock);
+			}
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Replays a delta to its full state, applying only the deltas between it and the
+	 * snapshot it derives from.
+	 * @param delta the stored delta
+	 * @param checkpoints the stored checkpoints of its thread
+	 * @return the replayed checkpoint
+	 * @throws IllegalStateException if an ancestor of the delta is no longer stored by the
+	 * delegate
+	 */
+	private static Checkpoint resolve(Checkpoint delta, Collection<Checkpoint> checkpoints) {
+		Map<String, Checkpoint> byId = new HashMap<>();
+		for (Checkpoint checkpoint : checkpoints) {
+			byId.put(checkpoint.getId(), checkpoint);
+		}
+		Deque<Checkpoint> chain = new ArrayDeque<>();
+		Checkpoint checkpoint = delta;
+		while (checkpoint.getParentId() != null) {
+			chain.push(checkpoint);
+			Checkpoint parent = byId.get(checkpoint.getParentId());
+			if (parent == null) {
+				throw new IllegalStateException(format("checkpoint %s is a delta of %s, which is no longer stored",
+						checkpoint.getId(), checkpoint.getParentId()));
+			}
+			checkpoint = parent;
+		}
+		PersistentMap<String, Object> state = PersistentMap.from(checkpoint.getState());
+		for (Checkpoint step : chain) {
+			state = apply(state, step);
+		}
+		return full(delta, state);
+	}
+
+	private List<Checkpoint> resolveAll(Collection<Checkpoint> checkpoints) {
+		return resolveAll(checkpoints, null);
+	}
+
+	/**
+	 * Replays a list of checkpoints, ordered from the newest to the oldest, to their
+	 * full state.
+	 * @param checkpoints the stored checkpoints
+	 * @param childrenOf if not {@code null}, only the direct deltas of this checkpoint
+	 * are returned
+	 * @return the replayed checkpoints, in the same order
+	 * @throws IllegalStateException if a delta's parent is no longer stored by the
+	 * delegate, which then dropped a checkpoint that was still referenced
+	 */
+	private List<Checkpoint> resolveAll(Collection<Checkpoint> checkpoints, String childrenOf) {
+		List<Checkpoint> stored = new ArrayList<>(checkpoints);
+		Map<String, PersistentMap<String, Object>> states = new HashMap<>();
+		Checkpoint[] result = new Checkpoint[stored.size()];
+		for (int i = stored.size() - 1; i >= 0; i--) {
+			Checkpoint checkpoint = stored.get(i);
+			PersistentMap<String, Object> state;
+			if (checkpoint.getParentId() == null) {
+				state = PersistentMap.from(checkpoint.getState());
+			}
+			else {
+				PersistentMap<String, Object> parent = states.get(checkpoint.getParentId());
+				if (parent == null) {
+					throw new IllegalStateException(format("checkpoint %s is a delta of %s, which is no longer stored",
+							checkpoint.getId(), checkpoint.getParentId()));
+				}
+				state = apply(parent, checkpoint);
+			}
+			states.put(checkpoint.getId(), state);
+			result[i] = full(checkpoint, state);
+		}
+		List<Checkpoint> resolved = new ArrayList<>(result.length);
+		for (int i = 0; i < result.length; i++) {
+			if (result[i] != null && (childrenOf == null || childrenOf.equals(stored.get(i).getParentId()))) {
+				resolved.add(result[i]);
+			}
+		}
+		return resolved;
+	}
+
+	private static PersistentMap<String, Object> apply(PersistentMap<String, Object> parent, Checkpoint delta) {
+		PersistentMap<String, Object> state = parent.plusAll(delta.getState());
+		for (String key : delta.getRemovedKeys()) {
+			state = state.minus(key);
+		}
+		return state;
+	}
+
+	private static Checkpoint full(Checkpoint checkpoint, Map<String, Object> state) {
+		return new Checkpoint(checkpoint).setState(state).setParentId(null).setRemovedKeys(Set.of());
+	}
+
+	private Map<String, Object> cloneState(Map<String, Object> state) throws IOException, ClassNotFoundException {
+		return ((OverAllState) stateSerializer.cloneObject(state)).data();
+	}
+
+}
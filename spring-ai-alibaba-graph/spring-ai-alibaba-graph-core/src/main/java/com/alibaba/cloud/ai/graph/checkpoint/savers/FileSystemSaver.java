@@ -22,22 +22,43 @@ import com.alibaba.cloud.ai.graph.serializer.Serializer;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
 import com.alibaba.cloud.ai.graph.serializer.check_point.CheckPointSerializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 import static java.lang.String.format;
+import static java.util.Collections.unmodifiableCollection;
 
 /**
  * A CheckpointSaver that stores Checkpoints in the filesystem.
@@ -48,47 +69,132 @@ import static java.lang.String.format;
  * "thread-$default.saver" if it doesn't.
  * </p>
  *
+ * <p>
+ * The file is an append-only log: {@link #put(RunnableConfig, Checkpoint)} appends one
+ * length-prefixed, CRC-checked record instead of rewriting the whole history, and an
+ * in-memory index maps each checkpoint id to the offset of its latest record, so
+ * {@link #get(RunnableConfig)} reads a single record from a memory-mapped view of the
+ * file. Replacing a checkpoint appends a new record; once the replaced records take more
+ * than {@code compactionThreshold} of the file, it is compacted. A torn record at the
+ * end of the file (e.g. after a crash) is discarded when the file is opened.
+ * </p>
+ *
+ * <p>
+ * A file written in the former format (a single serialized list of checkpoints) is
+ * migrated into a log the first time its thread is opened; the original file is kept
+ * next to it with the {@code .legacy} suffix.
+ * </p>
+ *
+ * <p>
+ * Durability is controlled by {@link FsyncPolicy}.
+ * </p>
  */
-public class FileSystemSaver implements BaseCheckpointSaver {
+public class FileSystemSaver implements BaseCheckpointSaver, AutoCloseable {
 
 	private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FileSystemSaver.class);
 
 	public static final String EXTENSION = ".saver";
 
+	// "GCL1": graph checkpoint log, version 1
+	private static final int MAGIC = 0x47434C31;
+
+	private static final int FILE_HEADER_SIZE = Integer.BYTES;
+
+	// body length + crc32 of the body
+	private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+	private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+	// files of the former format start with a Java serialization stream header
+	private static final int LEGACY_MAGIC = (ObjectStreamConstants.STREAM_MAGIC << 16)
+			| ObjectStreamConstants.STREAM_VERSION;
+
+	private static final String LEGACY_SUFFIX = ".legacy";
+
+	/**
+	 * When appended records are forced to the storage device.
+	 */
+	public enum FsyncPolicy {
+
+		/**
+		 * Never force; the operating system decides when data reaches the disk.
+		 */
+		NONE,
+
+		/**
+		 * Force after every write.
+		 */
+		PER_WRITE,
+
+		/**
+		 * Force once every {@code fsyncBatchSize} writes of a thread, and on release.
+		 */
+		BATCHED,
+
+		/**
+		 * Force written threads from a background thread every {@code fsyncInterval},
+		 * committing all the writes of the interval as a group. Writers never wait.
+		 */
+		ASYNC
+
+	}
+
 	private final Path targetFolder;
 
 	private final Serializer<Checkpoint> serializer;
 
-	private final MemorySaver memorySaver = new MemorySaver();
+	private final FsyncPolicy fsyncPolicy;
+
+	private final int fsyncBatchSize;
+
+	private final double compactionThreshold;
+
+	private final ConcurrentHashMap<String, ThreadLog> logsByThread = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService flusher;
 
-	@SuppressWarnings("unchecked")
 	public FileSystemSaver(Path targetFolder, StateSerializer stateSerializer) {
-		Objects.requireNonNull(stateSerializer, "stateSerializer cannot be null");
-		this.targetFolder = Objects.requireNonNull(targetFolder, "targetFolder cannot be null");
-		this.serializer = new CheckPointSerializer(stateSerializer);
+		this(builder().targetFolder(targetFolder).stateSerializer(stateSerializer));
+	}
+
+	@SuppressWarnings("unchecked")
+	private FileSystemSaver(Builder builder) {
+		Objects.requireNonNull(builder.stateSerializer, "stateSerializer cannot be null");
+		this.targetFolder = Objects.requireNonNull(builder.targetFolder, "targetFolder cannot be null");
+		this.serializer = new CheckPointSerializer(builder.stateSerializer);
+		this.fsyncPolicy = Objects.requireNonNull(builder.fsyncPolicy, "fsyncPolicy cannot be null");
+		this.fsyncBatchSize = builder.fsyncBatchSize;
+		this.compactionThreshold = builder.compactionThreshold;
 
 		File targetFolderAsFile = targetFolder.toFile();
 
 		if (targetFolderAsFile.exists()) {
 			if (targetFolderAsFile.isFile()) {
-				throw new IllegalArgumentException(format("targetFolder '%s' must be a folder", targetFolder)); // TODO:
-																												// format"targetFolder
-																												// must
-																												// be
-																												// a
-																												// directory");
+				throw new IllegalArgumentException(format("targetFolder '%s' must be a folder", targetFolder));
 			}
 		}
 		else {
 			if (!targetFolderAsFile.mkdirs()) {
-				throw new IllegalArgumentException(format("targetFolder '%s' cannot be created", targetFolder)); // TODO:
-																													// format"targetFolder
-																													// cannot
-																													// be
-																													// created");
+				throw new IllegalArgumentException(format("targetFolder '%s' cannot be created", targetFolder));
 			}
 		}
 
+		if (fsyncPolicy == FsyncPolicy.ASYNC) {
+			long interval = builder.fsyncInterval.toMillis();
+			this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "graph-checkpoint-fsync");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.flusher = null;
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
 	}
 
 	private String getBaseName(RunnableConfig config) {
@@ -100,47 +206,34 @@ public class FileSystemSaver implements BaseCheckpointSaver {
 		return Paths.get(targetFolder.toString(), getBaseName(config).concat(EXTENSION));
 	}
 
-	private File getFile(RunnableConfig config) {
-		return getPath(config).toFile();
+	private String threadIdOf(RunnableConfig config) {
+		return config.threadId().orElse(THREAD_ID_DEFAULT);
 	}
 
-	private void serialize(LinkedList<Checkpoint> checkpoints, File outFile) throws IOException {
-		Objects.requireNonNull(checkpoints, "checkpoints cannot be null");
-		Objects.requireNonNull(outFile, "outFile cannot be null");
-		try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(outFile.toPath()))) {
-
-			oos.writeInt(checkpoints.size());
-			for (Checkpoint checkpoint : checkpoints) {
-				serializer.write(checkpoint, oos);
-			}
+	/**
+	 * Returns the log of the given thread, opening its file if needed.
+	 * @param create whether a missing file should be created
+	 * @return the log, or {@code null} if the file does not exist and {@code create} is
+	 * false
+	 */
+	private ThreadLog logOf(RunnableConfig config, boolean create) {
+		String threadId = threadIdOf(config);
+		ThreadLog threadLog = logsByThread.get(threadId);
+		if (threadLog != null) {
+			return threadLog;
 		}
-	}
-
-	private void deserialize(File file, LinkedList<Checkpoint> result) throws IOException, ClassNotFoundException {
-		Objects.requireNonNull(file, "file cannot be null");
-		Objects.requireNonNull(result, "result cannot be null");
-
-		try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(file.toPath()))) {
-			int size = ois.readInt();
-			for (int i = 0; i < size; i++) {
-				result.add(serializer.read(ois));
-			}
+		Path path = getPath(config);
+		if (!create && !Files.exists(path)) {
+			return null;
 		}
-	}
-
-	protected LinkedList<Checkpoint> getCheckpoints(RunnableConfig config) {
-		LinkedList<Checkpoint> result = memorySaver.getCheckpoints(config);
-
-		File targetFile = getFile(config);
-		if (targetFile.exists() && result.isEmpty()) {
+		return logsByThread.computeIfAbsent(threadId, k -> {
 			try {
-				deserialize(targetFile, result);
+				return new ThreadLog(path);
 			}
-			catch (IOException | ClassNotFoundException e) {
-				throw new RuntimeException(e);
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
-		}
-		return result;
+		});
 	}
 
 	/**
@@ -149,27 +242,60 @@ public class FileSystemSaver implements BaseCheckpointSaver {
 	 * @return true if the file existed and was successfully deleted, false otherwise
 	 */
 	public boolean clear(RunnableConfig config) {
-		File targetFile = getFile(config);
+		ThreadLog threadLog = logsByThread.remove(threadIdOf(config));
+		if (threadLog != null) {
+			threadLog.close();
+		}
+		File targetFile = getPath(config).toFile();
 		return targetFile.exists() && targetFile.delete();
 	}
 
 	@Override
 	public Collection<Checkpoint> list(RunnableConfig config) {
-		return memorySaver.list(config);
+		ThreadLog threadLog = logOf(config, false);
+		if (threadLog == null) {
+			return unmodifiableCollection(new LinkedList<>());
+		}
+		return unmodifiableCollection(threadLog.list());
 	}
 
 	@Override
 	public Optional<Checkpoint> get(RunnableConfig config) {
-		return memorySaver.get(config);
+		ThreadLog threadLog = logOf(config, false);
+		if (threadLog == null) {
+			return Optional.empty();
+		}
+		return threadLog.get(config.checkPointId().orElse(null));
 	}
 
 	@Override
 	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
-		RunnableConfig result = memorySaver.put(config, checkpoint);
+		ThreadLog threadLog = logOf(config, true);
+		if (config.checkPointId().isPresent()) { // Replace Checkpoint
+			threadLog.append(checkpoint, config.checkPointId().get());
+			return config;
+		}
+		threadLog.append(checkpoint, null); // Add Checkpoint
+		return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+	}
 
-		File targetFile = getFile(config);
-		serialize(memorySaver.getCheckpoints(config), targetFile);
-		return result;
+	/**
+	 * Rewrites the file of the given thread keeping only the latest record of each
+	 * checkpoint.
+	 * @param config the RunnableConfig identifying the thread
+	 * @throws IOException if the file cannot be rewritten
+	 */
+	public void compact(RunnableConfig config) throws IOException {
+		ThreadLog threadLog = logOf(config, false);
+		if (threadLog != null) {
+			threadLog.lock.lock();
+			try {
+				threadLog.compact();
+			}
+			finally {
+				threadLog.lock.unlock();
+			}
+		}
 	}
 
 	private boolean createVersionedBackup(RunnableConfig config) throws IOException {
@@ -202,9 +328,7 @@ public class FileSystemSaver implements BaseCheckpointSaver {
 		var backupFilename = format("%s-v%d%s", getBaseName(config), nextVersion, EXTENSION);
 		Path backupPath = targetFolder.resolve(backupFilename);
 
-		Files.copy(currentPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
-
-		Files.delete(currentPath);
+		Files.move(currentPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
 
 		return true;
 
@@ -212,21 +336,501 @@ public class FileSystemSaver implements BaseCheckpointSaver {
 
 	/**
 	 * Releases the checkpoints associated with the given configuration. This involves
-	 * copying the current checkpoint file (e.g., "thread-123.saver") to a versioned
+	 * moving the current checkpoint file (e.g., "thread-123.saver") to a versioned
 	 * backup file (e.g., "thread-123-v1.saver", "thread-123-v2.saver", etc.) based on
-	 * existing versioned files, deleting the original unversioned file, and then clearing
-	 * the in-memory checkpoints.
+	 * existing versioned files.
 	 * @param config The configuration for which to release checkpoints.
-	 * @return The Tag representing the released checkpoint state in memory.
-	 * @throws Exception If an error occurs during file operations or releasing from
-	 * memory.
+	 * @return The Tag representing the released checkpoints.
+	 * @throws Exception If an error occurs during file operations.
 	 */
 	@Override
 	public Tag release(RunnableConfig config) throws Exception {
+		String threadId = threadIdOf(config);
+		ThreadLog threadLog = logOf(config, false);
+		Collection<Checkpoint> checkpoints = null;
+		if (threadLog != null) {
+			checkpoints = threadLog.list();
+			logsByThread.remove(threadId, threadLog);
+			threadLog.close();
+		}
 
 		createVersionedBackup(config);
 
-		return memorySaver.release(config);
+		return new Tag(threadId, checkpoints);
+	}
+
+	/**
+	 * Forces pending writes to the storage device and closes all the open files.
+	 */
+	@Override
+	public void close() {
+		if (flusher != null) {
+			flusher.shutdown();
+		}
+		logsByThread.values().forEach(ThreadLog::close);
+		logsByThread.clear();
+	}
+
+	private void flushAll() {
+		for (ThreadLog threadLog : logsByThread.values()) {
+			try {
+				threadLog.flush();
+			}
+			catch (IOException e) {
+				log.error("failed to force checkpoint file {}", threadLog.path, e);
+			}
+		}
+	}
+
+	/**
+	 * Position of the latest record of a checkpoint in the file.
+	 */
+	private record Entry(long offset, int length) {
+	}
+
+	/**
+	 * The append-only file of one thread.
+	 *
+	 * <p>
+	 * Layout: a 4 bytes magic number, then records made of the body length, the CRC32 of
+	 * the body and the body: the checkpoint id, the id of the checkpoint it replaces (or
+	 * an empty string) and the serialized checkpoint.
+	 * </p>
+	 */
+	private final class ThreadLog {
+
+		final Path path;
+
+		final ReentrantLock lock = new ReentrantLock();
+
+		// ordered from the oldest to the newest checkpoint
+		final LinkedHashMap<String, Entry> index = new LinkedHashMap<>();
+
+		FileChannel channel;
+
+		MappedByteBuffer mapped;
+
+		long size;
+
+		long deadBytes;
+
+		String latestId;
+
+		Checkpoint latest;
+
+		int unforcedWrites;
+
+		volatile boolean dirty;
+
+		ThreadLog(Path path) throws IOException {
+			this.path = path;
+			open();
+		}
+
+		private void open() throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			size = channel.size();
+			mapped = null;
+			index.clear();
+			deadBytes = 0;
+			latestId = null;
+			latest = null;
+			if (size == 0) {
+				channel.write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(0, MAGIC), 0);
+				size = FILE_HEADER_SIZE;
+				return;
+			}
+			recover();
+		}
+
+		/**
+		 * Rebuilds the index from the file, truncating a torn or corrupted tail.
+		 */
+		private void recover() throws IOException {
+			MappedByteBuffer buffer = map(size);
+			if (size >= FILE_HEADER_SIZE && buffer.getInt(0) == LEGACY_MAGIC) {
+				migrateLegacy();
+				return;
+			}
+			if (size < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+				channel.close();
+				throw new IllegalStateException(format("'%s' is not a checkpoint log", path));
+			}
+			long offset = FILE_HEADER_SIZE;
+			CRC32 crc = new CRC32();
+			while (offset + RECORD_HEADER_SIZE <= size) {
+				int length = buffer.getInt((int) offset);
+				long end = offset + RECORD_HEADER_SIZE + length;
+				if (length <= 0 || end > size) {
+					break;
+				}
+				crc.reset();
+				crc.update(buffer.slice((int) offset + RECORD_HEADER_SIZE, length));
+				if ((int) crc.getValue() != buffer.getInt((int) offset + Integer.BYTES)) {
+					break;
+				}
+				ByteBuffer body = buffer.slice((int) offset + RECORD_HEADER_SIZE, length);
+				index(readString(body), readString(body), new Entry(offset, (int) (end - offset)));
+				offset = end;
+			}
+			if (offset < size) {
+				log.warn("discarding {} bytes of a torn record at the end of {}", size - offset, path);
+				channel.truncate(offset);
+				size = offset;
+				mapped = null;
+			}
+		}
+
+		/**
+		 * Rewrites a file of the former format as a log. The checkpoints are read from
+		 * the original file, which is then moved aside, and appended from the oldest to
+		 * the newest. Their records predate the versioned layout of
+		 * {@link CheckPointSerializer}, which reads them as full checkpoints.
+		 */
+		private void migrateLegacy() throws IOException {
+			channel.close();
+			mapped = null;
+			LinkedList<Checkpoint> checkpoints = new LinkedList<>();
+			try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(path))) {
+				int count = ois.readInt();
+				for (int i = 0; i < count; i++) {
+					checkpoints.addFirst(serializer.read(ois));
+				}
+			}
+			catch (ClassNotFoundException e) {
+				throw new IllegalStateException(format("cannot migrate legacy checkpoint file '%s'", path), e);
+			}
+			Path legacy = path.resolveSibling(path.getFileName() + LEGACY_SUFFIX);
+			Files.move(path, legacy, StandardCopyOption.REPLACE_EXISTING);
+			log.info("migrating {} checkpoints of legacy file {} (kept as {})", checkpoints.size(), path, legacy);
+			open();
+			for (Checkpoint checkpoint : checkpoints) {
+				append(checkpoint, null);
+			}
+			channel.force(false);
+		}
+
+		private void index(String id, String replaces, Entry entry) {
+			if (replaces.isEmpty() || replaces.equals(id) || !index.containsKey(replaces)) {
+				Entry previous = index.put(id, entry);
+				if (previous != null) {
+					deadBytes += previous.length();
+				}
+				else {
+					latestId = id;
+				}
+				return;
+			}
+			// the replacing checkpoint has a new id: keep the position of the replaced one
+			LinkedHashMap<String, Entry> renamed = new LinkedHashMap<>();
+			for (Map.Entry<String, Entry> e : index.entrySet()) {
+				if (e.getKey().equals(replaces) || e.getKey().equals(id)) {
+					deadBytes += e.getValue().length();
+					if (e.getKey().equals(replaces)) {
+						renamed.put(id, entry);
+					}
+				}
+				else {
+					renamed.put(e.getKey(), e.getValue());
+				}
+			}
+			index.clear();
+			index.putAll(renamed);
+			latestId = null;
+			for (String key : index.keySet()) {
+				latestId = key;
+			}
+		}
+
+		private MappedByteBuffer map(long limit) throws IOException {
+			if (mapped == null || mapped.capacity() < limit) {
+				if (size > Integer.MAX_VALUE) {
+					throw new IllegalStateException(format("checkpoint log '%s' exceeds 2GB", path));
+				}
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			return mapped;
+		}
+
+		/**
+		 * Returns {@code length} bytes of the file at {@code offset}. The mapping only
+		 * follows the file once it has doubled since it was last mapped; records appended
+		 * in between are read from the channel, so a read after each append does not remap
+		 * the whole file.
+		 */
+		private ByteBuffer slice(long offset, int length) throws IOException {
+			long end = offset + length;
+			if (mapped == null || (mapped.capacity() < end && size >= mapped.capacity() * 2L)) {
+				map(end);
+			}
+			if (end <= mapped.capacity()) {
+				return mapped.slice((int) offset, length);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(length);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, offset + buffer.position()) < 0) {
+					throw new IOException(format("unexpected end of checkpoint log '%s'", path));
+				}
+			}
+			return buffer.flip();
+		}
+
+		Collection<Checkpoint> list() {
+			lock.lock();
+			try {
+				LinkedList<Checkpoint> result = new LinkedList<>();
+				for (Map.Entry<String, Entry> e : index.entrySet()) {
+					result.addFirst(e.getKey().equals(latestId) ? latest() : read(e.getValue()));
+				}
+				return result;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		Optional<Checkpoint> get(String id) {
+			lock.lock();
+			try {
+				if (id == null || id.equals(latestId)) {
+					return Optional.ofNullable(latest());
+				}
+				Entry entry = index.get(id);
+				return entry != null ? Optional.of(read(entry)) : Optional.empty();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private Checkpoint latest() {
+			if (latest == null && latestId != null) {
+				latest = read(index.get(latestId));
+			}
+			return latest;
+		}
+
+		private Checkpoint read(Entry entry) {
+			try {
+				ByteBuffer body = slice(entry.offset() + RECORD_HEADER_SIZE, entry.length() - RECORD_HEADER_SIZE);
+				readString(body);
+				readString(body);
+				byte[] bytes = new byte[body.remaining()];
+				body.get(bytes);
+				try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+					return serializer.read(ois);
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		void append(Checkpoint checkpoint, String replaces) throws IOException {
+			ByteArrayOutputStream payload = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(payload)) {
+				serializer.write(checkpoint, oos);
+			}
+			byte[] id = checkpoint.getId().getBytes(StandardCharsets.UTF_8);
+			byte[] replaced = (replaces == null ? "" : replaces).getBytes(StandardCharsets.UTF_8);
+			int length = Short.BYTES * 2 + id.length + replaced.length + payload.size();
+			ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+			record.putInt(length).putInt(0);
+			record.putShort((short) id.length).put(id).putShort((short) replaced.length).put(replaced);
+			record.put(payload.toByteArray());
+			CRC32 crc = new CRC32();
+			crc.update(record.array(), RECORD_HEADER_SIZE, length);
+			record.putInt(Integer.BYTES, (int) crc.getValue());
+			record.flip();
+
+			lock.lock();
+			try {
+				if (replaces != null && !index.containsKey(replaces)) {
+					throw new NoSuchElementException(format("Checkpoint with id %s not found!", replaces));
+				}
+				long offset = size;
+				while (record.hasRemaining()) {
+					offset += channel.write(record, offset);
+				}
+				Entry entry = new Entry(size, (int) (offset - size));
+				size = offset;
+				index(checkpoint.getId(), replaces == null ? "" : replaces, entry);
+				if (checkpoint.getId().equals(latestId)) {
+					latest = checkpoint;
+				}
+				afterWrite();
+				if (size > MIN_COMPACTION_SIZE && deadBytes > size * compactionThreshold) {
+					compact();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void afterWrite() throws IOException {
+			switch (fsyncPolicy) {
+				case PER_WRITE -> channel.force(false);
+				case BATCHED -> {
+					if (++unforcedWrites >= fsyncBatchSize) {
+						channel.force(false);
+						unforcedWrites = 0;
+					}
+				}
+				case ASYNC -> dirty = true;
+				case NONE -> {
+				}
+			}
+		}
+
+		void flush() throws IOException {
+			if (dirty) {
+				dirty = false;
+				try {
+					channel.force(false);
+				}
+				catch (ClosedChannelException ignored) {
+					// released or cleared meanwhile
+				}
+			}
+		}
+
+		/**
+		 * Copies the latest record of each checkpoint to a new file, then atomically
+		 * replaces the current one. Must be called holding the lock.
+		 */
+		void compact() throws IOException {
+			if (deadBytes == 0) {
+				return;
+			}
+			Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+			MappedByteBuffer buffer = map(size);
+			try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				out.write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(0, MAGIC));
+				for (Entry entry : index.values()) {
+					ByteBuffer record = buffer.slice((int) entry.offset(), entry.length());
+					while (record.hasRemaining()) {
+						out.write(record);
+					}
+				}
+				out.force(true);
+			}
+			Checkpoint current = latest;
+			channel.close();
+			Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			open();
+			latest = current;
+			unforcedWrites = 0;
+		}
+
+		void close() {
+			lock.lock();
+			try {
+				if (channel.isOpen()) {
+					if (fsyncPolicy != FsyncPolicy.NONE) {
+						channel.force(false);
+					}
+					channel.close();
+				}
+				mapped = null;
+			}
+			catch (IOException e) {
+				log.error("failed to close checkpoint file {}", path, e);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Builder class for creating instances of FileSystemSaver.
+	 */
+	public static class Builder {
+
+		private Path targetFolder;
+
+		private StateSerializer stateSerializer;
+
+		private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+
+		private int fsyncBatchSize = 32;
+
+		private Duration fsyncInterval = Duration.ofMillis(100);
+
+		private double compactionThreshold = 0.5;
+
+		public Builder targetFolder(Path targetFolder) {
+			this.targetFolder = targetFolder;
+			return this;
+		}
+
+		public Builder stateSerializer(StateSerializer stateSerializer) {
+			this.stateSerializer = stateSerializer;
+			return this;
+		}
+
+		public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+			this.fsyncPolicy = fsyncPolicy;
+			return this;
+		}
+
+		/**
+		 * Sets the number of writes between two forces with {@link FsyncPolicy#BATCHED}.
+		 * @param fsyncBatchSize the batch size, defaults to 32
+		 * @return this builder
+		 */
+		public Builder fsyncBatchSize(int fsyncBatchSize) {
+			if (fsyncBatchSize < 1) {
+				throw new IllegalArgumentException("fsyncBatchSize must be greater than 0");
+			}
+			this.fsyncBatchSize = fsyncBatchSize;
+			return this;
+		}
+
+		/**
+		 * Sets the group commit interval of {@link FsyncPolicy#ASYNC}.
+		 * @param fsyncInterval the interval, defaults to 100ms
+		 * @return this builder
+		 */
+		public Builder fsyncInterval(Duration fsyncInterval) {
+			if (fsyncInterval.isNegative() || fsyncInterval.isZero()) {
+				throw new IllegalArgumentException("fsyncInterval must be positive");
+			}
+			this.fsyncInterval = fsyncInterval;
+			return this;
+		}
+
+		/**
+		 * Sets the fraction of the file taken by replaced records above which the file
+		 * is compacted.
+		 * @param compactionThreshold a value between 0 and 1, defaults to 0.5
+		 * @return this builder
+		 */
+		public Builder compactionThreshold(double compactionThreshold) {
+			if (compactionThreshold <= 0 || compactionThreshold > 1) {
+				throw new IllegalArgumentException("compactionThreshold must be in (0, 1]");
+			}
+			this.compactionThreshold = compactionThreshold;
+			return this;
+		}
+
+		public FileSystemSaver build() {
+			return new FileSystemSaver(this);
+		}
+
 	}
 
 }
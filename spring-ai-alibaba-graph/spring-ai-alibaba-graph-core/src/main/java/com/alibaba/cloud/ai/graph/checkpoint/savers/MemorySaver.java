@@ -19,36 +19,210 @@ import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 
+import java.time.Duration;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.IntStream;
 
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.Optional.ofNullable;
 
+/**
+ * In-memory {@link BaseCheckpointSaver}. The checkpoints of each thread are indexed by
+ * id, so that reads and replacements take constant time.
+ *
+ * <p>
+ * By default every checkpoint is kept until the thread is released or cleared. A
+ * retention policy bounds the memory held by long-lived threads:
+ * </p>
+ *
+ * <pre>{@code
+ * var saver = MemorySaver.builder().maxCheckpointsPerThread(32).maxAge(Duration.ofHours(1)).build();
+ * }</pre>
+ *
+ * <p>
+ * The oldest checkpoints are evicted first; the latest checkpoint of a thread is always
+ * kept. A checkpoint stored as a delta of the evicted one (see
+ * {@link DeltaCheckpointSaver}) is rebased onto it first, so it can still be replayed.
+ * </p>
+ */
 public class MemorySaver implements BaseCheckpointSaver {
 
-	final ConcurrentHashMap<String, LinkedList<Checkpoint>> _checkpointsByThread = new ConcurrentHashMap<>();
+	final ConcurrentHashMap<String, ThreadCheckpoints> _checkpointsByThread = new ConcurrentHashMap<>();
 
 	// 线程id和锁的映射
 	final ConcurrentHashMap<String, ReentrantLock> _locksByThread = new ConcurrentHashMap<>();
 
+	private final int maxCheckpointsPerThread;
+
+	private final long maxAgeNanos;
+
+	private static final class Entry {
+
+		Checkpoint checkpoint;
+
+		final long savedAt;
+
+		Entry(Checkpoint checkpoint, long savedAt) {
+			this.checkpoint = checkpoint;
+			this.savedAt = savedAt;
+		}
+
+	}
+
+	/**
+	 * The checkpoints of a thread, newest first, with an index by id.
+	 */
+	private static final class ThreadCheckpoints extends AbstractCollection<Checkpoint> {
+
+		final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+		final Map<String, Entry> byId = new HashMap<>();
+
+		// number of stored deltas of each checkpoint id
+		final Map<String, Integer> deltaCounts = new HashMap<>();
+
+		void push(Entry entry) {
+			entries.addFirst(entry);
+			byId.put(entry.checkpoint.getId(), entry);
+			countDelta(entry.checkpoint, 1);
+		}
+
+		void replace(Entry entry, Checkpoint checkpoint) {
+			if (byId.get(entry.checkpoint.getId()) == entry) {
+				byId.remove(entry.checkpoint.getId());
+			}
+			countDelta(entry.checkpoint, -1);
+			entry.checkpoint = checkpoint;
+			byId.put(checkpoint.getId(), entry);
+			countDelta(checkpoint, 1);
+		}
+
+		void removeOldest() {
+			Entry oldest = entries.removeLast();
+			// a newer checkpoint may have been pushed with the same id
+			if (byId.get(oldest.checkpoint.getId()) == oldest) {
+				byId.remove(oldest.checkpoint.getId());
+			}
+			countDelta(oldest.checkpoint, -1);
+			rebaseDeltasOf(oldest.checkpoint);
+		}
+
+		private void countDelta(Checkpoint checkpoint, int increment) {
+			if (checkpoint.getParentId() != null) {
+				deltaCounts.merge(checkpoint.getParentId(), increment, (a, b) -> a + b == 0 ? null : a + b);
+			}
+		}
+
+		/**
+		 * Folds an evicted checkpoint into the deltas recorded against it. Deltas are
+		 * newer than their base, so they are looked up from the oldest checkpoint on.
+		 */
+		private void rebaseDeltasOf(Checkpoint base) {
+			Integer count = deltaCounts.get(base.getId());
+			if (count == null) {
+				return;
+			}
+			Iterator<Entry> iterator = entries.descendingIterator();
+			while (count > 0 && iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if (base.getId().equals(entry.checkpoint.getParentId())) {
+					replace(entry, rebase(base, entry.checkpoint));
+					count--;
+				}
+			}
+		}
+
+		private static Checkpoint rebase(Checkpoint base, Checkpoint delta) {
+			Map<String, Object> state = new HashMap<>(base.getState());
+			state.putAll(delta.getState());
+			Set<String> removedKeys = new HashSet<>(base.getRemovedKeys());
+			removedKeys.removeAll(delta.getState().keySet());
+			for (String key : delta.getRemovedKeys()) {
+				state.remove(key);
+				removedKeys.add(key);
+			}
+			return new Checkpoint(delta).setState(state)
+				.setParentId(base.getParentId())
+				.setRemovedKeys(base.getParentId() == null || removedKeys.isEmpty() ? Set.of() : removedKeys);
+		}
+
+		@Override
+		public Iterator<Checkpoint> iterator() {
+			Iterator<Entry> iterator = entries.iterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Checkpoint next() {
+					return iterator.next().checkpoint;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return entries.size();
+		}
+
+		@Override
+		public void clear() {
+			entries.clear();
+			byId.clear();
+			deltaCounts.clear();
+		}
+
+	}
+
+	/**
+	 * Creates a saver keeping every checkpoint.
+	 */
 	public MemorySaver() {
+		this(builder());
+	}
+
+	private MemorySaver(Builder builder) {
+		this.maxCheckpointsPerThread = builder.maxCheckpointsPerThread;
+		this.maxAgeNanos = builder.maxAge != null ? builder.maxAge.toNanos() : 0;
+	}
+
+	public static Builder builder() {
+		return new Builder();
 	}
 
 	private Lock getLock(String threadId) {
 		return _locksByThread.computeIfAbsent(threadId, k -> new ReentrantLock());
 	}
 
-	final LinkedList<Checkpoint> getCheckpoints(RunnableConfig config) {
+	private ThreadCheckpoints getCheckpoints(RunnableConfig config) {
 		var threadId = config.threadId().orElse(THREAD_ID_DEFAULT);
-		return _checkpointsByThread.computeIfAbsent(threadId, k -> new LinkedList<>());
+		ThreadCheckpoints checkpoints = _checkpointsByThread.computeIfAbsent(threadId, k -> new ThreadCheckpoints());
+		evictExpired(checkpoints, System.nanoTime());
+		return checkpoints;
+	}
+
+	private void evictExpired(ThreadCheckpoints checkpoints, long now) {
+		if (maxAgeNanos == 0) {
+			return;
+		}
+		while (checkpoints.size() > 1 && now - checkpoints.entries.peekLast().savedAt > maxAgeNanos) {
+			checkpoints.removeOldest();
+		}
 	}
 
 	public final Optional<Checkpoint> getLast(LinkedList<Checkpoint> checkpoints, RunnableConfig config) {
@@ -61,7 +235,7 @@ public class MemorySaver implements BaseCheckpointSaver {
 		Lock lock = getLock(threadId);
 		lock.lock();
 		try {
-			final LinkedList<Checkpoint> checkpoints = getCheckpoints(config);
+			final ThreadCheckpoints checkpoints = getCheckpoints(config);
 			return unmodifiableCollection(new LinkedList<>(checkpoints)); // 返回快照，防止并发修改
 		}
 		finally {
@@ -75,13 +249,11 @@ public class MemorySaver implements BaseCheckpointSaver {
 		Lock lock = getLock(threadId);
 		lock.lock();
 		try {
-			final LinkedList<Checkpoint> checkpoints = getCheckpoints(config);
+			final ThreadCheckpoints checkpoints = getCheckpoints(config);
 			if (config.checkPointId().isPresent()) {
-				return config.checkPointId()
-					.flatMap(
-							id -> checkpoints.stream().filter(checkpoint -> checkpoint.getId().equals(id)).findFirst());
+				return ofNullable(checkpoints.byId.get(config.checkPointId().get())).map(entry -> entry.checkpoint);
 			}
-			return getLast(checkpoints, config);
+			return ofNullable(checkpoints.entries.peekFirst()).map(entry -> entry.checkpoint);
 		}
 		finally {
 			lock.unlock();
@@ -94,18 +266,20 @@ public class MemorySaver implements BaseCheckpointSaver {
 		Lock lock = getLock(threadId);
 		lock.lock();
 		try {
-			final LinkedList<Checkpoint> checkpoints = getCheckpoints(config);
+			final ThreadCheckpoints checkpoints = getCheckpoints(config);
 			if (config.checkPointId().isPresent()) { // Replace Checkpoint
 				String checkPointId = config.checkPointId().get();
-				int index = IntStream.range(0, checkpoints.size())
-					.filter(i -> checkpoints.get(i).getId().equals(checkPointId))
-					.findFirst()
-					.orElseThrow(() -> (new NoSuchElementException(
-							format("Checkpoint with id %s not found!", checkPointId))));
-				checkpoints.set(index, checkpoint);
+				Entry entry = checkpoints.byId.get(checkPointId);
+				if (entry == null) {
+					throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId));
+				}
+				checkpoints.replace(entry, checkpoint);
 				return config;
 			}
-			checkpoints.push(checkpoint); // Add Checkpoint
+			checkpoints.push(new Entry(checkpoint, System.nanoTime())); // Add Checkpoint
+			while (maxCheckpointsPerThread > 0 && checkpoints.size() > maxCheckpointsPerThread) {
+				checkpoints.removeOldest();
+			}
 			return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
 		}
 		finally {
@@ -119,7 +293,7 @@ public class MemorySaver implements BaseCheckpointSaver {
 		Lock lock = getLock(threadId);
 		lock.lock();
 		try {
-			LinkedList<Checkpoint> checkpoints = _checkpointsByThread.get(threadId);
+			ThreadCheckpoints checkpoints = _checkpointsByThread.get(threadId);
 			if (checkpoints != null) {
 				checkpoints.clear();
 				return true;
@@ -137,7 +311,7 @@ public class MemorySaver implements BaseCheckpointSaver {
 		Lock lock = getLock(threadId);
 		lock.lock();
 		try {
-			LinkedList<Checkpoint> removed = _checkpointsByThread.remove(threadId);
+			ThreadCheckpoints removed = _checkpointsByThread.remove(threadId);
 			_locksByThread.remove(threadId);
 			return new Tag(threadId, removed);
 		}
@@ -146,8 +320,68 @@ public class MemorySaver implements BaseCheckpointSaver {
 		}
 	}
 
+	/**
+	 * Returns a snapshot of the checkpoints of every thread, newest first. Changes to the
+	 * returned map or lists are not reflected in this saver.
+	 * @return the checkpoints by thread id
+	 */
 	public ConcurrentHashMap<String, LinkedList<Checkpoint>> get_checkpointsByThread() {
-		return _checkpointsByThread;
+		ConcurrentHashMap<String, LinkedList<Checkpoint>> snapshot = new ConcurrentHashMap<>();
+		_checkpointsByThread.forEach((threadId, checkpoints) -> {
+			Lock lock = getLock(threadId);
+			lock.lock();
+			try {
+				snapshot.put(threadId, new LinkedList<>(checkpoints));
+			}
+			finally {
+				lock.unlock();
+			}
+		});
+		return snapshot;
+	}
+
+	/**
+	 * Builder of {@link MemorySaver} instances with a retention policy.
+	 */
+	public static class Builder {
+
+		private int maxCheckpointsPerThread;
+
+		private Duration maxAge;
+
+		/**
+		 * Sets the number of checkpoints kept for each thread.
+		 * @param maxCheckpointsPerThread the maximum number of checkpoints, 0 (the
+		 * default) keeps them all
+		 * @return this builder
+		 */
+		public Builder maxCheckpointsPerThread(int maxCheckpointsPerThread) {
+			if (maxCheckpointsPerThread < 0) {
+				throw new IllegalArgumentException("maxCheckpointsPerThread must not be negative");
+			}
+			this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+			return this;
+		}
+
+		/**
+		 * Sets how long checkpoints are kept after being saved. The latest checkpoint of
+		 * a thread is kept regardless of its age.
+		 * @param maxAge the maximum age, {@code null} (the default) keeps them until
+		 * released
+		 * @return this builder
+		 */
+		public Builder maxAge(Duration maxAge) {
+			if (maxAge != null && (maxAge.isNegative() || maxAge.isZero())) {
+				throw new IllegalArgumentException("maxAge must be positive");
+			}
+			this.maxAge = maxAge;
+			return this;
+		}
+
+		public MemorySaver build() {
+			return new MemorySaver(this);
+		}
+
 	}
 
 }
@@ -20,25 +20,46 @@ import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
 import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.redisson.api.RBucket;
-import org.redisson.api.RLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
+import java.util.Set;
 
 import static java.lang.String.format;
 
 /**
  * The type Redis saver.
  *
+ * <p>
+ * Each thread is stored under keys sharing the {@code {threadId}} hash tag, so they live
+ * in the same cluster slot:
+ * </p>
+ * <ul>
+ * <li>{@code graph:checkpoint:{threadId}:data}: a hash of checkpoint id to its JSON</li>
+ * <li>{@code graph:checkpoint:{threadId}:index}: a sorted set of checkpoint ids, scored
+ * by insertion sequence</li>
+ * <li>{@code graph:checkpoint:{threadId}:latest}: the id of the latest checkpoint</li>
+ * </ul>
+ * <p>
+ * Every operation is a single Lua script, so writes are atomic without a distributed
+ * lock and the latest checkpoint is read in O(1). Threads saved by previous versions, as
+ * one JSON list under {@code graph:checkpoint:content:threadId}, are migrated the first
+ * time the thread is found empty; the legacy key of a thread is only looked up once per
+ * saver.
+ * </p>
+ *
  * @author disaster
  * @since 1.0.0-M2
  */
@@ -48,9 +69,70 @@ public class RedisSaver implements BaseCheckpointSaver {
 
 	private final ObjectMapper objectMapper;
 
-	private static final String PREFIX = "graph:checkpoint:content:";
+	// threads whose legacy key was already migrated or found missing, oldest first;
+	// forgetting one only costs another lookup
+	private final Set<String> checkedLegacyThreads = Collections
+		.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>() {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > MAX_CHECKED_LEGACY_THREADS;
+			}
+		}));
+
+	private static final String PREFIX = "graph:checkpoint:";
+
+	private static final String LEGACY_PREFIX = "graph:checkpoint:content:";
+
+	private static final int MAX_CHECKED_LEGACY_THREADS = 10_000;
+
+	// KEYS: data, index, latest; ARGV: id, json; returns the sequence of the checkpoint
+	private static final String APPEND_SCRIPT = """
+			local seq = 1
+			local last = redis.call('ZRANGE', KEYS[2], -1, -1, 'WITHSCORES')
+			if last[2] then seq = math.max(tonumber(last[2]) + 1, 1) end
+			if redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) == 1 then
+				redis.call('ZADD', KEYS[2], seq, ARGV[1])
+				redis.call('SET', KEYS[3], ARGV[1])
+			end
+			return seq
+			""";
 
-	private static final String LOCK_PREFIX = "graph:checkpoint:lock:";
+	// KEYS: data, index, latest; ARGV: id, json, score
+	private static final String MIGRATE_SCRIPT = """
+			if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 1 then
+				redis.call('ZADD', KEYS[2], tonumber(ARGV[3]), ARGV[1])
+				redis.call('SET', KEYS[3], ARGV[1], 'NX')
+			end
+			return 1
+			""";
+
+	// KEYS: data, index, latest; ARGV: replaced id, id, json
+	private static final String REPLACE_SCRIPT = """
+			local score = redis.call('ZSCORE', KEYS[2], ARGV[1])
+			if not score then return 0 end
+			if ARGV[1] ~= ARGV[2] then
+				redis.call('HDEL', KEYS[1], ARGV[1])
+				redis.call('ZREM', KEYS[2], ARGV[1])
+				redis.call('ZADD', KEYS[2], score, ARGV[2])
+				if redis.call('GET', KEYS[3]) == ARGV[1] then redis.call('SET', KEYS[3], ARGV[2]) end
+			end
+			redis.call('HSET', KEYS[1], ARGV[2], ARGV[3])
+			return 1
+			""";
+
+	// KEYS: data, latest
+	private static final String GET_LATEST_SCRIPT = """
+			local id = redis.call('GET', KEYS[2])
+			if not id then return false end
+			return redis.call('HGET', KEYS[1], id)
+			""";
+
+	// KEYS: data, index; returns the checkpoints from the newest to the oldest
+	private static final String LIST_SCRIPT = """
+			local ids = redis.call('ZREVRANGE', KEYS[2], 0, -1)
+			if #ids == 0 then return {} end
+			return redis.call('HMGET', KEYS[1], unpack(ids))
+			""";
 
 	/**
 	 * Instantiates a new Redis saver.
@@ -61,177 +143,135 @@ public class RedisSaver implements BaseCheckpointSaver {
 		this.objectMapper = new ObjectMapper();
 	}
 
+	private static String threadIdOf(RunnableConfig config) {
+		return config.threadId().orElseThrow(() -> new IllegalArgumentException("threadId isn't allow null"));
+	}
+
+	private static List<Object> keys(String threadId, String... names) {
+		Object[] keys = new Object[names.length];
+		for (int i = 0; i < names.length; i++) {
+			keys[i] = PREFIX + "{" + threadId + "}:" + names[i];
+		}
+		return List.of(keys);
+	}
+
+	private RScript script() {
+		return redisson.getScript(StringCodec.INSTANCE);
+	}
+
 	@Override
 	public Collection<Checkpoint> list(RunnableConfig config) {
-		Optional<String> configOption = config.threadId();
-		if (configOption.isPresent()) {
-			RLock lock = redisson.getLock(LOCK_PREFIX + configOption.get());
-			boolean tryLock = false;
-			try {
-				tryLock = lock.tryLock(2, TimeUnit.MILLISECONDS);
-				if (tryLock) {
-					RBucket<String> bucket = redisson.getBucket(PREFIX + configOption.get());
-					String content = bucket.get();
-					if (content == null) {
-						return new LinkedList<>();
-					}
-					return objectMapper.readValue(content, new TypeReference<>() {
-					});
-				}
-				else {
-					return List.of();
-				}
-			}
-			catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			catch (JsonMappingException e) {
-				throw new RuntimeException("Failed to parse JSON", e);
-			}
-			catch (JsonProcessingException e) {
-				throw new RuntimeException("Failed to parse JSON", e);
-			}
-			finally {
-				if (tryLock) {
-					lock.unlock();
-				}
-			}
+		String threadId = threadIdOf(config);
+		List<String> content = script().eval(RScript.Mode.READ_ONLY, LIST_SCRIPT, RScript.ReturnType.MULTI,
+				keys(threadId, "data", "index"));
+		if (content.isEmpty() && migrateLegacy(threadId)) {
+			return list(config);
 		}
-		else {
-			throw new IllegalArgumentException("threadId is not allow null");
+		LinkedList<Checkpoint> checkpoints = new LinkedList<>();
+		for (String json : content) {
+			if (json != null) {
+				checkpoints.add(fromJson(json));
+			}
 		}
+		return checkpoints;
 	}
 
 	@Override
 	public Optional<Checkpoint> get(RunnableConfig config) {
-		Optional<String> configOption = config.threadId();
-		if (configOption.isPresent()) {
-			RLock lock = redisson.getLock(LOCK_PREFIX + configOption.get());
-			boolean tryLock = false;
-			try {
-				tryLock = lock.tryLock(2, TimeUnit.MILLISECONDS);
-				if (tryLock) {
-					RBucket<String> bucket = redisson.getBucket(PREFIX + configOption.get());
-					String content = bucket.get();
-					List<Checkpoint> checkpoints;
-					if (content == null) {
-						checkpoints = new LinkedList<>();
-					}
-					else {
-						checkpoints = objectMapper.readValue(content, new TypeReference<>() {
-						});
-					}
-					if (config.checkPointId().isPresent()) {
-						return config.checkPointId()
-							.flatMap(id -> checkpoints.stream()
-								.filter(checkpoint -> checkpoint.getId().equals(id))
-								.findFirst());
-					}
-					return getLast(getLinkedList(checkpoints), config);
-				}
-				else {
-					return Optional.empty();
-				}
-			}
-			catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			catch (JsonMappingException e) {
-				throw new RuntimeException("Failed to parse JSON", e);
-			}
-			catch (JsonProcessingException e) {
-				throw new RuntimeException("Failed to parse JSON", e);
-			}
-			finally {
-				if (tryLock) {
-					lock.unlock();
-				}
-			}
+		String threadId = threadIdOf(config);
+		String json;
+		if (config.checkPointId().isPresent()) {
+			json = redisson.<String, String>getMap(keys(threadId, "data").get(0).toString(), StringCodec.INSTANCE)
+				.get(config.checkPointId().get());
 		}
 		else {
-			throw new IllegalArgumentException("threadId isn't allow null");
+			json = script().eval(RScript.Mode.READ_ONLY, GET_LATEST_SCRIPT, RScript.ReturnType.VALUE,
+					keys(threadId, "data", "latest"));
+		}
+		if (json == null && migrateLegacy(threadId)) {
+			return get(config);
 		}
+		return Optional.ofNullable(json).map(this::fromJson);
 	}
 
 	@Override
 	public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
-		Optional<String> configOption = config.threadId();
-		if (configOption.isPresent()) {
-			RLock lock = redisson.getLock(LOCK_PREFIX + configOption.get());
-			boolean tryLock = false;
-			try {
-				tryLock = lock.tryLock(2, TimeUnit.MILLISECONDS);
-				if (tryLock) {
-					RBucket<String> bucket = redisson.getBucket(PREFIX + configOption.get());
-					String content = bucket.get();
-					List<Checkpoint> checkpoints;
-					if (content == null) {
-						checkpoints = new LinkedList<>();
-					}
-					else {
-						checkpoints = objectMapper.readValue(content, new TypeReference<>() {
-						});
-					}
-					LinkedList<Checkpoint> linkedList = getLinkedList(checkpoints);
-					if (config.checkPointId().isPresent()) { // Replace Checkpoint
-						String checkPointId = config.checkPointId().get();
-						int index = IntStream.range(0, checkpoints.size())
-							.filter(i -> checkpoints.get(i).getId().equals(checkPointId))
-							.findFirst()
-							.orElseThrow(() -> (new NoSuchElementException(
-									format("Checkpoint with id %s not found!", checkPointId))));
-						linkedList.set(index, checkpoint);
-						bucket.set(objectMapper.writeValueAsString(linkedList));
-						return config;
-					}
-					linkedList.push(checkpoint); // Add Checkpoint
-					bucket.set(objectMapper.writeValueAsString(linkedList));
-				}
-				return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+		String threadId = threadIdOf(config);
+		String json = objectMapper.writeValueAsString(checkpoint);
+		if (config.checkPointId().isPresent()) { // Replace Checkpoint
+			String checkPointId = config.checkPointId().get();
+			Long replaced = script().eval(RScript.Mode.READ_WRITE, REPLACE_SCRIPT, RScript.ReturnType.INTEGER,
+					keys(threadId, "data", "index", "latest"), checkPointId, checkpoint.getId(), json);
+			if (replaced == 0 && migrateLegacy(threadId)) {
+				return put(config, checkpoint);
 			}
-			catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			finally {
-				if (tryLock) {
-					lock.unlock();
-				}
+			if (replaced == 0) {
+				throw new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId));
 			}
+			return config;
 		}
-		else {
-			throw new IllegalArgumentException("threadId isn't allow null");
+		Long seq = script().eval(RScript.Mode.READ_WRITE, APPEND_SCRIPT, RScript.ReturnType.INTEGER,
+				keys(threadId, "data", "index", "latest"), checkpoint.getId(), json); // Add Checkpoint
+		if (seq == 1) {
+			migrateLegacy(threadId);
 		}
+		return RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
 	}
 
 	@Override
 	public boolean clear(RunnableConfig config) {
-		Optional<String> configOption = config.threadId();
-		if (configOption.isPresent()) {
-			RLock lock = redisson.getLock(LOCK_PREFIX + configOption.get());
-			boolean tryLock = false;
-			try {
-				tryLock = lock.tryLock(2, TimeUnit.MILLISECONDS);
-				if (tryLock) {
-					RBucket<String> bucket = redisson.getBucket(PREFIX + configOption.get());
-					bucket.getAndSet(objectMapper.writeValueAsString(List.of()));
-					return tryLock;
-				}
-				return false;
-			}
-			catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			catch (JsonProcessingException e) {
-				throw new RuntimeException("Failed to serialize JSON", e);
-			}
-			finally {
-				if (tryLock) {
-					lock.unlock();
-				}
+		String threadId = threadIdOf(config);
+		redisson.getKeys()
+			.delete(keys(threadId, "data", "index", "latest").stream().map(Object::toString).toArray(String[]::new));
+		redisson.getBucket(LEGACY_PREFIX + threadId).delete();
+		return true;
+	}
+
+	/**
+	 * Moves a thread saved as a single JSON list to the per-checkpoint layout. Legacy
+	 * checkpoints get negative scores, so they stay older than any checkpoint appended
+	 * since.
+	 * @return true if a legacy thread has been migrated
+	 */
+	private boolean migrateLegacy(String threadId) {
+		if (checkedLegacyThreads.contains(threadId)) {
+			return false;
+		}
+		RBucket<String> legacy = redisson.getBucket(LEGACY_PREFIX + threadId, StringCodec.INSTANCE);
+		String content = legacy.getAndDelete();
+		if (content == null) {
+			checkedLegacyThreads.add(threadId);
+			return false;
+		}
+		try {
+			List<Checkpoint> checkpoints = objectMapper.readValue(content, new TypeReference<>() {
+			});
+			// stored from the newest to the oldest
+			for (int i = 0; i < checkpoints.size(); i++) {
+				Checkpoint checkpoint = checkpoints.get(i);
+				script().eval(RScript.Mode.READ_WRITE, MIGRATE_SCRIPT, RScript.ReturnType.INTEGER,
+						keys(threadId, "data", "index", "latest"), checkpoint.getId(),
+						objectMapper.writeValueAsString(checkpoint), String.valueOf(-(i + 1)));
 			}
+			checkedLegacyThreads.add(threadId);
+			return !checkpoints.isEmpty();
 		}
-		else {
-			throw new IllegalArgumentException("threadId isn't allow null");
+		catch (JsonProcessingException e) {
+			legacy.set(content);
+			throw new RuntimeException("Failed to parse JSON", e);
+		}
+		catch (RedisException e) {
+			legacy.set(content);
+			throw e;
+		}
+	}
+
+	private Checkpoint fromJson(String json) {
+		try {
+			return objectMapper.readValue(json, Checkpoint.class);
+		}
+		catch (JsonProcessingException e) {
+			throw new RuntimeException("Failed to parse JSON", e);
 		}
 	}
 
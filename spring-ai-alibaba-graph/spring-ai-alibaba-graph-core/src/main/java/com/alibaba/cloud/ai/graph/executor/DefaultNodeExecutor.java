@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link NodeExecutor} implementation. It delegates to an {@link Executor} and
+ * keeps track of queued, running and completed node tasks.
+ */
+public class DefaultNodeExecutor implements NodeExecutor {
+
+	private static final Logger log = LoggerFactory.getLogger(DefaultNodeExecutor.class);
+
+	/**
+	 * The meter name prefix used by {@link #bindTo(MeterRegistry, String)}.
+	 */
+	public static final String METRIC_PREFIX = "spring.ai.alibaba.graph.node.executor";
+
+	static final DefaultNodeExecutor DEFAULT = new DefaultNodeExecutor(newPerNodeThreadExecutor());
+
+	static final DefaultNodeExecutor DIRECT = new DefaultNodeExecutor(Runnable::run);
+
+	private final Executor delegate;
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicInteger active = new AtomicInteger();
+
+	private final LongAdder completed = new LongAdder();
+
+	/**
+	 * Instantiates a new Default node executor.
+	 * @param delegate the executor that actually runs node tasks
+	 */
+	public DefaultNodeExecutor(Executor delegate) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		Objects.requireNonNull(command, "command cannot be null");
+		queued.incrementAndGet();
+		try {
+			delegate.execute(() -> {
+				queued.decrementAndGet();
+				active.incrementAndGet();
+				try {
+					command.run();
+				}
+				finally {
+					active.decrementAndGet();
+					completed.increment();
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			queued.decrementAndGet();
+			throw ex;
+		}
+	}
+
+	@Override
+	public int queueDepth() {
+		return queued.get();
+	}
+
+	@Override
+	public int activeNodes() {
+		return active.get();
+	}
+
+	@Override
+	public long completedNodes() {
+		return completed.sum();
+	}
+
+	/**
+	 * Registers queue depth, active nodes and completed nodes meters for this executor.
+	 * @param meterRegistry the meter registry
+	 * @param name the executor name, used as the {@code name} tag
+	 * @return this executor
+	 */
+	public DefaultNodeExecutor bindTo(MeterRegistry meterRegistry, String name) {
+		Gauge.builder(METRIC_PREFIX + ".queued", this, DefaultNodeExecutor::queueDepth)
+			.tag("name", name)
+			.description("Number of graph nodes submitted but not yet started")
+			.register(meterRegistry);
+		Gauge.builder(METRIC_PREFIX + ".active", this, DefaultNodeExecutor::activeNodes)
+			.tag("name", name)
+			.description("Number of graph nodes currently running")
+			.register(meterRegistry);
+		FunctionCounter.builder(METRIC_PREFIX + ".completed", this, DefaultNodeExecutor::completedNodes)
+			.tag("name", name)
+			.description("Number of graph nodes that have finished running")
+			.register(meterRegistry);
+		return this;
+	}
+
+	/**
+	 * Creates an executor that starts a new thread for every task: a virtual thread when
+	 * {@code Executors#newVirtualThreadPerTaskExecutor} is available, otherwise a cached
+	 * pool of daemon platform threads.
+	 * @return the executor
+	 */
+	static Executor newPerNodeThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+			log.debug("Virtual threads are not available, falling back to a cached thread pool");
+		}
+		AtomicInteger counter = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "graph-node-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return Executors.newCachedThreadPool(threadFactory);
+	}
+
+}
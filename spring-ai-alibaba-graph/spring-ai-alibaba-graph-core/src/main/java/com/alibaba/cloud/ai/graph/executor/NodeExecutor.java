@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor used by {@link com.alibaba.cloud.ai.graph.CompiledGraph} to run node actions.
+ * Nodes frequently block on I/O (HTTP calls, LLM requests, code execution), so the
+ * executor decouples node execution from the thread that drives the graph and from the
+ * shared {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ *
+ * <p>
+ * Implementations expose the number of submitted nodes waiting to start and the number
+ * of nodes currently running, so callers can monitor saturation.
+ * </p>
+ *
+ * @see com.alibaba.cloud.ai.graph.CompileConfig.Builder#nodeExecutor(NodeExecutor)
+ */
+public interface NodeExecutor extends Executor {
+
+	/**
+	 * Returns the number of node tasks that have been submitted but not yet started.
+	 * @return the queue depth
+	 */
+	int queueDepth();
+
+	/**
+	 * Returns the number of node tasks that are currently running.
+	 * @return the active nodes count
+	 */
+	int activeNodes();
+
+	/**
+	 * Returns the total number of node tasks that have finished, successfully or not.
+	 * @return the completed nodes count
+	 */
+	long completedNodes();
+
+	/**
+	 * Returns the shared default executor. It starts one virtual thread per node when
+	 * the runtime supports virtual threads, otherwise it falls back to an unbounded pool
+	 * of daemon platform threads. Since the thread that drives the graph waits for each
+	 * node, a graph configured with this executor runs its sequential nodes on that
+	 * thread and uses the executor for the branches of parallel nodes.
+	 * @return the default node executor
+	 */
+	static NodeExecutor defaultExecutor() {
+		return DefaultNodeExecutor.DEFAULT;
+	}
+
+	/**
+	 * Returns an executor that runs each node on the thread that drives the graph. This
+	 * reproduces the behavior prior to the introduction of {@link NodeExecutor}.
+	 * @return the direct node executor
+	 */
+	static NodeExecutor direct() {
+		return DefaultNodeExecutor.DIRECT;
+	}
+
+	/**
+	 * Wraps the given executor, adding queue depth and active node tracking.
+	 * @param executor the executor that actually runs node tasks
+	 * @return the node executor
+	 */
+	static NodeExecutor of(Executor executor) {
+		return new DefaultNodeExecutor(executor);
+	}
+
+}
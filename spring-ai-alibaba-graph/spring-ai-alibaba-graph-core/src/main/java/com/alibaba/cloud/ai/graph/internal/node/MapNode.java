@@ -0,0 +1,511 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.internal.node;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * A node running an action, or a compiled subgraph, once per item of a collection held
+ * in the state.
+ * <p>
+ * Each item runs with the state of the node plus the item under {@link #itemKey()}, on
+ * {@link CompileConfig#parallelExecutor()}, at most {@code maxConcurrency} items at a
+ * time. The value each item writes under {@link #outputKey()} is reduced in item order
+ * with the reducer, an {@link AppendStrategy} by default, and the result is written under
+ * the same key. The node streams a {@link NodeOutput} per completed item, named after
+ * {@link #formatItemId(String, int)}, and the outputs of the subgraph of each item.
+ * <p>
+ * When an errors key is set, a failed item does not fail the node: it is recorded under
+ * that key as a map holding its {@code index} and {@code error} message. With a
+ * checkpoint saver, a checkpoint holding the results completed so far is saved after
+ * each item, so that resuming the graph runs again only the items that did not complete.
+ */
+public class MapNode extends Node {
+
+	/**
+	 * The key of the results completed so far, by item index, in the checkpoints saved
+	 * while the node runs.
+	 */
+	public static final String PROGRESS_KEY_FORMAT = "__MAP__(%s)";
+
+	/**
+	 * A copy of the builder the node was built with, never changed.
+	 */
+	private final Builder definition;
+
+	private MapNode(String id, Builder definition) {
+		super(id, (config) -> new AsyncMapNodeAction(id, definition, config));
+		this.definition = definition;
+	}
+
+	public String itemsKey() {
+		return definition.itemsKey;
+	}
+
+	public String itemKey() {
+		return definition.itemKey;
+	}
+
+	public String outputKey() {
+		return definition.outputKey;
+	}
+
+	public Optional<String> errorsKey() {
+		return Optional.ofNullable(definition.errorsKey);
+	}
+
+	/**
+	 * Returns the name of the output streamed when an item completes.
+	 * @param id the id of the map node
+	 * @param index the index of the item
+	 * @return the name of the item output
+	 */
+	public static String formatItemId(String id, int index) {
+		return format("%s[%d]", id, index);
+	}
+
+	@Override
+	public Node withIdUpdated(Function<String, String> newId) {
+		return new MapNode(newId.apply(id()), definition);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private String itemsKey;
+
+		private String itemKey;
+
+		private String outputKey;
+
+		private String errorsKey;
+
+		private KeyStrategy reducer = new AppendStrategy();
+
+		private int maxConcurrency;
+
+		private AsyncNodeActionWithConfig action;
+
+		private CompiledGraph subGraph;
+
+		/**
+		 * Sets the state key holding the collection of items.
+		 * @param itemsKey the key of the items
+		 * @return this builder
+		 */
+		public Builder itemsKey(String itemsKey) {
+			this.itemsKey = itemsKey;
+			return this;
+		}
+
+		/**
+		 * Sets the key under which each item is put in the state of its run.
+		 * @param itemKey the key of the item
+		 * @return this builder
+		 */
+		public Builder itemKey(String itemKey) {
+			this.itemKey = itemKey;
+			return this;
+		}
+
+		/**
+		 * Sets the key each item writes its result under, the reduced results being
+		 * written under the same key.
+		 * @param outputKey the key of the results
+		 * @return this builder
+		 */
+		public Builder outputKey(String outputKey) {
+			this.outputKey = outputKey;
+			return this;
+		}
+
+		/**
+		 * Sets the key the failed items are recorded under. Without it, the first failed
+		 * item fails the node.
+		 * @param errorsKey the key of the failed items
+		 * @return this builder
+		 */
+		public Builder errorsKey(String errorsKey) {
+			this.errorsKey = errorsKey;
+			return this;
+		}
+
+		/**
+		 * Sets the strategy reducing the item results, in item order.
+		 * @param reducer the reducer, an {@link AppendStrategy} by default
+		 * @return this builder
+		 */
+		public Builder reducer(KeyStrategy reducer) {
+			this.reducer = Objects.requireNonNull(reducer, "reducer cannot be null");
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of items running at the same time. Defaults to
+		 * {@link CompileConfig#maxParallelBranches()}.
+		 * @param maxConcurrency the maximum number of concurrent items
+		 * @return this builder
+		 */
+		public Builder maxConcurrency(int maxConcurrency) {
+			if (maxConcurrency < 1) {
+				throw new IllegalArgumentException("maxConcurrency must be at least 1");
+			}
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		/**
+		 * Sets the action run for each item.
+		 * @param action the item action
+		 * @return this builder
+		 */
+		public Builder action(AsyncNodeActionWithConfig action) {
+			this.action = action;
+			this.subGraph = null;
+			return this;
+		}
+
+		/**
+		 * Sets the compiled graph run for each item, on a thread of its own named after
+		 * the thread of the parent graph, the node and the item index.
+		 * @param subGraph the item graph
+		 * @return this builder
+		 */
+		public Builder subGraph(CompiledGraph subGraph) {
+			this.subGraph = subGraph;
+			this.action = null;
+			return this;
+		}
+
+		/**
+		 * Builds the map node.
+		 * @param id the id of the node
+		 * @return the map node
+		 */
+		public MapNode build(String id) {
+			Objects.requireNonNull(id, "id cannot be null");
+			Objects.requireNonNull(itemsKey, "itemsKey cannot be null");
+			Objects.requireNonNull(itemKey, "itemKey cannot be null");
+			Objects.requireNonNull(outputKey, "outputKey cannot be null");
+			if (action == null && subGraph == null) {
+				throw new IllegalStateException(format("map node '%s' has neither an action nor a subgraph", id));
+			}
+			return new MapNode(id, copy());
+		}
+
+		private Builder copy() {
+			var builder = new Builder();
+			builder.itemsKey = itemsKey;
+			builder.itemKey = itemKey;
+			builder.outputKey = outputKey;
+			builder.errorsKey = errorsKey;
+			builder.reducer = reducer;
+			builder.maxConcurrency = maxConcurrency;
+			builder.action = action;
+			builder.subGraph = subGraph;
+			return builder;
+		}
+
+	}
+
+	/**
+	 * Runs the items of one node execution. The outputs are pushed to an unbounded queue
+	 * read by the graph, so that no thread waits for the items to complete.
+	 */
+	static final class AsyncMapNodeAction implements AsyncNodeActionWithConfig {
+
+		private final String id;
+
+		private final String itemsKey;
+
+		private final String itemKey;
+
+		private final String outputKey;
+
+		private final String errorsKey;
+
+		private final String progressKey;
+
+		private final KeyStrategy reducer;
+
+		private final AsyncNodeActionWithConfig action;
+
+		private final CompiledGraph subGraph;
+
+		private final Executor executor;
+
+		private final int maxConcurrency;
+
+		private final BaseCheckpointSaver saver;
+
+		AsyncMapNodeAction(String id, Builder builder, CompileConfig config) {
+			this.id = id;
+			this.itemsKey = builder.itemsKey;
+			this.itemKey = builder.itemKey;
+			this.outputKey = builder.outputKey;
+			this.errorsKey = builder.errorsKey;
+			this.progressKey = format(PROGRESS_KEY_FORMAT, id);
+			this.reducer = builder.reducer;
+			this.action = builder.action;
+			this.subGraph = builder.subGraph;
+			this.executor = config.parallelExecutor();
+			this.maxConcurrency = builder.maxConcurrency > 0 ? builder.maxConcurrency : config.maxParallelBranches();
+			this.saver = config.checkpointSaver().orElse(null);
+		}
+
+		@Override
+		public CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config) {
+			List<Object> items = state.value(itemsKey)
+				.map(value -> value instanceof Collection<?> collection ? new ArrayList<Object>(collection)
+						: List.of(value))
+				.orElse(List.of());
+
+			var run = new Run(state, config, items, progressOf(config));
+			if (run.pending.isEmpty()) {
+				run.queue.add(AsyncGenerator.Data.done(run.result()));
+			}
+			for (int i = 0, n = Math.min(run.pending.size(), maxConcurrency); i < n; i++) {
+				startNext(run);
+			}
+			return CompletableFuture.completedFuture(Map.of(outputKey, new AsyncGeneratorQueue.Generator<>(run.queue)));
+		}
+
+		/**
+		 * Returns the results saved by a previous execution of this node that was stopped
+		 * before all its items completed.
+		 */
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> progressOf(RunnableConfig config) {
+			if (saver == null) {
+				return new HashMap<>();
+			}
+			return saver.get(config)
+				.filter(checkpoint -> id.equals(checkpoint.getNodeId()) && id.equals(checkpoint.getNextNodeId()))
+				.map(checkpoint -> checkpoint.getState().get(progressKey))
+				.filter(Map.class::isInstance)
+				.map(progress -> new HashMap<>((Map<String, Object>) progress))
+				.orElseGet(HashMap::new);
+		}
+
+		/**
+		 * The items of one node execution. The results are keyed by the item index as a
+		 * string, so that they survive the serialization of the checkpoints.
+		 */
+		private final class Run {
+
+			final OverAllState state;
+
+			final RunnableConfig config;
+
+			final List<Object> items;
+
+			final Map<String, Object> results;
+
+			final Map<Integer, String> errors = new HashMap<>();
+
+			final List<Integer> pending = new ArrayList<>();
+
+			final AtomicInteger next = new AtomicInteger();
+
+			final AtomicInteger remaining;
+
+			final LinkedBlockingQueue<AsyncGenerator.Data<NodeOutput>> queue = new LinkedBlockingQueue<>();
+
+			boolean failed;
+
+			Run(OverAllState state, RunnableConfig config, List<Object> items, Map<String, Object> results) {
+				this.state = state;
+				this.config = config;
+				this.items = items;
+				this.results = results;
+				for (int i = 0; i < items.size(); i++) {
+					if (!results.containsKey(String.valueOf(i))) {
+						pending.add(i);
+					}
+				}
+				this.remaining = new AtomicInteger(pending.size());
+			}
+
+			/**
+			 * Reduces the item results in item order and removes the progress of the node
+			 * from the state.
+			 */
+			Map<String, Object> result() {
+				Object reduced = null;
+				for (int i = 0; i < items.size(); i++) {
+					Object value = results.get(String.valueOf(i));
+					if (value != null) {
+						reduced = reducer.apply(reduced, value);
+					}
+				}
+				Map<String, Object> result = new HashMap<>();
+				if (reduced != null) {
+					result.put(outputKey, reduced);
+				}
+				result.put(progressKey, null);
+				if (errorsKey != null && !errors.isEmpty()) {
+					List<Map<String, Object>> failures = new ArrayList<>();
+					errors.entrySet()
+						.stream()
+						.sorted(Map.Entry.comparingByKey())
+						.forEach(e -> failures.add(Map.of("index", e.getKey(), "error", e.getValue())));
+					result.put(errorsKey, failures);
+				}
+				return result;
+			}
+
+			/**
+			 * Ends the execution with the given error, the remaining items not being
+			 * started.
+			 */
+			void fail(Throwable error) {
+				failed = true;
+				next.set(pending.size());
+				queue.add(AsyncGenerator.Data.error(error));
+				queue.add(AsyncGenerator.Data.done());
+			}
+
+		}
+
+		/**
+		 * Starts the next pending item, if any. Once it completes, the item starts the
+		 * following one, so that at most {@code maxConcurrency} items run at any time.
+		 */
+		private void startNext(Run run) {
+			int next = run.next.getAndIncrement();
+			if (next >= run.pending.size()) {
+				return;
+			}
+			int index = run.pending.get(next);
+			Map<String, Object> itemData = OverAllState.updateState(run.state.data(),
+					Map.of(itemKey, run.items.get(index)));
+			CompletableFuture.supplyAsync(() -> runItem(run, index, itemData), executor)
+				.thenCompose(Function.identity())
+				.whenComplete((partialState, throwable) -> complete(run, index, itemData, partialState, throwable));
+		}
+
+		private CompletableFuture<Map<String, Object>> runItem(Run run, int index, Map<String, Object> itemData) {
+			if (action != null) {
+				var itemState = new OverAllState(itemData).registerKeyAndStrategy(run.state.keyStrategies());
+				return action.apply(itemState, run.config);
+			}
+			var itemConfig = RunnableConfig.builder(run.config)
+				.threadId(format("%s-%s", run.config.threadId().orElse(BaseCheckpointSaver.THREAD_ID_DEFAULT),
+						formatItemId(id, index)))
+				.checkPointId(null)
+				.build();
+			try {
+				NodeOutput last = null;
+				for (NodeOutput output : subGraph.stream(itemData, itemConfig)) {
+					last = output;
+					run.queue.add(AsyncGenerator.Data.of(output));
+				}
+				return CompletableFuture.completedFuture(last != null ? last.state().data() : Map.of());
+			}
+			catch (Exception e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+
+		private void complete(Run run, int index, Map<String, Object> itemData, Map<String, Object> partialState,
+				Throwable throwable) {
+			synchronized (run) {
+				if (run.failed) {
+					return;
+				}
+				if (throwable != null) {
+					Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+							? throwable.getCause() : throwable;
+					if (errorsKey == null) {
+						run.fail(cause);
+						return;
+					}
+					run.errors.put(index, String.valueOf(cause.getMessage()));
+				}
+				else {
+					Object value = partialState.get(outputKey);
+					if (value != null) {
+						run.results.put(String.valueOf(index), value);
+					}
+					var itemState = new OverAllState(
+							OverAllState.updateState(itemData, partialState, run.state.keyStrategies()));
+					run.queue.add(AsyncGenerator.Data.of(NodeOutput.of(formatItemId(id, index), itemState)));
+					try {
+						saveProgress(run);
+					}
+					catch (Exception e) {
+						run.fail(e);
+						return;
+					}
+				}
+				if (run.remaining.decrementAndGet() == 0) {
+					run.queue.add(AsyncGenerator.Data.done(run.result()));
+					return;
+				}
+			}
+			startNext(run);
+		}
+
+		/**
+		 * Saves a checkpoint resuming this node with the results completed so far.
+		 */
+		private void saveProgress(Run run) throws Exception {
+			if (saver == null) {
+				return;
+			}
+			var checkpoint = Checkpoint.builder()
+				.nodeId(id)
+				.nextNodeId(id)
+				.state(OverAllState.updateState(run.state.data(),
+						Map.of(progressKey, new LinkedHashMap<>(run.results))))
+				.build();
+			saver.put(run.config, checkpoint);
+		}
+
+	}
+
+}
@@ -13,22 +13,29 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.alibaba.cloud.ai.graph.internal.node;
 
+import com.alibaba.cloud.ai.graph.CompileConfig;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
 import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
 import com.alibaba.cloud.ai.graph.async.internal.reactive.GeneratorSubscriber;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static java.lang.String.format;
 
@@ -36,36 +43,179 @@ public class ParallelNode extends Node {
 
 	public static final String PARALLEL_PREFIX = "__PARALLEL__";
 
-	record AsyncParallelNodeAction(List<AsyncNodeActionWithConfig> actions,
-			Map<String, KeyStrategy> channels) implements AsyncNodeActionWithConfig {
+	/**
+	 * The name of the timer recording the latency of each parallel branch, tagged with
+	 * the {@code node} and {@code branch} ids and the {@code outcome}.
+	 */
+	public static final String BRANCH_METRIC = "spring.ai.alibaba.graph.parallel.branch";
+
+	/**
+	 * Runs the branches on the given executor, at most {@code maxConcurrency} at a time.
+	 * Each branch writes its result into its own slot, so nothing is shared between
+	 * branches; the results are merged in declaration order once all of them completed.
+	 */
+	record AsyncParallelNodeAction(List<AsyncNodeActionWithConfig> actions, Map<String, KeyStrategy> channels,
+			Executor executor, int maxConcurrency, Timer[] successTimers,
+			Timer[] errorTimers) implements AsyncNodeActionWithConfig {
 
 		@Override
 		public CompletableFuture<Map<String, Object>> apply(OverAllState state, RunnableConfig config) {
+			int size = actions.size();
+			var run = new Run(state, config, new CompletableFuture[size], new AtomicInteger());
+			for (int i = 0; i < size; i++) {
+				run.results()[i] = new CompletableFuture<Map<String, Object>>();
+			}
+			for (int i = 0, n = Math.min(size, maxConcurrency); i < n; i++) {
+				startNext(run);
+			}
+			return CompletableFuture.allOf(run.results()).thenApply(v -> {
+				List<Map<String, Object>> partialStates = new ArrayList<>(size);
+				for (CompletableFuture<?> result : run.results()) {
+					partialStates.add(uncheckedJoin(result));
+				}
+				return merge(partialStates);
+			});
+		}
+
+		private record Run(OverAllState state, RunnableConfig config, CompletableFuture<?>[] results,
+				AtomicInteger next) {
+		}
+
+		/**
+		 * Starts the next pending branch, if any. Once it completes, the branch starts
+		 * the following one, so that at most {@code maxConcurrency} branches run at any
+		 * time.
+		 */
+		@SuppressWarnings("unchecked")
+		private void startNext(Run run) {
+			int index = run.next().getAndIncrement();
+			if (index >= actions.size()) {
+				return;
+			}
+			var result = (CompletableFuture<Map<String, Object>>) run.results()[index];
+			long start = System.nanoTime();
+			CompletableFuture.supplyAsync(() -> actions.get(index).apply(run.state(), run.config()), executor)
+				.thenCompose(Function.identity())
+				.whenComplete((partialState, throwable) -> {
+					recordLatency(index, System.nanoTime() - start, throwable == null);
+					if (throwable != null) {
+						result.completeExceptionally(throwable);
+						// do not start the remaining branches, the node fails anyway
+						for (int i = run.next().getAndSet(actions.size()); i < actions.size(); i++) {
+							run.results()[i].cancel(false);
+						}
+					}
+					else {
+						result.complete(partialState);
+						startNext(run);
+					}
+				});
+		}
+
+		private void recordLatency(int index, long nanos, boolean success) {
+			Timer[] timers = success ? successTimers : errorTimers;
+			if (timers != null) {
+				timers[index].record(nanos, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Map<String, Object> uncheckedJoin(CompletableFuture<?> future) {
+			return (Map<String, Object>) future.join();
+		}
+
+		/**
+		 * Merges the branch results in declaration order, applying the key strategies,
+		 * so that the parallel node returns only what its branches changed. Async
+		 * generators are collected into a list per key.
+		 */
+		private Map<String, Object> merge(List<Map<String, Object>> partialStates) {
 			Map<String, Object> partialMergedStates = new HashMap<>();
 			Map<String, Object> asyncGenerators = new HashMap<>();
-			var futures = actions.stream().map(action -> action.apply(state, config).thenApply(partialState -> {
+			for (Map<String, Object> partialState : partialStates) {
 				partialState.forEach((key, value) -> {
 					if (value instanceof AsyncGenerator<?> || value instanceof GeneratorSubscriber) {
 						((List) asyncGenerators.computeIfAbsent(key, k -> new ArrayList<>())).add(value);
 					}
 					else {
-						partialMergedStates.put(key, value);
+						KeyStrategy strategy = channels.get(key);
+						partialMergedStates.put(key,
+								strategy != null ? strategy.apply(partialMergedStates.get(key), value) : value);
 					}
 				});
-				state.updateState(partialMergedStates);
-				return action;
-			}))
-				// .map( future -> supplyAsync(future::join) )
-				.toList()
-				.toArray(new CompletableFuture[0]);
-			return CompletableFuture.allOf(futures)
-				.thenApply((p) -> CollectionUtils.isEmpty(asyncGenerators) ? state.data() : asyncGenerators);
+			}
+			if (CollectionUtils.isEmpty(asyncGenerators)) {
+				return partialMergedStates;
+			}
+			asyncGenerators.forEach(partialMergedStates::putIfAbsent);
+			return partialMergedStates;
 		}
 
 	}
 
 	public ParallelNode(String id, List<AsyncNodeActionWithConfig> actions, Map<String, KeyStrategy> channels) {
-		super(format("%s(%s)", PARALLEL_PREFIX, id), (config) -> new AsyncParallelNodeAction(actions, channels));
+		this(id, branchesOf(actions), channels);
+	}
+
+	/**
+	 * Creates a parallel node running the given branches, keyed by branch id in
+	 * declaration order. Branches are dispatched on
+	 * {@link CompileConfig#parallelExecutor()} and limited to
+	 * {@link CompileConfig#maxParallelBranches()} concurrent branches.
+	 * @param id the id of the node the branches start from
+	 * @param branches the branch actions by branch id
+	 * @param channels the key strategies used to merge the branch results
+	 */
+	public ParallelNode(String id, LinkedHashMap<String, AsyncNodeActionWithConfig> branches,
+			Map<String, KeyStrategy> channels) {
+		super(formatId(id), (config) -> newAction(id, branches, channels, config));
+	}
+
+	/**
+	 * Returns the id of the parallel node holding the branches that start from the given
+	 * node.
+	 * @param id the id of the node the branches start from
+	 * @return the id of the parallel node
+	 */
+	public static String formatId(String id) {
+		return format("%s(%s)", PARALLEL_PREFIX, id);
+	}
+
+	private static LinkedHashMap<String, AsyncNodeActionWithConfig> branchesOf(
+			List<AsyncNodeActionWithConfig> actions) {
+		var branches = new LinkedHashMap<String, AsyncNodeActionWithConfig>();
+		for (int i = 0; i < actions.size(); i++) {
+			branches.put(String.valueOf(i), actions.get(i));
+		}
+		return branches;
+	}
+
+	private static AsyncParallelNodeAction newAction(String id,
+			LinkedHashMap<String, AsyncNodeActionWithConfig> branches, Map<String, KeyStrategy> channels,
+			CompileConfig config) {
+		Timer[] successTimers = null;
+		Timer[] errorTimers = null;
+		MeterRegistry meterRegistry = config.meterRegistry().orElse(null);
+		if (meterRegistry != null) {
+			successTimers = new Timer[branches.size()];
+			errorTimers = new Timer[branches.size()];
+			int i = 0;
+			for (String branch : branches.keySet()) {
+				successTimers[i] = branchTimer(meterRegistry, id, branch, "success");
+				errorTimers[i++] = branchTimer(meterRegistry, id, branch, "error");
+			}
+		}
+		return new AsyncParallelNodeAction(List.copyOf(branches.values()), channels, config.parallelExecutor(),
+				config.maxParallelBranches(), successTimers, errorTimers);
+	}
+
+	private static Timer branchTimer(MeterRegistry meterRegistry, String node, String branch, String outcome) {
+		return Timer.builder(BRANCH_METRIC)
+			.description("Latency of the branches of graph parallel nodes")
+			.tag("node", node)
+			.tag("branch", branch)
+			.tag("outcome", outcome)
+			.register(meterRegistry);
 	}
 
 	@Override
@@ -15,61 +15,167 @@
  */
 package com.alibaba.cloud.ai.graph.node;
 
+import com.alibaba.cloud.ai.document.DocumentParser;
 import com.alibaba.cloud.ai.document.JsonDocumentParser;
 import com.alibaba.cloud.ai.document.TextDocumentParser;
+import com.alibaba.cloud.ai.graph.NodeOutput;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.alibaba.cloud.ai.parser.bshtml.BsHtmlDocumentParser;
 import com.alibaba.cloud.ai.parser.markdown.MarkdownDocumentParser;
 import com.alibaba.cloud.ai.parser.tika.TikaDocumentParser;
 import com.alibaba.cloud.ai.parser.yaml.YamlDocumentParser;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.ExtractedTextFormatter;
 import org.springframework.util.StringUtils;
 
 import java.io.InputStream;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
+ * Extracts the text of a list of files, at most {@code maxConcurrency} of them at the
+ * same time. The parsers are shared by all the nodes.
+ *
+ * <p>
+ * With {@code stream(true)}, the text is also streamed as {@link StreamingOutput} chunks
+ * of about {@code chunkSize} characters, named {@code documentExtractorNode[i]} after the
+ * index of their file. Office and PDF files are streamed while Tika parses them, instead
+ * of after the whole document was materialized; their text goes through the same
+ * {@link ExtractedTextFormatter} as when they are not streamed, chunk by chunk, cut at
+ * line ends. At most {@code streamCapacity} chunks wait for the consumer: beyond that,
+ * the extraction waits too.
+ * </p>
+ *
+ * <p>
+ * Extractions run on the given executor, by default on a shared pool of
+ * {@link #DEFAULT_EXECUTOR_THREADS} daemon threads.
+ * </p>
+ *
  * @author HeYQ
  * @since 2025-05-02 17:03
  */
 public class DocumentExtractorNode implements NodeAction {
 
+	public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	public static final int DEFAULT_STREAM_CAPACITY = 16;
+
+	public static final int DEFAULT_EXECUTOR_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	private static final String NODE_NAME = "documentExtractorNode";
+
+	private static final Set<String> TIKA_EXTENSIONS = Set.of("pdf", "doc", "docx", "csv", "xls", "xlsx", "ppt",
+			"pptx");
+
+	private static final Executor DEFAULT_EXECUTOR = newDefaultExecutor();
+
+	/**
+	 * The parsers, created on first use. All of them are stateless and can be shared by
+	 * concurrent extractions.
+	 */
+	private static final class Parsers {
+
+		static final Parser TIKA_PARSER = new AutoDetectParser();
+
+		static final ExtractedTextFormatter TIKA_FORMATTER = ExtractedTextFormatter.defaults();
+
+		static final Map<String, DocumentParser> BY_EXTENSION = byExtension();
+
+		private static Map<String, DocumentParser> byExtension() {
+			Map<String, DocumentParser> parsers = new HashMap<>();
+			parsers.put("txt", new TextDocumentParser());
+			DocumentParser markdown = new MarkdownDocumentParser();
+			parsers.put("markdown", markdown);
+			parsers.put("md", markdown);
+			DocumentParser html = new BsHtmlDocumentParser();
+			parsers.put("html", html);
+			parsers.put("htm", html);
+			parsers.put("xml", html);
+			parsers.put("json", new JsonDocumentParser());
+			DocumentParser yaml = new YamlDocumentParser();
+			parsers.put("yaml", yaml);
+			parsers.put("yml", yaml);
+			DocumentParser tika = new TikaDocumentParser(() -> TIKA_PARSER, null, null, null, TIKA_FORMATTER);
+			TIKA_EXTENSIONS.forEach(extension -> parsers.put(extension, tika));
+			return Map.copyOf(parsers);
+		}
+
+	}
+
 	private final String paramsKey;
 
 	private final String outputKey;
 
 	private final List<String> fileList;
 
-	private final Map<String, Function<InputStream, List<Document>>> extractors = new HashMap<>();
+	private final int maxConcurrency;
+
+	private final boolean stream;
+
+	private final int chunkSize;
+
+	private final int streamCapacity;
+
+	private final Executor executor;
 
 	public DocumentExtractorNode(String paramsKey, String outputKey, List<String> fileList) {
+		this(paramsKey, outputKey, fileList, DEFAULT_MAX_CONCURRENCY, false, DEFAULT_CHUNK_SIZE,
+				DEFAULT_STREAM_CAPACITY, DEFAULT_EXECUTOR);
+	}
+
+	private DocumentExtractorNode(String paramsKey, String outputKey, List<String> fileList, int maxConcurrency,
+			boolean stream, int chunkSize, int streamCapacity, Executor executor) {
 		this.paramsKey = paramsKey;
 		this.outputKey = outputKey;
 		this.fileList = fileList;
-		extractors.put("txt", inputStream -> new TextDocumentParser().parse(inputStream));
-		extractors.put("markdown", inputStream -> new MarkdownDocumentParser().parse(inputStream));
-		extractors.put("md", inputStream -> new MarkdownDocumentParser().parse(inputStream));
-		extractors.put("html", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("htm", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("xml", inputStream -> new BsHtmlDocumentParser().parse(inputStream));
-		extractors.put("json", inputStream -> new JsonDocumentParser().parse(inputStream));
-		extractors.put("yaml", inputStream -> new YamlDocumentParser().parse(inputStream));
-		extractors.put("yml", inputStream -> new YamlDocumentParser().parse(inputStream));
-		extractors.put("pdf", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("doc", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("docx", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("csv", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("xls", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("xlsx", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("ppt", inputStream -> new TikaDocumentParser().parse(inputStream));
-		extractors.put("pptx", inputStream -> new TikaDocumentParser().parse(inputStream));
+		this.maxConcurrency = maxConcurrency;
+		this.stream = stream;
+		this.chunkSize = chunkSize;
+		this.streamCapacity = streamCapacity;
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates the shared executor: {@link #DEFAULT_EXECUTOR_THREADS} daemon threads, which
+	 * stop when idle for a minute.
+	 */
+	private static Executor newDefaultExecutor() {
+		AtomicInteger counter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_EXECUTOR_THREADS, DEFAULT_EXECUTOR_THREADS, 1,
+				TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+					Thread thread = new Thread(r, "document-extractor-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 	@Override
@@ -81,20 +187,40 @@ public class DocumentExtractorNode implements NodeAction {
 		if (fileList == null || fileList.isEmpty()) {
 			throw new RuntimeException("Variable fileList is not an ArrayFileSegment");
 		}
-		List<String> documentContents = new ArrayList<>(10);
-		for (String file : fileList) {
-			try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(file)) {
-				if (inputStream == null) {
-					throw new IllegalArgumentException("File not found in resources: " + file);
-				}
-				String content = extractTextByFileExtension(inputStream, getFileExtension(file));
-				documentContents.add(content);
-			}
-			catch (Exception e) {
-				throw new RuntimeException("Failed to parse test file: " + file, e);
-			}
+
+		if (stream) {
+			BlockingQueue<AsyncGenerator.Data<NodeOutput>> queue = new AsyncGeneratorQueue.BoundedQueue<>(
+					streamCapacity);
+			extractAll(fileList,
+					(index, chunk) -> put(queue,
+							AsyncGenerator.Data.of(new StreamingOutput(chunk, formatChunkNode(index), state))))
+				.whenComplete((documentContents, error) -> {
+					try {
+						if (error != null) {
+							Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+							put(queue, AsyncGenerator.Data.error(cause));
+						}
+						else {
+							put(queue, AsyncGenerator.Data.done(updatedState(documentContents)));
+						}
+					}
+					catch (CancellationException ex) {
+						// the consumer closed the stream
+					}
+				});
+			return Map.of(StringUtils.hasLength(this.outputKey) ? this.outputKey : "text",
+					new AsyncGeneratorQueue.Generator<>(queue));
 		}
 
+		try {
+			return updatedState(extractAll(fileList, null).join());
+		}
+		catch (CompletionException e) {
+			throw e.getCause() instanceof Exception cause ? cause : e;
+		}
+	}
+
+	private Map<String, Object> updatedState(List<String> documentContents) {
 		Map<String, Object> updatedState = new HashMap<>();
 		updatedState.put("text", documentContents);
 		if (StringUtils.hasLength(this.outputKey)) {
@@ -103,14 +229,96 @@ public class DocumentExtractorNode implements NodeAction {
 		return updatedState;
 	}
 
+	/**
+	 * Hands a chunk to the consumer, waiting while {@code streamCapacity} chunks are
+	 * pending.
+	 * @throws CancellationException if the consumer closed the stream
+	 */
+	private static void put(BlockingQueue<AsyncGenerator.Data<NodeOutput>> queue,
+			AsyncGenerator.Data<NodeOutput> data) {
+		try {
+			queue.put(data);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("interrupted while waiting for the consumer");
+		}
+	}
+
+	static String formatChunkNode(int index) {
+		return String.format("%s[%d]", NODE_NAME, index);
+	}
+
+	/**
+	 * Extracts the files with {@code maxConcurrency} workers, each taking the next file
+	 * not extracted yet. The first failure stops the workers.
+	 * @param files the files
+	 * @param chunks the consumer of the streamed chunks, with the index of their file, or
+	 * {@code null} not to stream them
+	 * @return the texts of the files, in the order of the files
+	 */
+	private CompletableFuture<List<String>> extractAll(List<String> files, ChunkConsumer chunks) {
+		String[] contents = new String[files.size()];
+		AtomicInteger next = new AtomicInteger();
+		CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(maxConcurrency, files.size())];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = CompletableFuture.runAsync(() -> {
+				int index;
+				while ((index = next.getAndIncrement()) < files.size()) {
+					final int fileIndex = index;
+					contents[index] = extract(files.get(index),
+							chunks != null ? chunk -> chunks.accept(fileIndex, chunk) : null);
+				}
+			}, executor).whenComplete((ignored, error) -> {
+				if (error != null) {
+					next.set(files.size());
+				}
+			});
+		}
+		return CompletableFuture.allOf(workers).thenApply(ignored -> Arrays.asList(contents));
+	}
+
+	@FunctionalInterface
+	private interface ChunkConsumer {
+
+		void accept(int index, String chunk);
+
+	}
+
+	private String extract(String file, Consumer<String> chunks) {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(file)) {
+			if (inputStream == null) {
+				throw new IllegalArgumentException("File not found in resources: " + file);
+			}
+			String fileExtension = getFileExtension(file);
+			if (chunks != null && TIKA_EXTENSIONS.contains(fileExtension)) {
+				ChunkWriter writer = new ChunkWriter(chunkSize, Parsers.TIKA_FORMATTER, chunks);
+				Parsers.TIKA_PARSER.parse(inputStream, new BodyContentHandler(writer), new Metadata(), new ParseContext());
+				writer.close();
+				return writer.formattedText();
+			}
+			String content = extractTextByFileExtension(inputStream, fileExtension);
+			if (chunks != null) {
+				for (int start = 0; start < content.length(); start += chunkSize) {
+					chunks.accept(content.substring(start, Math.min(content.length(), start + chunkSize)));
+				}
+			}
+			return content;
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Failed to parse test file: " + file, e);
+		}
+	}
+
 	private String extractTextByFileExtension(InputStream fileContent, String fileExtension) {
 
-		Function<InputStream, List<Document>> extractor = this.extractors.get(fileExtension);
-		if (extractor == null) {
+		DocumentParser parser = Parsers.BY_EXTENSION.get(fileExtension);
+		if (parser == null) {
 			throw new RuntimeException("Unsupported Extension Type: " + fileExtension);
 		}
 
-		return extractor.apply(fileContent).get(0).getText();
+		List<Document> documents = parser.parse(fileContent);
+		return documents.get(0).getText();
 	}
 
 	private String getFileExtension(String filePath) {
@@ -121,6 +329,68 @@ public class DocumentExtractorNode implements NodeAction {
 		return (dotIndex == -1) ? "" : fileName.substring(dotIndex + 1);
 	}
 
+	/**
+	 * Receives the text written by Tika, and hands it out formatted, in chunks of about
+	 * {@code chunkSize} characters ending at a line end when there is one. Only the text
+	 * not handed out yet is buffered; the extracted text is made of the formatted chunks.
+	 */
+	private static final class ChunkWriter extends Writer {
+
+		private final int chunkSize;
+
+		private final ExtractedTextFormatter formatter;
+
+		private final Consumer<String> chunks;
+
+		// raw text not handed out yet
+		private final StringBuilder pending = new StringBuilder();
+
+		private final StringBuilder formatted = new StringBuilder();
+
+		ChunkWriter(int chunkSize, ExtractedTextFormatter formatter, Consumer<String> chunks) {
+			this.chunkSize = chunkSize;
+			this.formatter = formatter;
+			this.chunks = chunks;
+		}
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			pending.append(buffer, offset, length);
+			if (pending.length() >= chunkSize) {
+				int lineEnd = pending.lastIndexOf("\n") + 1;
+				emit(lineEnd > 0 ? lineEnd : pending.length());
+			}
+		}
+
+		@Override
+		public void flush() {
+			emit(pending.length());
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+
+		private void emit(int end) {
+			if (end > 0) {
+				String chunk = formatter.format(pending.substring(0, end));
+				pending.delete(0, end);
+				formatted.append(chunk);
+				chunks.accept(chunk);
+			}
+		}
+
+		/**
+		 * Returns the formatted text handed out so far.
+		 * @return the text
+		 */
+		String formattedText() {
+			return formatted.toString();
+		}
+
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -133,6 +403,16 @@ public class DocumentExtractorNode implements NodeAction {
 
 		private List<String> fileList;
 
+		private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+		private boolean stream;
+
+		private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+		private int streamCapacity = DEFAULT_STREAM_CAPACITY;
+
+		private Executor executor = DEFAULT_EXECUTOR;
+
 		public Builder paramsKey(String paramsKey) {
 			this.paramsKey = paramsKey;
 			return this;
@@ -148,8 +428,71 @@ public class DocumentExtractorNode implements NodeAction {
 			return this;
 		}
 
+		/**
+		 * Sets the number of files extracted at the same time.
+		 * @param maxConcurrency the maximum concurrency, defaults to 4
+		 * @return this builder
+		 */
+		public Builder maxConcurrency(int maxConcurrency) {
+			if (maxConcurrency < 1) {
+				throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+			}
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		/**
+		 * Sets whether the text is streamed in chunks while the files are extracted.
+		 * @param stream whether to stream the text
+		 * @return this builder
+		 */
+		public Builder stream(boolean stream) {
+			this.stream = stream;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the streamed chunks.
+		 * @param chunkSize the number of characters of a chunk, defaults to 8192
+		 * @return this builder
+		 */
+		public Builder chunkSize(int chunkSize) {
+			if (chunkSize < 1) {
+				throw new IllegalArgumentException("chunkSize must be greater than 0");
+			}
+			this.chunkSize = chunkSize;
+			return this;
+		}
+
+		/**
+		 * Sets the number of streamed chunks that may wait for the consumer before the
+		 * extraction waits too.
+		 * @param streamCapacity the number of pending chunks, defaults to 16
+		 * @return this builder
+		 */
+		public Builder streamCapacity(int streamCapacity) {
+			if (streamCapacity < 1) {
+				throw new IllegalArgumentException("streamCapacity must be greater than 0");
+			}
+			this.streamCapacity = streamCapacity;
+			return this;
+		}
+
+		/**
+		 * Sets the executor running the extractions. While its consumer falls behind, a
+		 * streaming extraction holds its thread.
+		 * @param executor the executor, defaults to a shared pool of
+		 * {@link DocumentExtractorNode#DEFAULT_EXECUTOR_THREADS} daemon threads
+		 * @return this builder
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
 		public DocumentExtractorNode build() {
-			return new DocumentExtractorNode(paramsKey, outputKey, fileList);
+			return new DocumentExtractorNode(paramsKey, outputKey, fileList, maxConcurrency, stream, chunkSize,
+					streamCapacity, executor);
 		}
 
 	}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived interpreter process running one snippet at a time. Requests and responses
+ * are length-prefixed frames on the standard input and output of the process:
+ *
+ * <ul>
+ * <li>request: the length of the payload as a big-endian int, then the UTF-8
+ * payload;</li>
+ * <li>response: the exit status and the length of the output as big-endian ints, then
+ * the UTF-8 output.</li>
+ * </ul>
+ *
+ * The payload is the code itself for Python and Node.js, and the classes directory and
+ * main class name, separated by a new line, for Java. What the snippets write to the
+ * standard error outside of the captured streams goes to the standard error of this
+ * process.
+ */
+final class InterpreterWorker implements Closeable {
+
+	/**
+	 * Runs each snippet with a fresh global namespace, its standard output and error
+	 * captured: the error and the traceback are returned when the snippet fails. The
+	 * protocol uses a duplicate of the original standard output, which is pointed to the
+	 * standard error so that raw writes of the snippets cannot corrupt the frames.
+	 */
+	static final String PYTHON_WORKER = """
+			import contextlib, io, os, struct, sys, traceback
+			protocol_out = os.fdopen(os.dup(1), 'wb')
+			os.dup2(2, 1)
+			protocol_in = sys.stdin.buffer
+			def read_exact(n):
+			    data = b''
+			    while len(data) < n:
+			        chunk = protocol_in.read(n - len(data))
+			        if not chunk:
+			            return None
+			        data += chunk
+			    return data
+			while True:
+			    header = read_exact(4)
+			    if header is None:
+			        break
+			    code = read_exact(struct.unpack('>i', header)[0]).decode('utf-8')
+			    output = io.StringIO()
+			    errors = io.StringIO()
+			    status = 0
+			    try:
+			        with contextlib.redirect_stdout(output), contextlib.redirect_stderr(errors):
+			            exec(compile(code, '<code>', 'exec'), {'__name__': '__main__'})
+			    except SystemExit as e:
+			        status = e.code if isinstance(e.code, int) else (0 if e.code is None else 1)
+			    except BaseException:
+			        status = 1
+			        errors.write(traceback.format_exc())
+			    data = (output if status == 0 else errors).getvalue().encode('utf-8')
+			    protocol_out.write(struct.pack('>ii', status, len(data)))
+			    protocol_out.write(data)
+			    protocol_out.flush()
+			""";
+
+	/**
+	 * Runs each snippet in its own function scope, as Node.js runs a module, with the full
+	 * set of globals. The response is only sent once the event loop has no more timers,
+	 * I/O or other callbacks pending for the snippet, so asynchronous code completes too.
+	 * Its standard output and error are captured, and the error is returned, with the
+	 * stacks of the uncaught errors and rejections, when the snippet fails.
+	 */
+	static final String NODE_WORKER = """
+			const asyncHooks = require('async_hooks');
+			const fs = require('fs');
+			const path = require('path');
+			const vm = require('vm');
+			const { createRequire } = require('module');
+			const stdoutWrite = process.stdout.write;
+			const stderrWrite = process.stderr.write;
+			const requests = [];
+			let input = Buffer.alloc(0);
+			let job = null;
+			asyncHooks.createHook({
+			  init(id, type) {
+			    if (job && job.tracking && type !== 'PROMISE') job.pending.add(id);
+			  },
+			  after(id) {
+			    if (job && job.pending.has(id)) settle(job);
+			  },
+			  destroy(id) {
+			    if (job && job.pending.delete(id)) settle(job);
+			  }
+			}).enable();
+			function capture(target) {
+			  return (chunk, encoding, callback) => {
+			    target.push(typeof chunk === 'string' ? chunk : Buffer.from(chunk).toString('utf-8'));
+			    if (typeof encoding === 'function') encoding();
+			    else if (typeof callback === 'function') callback();
+			    return true;
+			  };
+			}
+			function settle(current) {
+			  current.tracking = false;
+			  setImmediate(() => {
+			    if (job === current && current.pending.size === 0) reply();
+			  });
+			  current.tracking = true;
+			}
+			function fail(e) {
+			  job.status = 1;
+			  job.errors.push(String(e && e.stack ? e.stack : e) + '\\n');
+			}
+			function reply() {
+			  const { status, out, errors } = job;
+			  job = null;
+			  process.stdout.write = stdoutWrite;
+			  process.stderr.write = stderrWrite;
+			  const data = Buffer.from((status === 0 ? out : errors).join(''), 'utf-8');
+			  const header = Buffer.alloc(8);
+			  header.writeInt32BE(status, 0);
+			  header.writeInt32BE(data.length, 4);
+			  const response = Buffer.concat([header, data]);
+			  let offset = 0;
+			  while (offset < response.length) offset += fs.writeSync(1, response, offset);
+			  next();
+			}
+			function next() {
+			  if (job || requests.length === 0) return;
+			  job = { status: 0, out: [], errors: [], pending: new Set(), tracking: true };
+			  process.stdout.write = capture(job.out);
+			  process.stderr.write = capture(job.errors);
+			  const filename = path.join(process.cwd(), 'code.js');
+			  try {
+			    const module = { exports: {} };
+			    const script = '(function (exports, require, module, __filename, __dirname) {' + requests.shift() + '\\n})';
+			    vm.runInThisContext(script, { filename })(module.exports, createRequire(filename), module, filename,
+			      process.cwd());
+			  } catch (e) {
+			    fail(e);
+			  }
+			  settle(job);
+			}
+			process.on('uncaughtException', (e) => { if (job) fail(e); else throw e; });
+			process.on('unhandledRejection', (e) => { if (job) fail(e); else throw e; });
+			process.stdin.on('data', (chunk) => {
+			  input = Buffer.concat([input, chunk]);
+			  while (input.length >= 4 && input.length >= 4 + input.readInt32BE(0)) {
+			    const length = input.readInt32BE(0);
+			    requests.push(input.subarray(4, 4 + length).toString('utf-8'));
+			    input = input.subarray(4 + length);
+			  }
+			  next();
+			});
+			""";
+
+	/**
+	 * The main class of the Java workers, loading each snippet with its own class loader
+	 * and calling its {@code main(String[])} method with the standard output captured.
+	 */
+	static final String JAVA_WORKER_CLASS = "CodeWorker";
+
+	static final String JAVA_WORKER = """
+			import java.io.*;
+			import java.lang.reflect.*;
+			import java.net.*;
+			import java.nio.charset.StandardCharsets;
+			import java.nio.file.Path;
+
+			public class CodeWorker {
+
+			    public static void main(String[] args) throws Exception {
+			        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+			        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+			        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			        PrintStream capture = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+			        System.setOut(capture);
+			        while (true) {
+			            int length;
+			            try {
+			                length = in.readInt();
+			            } catch (EOFException e) {
+			                return;
+			            }
+			            byte[] request = new byte[length];
+			            in.readFully(request);
+			            String[] parts = new String(request, StandardCharsets.UTF_8).split("\\n", 2);
+			            buffer.reset();
+			            int status = 0;
+			            URL classes = Path.of(parts[0]).toUri().toURL();
+			            try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, CodeWorker.class.getClassLoader())) {
+			                Method main = loader.loadClass(parts[1]).getMethod("main", String[].class);
+			                main.setAccessible(true);
+			                main.invoke(null, (Object) new String[0]);
+			            } catch (Throwable e) {
+			                status = 1;
+			                buffer.reset();
+			                (e instanceof InvocationTargetException ? e.getCause() : e).printStackTrace(capture);
+			            }
+			            capture.flush();
+			            byte[] response = buffer.toByteArray();
+			            out.writeInt(status);
+			            out.writeInt(response.length);
+			            out.write(response);
+			            out.flush();
+			        }
+			    }
+
+			}
+			""";
+
+	private final Process process;
+
+	private final DataOutputStream requests;
+
+	private final DataInputStream responses;
+
+	private int executions;
+
+	private volatile boolean timedOut;
+
+	private InterpreterWorker(Process process) {
+		this.process = process;
+		this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+		this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+	}
+
+	/**
+	 * Starts a worker. The interpreter boots in the background: the first request waits
+	 * for it to be ready.
+	 * @param command the command running the worker
+	 * @param workDir the working directory of the worker
+	 * @return the worker
+	 * @throws IOException if the process cannot be started
+	 */
+	static InterpreterWorker start(List<String> command, File workDir) throws IOException {
+		Process process = new ProcessBuilder(command).directory(workDir)
+			.redirectError(ProcessBuilder.Redirect.INHERIT)
+			.start();
+		return new InterpreterWorker(process);
+	}
+
+	/**
+	 * Runs a request. If it does not complete within the timeout, or if the worker dies,
+	 * the worker is killed and the exit value of the process is returned.
+	 * @param payload the request payload
+	 * @param timeoutMillis the timeout of the request
+	 * @param watchdog the scheduler of the timeout
+	 * @return the result of the request
+	 * @throws InterruptedException if interrupted while waiting for a dead worker to exit
+	 */
+	CodeExecutionResult execute(String payload, long timeoutMillis, ScheduledExecutorService watchdog)
+			throws InterruptedException {
+		executions++;
+		ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+			timedOut = true;
+			process.destroyForcibly();
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+		try {
+			byte[] request = payload.getBytes(StandardCharsets.UTF_8);
+			requests.writeInt(request.length);
+			requests.write(request);
+			requests.flush();
+			int status = responses.readInt();
+			byte[] output = new byte[responses.readInt()];
+			responses.readFully(output);
+			return new CodeExecutionResult(status, new String(output, StandardCharsets.UTF_8).trim());
+		}
+		catch (IOException e) {
+			process.destroyForcibly();
+			process.waitFor();
+			String message = timedOut ? "Code execution timed out after " + timeoutMillis + " ms"
+					: "Interpreter worker exited unexpectedly";
+			return new CodeExecutionResult(process.exitValue() != 0 ? process.exitValue() : 1, message);
+		}
+		finally {
+			timeout.cancel(false);
+		}
+	}
+
+	/**
+	 * Returns whether the worker can run another request.
+	 * @param maxExecutions the number of requests after which workers are recycled
+	 * @return whether the worker is alive and was not used too many times
+	 */
+	boolean isReusable(int maxExecutions) {
+		return process.isAlive() && executions < maxExecutions;
+	}
+
+	@Override
+	public void close() {
+		try {
+			requests.close();
+		}
+		catch (IOException ignored) {
+			// the process is destroyed anyway
+		}
+		process.destroyForcibly();
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Compiles Java sources in-process with {@link javax.tools}, caching the classes of each
+ * source under a directory named after the hash of the source and class path. Only the
+ * {@code maximumSize} most recently used directories are kept.
+ */
+final class JavaSourceCompiler {
+
+	private static final Logger logger = LoggerFactory.getLogger(JavaSourceCompiler.class);
+
+	private static final Pattern CLASS_DECLARATION = Pattern
+		.compile("^\\s*(?:public\\s+)?(?:final\\s+)?class\\s+(\\w+)", Pattern.MULTILINE);
+
+	/**
+	 * The outcome of a compilation: the classes directory and the main class, or the
+	 * diagnostics of the failure.
+	 */
+	record Compilation(Path classesDir, String mainClass, String diagnostics) {
+
+		boolean succeeded() {
+			return classesDir != null;
+		}
+
+	}
+
+	private final JavaCompiler compiler;
+
+	private final Path cacheDir;
+
+	private final LinkedHashMap<String, Path> compiled;
+
+	private JavaSourceCompiler(JavaCompiler compiler, Path cacheDir, int maximumSize) {
+		this.compiler = compiler;
+		this.cacheDir = cacheDir;
+		this.compiled = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Path> eldest) {
+				if (size() > maximumSize) {
+					deleteRecursively(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Creates a compiler caching its classes under the given directory.
+	 * @param cacheDir the cache directory
+	 * @param maximumSize the number of compiled sources kept
+	 * @return the compiler, or {@code null} if the runtime ships no Java compiler
+	 */
+	static JavaSourceCompiler create(Path cacheDir, int maximumSize) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		return compiler != null ? new JavaSourceCompiler(compiler, cacheDir, maximumSize) : null;
+	}
+
+	/**
+	 * Compiles a source, or returns its cached classes.
+	 * @param source the source
+	 * @param classPath the class path of the compilation
+	 * @return the compilation
+	 * @throws IOException if the classes cannot be written
+	 */
+	Compilation compile(String source, String classPath) throws IOException {
+		Matcher matcher = CLASS_DECLARATION.matcher(source);
+		if (!matcher.find()) {
+			return new Compilation(null, null, "No class declaration found in the code");
+		}
+		String mainClass = matcher.group(1);
+		String hash = DigestUtils.sha256Hex(classPath + '\0' + source);
+		synchronized (compiled) {
+			Path classesDir = compiled.get(hash);
+			if (classesDir != null) {
+				return new Compilation(classesDir, mainClass, null);
+			}
+		}
+
+		Path classesDir = cacheDir.resolve(hash);
+		Path tempDir = Files.createTempDirectory(cacheDir, hash);
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + mainClass + ".java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return source;
+			}
+		};
+		boolean success = compiler
+			.getTask(null, null, diagnostics, List.of("-d", tempDir.toString(), "-cp", classPath), null, List.of(file))
+			.call();
+		if (!success) {
+			deleteRecursively(tempDir);
+			StringBuilder message = new StringBuilder();
+			diagnostics.getDiagnostics().forEach(d -> message.append(d).append('\n'));
+			return new Compilation(null, null, message.toString().trim());
+		}
+		try {
+			Files.move(tempDir, classesDir, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			if (!Files.isDirectory(classesDir)) {
+				deleteRecursively(tempDir);
+				throw e;
+			}
+			// compiled concurrently by another call
+			deleteRecursively(tempDir);
+		}
+		synchronized (compiled) {
+			compiled.put(hash, classesDir);
+		}
+		return new Compilation(classesDir, mainClass, null);
+	}
+
+	private static void deleteRecursively(Path dir) {
+		if (!Files.exists(dir)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+		catch (IOException e) {
+			logger.warn("Failed to delete compiled classes {}", dir, e);
+		}
+	}
+
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeBlock;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import com.alibaba.cloud.ai.graph.utils.CodeUtils;
+import com.alibaba.cloud.ai.graph.utils.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CodeExecutor} running Python, Node.js and Java code in pools of long-lived
+ * interpreter processes, instead of starting an interpreter for every code block as
+ * {@link LocalCommandlineCodeExecutor} does.
+ *
+ * <p>
+ * Each language and working directory gets a pool of {@code poolSize} workers, started
+ * when the pool is first used. A worker is recycled after
+ * {@code maxExecutionsPerWorker} code blocks, when it crashes or when a code block times
+ * out, and a replacement is started right away so that the pool stays warm. Java code is
+ * compiled in-process with {@link javax.tools}, and its classes are cached by source
+ * hash. Shell code, and Java code on runtimes without a compiler, are delegated to a
+ * {@link LocalCommandlineCodeExecutor}.
+ * </p>
+ *
+ * <p>
+ * Code blocks run by the same worker share its process: modules imported by a Python or
+ * Node.js block stay loaded for the next ones, which is what makes the pool fast, but
+ * also means that blocks must not rely on a pristine interpreter.
+ * </p>
+ *
+ * <pre>{@code
+ * var executor = PooledCodeExecutor.builder().poolSize(4).maxExecutionsPerWorker(200).build();
+ * }</pre>
+ */
+public class PooledCodeExecutor implements CodeExecutor, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PooledCodeExecutor.class);
+
+	public static final int DEFAULT_POOL_SIZE = 2;
+
+	public static final int DEFAULT_MAX_EXECUTIONS_PER_WORKER = 100;
+
+	public static final int DEFAULT_COMPILED_CLASSES_CACHE_SIZE = 256;
+
+	private final int poolSize;
+
+	private final int maxExecutionsPerWorker;
+
+	private final int compiledClassesCacheSize;
+
+	private final LocalCommandlineCodeExecutor fallback = new LocalCommandlineCodeExecutor();
+
+	private final ConcurrentHashMap<String, WorkerPool> pools = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "code-executor-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// lazily created on the first Java code block, guarded by this executor
+	private Path javaDir;
+
+	private JavaSourceCompiler javaCompiler;
+
+	private boolean javaCompilerUnavailable;
+
+	private PooledCodeExecutor(Builder builder) {
+		this.poolSize = builder.poolSize;
+		this.maxExecutionsPerWorker = builder.maxExecutionsPerWorker;
+		this.compiledClassesCacheSize = builder.compiledClassesCacheSize;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public CodeExecutionResult executeCodeBlocks(List<CodeBlock> codeBlockList, CodeExecutionConfig codeExecutionConfig)
+			throws Exception {
+		StringBuilder allLogs = new StringBuilder();
+		CodeExecutionResult result;
+		for (int i = 0; i < codeBlockList.size(); i++) {
+			CodeBlock codeBlock = codeBlockList.get(i);
+			String language = codeBlock.language();
+			String code = codeBlock.code();
+			logger.info("\n>>>>>>>> EXECUTING CODE BLOCK {} (inferred language is {})...", i + 1, language);
+			result = executeCode(language, code, codeExecutionConfig);
+			allLogs.append("\n").append(result.logs());
+			if (result.exitCode() != 0) {
+				return new CodeExecutionResult(result.exitCode(), allLogs.toString());
+			}
+		}
+		return new CodeExecutionResult(0, allLogs.toString());
+	}
+
+	/**
+	 * Stops all the workers. The pools are started again on their next use.
+	 */
+	@Override
+	public void restart() {
+		pools.values().forEach(WorkerPool::close);
+		pools.clear();
+	}
+
+	@Override
+	public void close() {
+		restart();
+		watchdog.shutdownNow();
+		synchronized (this) {
+			if (javaDir != null) {
+				try (Stream<Path> paths = Files.walk(javaDir)) {
+					paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+				}
+				catch (IOException e) {
+					logger.warn("Failed to delete {}", javaDir, e);
+				}
+				javaDir = null;
+				javaCompiler = null;
+			}
+		}
+	}
+
+	public CodeExecutionResult executeCode(String language, String code, CodeExecutionConfig config) throws Exception {
+		if (Objects.isNull(language) || Objects.isNull(code)) {
+			throw new Exception("Either language or code must be provided.");
+		}
+		String executable = CodeUtils.getExecutableForLanguage(language);
+		List<String> command;
+		String payload;
+		switch (executable) {
+			case "python3", "python" -> {
+				command = List.of(executable, "-u", "-c", InterpreterWorker.PYTHON_WORKER);
+				payload = code;
+			}
+			case "node" -> {
+				command = List.of(executable, "-e", InterpreterWorker.NODE_WORKER);
+				payload = code;
+			}
+			case "java" -> {
+				JavaSourceCompiler compiler;
+				Path dir;
+				// read together, as close() clears them
+				synchronized (this) {
+					compiler = javaCompiler();
+					dir = javaDir;
+				}
+				if (compiler == null) {
+					return fallback.executeCode(language, code, config);
+				}
+				String classPath = javaClassPath(dir, config);
+				JavaSourceCompiler.Compilation compilation = compiler.compile(code, classPath);
+				if (!compilation.succeeded()) {
+					return new CodeExecutionResult(1, compilation.diagnostics());
+				}
+				command = List.of(executable, "-cp", dir.resolve("worker") + File.pathSeparator + classPath,
+						InterpreterWorker.JAVA_WORKER_CLASS);
+				payload = compilation.classesDir().toAbsolutePath() + "\n" + compilation.mainClass();
+			}
+			default -> {
+				return fallback.executeCode(language, code, config);
+			}
+		}
+
+		Path workDir = Path.of(config.getWorkDir()).toAbsolutePath();
+		Files.createDirectories(workDir);
+		WorkerPool pool = pools.computeIfAbsent(String.join("\0", command) + "\0" + workDir,
+				key -> new WorkerPool(command, workDir.toFile()));
+		return pool.execute(payload, TimeUnit.SECONDS.toMillis(config.getTimeout()));
+	}
+
+	private synchronized JavaSourceCompiler javaCompiler() throws IOException {
+		if (javaCompiler == null && !javaCompilerUnavailable) {
+			Path dir = Files.createTempDirectory("code-executor-java");
+			JavaSourceCompiler compiler = JavaSourceCompiler.create(dir.resolve("classes"), compiledClassesCacheSize);
+			if (compiler == null) {
+				logger.warn("No Java compiler in this runtime, Java code is run by {}",
+						LocalCommandlineCodeExecutor.class.getSimpleName());
+				javaCompilerUnavailable = true;
+				Files.delete(dir);
+				return null;
+			}
+			Files.createDirectories(dir.resolve("classes"));
+			FileUtils.copyResourceJarToWorkDir(dir.resolve("lib").toString());
+			Path workerDir = Files.createDirectories(dir.resolve("worker"));
+			// compile the worker itself, the cached copy is moved to its own directory
+			JavaSourceCompiler.Compilation worker = compiler.compile(InterpreterWorker.JAVA_WORKER,
+					libClassPath(dir.resolve("lib")));
+			if (!worker.succeeded()) {
+				throw new IllegalStateException("Cannot compile the Java worker: " + worker.diagnostics());
+			}
+			try (Stream<Path> classes = Files.list(worker.classesDir())) {
+				for (Path file : classes.toList()) {
+					Files.copy(file, workerDir.resolve(file.getFileName()));
+				}
+			}
+			javaDir = dir;
+			javaCompiler = compiler;
+		}
+		return javaCompiler;
+	}
+
+	private static String javaClassPath(Path javaDir, CodeExecutionConfig config) throws IOException {
+		String classPath = libClassPath(javaDir.resolve("lib"));
+		if (config.getClassPath() != null && !config.getClassPath().isEmpty()) {
+			classPath += File.pathSeparator + config.getClassPath();
+		}
+		return classPath;
+	}
+
+	private static String libClassPath(Path libDir) throws IOException {
+		List<String> jars = new ArrayList<>();
+		try (Stream<Path> paths = Files.list(libDir)) {
+			paths.filter(path -> path.toString().endsWith(".jar")).sorted().forEach(path -> jars.add(path.toString()));
+		}
+		return String.join(File.pathSeparator, jars);
+	}
+
+	/**
+	 * The workers of a language and working directory: at most {@code poolSize} of them
+	 * run code blocks at the same time, the others wait for a free worker.
+	 */
+	private final class WorkerPool {
+
+		private final List<String> command;
+
+		private final File workDir;
+
+		private final BlockingQueue<InterpreterWorker> idle = new LinkedBlockingQueue<>();
+
+		private final Semaphore permits = new Semaphore(poolSize);
+
+		private volatile boolean closed;
+
+		WorkerPool(List<String> command, File workDir) {
+			this.command = command;
+			this.workDir = workDir;
+			for (int i = 0; i < poolSize; i++) {
+				startIdleWorker();
+			}
+		}
+
+		private void startIdleWorker() {
+			try {
+				idle.offer(InterpreterWorker.start(command, workDir));
+			}
+			catch (IOException e) {
+				// retried when a worker is needed
+				logger.warn("Failed to start interpreter worker {}", command.get(0), e);
+			}
+		}
+
+		CodeExecutionResult execute(String payload, long timeoutMillis) throws Exception {
+			permits.acquire();
+			InterpreterWorker worker = null;
+			try {
+				worker = idle.poll();
+				if (worker == null) {
+					worker = InterpreterWorker.start(command, workDir);
+				}
+				return worker.execute(payload, timeoutMillis, watchdog);
+			}
+			finally {
+				if (worker != null) {
+					release(worker);
+				}
+				permits.release();
+			}
+		}
+
+		private void release(InterpreterWorker worker) {
+			if (!closed && worker.isReusable(maxExecutionsPerWorker)) {
+				idle.offer(worker);
+				return;
+			}
+			worker.close();
+			if (!closed) {
+				startIdleWorker();
+			}
+		}
+
+		void close() {
+			closed = true;
+			InterpreterWorker worker;
+			while ((worker = idle.poll()) != null) {
+				worker.close();
+			}
+		}
+
+	}
+
+	public static class Builder {
+
+		private int poolSize = DEFAULT_POOL_SIZE;
+
+		private int maxExecutionsPerWorker = DEFAULT_MAX_EXECUTIONS_PER_WORKER;
+
+		private int compiledClassesCacheSize = DEFAULT_COMPILED_CLASSES_CACHE_SIZE;
+
+		/**
+		 * Sets the number of workers of each language and working directory.
+		 * @param poolSize the pool size, defaults to 2
+		 * @return this builder
+		 */
+		public Builder poolSize(int poolSize) {
+			if (poolSize < 1) {
+				throw new IllegalArgumentException("poolSize must be greater than 0");
+			}
+			this.poolSize = poolSize;
+			return this;
+		}
+
+		/**
+		 * Sets the number of code blocks run by a worker before it is recycled.
+		 * @param maxExecutionsPerWorker the maximum number of executions, defaults to 100
+		 * @return this builder
+		 */
+		public Builder maxExecutionsPerWorker(int maxExecutionsPerWorker) {
+			if (maxExecutionsPerWorker < 1) {
+				throw new IllegalArgumentException("maxExecutionsPerWorker must be greater than 0");
+			}
+			this.maxExecutionsPerWorker = maxExecutionsPerWorker;
+			return this;
+		}
+
+		/**
+		 * Sets the number of compiled Java sources kept.
+		 * @param compiledClassesCacheSize the cache size, defaults to 256
+		 * @return this builder
+		 */
+		public Builder compiledClassesCacheSize(int compiledClassesCacheSize) {
+			if (compiledClassesCacheSize < 1) {
+				throw new IllegalArgumentException("compiledClassesCacheSize must be greater than 0");
+			}
+			this.compiledClassesCacheSize = compiledClassesCacheSize;
+			return this;
+		}
+
+		public PooledCodeExecutor build() {
+			return new PooledCodeExecutor(this);
+		}
+
+	}
+
+}
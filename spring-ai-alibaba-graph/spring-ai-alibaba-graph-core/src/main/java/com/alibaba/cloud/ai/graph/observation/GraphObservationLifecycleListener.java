@@ -28,11 +28,15 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Lifecycle listener for graph observation operations. Implements GraphLifecycleListener
- * to create observations for different graph lifecycle events. Handles cross-thread
- * observation propagation for async execution environments.
+ * to create observations for different graph lifecycle events. Node observations are
+ * bound to the thread running the node body through
+ * {@link #wrapNodeAction(String, Supplier)}, so their scopes are opened and closed on the
+ * node executor thread rather than across the before/after callbacks, which may run on
+ * different threads.
  */
 public class GraphObservationLifecycleListener implements GraphLifecycleListener {
 
@@ -50,8 +54,6 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 
 	private final Map<String, Observation> nodeObservations = new ConcurrentHashMap<>();
 
-	private final Map<String, Observation.Scope> nodeScopes = new ConcurrentHashMap<>();
-
 	/**
 	 * Constructs a new GraphObservationLifecycleListener with the specified observation
 	 * registry.
@@ -84,8 +86,9 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 	}
 
 	/**
-	 * Handles the before execution phase of a graph node. Creates a node-level
-	 * observation and maintains scope for cross-thread propagation.
+	 * Handles the before execution phase of a graph node. Creates and starts a node-level
+	 * observation; its scope is opened around the node body by
+	 * {@link #wrapNodeAction(String, Supplier)}.
 	 * @param nodeId the identifier of the node
 	 * @param state the current state of the graph execution
 	 * @param config the runnable configuration for the node
@@ -104,14 +107,30 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 
 		nodeObservation.start();
 		nodeObservations.put(nodeId, nodeObservation);
+	}
 
-		Observation.Scope scope = nodeObservation.openScope();
-		nodeScopes.put(nodeId, scope);
+	/**
+	 * Makes the node observation current while the node body runs. The scope is opened
+	 * and closed on the executor thread that runs the action.
+	 * @param nodeId the identifier of the node
+	 * @param action the node action
+	 * @return the action running within the node observation scope
+	 */
+	@Override
+	public <T> Supplier<T> wrapNodeAction(String nodeId, Supplier<T> action) {
+		Observation nodeObservation = nodeObservations.get(nodeId);
+		if (nodeObservation == null) {
+			return action;
+		}
+		return () -> {
+			try (Observation.Scope scope = nodeObservation.openScope()) {
+				return action.get();
+			}
+		};
 	}
 
 	/**
-	 * Handles the after execution phase of a graph node. Properly closes scope and stops
-	 * the node observation.
+	 * Handles the after execution phase of a graph node. Stops the node observation.
 	 * @param nodeId the identifier of the node
 	 * @param state the current state of the graph execution
 	 * @param config the runnable configuration for the node
@@ -121,11 +140,6 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 	public void after(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
 		log.debug("Stopping observation for node: {}", nodeId);
 
-		Observation.Scope scope = nodeScopes.remove(nodeId);
-		if (scope != null) {
-			scope.close();
-		}
-
 		Observation nodeObservation = nodeObservations.remove(nodeId);
 		if (nodeObservation != null) {
 			nodeObservation.stop();
@@ -136,8 +150,8 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 	}
 
 	/**
-	 * Handles errors during graph node execution. Records the error and properly cleans
-	 * up scope and observation.
+	 * Handles errors during graph node execution. Records the error and stops the node
+	 * observation.
 	 * @param nodeId the identifier of the node that encountered an error
 	 * @param state the current state of the graph execution
 	 * @param ex the exception that occurred
@@ -147,11 +161,6 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 	public void onError(String nodeId, Map<String, Object> state, Throwable ex, RunnableConfig config) {
 		log.error("Error occurred in node: {}", nodeId, ex);
 
-		Observation.Scope scope = nodeScopes.remove(nodeId);
-		if (scope != null) {
-			scope.close();
-		}
-
 		Observation nodeObservation = nodeObservations.remove(nodeId);
 		if (nodeObservation != null) {
 			nodeObservation.error(ex).stop();
@@ -172,16 +181,6 @@ public class GraphObservationLifecycleListener implements GraphLifecycleListener
 	public void onComplete(String nodeId, Map<String, Object> state, RunnableConfig config) {
 		log.debug("Graph execution completed");
 
-		nodeScopes.values().forEach(scope -> {
-			try {
-				scope.close();
-			}
-			catch (Exception e) {
-				log.debug("Error closing node scope: {}", e.getMessage());
-			}
-		});
-		nodeScopes.clear();
-
 		nodeObservations.values().forEach(observation -> {
 			try {
 				observation.stop();
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the values written by a {@link BinaryOutput}.
+ */
+public final class BinaryInput {
+
+	private final BinaryStateSerializer serializer;
+
+	private final byte[] buffer;
+
+	private final int limit;
+
+	private int position;
+
+	BinaryInput(BinaryStateSerializer serializer, byte[] buffer, int offset, int length) {
+		this.serializer = serializer;
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	private void require(int length) throws EOFException {
+		if (length < 0 || position + length > limit) {
+			throw new EOFException("unexpected end of binary state");
+		}
+	}
+
+	public int readByte() throws IOException {
+		require(1);
+		return buffer[position++];
+	}
+
+	public byte[] readBytes(int length) throws IOException {
+		require(length);
+		byte[] bytes = new byte[length];
+		System.arraycopy(buffer, position, bytes, 0, length);
+		position += length;
+		return bytes;
+	}
+
+	public int readVarInt() throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new StreamCorruptedException("malformed variable-length int");
+	}
+
+	public long readVarLong() throws IOException {
+		long zigZag = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = readByte();
+			zigZag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigZag >>> 1) ^ -(zigZag & 1);
+			}
+		}
+		throw new StreamCorruptedException("malformed variable-length long");
+	}
+
+	public int readInt() throws IOException {
+		require(4);
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 8) | (buffer[position++] & 0xFF);
+		}
+		return value;
+	}
+
+	public float readFloat() throws IOException {
+		return Float.intBitsToFloat(readInt());
+	}
+
+	public long readLong() throws IOException {
+		require(8);
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (buffer[position++] & 0xFF);
+		}
+		return value;
+	}
+
+	public double readDouble() throws IOException {
+		return Double.longBitsToDouble(readLong());
+	}
+
+	public String readString() throws IOException {
+		int length = readVarInt();
+		require(length);
+		String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+		position += length;
+		return value;
+	}
+
+	int remaining() {
+		return limit - position;
+	}
+
+	/**
+	 * Reads any value written by {@link BinaryOutput#writeValue(Object)}.
+	 */
+	public Object readValue() throws IOException {
+		return serializer.readValue(this);
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer written by a {@link BinaryStateSerializer}. Integers are written
+ * as variable-length integers and strings directly as UTF-8, without intermediate
+ * arrays.
+ */
+public final class BinaryOutput {
+
+	private final BinaryStateSerializer serializer;
+
+	private byte[] buffer;
+
+	private int position;
+
+	BinaryOutput(BinaryStateSerializer serializer, int initialCapacity) {
+		this.serializer = serializer;
+		this.buffer = new byte[initialCapacity];
+	}
+
+	private void ensureCapacity(int length) {
+		if (position + length > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+		}
+	}
+
+	public void writeByte(int value) {
+		ensureCapacity(1);
+		buffer[position++] = (byte) value;
+	}
+
+	public void writeBytes(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, position, length);
+		position += length;
+	}
+
+	/**
+	 * Writes a non-negative int in 1 to 5 bytes.
+	 */
+	public void writeVarInt(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	/**
+	 * Writes a long in 1 to 10 bytes, small absolute values taking less space.
+	 */
+	public void writeVarLong(long value) {
+		ensureCapacity(10);
+		long zigZag = (value << 1) ^ (value >> 63);
+		while ((zigZag & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+			zigZag >>>= 7;
+		}
+		buffer[position++] = (byte) zigZag;
+	}
+
+	public void writeInt(int value) {
+		ensureCapacity(4);
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			buffer[position++] = (byte) (value >>> shift);
+		}
+	}
+
+	public void writeFloat(float value) {
+		writeInt(Float.floatToRawIntBits(value));
+	}
+
+	public void writeLong(long value) {
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buffer[position++] = (byte) (value >>> shift);
+		}
+	}
+
+	public void writeDouble(double value) {
+		writeLong(Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Writes a non-null string as its UTF-8 length followed by its UTF-8 bytes.
+	 */
+	public void writeString(String value) {
+		int length = value.length();
+		int utf8Length = 0;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				utf8Length++;
+			}
+			else if (c < 0x800) {
+				utf8Length += 2;
+			}
+			else if (isSurrogatePair(value, i)) {
+				utf8Length += 4;
+				i++;
+			}
+			else {
+				// unpaired surrogates are replaced by '?', as String.getBytes does
+				utf8Length += Character.isSurrogate(c) ? 1 : 3;
+			}
+		}
+		writeVarInt(utf8Length);
+		ensureCapacity(utf8Length);
+		byte[] buffer = this.buffer;
+		int position = this.position;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer[position++] = (byte) c;
+			}
+			else if (c < 0x800) {
+				buffer[position++] = (byte) (0xC0 | (c >> 6));
+				buffer[position++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if (isSurrogatePair(value, i)) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+			}
+			else if (Character.isSurrogate(c)) {
+				buffer[position++] = '?';
+			}
+			else {
+				buffer[position++] = (byte) (0xE0 | (c >> 12));
+				buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buffer[position++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		this.position = position;
+	}
+
+	private static boolean isSurrogatePair(String value, int index) {
+		return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+				&& Character.isLowSurrogate(value.charAt(index + 1));
+	}
+
+	/**
+	 * Writes any value supported by the serializer, including {@code null}.
+	 */
+	public void writeValue(Object value) throws IOException {
+		serializer.writeValue(this, value);
+	}
+
+	int size() {
+		return position;
+	}
+
+	byte[] buffer() {
+		return buffer;
+	}
+
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.state.AgentStateFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compact binary {@link StateSerializer}, much faster than Java serialization and
+ * {@link com.alibaba.cloud.ai.graph.serializer.plain_text.jackson.JacksonStateSerializer}
+ * for checkpoint-heavy graphs.
+ *
+ * <p>
+ * Strings, numbers, booleans, byte arrays, lists, sets, maps, enums and Spring AI
+ * {@code UserMessage}, {@code AssistantMessage}, {@code SystemMessage} and
+ * {@code ToolResponseMessage} are written with dedicated one-byte tags. Other types can be
+ * registered with a {@link TypeCodec} under a numeric id; unregistered
+ * {@link Serializable} values fall back to Java serialization. Only the state data is
+ * serialized, the state is rebuilt through the state factory.
+ * </p>
+ *
+ * <pre>{@code
+ * var serializer = new BinaryStateSerializer().compression(Compression.DEFLATE)
+ * 	.register(1, Money.class, new MoneyCodec());
+ * var graph = new StateGraph(keyStrategyFactory, serializer);
+ * }</pre>
+ */
+public class BinaryStateSerializer extends StateSerializer<OverAllState> {
+
+	/**
+	 * How payloads larger than {@link #compressionThreshold(int)} are compressed.
+	 */
+	public enum Compression {
+
+		NONE,
+
+		/**
+		 * {@link Deflater#BEST_SPEED} deflate, from the JDK.
+		 */
+		DEFLATE
+
+	}
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int FLAG_COMPRESSED = 1;
+
+	private static final int NULL = 0;
+
+	private static final int STRING = 1;
+
+	private static final int INT = 2;
+
+	private static final int LONG = 3;
+
+	private static final int DOUBLE = 4;
+
+	private static final int FLOAT = 5;
+
+	private static final int TRUE = 6;
+
+	private static final int FALSE = 7;
+
+	private static final int SHORT = 8;
+
+	private static final int BYTE = 9;
+
+	private static final int CHAR = 10;
+
+	private static final int BIG_DECIMAL = 11;
+
+	private static final int BIG_INTEGER = 12;
+
+	private static final int BYTES = 13;
+
+	private static final int LIST = 14;
+
+	private static final int MAP = 15;
+
+	private static final int SET = 16;
+
+	private static final int ENUM = 17;
+
+	private static final int USER_MESSAGE = 20;
+
+	private static final int ASSISTANT_MESSAGE = 21;
+
+	private static final int SYSTEM_MESSAGE = 22;
+
+	private static final int TOOL_RESPONSE_MESSAGE = 23;
+
+	private static final int REGISTERED = 30;
+
+	private static final int JAVA = 31;
+
+	private record Registration(int typeId, Class<?> type, TypeCodec<Object> codec) {
+	}
+
+	private final Map<Class<?>, Registration> registrationsByType = new ConcurrentHashMap<>();
+
+	private final Map<Integer, Registration> registrationsById = new ConcurrentHashMap<>();
+
+	private final Map<String, Class<?>> enumTypes = new ConcurrentHashMap<>();
+
+	private Compression compression = Compression.NONE;
+
+	private int compressionThreshold = 1024;
+
+	public BinaryStateSerializer() {
+		this(OverAllState::new);
+	}
+
+	public BinaryStateSerializer(AgentStateFactory<OverAllState> stateFactory) {
+		super(stateFactory);
+	}
+
+	/**
+	 * Registers a codec for values of exactly the given type.
+	 * @param typeId the id written instead of the class name; must be stable across
+	 * versions of the application
+	 * @param type the type handled by the codec
+	 * @param codec the codec
+	 * @return this serializer
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> BinaryStateSerializer register(int typeId, Class<T> type, TypeCodec<T> codec) {
+		Objects.requireNonNull(type, "type cannot be null");
+		Objects.requireNonNull(codec, "codec cannot be null");
+		if (typeId < 0) {
+			throw new IllegalArgumentException("typeId must be positive");
+		}
+		var registration = new Registration(typeId, type, (TypeCodec<Object>) codec);
+		if (registrationsById.putIfAbsent(typeId, registration) != null) {
+			throw new IllegalArgumentException("typeId " + typeId + " is already registered");
+		}
+		registrationsByType.put(type, registration);
+		return this;
+	}
+
+	public BinaryStateSerializer compression(Compression compression) {
+		this.compression = Objects.requireNonNull(compression, "compression cannot be null");
+		return this;
+	}
+
+	/**
+	 * Sets the size in bytes above which payloads are compressed. Defaults to 1024.
+	 */
+	public BinaryStateSerializer compressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+		return this;
+	}
+
+	@Override
+	public void write(OverAllState object, ObjectOutput out) throws IOException {
+		byte[] bytes = writeObject(object);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	@Override
+	public OverAllState read(ObjectInput in) throws IOException, ClassNotFoundException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return readObject(bytes);
+	}
+
+	/**
+	 * Serializes the state data without going through an {@link ObjectOutputStream}.
+	 */
+	@Override
+	public byte[] writeObject(OverAllState object) throws IOException {
+		Objects.requireNonNull(object, "object cannot be null");
+		BinaryOutput out = new BinaryOutput(this, 256);
+		out.writeByte(FORMAT_VERSION);
+		out.writeByte(0); // flags
+		writeValue(out, object.data());
+		int size = out.size();
+		byte[] buffer = out.buffer();
+		if (compression == Compression.DEFLATE && size > compressionThreshold) {
+			return deflate(buffer, size);
+		}
+		byte[] bytes = new byte[size];
+		System.arraycopy(buffer, 0, bytes, 0, size);
+		return bytes;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public OverAllState readObject(byte[] bytes) throws IOException {
+		Objects.requireNonNull(bytes, "bytes cannot be null");
+		if (bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+			throw new StreamCorruptedException("not a binary state");
+		}
+		if ((bytes[1] & FLAG_COMPRESSED) != 0) {
+			bytes = inflate(bytes);
+		}
+		Object data = new BinaryInput(this, bytes, 2, bytes.length - 2).readValue();
+		if (!(data instanceof Map<?, ?>)) {
+			throw new StreamCorruptedException("binary state data is not a map");
+		}
+		return stateOf((Map<String, Object>) data);
+	}
+
+	@Override
+	public OverAllState cloneObject(OverAllState object) throws IOException {
+		return readObject(writeObject(object));
+	}
+
+	private static byte[] deflate(byte[] buffer, int size) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(buffer, 2, size - 2);
+			deflater.finish();
+			// header: version, flags, uncompressed length
+			BinaryOutput out = new BinaryOutput(null, size / 2 + 16);
+			out.writeByte(FORMAT_VERSION);
+			out.writeByte(FLAG_COMPRESSED);
+			out.writeVarInt(size - 2);
+			byte[] chunk = new byte[Math.min(size, 64 * 1024)];
+			while (!deflater.finished()) {
+				int length = deflater.deflate(chunk);
+				out.writeBytes(chunk, 0, length);
+			}
+			byte[] bytes = new byte[out.size()];
+			System.arraycopy(out.buffer(), 0, bytes, 0, out.size());
+			return bytes;
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	private byte[] inflate(byte[] bytes) throws IOException {
+		BinaryInput header = new BinaryInput(this, bytes, 2, bytes.length - 2);
+		int length = header.readVarInt();
+		int offset = bytes.length - header.remaining();
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes, offset, bytes.length - offset);
+			byte[] result = new byte[length + 2];
+			result[0] = FORMAT_VERSION;
+			int position = 2;
+			while (position < result.length) {
+				int read = inflater.inflate(result, position, result.length - position);
+				if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+					throw new StreamCorruptedException("truncated compressed state");
+				}
+				position += read;
+			}
+			return result;
+		}
+		catch (DataFormatException e) {
+			throw new StreamCorruptedException(e.getMessage());
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	void writeValue(BinaryOutput out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		}
+		else if (value instanceof String s) {
+			out.writeByte(STRING);
+			out.writeString(s);
+		}
+		else if (value instanceof Integer i) {
+			out.writeByte(INT);
+			out.writeVarLong(i);
+		}
+		else if (value instanceof Long l) {
+			out.writeByte(LONG);
+			out.writeVarLong(l);
+		}
+		else if (value instanceof Double d) {
+			out.writeByte(DOUBLE);
+			out.writeDouble(d);
+		}
+		else if (value instanceof Boolean b) {
+			out.writeByte(b ? TRUE : FALSE);
+		}
+		else if (value instanceof List<?> list) {
+			writeCollection(out, LIST, list);
+		}
+		else if (value instanceof Map<?, ?> map) {
+			out.writeByte(MAP);
+			out.writeVarInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(out, entry.getKey());
+				writeValue(out, entry.getValue());
+			}
+		}
+		else if (!writeRegistered(out, value) && !writeMessage(out, value)) {
+			writeOther(out, value);
+		}
+	}
+
+	private void writeCollection(BinaryOutput out, int tag, Collection<?> collection) throws IOException {
+		out.writeByte(tag);
+		out.writeVarInt(collection.size());
+		for (Object item : collection) {
+			writeValue(out, item);
+		}
+	}
+
+	private boolean writeRegistered(BinaryOutput out, Object value) throws IOException {
+		Registration registration = registrationsByType.get(value.getClass());
+		if (registration == null) {
+			return false;
+		}
+		out.writeByte(REGISTERED);
+		out.writeVarInt(registration.typeId());
+		registration.codec().write(value, out);
+		return true;
+	}
+
+	/**
+	 * Fast paths for the Spring AI messages. Subclasses go through the generic path so
+	 * that their type is preserved.
+	 */
+	private boolean writeMessage(BinaryOutput out, Object value) throws IOException {
+		Class<?> type = value.getClass();
+		if (type == UserMessage.class) {
+			UserMessage message = (UserMessage) value;
+			out.writeByte(USER_MESSAGE);
+			writeValue(out, message.getText());
+			writeValue(out, message.getMetadata());
+			writeValue(out, message.getMedia());
+		}
+		else if (type == AssistantMessage.class) {
+			AssistantMessage message = (AssistantMessage) value;
+			out.writeByte(ASSISTANT_MESSAGE);
+			writeValue(out, message.getText());
+			writeValue(out, message.getMetadata());
+			out.writeVarInt(message.getToolCalls().size());
+			for (AssistantMessage.ToolCall toolCall : message.getToolCalls()) {
+				writeValue(out, toolCall.id());
+				writeValue(out, toolCall.type());
+				writeValue(out, toolCall.name());
+				writeValue(out, toolCall.arguments());
+			}
+			writeValue(out, message.getMedia());
+		}
+		else if (type == SystemMessage.class) {
+			SystemMessage message = (SystemMessage) value;
+			out.writeByte(SYSTEM_MESSAGE);
+			writeValue(out, message.getText());
+			writeValue(out, message.getMetadata());
+		}
+		else if (type == ToolResponseMessage.class) {
+			ToolResponseMessage message = (ToolResponseMessage) value;
+			out.writeByte(TOOL_RESPONSE_MESSAGE);
+			out.writeVarInt(message.getResponses().size());
+			for (ToolResponseMessage.ToolResponse response : message.getResponses()) {
+				writeValue(out, response.id());
+				writeValue(out, response.name());
+				writeValue(out, response.responseData());
+			}
+			writeValue(out, message.getMetadata());
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	private void writeOther(BinaryOutput out, Object value) throws IOException {
+		if (value instanceof Float f) {
+			out.writeByte(FLOAT);
+			out.writeFloat(f);
+		}
+		else if (value instanceof Short s) {
+			out.writeByte(SHORT);
+			out.writeVarLong(s);
+		}
+		else if (value instanceof Byte b) {
+			out.writeByte(BYTE);
+			out.writeByte(b);
+		}
+		else if (value instanceof Character c) {
+			out.writeByte(CHAR);
+			out.writeVarInt(c);
+		}
+		else if (value instanceof BigDecimal d) {
+			out.writeByte(BIG_DECIMAL);
+			out.writeString(d.toString());
+		}
+		else if (value instanceof BigInteger i) {
+			out.writeByte(BIG_INTEGER);
+			out.writeString(i.toString());
+		}
+		else if (value instanceof byte[] bytes) {
+			out.writeByte(BYTES);
+			out.writeVarInt(bytes.length);
+			out.writeBytes(bytes, 0, bytes.length);
+		}
+		else if (value instanceof Set<?> set) {
+			writeCollection(out, SET, set);
+		}
+		else if (value instanceof Enum<?> e) {
+			out.writeByte(ENUM);
+			out.writeString(e.getDeclaringClass().getName());
+			out.writeString(e.name());
+		}
+		else if (value instanceof Serializable) {
+			out.writeByte(JAVA);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+				oos.writeObject(value);
+			}
+			out.writeVarInt(bytes.size());
+			out.writeBytes(bytes.toByteArray(), 0, bytes.size());
+		}
+		else {
+			throw new NotSerializableException(value.getClass().getName()
+					+ " is neither serializable nor registered in the BinaryStateSerializer");
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	Object readValue(BinaryInput in) throws IOException {
+		int tag = in.readByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case STRING:
+				return in.readString();
+			case INT:
+				return (int) in.readVarLong();
+			case LONG:
+				return in.readVarLong();
+			case DOUBLE:
+				return in.readDouble();
+			case FLOAT:
+				return in.readFloat();
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case SHORT:
+				return (short) in.readVarLong();
+			case BYTE:
+				return (byte) in.readByte();
+			case CHAR:
+				return (char) in.readVarInt();
+			case BIG_DECIMAL:
+				return new BigDecimal(in.readString());
+			case BIG_INTEGER:
+				return new BigInteger(in.readString());
+			case BYTES:
+				return in.readBytes(in.readVarInt());
+			case LIST: {
+				int size = in.readVarInt();
+				List<Object> list = new ArrayList<>(Math.min(size, 1024));
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(in));
+				}
+				return list;
+			}
+			case SET: {
+				int size = in.readVarInt();
+				Set<Object> set = new LinkedHashSet<>();
+				for (int i = 0; i < size; i++) {
+					set.add(readValue(in));
+				}
+				return set;
+			}
+			case MAP: {
+				int size = in.readVarInt();
+				Map<Object, Object> map = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					Object key = readValue(in);
+					map.put(key, readValue(in));
+				}
+				return map;
+			}
+			case ENUM: {
+				String typeName = in.readString();
+				String name = in.readString();
+				return Enum.valueOf((Class) enumType(typeName), name);
+			}
+			case USER_MESSAGE:
+				return UserMessage.builder()
+					.text((String) readValue(in))
+					.metadata((Map<String, Object>) readValue(in))
+					.media((List<Media>) readValue(in))
+					.build();
+			case ASSISTANT_MESSAGE: {
+				String text = (String) readValue(in);
+				Map<String, Object> metadata = (Map<String, Object>) readValue(in);
+				int size = in.readVarInt();
+				List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					toolCalls.add(new AssistantMessage.ToolCall((String) readValue(in), (String) readValue(in),
+							(String) readValue(in), (String) readValue(in)));
+				}
+				return new AssistantMessage(text, metadata, toolCalls, (List<Media>) readValue(in));
+			}
+			case SYSTEM_MESSAGE:
+				return SystemMessage.builder()
+					.text((String) readValue(in))
+					.metadata((Map<String, Object>) readValue(in))
+					.build();
+			case TOOL_RESPONSE_MESSAGE: {
+				int size = in.readVarInt();
+				List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					responses.add(new ToolResponseMessage.ToolResponse((String) readValue(in), (String) readValue(in),
+							(String) readValue(in)));
+				}
+				return new ToolResponseMessage(responses, (Map<String, Object>) readValue(in));
+			}
+			case REGISTERED: {
+				int typeId = in.readVarInt();
+				Registration registration = registrationsById.get(typeId);
+				if (registration == null) {
+					throw new InvalidClassException("no codec registered for type id " + typeId);
+				}
+				return registration.codec().read(in);
+			}
+			case JAVA: {
+				byte[] bytes = in.readBytes(in.readVarInt());
+				try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+					return ois.readObject();
+				}
+				catch (ClassNotFoundException e) {
+					throw new InvalidClassException(e.getMessage());
+				}
+			}
+			default:
+				throw new StreamCorruptedException("unknown type tag " + tag);
+		}
+	}
+
+	private Class<?> enumType(String typeName) throws IOException {
+		Class<?> type = enumTypes.get(typeName);
+		if (type == null) {
+			try {
+				type = Class.forName(typeName, false, Thread.currentThread().getContextClassLoader());
+			}
+			catch (ClassNotFoundException e) {
+				throw new InvalidClassException(typeName, "enum type not found");
+			}
+			if (!type.isEnum()) {
+				throw new InvalidClassException(typeName, "not an enum type");
+			}
+			enumTypes.put(typeName, type);
+		}
+		return type;
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import java.io.IOException;
+
+/**
+ * Writes and reads values of one type for a {@link BinaryStateSerializer}.
+ *
+ * @param <T> the type handled by the codec
+ * @see BinaryStateSerializer#register(int, Class, TypeCodec)
+ */
+public interface TypeCodec<T> {
+
+	void write(T value, BinaryOutput out) throws IOException;
+
+	T read(BinaryInput in) throws IOException;
+
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package contains a compact binary
+ * {@link com.alibaba.cloud.ai.graph.serializer.StateSerializer}, with fast paths for
+ * common state values and user-registered {@link TypeCodec}s.
+ *
+ * @see com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
@@ -20,12 +20,32 @@ import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
 import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
 import com.alibaba.cloud.ai.graph.serializer.std.NullableObjectSerializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.util.HashSet;
+import java.util.Set;
 
+/**
+ * Serializes a {@link Checkpoint}: a version marker, then its id, node ids, state,
+ * parent id and removed keys.
+ *
+ * <p>
+ * Records written before the version marker was introduced hold only the id, the node
+ * ids and the state; they are still read, as full checkpoints without a parent.
+ * </p>
+ */
 public class CheckPointSerializer implements NullableObjectSerializer<Checkpoint> {
 
+	// written where unversioned records start with the length of their id, which is never
+	// 0xFFFF for the ids of the graph
+	private static final int VERSION_MARKER = 0xFFFF;
+
+	private static final int VERSION = 1;
+
 	final StateSerializer stateSerializer;
 
 	public CheckPointSerializer(StateSerializer stateSerializer) {
@@ -34,21 +54,68 @@ public class CheckPointSerializer implements NullableObjectSerializer<Checkpoint
 
 	@Override
 	public void write(Checkpoint object, ObjectOutput out) throws IOException {
+		out.writeShort(VERSION_MARKER);
+		out.writeByte(VERSION);
 		out.writeUTF(object.getId());
 		writeNullableUTF(object.getNodeId(), out);
 		writeNullableUTF(object.getNextNodeId(), out);
 		OverAllState state = (OverAllState) stateSerializer.stateFactory().apply(object.getState());
 		stateSerializer.write(state, out);
+		writeNullableUTF(object.getParentId(), out);
+		out.writeInt(object.getRemovedKeys().size());
+		for (String key : object.getRemovedKeys()) {
+			out.writeUTF(key);
+		}
 	}
 
 	@Override
 	public Checkpoint read(ObjectInput in) throws IOException, ClassNotFoundException {
+		int head = in.readUnsignedShort();
+		if (head != VERSION_MARKER) {
+			// unversioned record: head is the length of its id
+			return Checkpoint.builder()
+				.id(readUTF(head, in))
+				.nodeId(readNullableUTF(in).orElse(null))
+				.nextNodeId(readNullableUTF(in).orElse(null))
+				.state((OverAllState) stateSerializer.read(in))
+				.build();
+		}
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new StreamCorruptedException("unsupported checkpoint version " + version);
+		}
 		return Checkpoint.builder()
 			.id(in.readUTF())
-			.nextNodeId(readNullableUTF(in).orElse(null))
 			.nodeId(readNullableUTF(in).orElse(null))
+			.nextNodeId(readNullableUTF(in).orElse(null))
 			.state((OverAllState) stateSerializer.read(in))
+			.parentId(readNullableUTF(in).orElse(null))
+			.removedKeys(readRemovedKeys(in))
 			.build();
 	}
 
+	/**
+	 * Reads the rest of a string written with {@link ObjectOutput#writeUTF(String)}, whose
+	 * length was already read.
+	 */
+	private static String readUTF(int length, ObjectInput in) throws IOException {
+		byte[] bytes = new byte[length + 2];
+		bytes[0] = (byte) (length >>> 8);
+		bytes[1] = (byte) length;
+		in.readFully(bytes, 2, length);
+		return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+	}
+
+	private Set<String> readRemovedKeys(ObjectInput in) throws IOException {
+		int size = in.readInt();
+		if (size == 0) {
+			return Set.of();
+		}
+		Set<String> keys = new HashSet<>(size);
+		for (int i = 0; i < size; i++) {
+			keys.add(in.readUTF());
+		}
+		return keys;
+	}
+
 }
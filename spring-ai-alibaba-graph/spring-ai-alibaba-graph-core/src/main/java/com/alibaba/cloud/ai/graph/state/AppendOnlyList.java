@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list optimized for appending, used by
+ * {@link com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy}.
+ *
+ * <p>
+ * Every version of the list is a prefix view over a shared, growable buffer. Appending to
+ * the latest version writes into the spare capacity of the buffer and returns a longer
+ * view, so a channel that grows by one message per step costs amortized O(1) per append
+ * instead of copying the whole history. Appending to an older version (a branch) copies
+ * the prefix first. Removals always copy.
+ * </p>
+ *
+ * <p>
+ * A hash index, mapping element hash codes to their first position, is built lazily the
+ * first time an element is removed through {@link RemoveByHash}, and is never built
+ * otherwise. It belongs to the shared buffer, so every version appended from the list
+ * reuses it, and appends keep it up to date. A removal copies the elements into a new
+ * buffer, whose index is built again on its first removal by hash. A serialized instance
+ * is written as an {@link ArrayList}.
+ * </p>
+ *
+ * @param <E> the type of elements
+ */
+public final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private static final AppendOnlyList<?> EMPTY = new AppendOnlyList<>(new Buffer(new Object[0], 0), 0);
+
+	/**
+	 * Storage shared by all the versions derived from the same list by appending.
+	 * Positions below {@code count} are never overwritten.
+	 */
+	private static final class Buffer {
+
+		volatile Object[] elements;
+
+		int count;
+
+		// first position of each hash code, guarded by this
+		Map<Integer, Integer> hashIndex;
+
+		Buffer(Object[] elements, int count) {
+			this.elements = elements;
+			this.count = count;
+		}
+
+		/**
+		 * Returns the hash index, building it if needed. Must be called holding the
+		 * lock.
+		 */
+		Map<Integer, Integer> hashIndex() {
+			if (hashIndex == null) {
+				hashIndex = new HashMap<>();
+				indexFrom(0);
+			}
+			return hashIndex;
+		}
+
+		/**
+		 * Indexes the elements from the given position to {@code count}, if the index is
+		 * built. Must be called holding the lock.
+		 */
+		void indexFrom(int from) {
+			if (hashIndex != null) {
+				for (int i = from; i < count; i++) {
+					hashIndex.putIfAbsent(Objects.hashCode(elements[i]), i);
+				}
+			}
+		}
+
+	}
+
+	private final transient Buffer buffer;
+
+	private final transient int size;
+
+	private AppendOnlyList(Buffer buffer, int size) {
+		this.buffer = buffer;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty list.
+	 * @param <E> the type of elements
+	 * @return the empty list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> AppendOnlyList<E> empty() {
+		return (AppendOnlyList<E>) EMPTY;
+	}
+
+	/**
+	 * Returns an append only list with the elements of the given collection. If it is
+	 * already an {@link AppendOnlyList} it is returned as is.
+	 * @param <E> the type of elements
+	 * @param elements the source elements
+	 * @return the list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> AppendOnlyList<E> from(Collection<? extends E> elements) {
+		if (elements instanceof AppendOnlyList) {
+			return (AppendOnlyList<E>) elements;
+		}
+		Object[] array = elements.toArray();
+		return array.length == 0 ? empty() : new AppendOnlyList<>(new Buffer(array, array.length), array.length);
+	}
+
+	/**
+	 * Returns a list with the given element appended.
+	 * @param element the element to append
+	 * @return the new list
+	 */
+	public AppendOnlyList<E> plus(E element) {
+		return plusAll(new Object[] { element });
+	}
+
+	/**
+	 * Returns a list with the given elements appended.
+	 * @param elements the elements to append
+	 * @return the new list, or this list if {@code elements} is empty
+	 */
+	public AppendOnlyList<E> plusAll(Collection<? extends E> elements) {
+		return plusAll(elements.toArray());
+	}
+
+	private AppendOnlyList<E> plusAll(Object[] values) {
+		if (values.length == 0) {
+			return this;
+		}
+		int newSize = size + values.length;
+		synchronized (buffer) {
+			if (buffer.count == size) {
+				Object[] elements = buffer.elements;
+				if (elements.length < newSize) {
+					elements = Arrays.copyOf(elements, capacityFor(newSize));
+				}
+				System.arraycopy(values, 0, elements, size, values.length);
+				buffer.elements = elements;
+				buffer.count = newSize;
+				buffer.indexFrom(size);
+				return new AppendOnlyList<>(buffer, newSize);
+			}
+		}
+		// another version already appended to the shared buffer: branch off
+		Object[] elements = new Object[capacityFor(newSize)];
+		System.arraycopy(buffer.elements, 0, elements, 0, size);
+		System.arraycopy(values, 0, elements, size, values.length);
+		return new AppendOnlyList<>(new Buffer(elements, newSize), newSize);
+	}
+
+	private static int capacityFor(int size) {
+		return Math.max(MIN_CAPACITY, size + (size >> 1));
+	}
+
+	/**
+	 * Returns a list without the first element matched by the given identifier.
+	 * @param removeIdentifier the identifier of the element to remove
+	 * @return the new list, or this list if no element matches
+	 */
+	@SuppressWarnings("unchecked")
+	public AppendOnlyList<E> minus(AppenderChannel.RemoveIdentifier<? super E> removeIdentifier) {
+		int index = -1;
+		if (removeIdentifier instanceof RemoveByHash<?> removeByHash) {
+			synchronized (buffer) {
+				// positions past this version belong to versions appended from it
+				int position = buffer.hashIndex().getOrDefault(Objects.hashCode(removeByHash.value()), -1);
+				index = position < size ? position : -1;
+			}
+		}
+		else {
+			Object[] elements = buffer.elements;
+			for (int i = 0; i < size; i++) {
+				if (((AppenderChannel.RemoveIdentifier<Object>) removeIdentifier).compareTo(elements[i], i) == 0) {
+					index = i;
+					break;
+				}
+			}
+		}
+		if (index < 0) {
+			return this;
+		}
+		if (size == 1) {
+			return empty();
+		}
+		Object[] source = buffer.elements;
+		Object[] elements = new Object[capacityFor(size - 1)];
+		System.arraycopy(source, 0, elements, 0, index);
+		System.arraycopy(source, index + 1, elements, index, size - index - 1);
+		return new AppendOnlyList<>(new Buffer(elements, size - 1), size - 1);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		Objects.checkIndex(index, size);
+		return (E) buffer.elements[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		// lists that only differ by appended elements share their whole prefix
+		if (o instanceof List<?> other && other.size() != size) {
+			return false;
+		}
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(buffer.elements, size);
+	}
+
+	private Object writeReplace() {
+		return new ArrayList<>(this);
+	}
+
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable map based on a hash array mapped trie (HAMT). {@link #plus(Object, Object)}
+ * and {@link #minus(Object)} return a new map that shares every untouched branch with
+ * the original one, so an update costs O(log32 n) and keeping the previous version
+ * around is free.
+ *
+ * <p>
+ * Keys must not be {@code null}; {@code null} values are allowed. All
+ * {@link java.util.Map} mutators throw {@link UnsupportedOperationException}. A
+ * serialized instance is written as a {@link HashMap}.
+ * </p>
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+	private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+	private static final Object NOT_FOUND = new Object();
+
+	private static final int BITS = 5;
+
+	/**
+	 * 7 bitmap levels consume the 32 hash bits, plus one collision level.
+	 */
+	private static final int MAX_DEPTH = 8;
+
+	private final transient Node root;
+
+	private final transient int size;
+
+	private transient Set<Entry<K, V>> entrySet;
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 * @param <K> the type of keys
+	 * @param <V> the type of values
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Returns a persistent map with the same mappings as the given map. If the map is
+	 * already a {@link PersistentMap} it is returned as is.
+	 * @param <K> the type of keys
+	 * @param <V> the type of values
+	 * @param map the source map
+	 * @return the persistent map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentMap<K, V> from(Map<? extends K, ? extends V> map) {
+		if (map instanceof PersistentMap) {
+			return (PersistentMap<K, V>) map;
+		}
+		return PersistentMap.<K, V>empty().plusAll(map);
+	}
+
+	/**
+	 * Returns a map with the given mapping added or replaced.
+	 * @param key the key, not null
+	 * @param value the value
+	 * @return the updated map, or this map if the mapping is already present
+	 */
+	public PersistentMap<K, V> plus(K key, V value) {
+		Objects.requireNonNull(key, "key cannot be null");
+		boolean[] added = new boolean[1];
+		Node base = root != null ? root : BitmapNode.EMPTY;
+		Node newRoot = base.assoc(0, hash(key), key, value, added);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * Returns a map with all the mappings of the given map added or replaced.
+	 * @param map the mappings to add
+	 * @return the updated map
+	 */
+	public PersistentMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+		PersistentMap<K, V> result = this;
+		for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+			result = result.plus(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a map without the mapping for the given key.
+	 * @param key the key
+	 * @return the updated map, or this map if the key is not present
+	 */
+	public PersistentMap<K, V> minus(Object key) {
+		if (root == null || key == null) {
+			return this;
+		}
+		Node newRoot = root.without(0, hash(key), key);
+		if (newRoot == root) {
+			return this;
+		}
+		return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) != NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		Object value = find(key);
+		return value == NOT_FOUND ? null : (V) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V getOrDefault(Object key, V defaultValue) {
+		Object value = find(key);
+		return value == NOT_FOUND ? defaultValue : (V) value;
+	}
+
+	private Object find(Object key) {
+		if (root == null || key == null) {
+			return NOT_FOUND;
+		}
+		return root.find(0, hash(key), key);
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		Set<Entry<K, V>> result = entrySet;
+		if (result == null) {
+			result = new AbstractSet<>() {
+
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new EntryIterator<>(root);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+			};
+			entrySet = result;
+		}
+		return result;
+	}
+
+	private Object writeReplace() {
+		return new HashMap<>(this);
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & 0x1f);
+	}
+
+	private static Object[] cloneAndSet(Object[] array, int i, Object value) {
+		Object[] result = array.clone();
+		result[i] = value;
+		return result;
+	}
+
+	/**
+	 * A trie node. Both node types store their content as a flat {@code [key, value]}
+	 * array; in a {@link BitmapNode} a {@code null} key marks a slot holding a child
+	 * node.
+	 */
+	private interface Node {
+
+		Object find(int shift, int hash, Object key);
+
+		Node assoc(int shift, int hash, Object key, Object value, boolean[] added);
+
+		/**
+		 * @return the updated node, {@code this} if the key is absent or {@code null} if
+		 * the node became empty
+		 */
+		Node without(int shift, int hash, Object key);
+
+		Object[] array();
+
+	}
+
+	private static final class BitmapNode implements Node {
+
+		static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		final int bitmap;
+
+		final Object[] array;
+
+		BitmapNode(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		public Object[] array() {
+			return array;
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return NOT_FOUND;
+			}
+			int idx = index(bit);
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+			if (k == null) {
+				return ((Node) v).find(shift + BITS, hash, key);
+			}
+			return key.equals(k) ? v : NOT_FOUND;
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+			int bit = bitpos(hash, shift);
+			int idx = index(bit);
+			if ((bitmap & bit) != 0) {
+				Object k = array[2 * idx];
+				Object v = array[2 * idx + 1];
+				if (k == null) {
+					Node child = ((Node) v).assoc(shift + BITS, hash, key, value, added);
+					return child == v ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, child));
+				}
+				if (key.equals(k)) {
+					return v == value ? this : new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, value));
+				}
+				added[0] = true;
+				Object[] newArray = array.clone();
+				newArray[2 * idx] = null;
+				newArray[2 * idx + 1] = createNode(shift + BITS, k, v, hash, key, value);
+				return new BitmapNode(bitmap, newArray);
+			}
+			added[0] = true;
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, 2 * idx);
+			newArray[2 * idx] = key;
+			newArray[2 * idx + 1] = value;
+			System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, array.length - 2 * idx);
+			return new BitmapNode(bitmap | bit, newArray);
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int idx = index(bit);
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+			if (k == null) {
+				Node child = ((Node) v).without(shift + BITS, hash, key);
+				if (child == v) {
+					return this;
+				}
+				if (child != null) {
+					return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, child));
+				}
+			}
+			else if (!key.equals(k)) {
+				return this;
+			}
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, 2 * idx);
+			System.arraycopy(array, 2 * idx + 2, newArray, 2 * idx, newArray.length - 2 * idx);
+			return new BitmapNode(bitmap ^ bit, newArray);
+		}
+
+		private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2,
+				Object value2) {
+			int hash1 = hash(key1);
+			if (hash1 == hash2) {
+				return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+			}
+			boolean[] added = new boolean[1];
+			return EMPTY.assoc(shift, hash1, key1, value1, added).assoc(shift, hash2, key2, value2, added);
+		}
+
+	}
+
+	private static final class CollisionNode implements Node {
+
+		final int hash;
+
+		final Object[] array;
+
+		CollisionNode(int hash, Object[] array) {
+			this.hash = hash;
+			this.array = array;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public Object[] array() {
+			return array;
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			if (hash != this.hash) {
+				return NOT_FOUND;
+			}
+			int idx = indexOf(key);
+			return idx < 0 ? NOT_FOUND : array[idx + 1];
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				// nest this node under a bitmap node so the new key can branch off
+				return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this }).assoc(shift, hash, key,
+						value, added);
+			}
+			int idx = indexOf(key);
+			if (idx >= 0) {
+				return array[idx + 1] == value ? this : new CollisionNode(hash, cloneAndSet(array, idx + 1, value));
+			}
+			added[0] = true;
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+			return new CollisionNode(hash, newArray);
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			int idx = hash == this.hash ? indexOf(key) : -1;
+			if (idx < 0) {
+				return this;
+			}
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, newArray.length - idx);
+			return new CollisionNode(hash, newArray);
+		}
+
+	}
+
+	private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+		private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+		private final int[] positions = new int[MAX_DEPTH];
+
+		private int depth = -1;
+
+		private Entry<K, V> next;
+
+		EntryIterator(Node root) {
+			if (root != null) {
+				push(root.array());
+			}
+			advance();
+		}
+
+		private void push(Object[] array) {
+			arrays[++depth] = array;
+			positions[depth] = 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			next = null;
+			while (depth >= 0) {
+				Object[] array = arrays[depth];
+				int position = positions[depth];
+				if (position >= array.length) {
+					arrays[depth--] = null;
+					continue;
+				}
+				positions[depth] = position + 2;
+				Object key = array[position];
+				Object value = array[position + 1];
+				if (key == null) {
+					push(((Node) value).array());
+				}
+				else {
+					next = new SimpleImmutableEntry<>((K) key, (V) value);
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			Entry<K, V> result = next;
+			advance();
+			return result;
+		}
+
+	}
+
+}
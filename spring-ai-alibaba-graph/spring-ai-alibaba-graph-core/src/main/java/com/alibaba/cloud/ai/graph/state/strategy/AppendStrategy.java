@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.graph.state.strategy;
 
 import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.AppendOnlyList;
 import com.alibaba.cloud.ai.graph.state.AppenderChannel;
 
 import java.util.ArrayList;
@@ -23,13 +24,39 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.util.Collections.unmodifiableList;
-
+/**
+ * Appends new values to the list held by a key. Values are stored in an
+ * {@link AppendOnlyList}, so appending to a long channel (e.g. the message history of an
+ * agent loop) costs amortized O(1) rather than a copy of the whole list.
+ *
+ * <p>
+ * {@link AppenderChannel.RemoveIdentifier} values remove the first matching element
+ * instead of being appended. Duplicate removal is opt-in through
+ * {@link #AppendStrategy(boolean)}, and costs O(n) per append.
+ * </p>
+ */
 public class AppendStrategy implements KeyStrategy {
 
+	private final boolean distinct;
+
+	/**
+	 * Instantiates a new Append strategy that keeps duplicated values.
+	 */
+	public AppendStrategy() {
+		this(false);
+	}
+
+	/**
+	 * Instantiates a new Append strategy.
+	 * @param distinct whether duplicated values are dropped when a collection is
+	 * appended
+	 */
+	public AppendStrategy(boolean distinct) {
+		this.distinct = distinct;
+	}
+
 	@Override
 	public Object apply(Object oldValue, Object newValue) {
 		if (newValue == null) {
@@ -41,16 +68,16 @@ public class AppendStrategy implements KeyStrategy {
 		}
 
 		boolean oldValueIsList = oldValue instanceof List<?>;
+		AppendOnlyList<Object> oldList = oldValueIsList ? AppendOnlyList.from((List<Object>) oldValue)
+				: AppendOnlyList.empty();
 
-		if (oldValueIsList && newValue instanceof AppenderChannel.RemoveIdentifier<?>) {
-			var result = new ArrayList<>((List<Object>) oldValue);
-			removeFromList(result, (AppenderChannel.RemoveIdentifier) newValue);
-			return unmodifiableList(result);
+		if (oldValueIsList && newValue instanceof AppenderChannel.RemoveIdentifier<?> removeIdentifier) {
+			return oldList.minus((AppenderChannel.RemoveIdentifier<Object>) removeIdentifier);
 		}
 
 		List<Object> list = null;
 		if (newValue instanceof List) {
-			list = new ArrayList<>((List<?>) newValue);
+			list = (List<Object>) newValue;
 		}
 		else if (newValue.getClass().isArray()) {
 			list = Arrays.asList((Object[]) newValue);
@@ -59,59 +86,31 @@ public class AppendStrategy implements KeyStrategy {
 			list = new ArrayList<>((Collection<?>) newValue);
 		}
 
-		if (oldValueIsList) {
-			List<Object> oldList = (List<Object>) oldValue;
-			if (list != null) {
-				if (list.isEmpty()) {
-					return oldValue;
-				}
-				if (oldValueIsList) {
-					var result = evaluateRemoval((List<Object>) oldValue, list);
-					List<Object> mergedList = Stream.concat(result.oldValues().stream(), result.newValues().stream())
-						.distinct()
-						.collect(Collectors.toList());
-					return mergedList;
-				}
-				oldList.addAll(list);
-			}
-			else {
-				oldList.add(newValue);
-			}
-			return oldList;
+		if (list == null) {
+			return oldList.plus(newValue);
+		}
+		if (!oldValueIsList) {
+			return AppendOnlyList.from(list);
 		}
-		else {
-			ArrayList<Object> arrayResult = new ArrayList<>();
-			if (list != null) {
-				arrayResult.addAll(list);
+		if (list.isEmpty()) {
+			return oldValue;
+		}
+
+		AppendOnlyList<Object> result = oldList;
+		List<Object> newValues = new ArrayList<>(list.size());
+		for (Object value : list) {
+			if (value instanceof AppenderChannel.RemoveIdentifier<?> removeIdentifier) {
+				result = result.minus((AppenderChannel.RemoveIdentifier<Object>) removeIdentifier);
 			}
 			else {
-				arrayResult.add(newValue);
+				newValues.add(value);
 			}
-			return arrayResult;
 		}
-	}
 
-	private static void removeFromList(List<Object> result, AppenderChannel.RemoveIdentifier<Object> removeIdentifier) {
-		for (int i = 0; i < result.size(); i++) {
-			if (removeIdentifier.compareTo(result.get(i), i) == 0) {
-				result.remove(i);
-				break;
-			}
+		if (distinct) {
+			return AppendOnlyList.from(Stream.concat(result.stream(), newValues.stream()).distinct().toList());
 		}
-	}
-
-	private static AppenderChannel.RemoveData<Object> evaluateRemoval(List<Object> oldValues, List<?> newValues) {
-
-		final var result = new AppenderChannel.RemoveData<>(oldValues, newValues);
-
-		newValues.stream().filter(value -> value instanceof AppenderChannel.RemoveIdentifier<?>).forEach(value -> {
-			result.newValues().remove(value);
-			var removeIdentifier = (AppenderChannel.RemoveIdentifier<Object>) value;
-			removeFromList(result.oldValues(), removeIdentifier);
-
-		});
-		return result;
-
+		return result.plusAll(newValues);
 	}
 
 }
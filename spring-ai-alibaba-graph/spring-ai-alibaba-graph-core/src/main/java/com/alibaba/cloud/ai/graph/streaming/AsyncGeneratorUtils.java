@@ -16,18 +16,15 @@
 package com.alibaba.cloud.ai.graph.streaming;
 
 import com.alibaba.cloud.ai.graph.KeyStrategy;
-import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.executor.NodeExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
-import java.util.HashMap;
 
 /**
  * Utility class for handling asynchronous generator merging and output processing
@@ -36,6 +33,12 @@ public class AsyncGeneratorUtils {
 
 	private static final Logger log = LoggerFactory.getLogger(AsyncGeneratorUtils.class);
 
+	/**
+	 * Default maximum number of elements of a single generator waiting for the consumer
+	 * of a merged generator.
+	 */
+	public static final int DEFAULT_BRANCH_CAPACITY = 64;
+
 	/**
 	 * Creates an appropriate generator based on the number of generator entries
 	 * @param generatorEntries list of generator entries
@@ -45,7 +48,7 @@ public class AsyncGeneratorUtils {
 	@SuppressWarnings("unchecked")
 	public static <T> AsyncGenerator<T> createAppropriateGenerator(List<Map.Entry<String, Object>> generatorEntries,
 			List<AsyncGenerator<T>> asyncNodeGenerators, Map<String, KeyStrategy> keyStrategyMap) {
-		if (generatorEntries.size() == 1) {
+		if (generatorEntries.size() == 1 && asyncNodeGenerators.isEmpty()) {
 			// Only one generator, return it directly
 			return (AsyncGenerator<T>) generatorEntries.get(0).getValue();
 		}
@@ -59,110 +62,38 @@ public class AsyncGeneratorUtils {
 	}
 
 	/**
-	 * Creates a merged generator that combines outputs from multiple generators
+	 * Creates a merged generator that combines outputs from multiple generators. Each
+	 * generator is drained on the default node executor, with up to
+	 * {@link #DEFAULT_BRANCH_CAPACITY} pending elements per generator.
 	 * @param generators list of generators to merge
 	 * @param <T> output type
 	 * @return merged generator
 	 */
 	public static <T> AsyncGenerator<T> createMergedGenerator(List<AsyncGenerator<T>> generators,
 			Map<String, KeyStrategy> keyStrategyMap) {
-		return new AsyncGenerator<>() {
-			// Switch to StampedLock to simplify lock management
-			private final StampedLock lock = new StampedLock();
-
-			private AtomicInteger pollCounter = new AtomicInteger(0);
-
-			private Map<String, Object> mergedResult = new HashMap<>();
-
-			private final List<AsyncGenerator<T>> activeGenerators = new CopyOnWriteArrayList<>(generators);
-
-			private final Map<AsyncGenerator<T>, Map<String, Object>> generatorResults = new HashMap<>();
-
-			@Override
-			public AsyncGenerator.Data<T> next() {
-				while (true) {
-					// Read optimistically and check quickly
-					long stamp = lock.tryOptimisticRead();
-					boolean empty = activeGenerators.isEmpty();
-					if (!lock.validate(stamp)) {
-						stamp = lock.readLock();
-						try {
-							empty = activeGenerators.isEmpty();
-						}
-						finally {
-							lock.unlockRead(stamp);
-						}
-					}
-					if (empty) {
-						return AsyncGenerator.Data.done(mergedResult);
-					}
-
-					// Fine-grained lock control
-					final int currentIdx;
-					AsyncGenerator<T> current;
-					long writeStamp = lock.writeLock();
-					try {
-						final int size = activeGenerators.size();
-						if (size == 0)
-							return AsyncGenerator.Data.done(mergedResult);
-
-						currentIdx = pollCounter.updateAndGet(i -> (i + 1) % size);
-						current = activeGenerators.get(currentIdx);
-					}
-					finally {
-						lock.unlockWrite(writeStamp);
-					}
-
-					// Execute the generator 'next()' in the unlocked state
-					AsyncGenerator.Data<T> data = current.next();
-
-					writeStamp = lock.writeLock();
-					try {
-						// Double checks prevent status changes
-						if (!activeGenerators.contains(current)) {
-							continue;
-						}
-
-						if (data.isDone() || data.isError()) {
-							handleCompletedGenerator(current, data);
-							if (activeGenerators.isEmpty()) {
-								return AsyncGenerator.Data.done(mergedResult);
-							}
-							continue;
-						}
-
-						handleCompletedGenerator(current, data);
-						return data;
-					}
-					finally {
-						lock.unlockWrite(writeStamp);
-					}
-				}
-
-			}
-
-			/**
-			 * Helper method to handle completed or errored generators
-			 */
-			private void handleCompletedGenerator(AsyncGenerator<T> generator, AsyncGenerator.Data<T> data) {
-				// Remove generator if done or error
-				if (data.isDone() || data.isError()) {
-					activeGenerators.remove(generator);
-				}
-
-				// Process result if exists
-				data.resultValue().ifPresent(result -> {
-					if (result instanceof Map) {
-						@SuppressWarnings("unchecked")
-						Map<String, Object> mapResult = (Map<String, Object>) result;
-						mergedResult = OverAllState.updateState(mergedResult, mapResult, keyStrategyMap);
-					}
-				});
+		return createMergedGenerator(generators, keyStrategyMap, NodeExecutor.defaultExecutor(),
+				DEFAULT_BRANCH_CAPACITY);
+	}
 
-				// Remove from generator results if present
-				generatorResults.remove(generator);
-			}
-		};
+	/**
+	 * Creates a merged generator that combines outputs from multiple generators. Each
+	 * generator is drained by its own task on the executor, so elements are emitted in
+	 * arrival order and a slow generator does not delay the others. A generator stops
+	 * being drained while {@code branchCapacity} of its elements wait for the consumer.
+	 * The results of the generators are merged with the key strategies, in list order.
+	 * The merged generator is {@link AutoCloseable}: a consumer that stops reading it
+	 * early should close it, which stops the drain tasks and closes the generators that
+	 * are {@link AutoCloseable} themselves.
+	 * @param generators list of generators to merge
+	 * @param keyStrategyMap key strategies used to merge the generator results
+	 * @param executor executor running one blocking drain task per generator
+	 * @param branchCapacity maximum number of pending elements per generator
+	 * @param <T> output type
+	 * @return merged generator
+	 */
+	public static <T> AsyncGenerator<T> createMergedGenerator(List<AsyncGenerator<T>> generators,
+			Map<String, KeyStrategy> keyStrategyMap, Executor executor, int branchCapacity) {
+		return new MergedGenerator<>(generators, keyStrategyMap, executor, branchCapacity);
 	}
 
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.streaming;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Accumulates the text of streamed {@link ChatResponse} chunks in a single
+ * {@link StringBuilder} and materializes the merged response only when asked, so a
+ * streamed answer costs time linear in its length.
+ *
+ * <p>
+ * The merged response carries the accumulated text together with the metadata, tool
+ * calls and media of the last chunk. A chunk with tool calls restarts the accumulation.
+ * Instances are not thread-safe; chunks of a {@code Flux} are delivered serially.
+ * </p>
+ */
+final class ChatResponseAccumulator implements Consumer<ChatResponse> {
+
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * The chunk the accumulation started from: the first one, or the last one with tool
+	 * calls.
+	 */
+	private ChatResponse first;
+
+	private ChatResponse last;
+
+	@Override
+	public void accept(ChatResponse response) {
+		var message = response.getResult().getOutput();
+		if (first == null || message.hasToolCalls()) {
+			first = response;
+			text.setLength(0);
+		}
+		if (message.getText() != null) {
+			text.append(message.getText());
+		}
+		last = response;
+	}
+
+	/**
+	 * Returns the merged response, or {@code null} if no chunk has been received.
+	 * @return the merged response
+	 */
+	ChatResponse result() {
+		if (last == first) {
+			return first;
+		}
+		var message = last.getResult().getOutput();
+		var merged = new AssistantMessage(text.toString(), message.getMetadata(), message.getToolCalls(),
+				message.getMedia());
+		return new ChatResponse(List.of(new Generation(merged, last.getResult().getMetadata())), last.getMetadata());
+	}
+
+}
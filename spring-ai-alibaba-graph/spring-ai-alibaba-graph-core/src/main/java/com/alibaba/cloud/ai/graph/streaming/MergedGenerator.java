@@ -0,0 +1,302 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.streaming;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Push-based merge of several generators. Every branch is drained on its own task of
+ * the given executor into a shared multi-producer single-consumer queue, so the consumer
+ * receives elements in arrival order and a slow branch never holds back the others.
+ *
+ * <p>
+ * Each branch may have at most {@code branchCapacity} elements waiting in the queue;
+ * beyond that its drainer waits for the consumer. Once all branches are done, their
+ * {@link Map} results are merged with the key strategies in declaration order.
+ * </p>
+ *
+ * <p>
+ * When a branch fails, or when the consumer gives up and {@link #close() closes} the
+ * generator, the branches are cancelled: their drainers are woken up and interrupted, and
+ * stop without draining their generators any further. The generators that are
+ * {@link AutoCloseable} are then closed.
+ * </p>
+ *
+ * @param <T> output type
+ */
+final class MergedGenerator<T> implements AsyncGenerator<T>, AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(MergedGenerator.class);
+
+	private record Signal(int branch, Data<?> data) {
+	}
+
+	private final class Branch implements Runnable {
+
+		private final int index;
+
+		private final AsyncGenerator<T> generator;
+
+		private final Semaphore permits;
+
+		// the thread draining the generator, guarded by this
+		private Thread runner;
+
+		private boolean cancelled;
+
+		private Branch(int index, AsyncGenerator<T> generator, int capacity) {
+			this.index = index;
+			this.generator = generator;
+			this.permits = new Semaphore(capacity);
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (cancelled) {
+					return;
+				}
+				runner = Thread.currentThread();
+			}
+			try {
+				drain();
+			}
+			finally {
+				synchronized (this) {
+					runner = null;
+					if (cancelled) {
+						// do not leak the cancellation to the next task of the pool thread
+						Thread.interrupted();
+					}
+				}
+			}
+		}
+
+		private void drain() {
+			try {
+				while (!closed) {
+					Data<T> data = generator.next();
+					if (data.isDone() || data.isError()) {
+						push(new Signal(index, data));
+						return;
+					}
+					if (data.data() != null) {
+						// wait for the element here, not on the consumer thread
+						data = Data.of(data.data().get());
+					}
+					permits.acquire();
+					if (closed) {
+						return;
+					}
+					push(new Signal(index, data));
+				}
+			}
+			catch (InterruptedException ex) {
+				if (!closed) {
+					Thread.currentThread().interrupt();
+					push(new Signal(index, Data.error(ex)));
+				}
+			}
+			catch (ExecutionException ex) {
+				push(new Signal(index, Data.error(ex.getCause() != null ? ex.getCause() : ex)));
+			}
+			catch (Throwable ex) {
+				push(new Signal(index, Data.error(ex)));
+			}
+		}
+
+		/**
+		 * Stops draining: wakes up the drainer if it waits for the consumer and
+		 * interrupts it if it waits for the generator.
+		 */
+		private synchronized void cancel() {
+			cancelled = true;
+			permits.release();
+			if (runner != null) {
+				runner.interrupt();
+			}
+		}
+
+	}
+
+	private final List<Branch> branches;
+
+	private final Map<String, KeyStrategy> keyStrategyMap;
+
+	private final Object[] results;
+
+	private final ConcurrentLinkedQueue<Signal> queue = new ConcurrentLinkedQueue<>();
+
+	private volatile Thread consumer;
+
+	private volatile boolean closed;
+
+	private int remaining;
+
+	private Data<T> end;
+
+	MergedGenerator(List<AsyncGenerator<T>> generators, Map<String, KeyStrategy> keyStrategyMap, Executor executor,
+			int branchCapacity) {
+		if (branchCapacity < 1) {
+			throw new IllegalArgumentException("branchCapacity must be at least 1");
+		}
+		this.keyStrategyMap = keyStrategyMap;
+		this.results = new Object[generators.size()];
+		this.remaining = generators.size();
+		this.branches = new ArrayList<>(generators.size());
+		for (int i = 0; i < generators.size(); i++) {
+			branches.add(new Branch(i, generators.get(i), branchCapacity));
+		}
+		for (Branch branch : branches) {
+			executor.execute(branch);
+		}
+	}
+
+	private void push(Signal signal) {
+		queue.offer(signal);
+		Thread waiting = consumer;
+		if (waiting != null) {
+			LockSupport.unpark(waiting);
+		}
+	}
+
+	/**
+	 * Waits for the next signal of a branch.
+	 * @return the signal, or {@code null} once the generator is closed
+	 */
+	private Signal take() throws InterruptedException {
+		Signal signal = queue.poll();
+		if (signal != null) {
+			return signal;
+		}
+		consumer = Thread.currentThread();
+		try {
+			while ((signal = queue.poll()) == null) {
+				if (closed) {
+					return null;
+				}
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+			return signal;
+		}
+		finally {
+			consumer = null;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Data<T> next() {
+		if (end != null) {
+			return end;
+		}
+		while (remaining > 0) {
+			Signal signal;
+			try {
+				signal = take();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return fail(ex);
+			}
+			if (signal == null || closed) {
+				end = Data.done();
+				return end;
+			}
+			Data<T> data = (Data<T>) signal.data();
+			if (data.isDone()) {
+				results[signal.branch()] = data.resultValue().orElse(null);
+				remaining--;
+			}
+			else if (data.isError()) {
+				close();
+				end = Data.done();
+				return data;
+			}
+			else {
+				branches.get(signal.branch()).permits.release();
+				return data;
+			}
+		}
+		end = Data.done(mergeResults());
+		return end;
+	}
+
+	private Data<T> fail(Throwable ex) {
+		close();
+		end = Data.done();
+		return Data.error(ex);
+	}
+
+	/**
+	 * Stops the merge: the branches are cancelled, their generators closed when they are
+	 * {@link AutoCloseable}, and {@link #next()} returns done from now on.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (Branch branch : branches) {
+			branch.cancel();
+		}
+		for (Branch branch : branches) {
+			if (branch.generator instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				}
+				catch (Exception ex) {
+					log.debug("Failed to close a merged generator: {}", ex.getMessage());
+				}
+			}
+		}
+		Thread waiting = consumer;
+		if (waiting != null) {
+			LockSupport.unpark(waiting);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> mergeResults() {
+		Map<String, Object> mergedResult = new HashMap<>();
+		for (Object result : results) {
+			if (result instanceof Map<?, ?> mapResult) {
+				mergedResult = OverAllState.updateState(mergedResult, (Map<String, Object>) mapResult,
+						keyStrategyMap);
+			}
+		}
+		return mergedResult;
+	}
+
+}
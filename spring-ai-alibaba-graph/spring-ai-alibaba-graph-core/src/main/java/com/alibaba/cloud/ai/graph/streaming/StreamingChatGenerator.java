@@ -20,20 +20,13 @@ import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
 import com.alibaba.cloud.ai.graph.async.FlowGenerator;
 import org.reactivestreams.FlowAdapters;
-import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.model.Generation;
 import reactor.core.publisher.Flux;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static java.util.Optional.ofNullable;
-
 /**
  * A generator interface for streaming chat responses in a reactive manner. It provides a
  * fluent API to configure and build a streaming generator that processes chat responses
@@ -54,6 +47,8 @@ public interface StreamingChatGenerator {
 
 		private OverAllState startingState;
 
+		private boolean finalResultOnly;
+
 		/**
 		 * Sets the mapping function that converts a ChatResponse into a Map result.
 		 * @param mapResult a function to transform the final chat response into a result
@@ -85,9 +80,22 @@ public interface StreamingChatGenerator {
 			return this;
 		}
 
+		/**
+		 * When set, the generator emits no {@link StreamingOutput} for the streamed
+		 * chunks and only completes with the mapped final result. Use it when the node
+		 * only needs the complete answer.
+		 * @param finalResultOnly whether to skip the intermediate outputs
+		 * @return the builder instance for method chaining
+		 */
+		public Builder finalResultOnly(boolean finalResultOnly) {
+			this.finalResultOnly = finalResultOnly;
+			return this;
+		}
+
 		/**
 		 * Builds and returns an instance of AsyncGenerator that processes chat responses.
-		 * The generator merges partial responses and maps them to final output.
+		 * The text of the partial responses is accumulated as it streams, and the merged
+		 * response is built once, when mapping the final output.
 		 * @param flux a Flux stream of ChatResponse objects
 		 * @return an AsyncGenerator that produces NodeOutput instances
 		 */
@@ -95,41 +103,15 @@ public interface StreamingChatGenerator {
 			Objects.requireNonNull(flux, "flux cannot be null");
 			Objects.requireNonNull(mapResult, "mapResult cannot be null");
 
-			var result = new AtomicReference<ChatResponse>(null);
-
-			Consumer<ChatResponse> mergeMessage = (response) -> {
-				result.updateAndGet(lastResponse -> {
-
-					if (lastResponse == null) {
-						return response;
-					}
-
-					var currentMessage = response.getResult().getOutput();
-
-					if (currentMessage.hasToolCalls()) {
-						return response;
-					}
-
-					var lastMessage = lastResponse.getResult().getOutput();
-
-					var newMessage = new AssistantMessage(
-							Objects.requireNonNull(ofNullable(currentMessage.getText()).map(text -> {
-								assert lastMessage.getText() != null;
-								return lastMessage.getText().concat(text);
-							}).orElse(lastMessage.getText())), currentMessage.getMetadata(),
-							currentMessage.getToolCalls(), currentMessage.getMedia());
-
-					var newGeneration = new Generation(newMessage, response.getResult().getMetadata());
-					return new ChatResponse(List.of(newGeneration), response.getMetadata());
-
-				});
-			};
+			var result = new ChatResponseAccumulator();
 
-			var processedFlux = flux.doOnNext(mergeMessage::accept)
-				.map(next -> new StreamingOutput(next.getResult().getOutput().getText(), startingNode, startingState));
+			Flux<StreamingOutput> processedFlux = finalResultOnly ? flux.doOnNext(result).thenMany(Flux.empty())
+					: flux.doOnNext(result)
+						.map(next -> new StreamingOutput(next.getResult().getOutput().getText(), startingNode,
+								startingState));
 
 			return FlowGenerator.fromPublisher(FlowAdapters.toFlowPublisher(processedFlux),
-					() -> mapResult.apply(result.get()));
+					() -> mapResult.apply(result.result()));
 		}
 
 	}
@@ -17,15 +17,26 @@ package com.alibaba.cloud.ai.graph;
 
 import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
 import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.streaming.AsyncGeneratorUtils;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.alibaba.cloud.ai.graph.utils.CollectionsUtils.listOf;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -150,4 +161,253 @@ public class AsyncTest {
 
 	}
 
+	@Test
+	public void asyncBoundedQueueBackpressureTest() throws Exception {
+
+		final int capacity = 2;
+		final AtomicInteger produced = new AtomicInteger();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		final AsyncGenerator<String> it = AsyncGeneratorQueue.bounded(capacity, queue -> {
+			try {
+				for (int i = 0; i < 10; ++i) {
+					queue.put(AsyncGenerator.Data.of(completedFuture("e" + i)));
+					produced.incrementAndGet();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}, executor);
+
+		// the producer cannot run ahead of the consumer by more than the capacity
+		Thread.sleep(200);
+		assertEquals(capacity, produced.get());
+
+		List<String> result = new ArrayList<>();
+		for (String i : it) {
+			result.add(i);
+		}
+
+		assertEquals(10, result.size());
+		assertEquals(10, produced.get());
+		executor.shutdown();
+	}
+
+	@Test
+	public void closingABoundedGeneratorCancelsTheWaitingProducer() throws Exception {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final AtomicBoolean cancelled = new AtomicBoolean();
+
+		final AsyncGenerator<String> it = AsyncGeneratorQueue.bounded(1, queue -> {
+			try {
+				for (int i = 0;; ++i) {
+					queue.put(AsyncGenerator.Data.of(completedFuture("e" + i)));
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			catch (CancellationException ex) {
+				cancelled.set(true);
+				throw ex;
+			}
+		}, executor);
+
+		assertEquals("e0", it.next().data().join());
+		// the queue is full again: the producer waits for the consumer
+		Thread.sleep(100);
+		assertFalse(it.next().isDone());
+		((AutoCloseable) it).close();
+
+		assertTrue(it.next().isDone());
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+		assertTrue(cancelled.get());
+	}
+
+	/**
+	 * A generator producing the given elements, then done with the given result.
+	 */
+	private static AsyncGenerator<String> generator(Object result, String... elements) {
+		return new AsyncGenerator<>() {
+
+			private int cursor = 0;
+
+			@Override
+			public Data<String> next() {
+				if (cursor == elements.length) {
+					return Data.done(result);
+				}
+				return Data.of(completedFuture(elements[cursor++]));
+			}
+		};
+	}
+
+	@Test
+	public void mergedGeneratorIsNotBlockedBySlowBranch() throws Exception {
+		var release = new CountDownLatch(1);
+		AsyncGenerator<String> slow = new AsyncGenerator<>() {
+
+			private boolean emitted;
+
+			@Override
+			public Data<String> next() {
+				if (emitted) {
+					return Data.done();
+				}
+				emitted = true;
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return Data.of(completedFuture("slow"));
+			}
+		};
+
+		var merged = AsyncGeneratorUtils.createMergedGenerator(List.of(slow, generator(null, "f1", "f2", "f3")),
+				Map.of());
+
+		// the fast branch streams while the slow one is still waiting
+		assertEquals(List.of("f1", "f2", "f3"),
+				List.of(merged.next().data().join(), merged.next().data().join(), merged.next().data().join()));
+		release.countDown();
+		assertEquals("slow", merged.next().data().join());
+		assertTrue(merged.next().isDone());
+	}
+
+	@Test
+	public void mergedGeneratorMergesResultsInOrder() throws Exception {
+		var merged = AsyncGeneratorUtils.createMergedGenerator(
+				List.of(generator(Map.of("messages", "first"), "a1", "a2"), generator(Map.of("messages", "second"), "b1")),
+				Map.of("messages", new AppendStrategy()));
+
+		List<String> elements = new ArrayList<>();
+		AsyncGenerator.Data<String> data;
+		while (!(data = merged.next()).isDone()) {
+			elements.add(data.data().join());
+		}
+
+		assertEquals(3, elements.size());
+		assertEquals(Map.of("messages", List.of("first", "second")), data.resultValue().orElseThrow());
+		// once done, the generator stays done
+		assertTrue(merged.next().isDone());
+	}
+
+	@Test
+	public void mergedGeneratorAppliesBranchBackpressure() throws Exception {
+		var produced = new AtomicInteger();
+		AsyncGenerator<String> endless = () -> {
+			produced.incrementAndGet();
+			return AsyncGenerator.Data.of(completedFuture("e"));
+		};
+
+		var executor = Executors.newCachedThreadPool();
+		try {
+			var merged = AsyncGeneratorUtils.createMergedGenerator(List.of(endless, generator(null)), Map.of(),
+					executor, 4);
+
+			Thread.sleep(200);
+			// the branch stops once 4 elements are pending, plus the one being offered
+			assertTrue(produced.get() <= 5, "produced " + produced.get());
+			merged.next();
+			Thread.sleep(100);
+			assertTrue(produced.get() <= 6, "produced " + produced.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void mergedGeneratorPropagatesBranchErrors() throws Exception {
+		AsyncGenerator<String> failing = () -> AsyncGenerator.Data.error(new IllegalStateException("boom"));
+
+		var merged = AsyncGeneratorUtils.createMergedGenerator(List.of(failing, generator(null, "ok")), Map.of());
+
+		AsyncGenerator.Data<String> data;
+		do {
+			data = merged.next();
+		}
+		while (!data.isError() && !data.isDone());
+		assertTrue(data.isError());
+		assertFalse(data.isDone());
+		assertTrue(merged.next().isDone());
+	}
+
+	@Test
+	public void mergedGeneratorCancelsOtherBranchesOnError() throws Exception {
+		AsyncGenerator<String> endless = () -> AsyncGenerator.Data.of(completedFuture("e"));
+		AsyncGenerator<String> stuck = () -> {
+			try {
+				new CountDownLatch(1).await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return AsyncGenerator.Data.done();
+		};
+		AsyncGenerator<String> failing = () -> AsyncGenerator.Data.error(new IllegalStateException("boom"));
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		var merged = AsyncGeneratorUtils.createMergedGenerator(List.of(endless, stuck, failing), Map.of(), executor,
+				1);
+		// the endless branch fills its capacity and waits for the consumer
+		Thread.sleep(200);
+
+		AsyncGenerator.Data<String> data;
+		do {
+			data = merged.next();
+		}
+		while (!data.isError());
+		assertTrue(merged.next().isDone());
+
+		// the blocked drainers are released, so every branch task terminates
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void closingAnAbandonedMergedGeneratorStopsItsDrainers() throws Exception {
+		AtomicBoolean sourceClosed = new AtomicBoolean();
+		class ClosableEndless implements AsyncGenerator<String>, AutoCloseable {
+
+			@Override
+			public AsyncGenerator.Data<String> next() {
+				return AsyncGenerator.Data.of(completedFuture("e"));
+			}
+
+			@Override
+			public void close() {
+				sourceClosed.set(true);
+			}
+
+		}
+		AsyncGenerator<String> stuck = () -> {
+			try {
+				new CountDownLatch(1).await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return AsyncGenerator.Data.done();
+		};
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		var merged = AsyncGeneratorUtils.createMergedGenerator(List.of(new ClosableEndless(), stuck), Map.of(),
+				executor, 1);
+		for (int i = 0; i < 3; i++) {
+			assertEquals("e", merged.next().data().join());
+		}
+
+		// the consumer gives up halfway: one drainer waits for it, the other for its source
+		((AutoCloseable) merged).close();
+		assertTrue(merged.next().isDone());
+		assertTrue(sourceClosed.get());
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+	}
+
 }
@@ -380,6 +380,8 @@ public class StateGraphMemorySaverTest {
 		assertEquals(END, results.get(2).node());
 		messages = (List<String>) results.get(0).state().value("messages").get();
 		assertTrue(!messages.isEmpty());
+		assertEquals("temperature in Napoli is 30 degree", messages.get(messages.size() - 1));
+		messages = (List<String>) results.get(2).state().value("messages").get();
 		assertEquals("whether in Naples is sunny", messages.get(messages.size() - 1));
 
 	}
@@ -20,6 +20,7 @@ import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
 import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.internal.node.Node;
 import com.alibaba.cloud.ai.graph.serializer.plain_text.PlainTextStateSerializer;
 import com.alibaba.cloud.ai.graph.state.*;
 import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
@@ -37,8 +38,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
@@ -47,8 +53,11 @@ import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
 import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -754,6 +763,170 @@ public class StateGraphTest {
 				(NamedExecutable) () -> app.invoke(Map.of(OverAllState.DEFAULT_INPUT_KEY, "test1")));
 	}
 
+	/**
+	 * Test that lifecycle listeners are notified in LIFO order, that a failing listener
+	 * does not prevent the others from being notified, and that asynchronous listeners
+	 * receive the same events in order, off the graph thread.
+	 */
+	@Test
+	public void testLifecycleListenerOrderAndAsyncListener() throws Exception {
+		StateGraph workflow = new StateGraph(() -> {
+			HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
+			keyStrategyHashMap.put("prop1", new ReplaceStrategy());
+			return keyStrategyHashMap;
+		}).addEdge(START, "agent_1")
+			.addNode("agent_1", node_async(state -> Map.of("prop1", "test")))
+			.addEdge("agent_1", END);
+
+		List<String> events = new CopyOnWriteArrayList<>();
+		List<String> asyncEvents = new CopyOnWriteArrayList<>();
+		Set<String> asyncThreads = ConcurrentHashMap.newKeySet();
+		var asyncListener = new AsyncGraphLifecycleListener(new GraphLifecycleListener() {
+			@Override
+			public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+				asyncThreads.add(Thread.currentThread().getName());
+				asyncEvents.add("start");
+			}
+
+			@Override
+			public void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+				asyncEvents.add("before:" + nodeId);
+			}
+
+			@Override
+			public void after(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+				asyncEvents.add("after:" + nodeId);
+			}
+
+			@Override
+			public void onComplete(String nodeId, Map<String, Object> state, RunnableConfig config) {
+				asyncEvents.add("complete");
+			}
+		});
+
+		CompiledGraph app = workflow
+			.compile(CompileConfig.builder().withLifecycleListener(new GraphLifecycleListener() {
+				@Override
+				public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+					events.add("listener1");
+				}
+			}).withLifecycleListener(new GraphLifecycleListener() {
+				@Override
+				public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+					events.add("listener2");
+					throw new IllegalStateException("listener failure");
+				}
+			}).withLifecycleListener(asyncListener).build());
+
+		app.invoke(Map.of());
+		asyncListener.close();
+
+		assertEquals(List.of("listener2", "listener1"), events);
+		assertEquals(List.of("start", "before:agent_1", "after:agent_1", "complete"), asyncEvents);
+		assertFalse(asyncThreads.contains(Thread.currentThread().getName()));
+		assertEquals(0, asyncListener.droppedEvents());
+	}
+
+	/**
+	 * Test that an asynchronous listener forwards the node action decoration to its
+	 * delegate after the node {@code before} was delivered, and that a scope opened on
+	 * start is closed on the same thread even when the run outlasts the keep alive.
+	 */
+	@Test
+	public void testAsyncListenerKeepsGraphScopeOnOneThread() throws Exception {
+		StateGraph workflow = new StateGraph(() -> Map.of("prop1", new ReplaceStrategy())).addEdge(START, "slow")
+			.addNode("slow", node_async(state -> {
+				Thread.sleep(300);
+				return Map.of("prop1", "test");
+			}))
+			.addEdge("slow", END);
+
+		ThreadLocal<String> scope = new ThreadLocal<>();
+		List<String> events = new CopyOnWriteArrayList<>();
+		var asyncListener = new AsyncGraphLifecycleListener(new GraphLifecycleListener() {
+			@Override
+			public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+				scope.set("graph");
+			}
+
+			@Override
+			public void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+				events.add("before:" + nodeId);
+			}
+
+			@Override
+			public <T> Supplier<T> wrapNodeAction(String nodeId, Supplier<T> action) {
+				events.add("wrap:" + nodeId);
+				return () -> {
+					events.add("run:" + nodeId);
+					return action.get();
+				};
+			}
+
+			@Override
+			public void onComplete(String nodeId, Map<String, Object> state, RunnableConfig config) {
+				events.add("complete:" + scope.get());
+				scope.remove();
+			}
+		}, AsyncGraphLifecycleListener.DEFAULT_BUFFER_SIZE, 50);
+
+		CompiledGraph app = workflow.compile(CompileConfig.builder().withLifecycleListener(asyncListener).build());
+		app.invoke(Map.of());
+		asyncListener.close();
+
+		assertEquals(List.of("before:slow", "wrap:slow", "run:slow", "complete:graph"), events);
+	}
+
+	@Test
+	public void testCompiledPlanIsReusedUntilGraphChanges() throws Exception {
+		AtomicInteger actionsCreated = new AtomicInteger();
+		KeyStrategyFactory keyStrategyFactory = () -> Map.of("route", new ReplaceStrategy(), "sub",
+				new ReplaceStrategy());
+		StateGraph subGraph = new StateGraph(keyStrategyFactory).addEdge(START, "sub")
+			.addNode("sub", node_async(state -> Map.of("sub", true)))
+			.addEdge("sub", END);
+		StateGraph workflow = new StateGraph(keyStrategyFactory).addEdge(START, "router")
+			.addNode("router", new Node("router", config -> {
+				actionsCreated.incrementAndGet();
+				return AsyncNodeActionWithConfig.node_async((state, c) -> Map.of());
+			}))
+			.addConditionalEdges("router", edge_async(state -> state.value("route", "end")),
+					Map.of("sub", "subgraph", "end", END))
+			.addNode("subgraph", subGraph)
+			.addEdge("subgraph", END);
+
+		CompileConfig config = CompileConfig.builder().build();
+		CompiledGraph first = workflow.compile(config);
+		GraphPlan plan = workflow.plan();
+		CompiledGraph second = workflow.compile(config);
+
+		assertSame(plan, workflow.plan());
+		// each compiled graph gets its own actions
+		assertEquals(2, actionsCreated.get());
+		assertTrue(second.invoke(Map.of("route", "sub")).orElseThrow().data().containsKey("sub"));
+		assertFalse(first.invoke(Map.of(), RunnableConfig.builder().threadId("other").build())
+			.orElseThrow()
+			.data()
+			.containsKey("sub"));
+
+		int router = plan.indexOf("router");
+		assertEquals(GraphPlan.NO_ROUTE, plan.successor(router));
+		assertEquals(SubGraphNode.formatId("subgraph", "sub"), plan.id(plan.route(router, "sub")));
+		assertEquals(END, plan.id(plan.route(router, "end")));
+		assertEquals(GraphPlan.NO_ROUTE, plan.route(router, "unknown"));
+
+		workflow.compile(CompileConfig.builder().build());
+		assertSame(plan, workflow.plan());
+		assertEquals(3, actionsCreated.get());
+
+		subGraph.addNode("unused", node_async(state -> Map.of()));
+		assertNotSame(plan, workflow.plan());
+		plan = workflow.plan();
+
+		workflow.addNode("other", node_async(state -> Map.of()));
+		assertNotSame(plan, workflow.plan());
+	}
+
 	@Test
 	public void testCommandEdgeGraph() throws Exception {
 		StateGraph workflow = new StateGraph(
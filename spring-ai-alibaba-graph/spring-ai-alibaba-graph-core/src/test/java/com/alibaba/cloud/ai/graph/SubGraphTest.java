@@ -20,6 +20,7 @@ import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.constant.SaverConstant;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
 import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -388,6 +389,64 @@ public class SubGraphTest {
 
 	}
 
+	/**
+	 * Test subgraphs starting with and routing to parallel branches.
+	 */
+	@Test
+	public void testMergeSubgraphWithParallelBranches() throws Exception {
+
+		var workflowChild = new StateGraph().addNode("B1", _makeNode("B1"))
+			.addNode("B2", _makeNode("B2"))
+			.addNode("B3", _makeNode("B3"))
+			.addEdge(START, "B1")
+			.addEdge(START, "B2")
+			.addEdge("B1", "B3")
+			.addEdge("B2", "B3")
+			.addEdge("B3", END);
+
+		var workflowParent = new StateGraph(createKeyStrategyFactory()).addNode("A", _makeNode("A"))
+			.addNode("B", workflowChild)
+			.addNode("C1", _makeNode("C1"))
+			.addNode("C2", _makeNode("C2"))
+			.addNode("D", _makeNode("D"))
+			.addEdge(START, "A")
+			.addEdge("A", "B")
+			.addEdge("B", "C1")
+			.addEdge("B", "C2")
+			.addEdge("C1", "D")
+			.addEdge("C2", "D")
+			.addEdge("D", END);
+
+		var B_START = SubGraphNode.formatId("B", START);
+		var B_B3 = SubGraphNode.formatId("B", "B3");
+		var B_END = SubGraphNode.formatId("B", END);
+
+		SaverConfig saver = SaverConfig.builder().register(SaverConstant.MEMORY, new MemorySaver()).build();
+
+		var app = workflowParent.compile(CompileConfig.builder().saverConfig(saver).build());
+
+		assertIterableEquals(List.of(START, "A", B_START, ParallelNode.formatId(B_START), B_B3, B_END,
+				ParallelNode.formatId(B_END), "D", END), _execute(app, Map.of()));
+
+		var state = app.invoke(Map.of(), RunnableConfig.builder().threadId("parallel").build()).orElseThrow();
+		assertIterableEquals(List.of("A", "B1", "B2", "B3", "C1", "C2", "D"),
+				(List<String>) state.value("messages").orElseThrow());
+
+		// INTERRUPT BEFORE SUBGRAPH B
+		var interruptBeforeSubgraphB = workflowParent
+			.compile(CompileConfig.builder().saverConfig(saver).interruptBefore("B").build());
+		assertIterableEquals(List.of(START, "A"), _execute(interruptBeforeSubgraphB, Map.of()));
+
+		// RESUME BEFORE SUBGRAPH B
+		assertIterableEquals(List.of(B_START, ParallelNode.formatId(B_START), B_B3, B_END,
+				ParallelNode.formatId(B_END), "D", END), _execute(interruptBeforeSubgraphB, null));
+
+		// INTERRUPT AFTER SUBGRAPH B
+		var exception = assertThrows(GraphStateException.class,
+				() -> workflowParent.compile(CompileConfig.builder().saverConfig(saver).interruptAfter("B").build()));
+		assertEquals("'interruption after' on subgraph is not supported yet!", exception.getMessage());
+	}
+
 	/**
 	 * Test checkpointing behavior with subgraphs involved.
 	 */
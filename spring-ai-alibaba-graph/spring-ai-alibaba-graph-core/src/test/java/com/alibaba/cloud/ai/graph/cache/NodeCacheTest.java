@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.cache;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeCacheTest {
+
+	private static CompiledGraph cachedGraph(AtomicInteger calls, NodeCachePolicy policy, CompileConfig config)
+			throws Exception {
+		return cachedGraph(null, calls, policy, config);
+	}
+
+	private static CompiledGraph cachedGraph(String name, AtomicInteger calls, NodeCachePolicy policy,
+			CompileConfig config) throws Exception {
+		return new StateGraph(name, () -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put("input", new ReplaceStrategy());
+			keyStrategyMap.put("other", new ReplaceStrategy());
+			keyStrategyMap.put("output", new ReplaceStrategy());
+			return keyStrategyMap;
+		}).addNode("upper", node_async(state -> {
+			calls.incrementAndGet();
+			return Map.of("output", state.value("input", "").toUpperCase());
+		}), policy).addEdge(START, "upper").addEdge("upper", END).compile(config);
+	}
+
+	private static Object output(CompiledGraph app, Map<String, Object> inputs) throws Exception {
+		return app.invoke(inputs).orElseThrow().value("output").orElseThrow();
+	}
+
+	@Test
+	public void sameInputsHitTheCache() throws Exception {
+		var calls = new AtomicInteger();
+		var meterRegistry = new SimpleMeterRegistry();
+		var policy = NodeCachePolicy.builder().inputKeys("input").build();
+		var app = cachedGraph(calls, policy, CompileConfig.builder().meterRegistry(meterRegistry).build());
+
+		assertEquals("A", output(app, Map.of("input", "a")));
+		// keys outside the declared inputs do not take part in the cache key
+		assertEquals("A", output(app, Map.of("input", "a", "other", "x")));
+		assertEquals("B", output(app, Map.of("input", "b")));
+
+		assertEquals(2, calls.get());
+		assertEquals(1,
+				meterRegistry.get(CachedNodeAction.CACHE_METRIC)
+					.tag("node", "upper")
+					.tag("result", "hit")
+					.counter()
+					.count());
+		assertEquals(2,
+				meterRegistry.get(CachedNodeAction.CACHE_METRIC)
+					.tag("node", "upper")
+					.tag("result", "miss")
+					.counter()
+					.count());
+	}
+
+	@Test
+	public void cacheIsSharedByCompiledGraphs() throws Exception {
+		var calls = new AtomicInteger();
+		var policy = NodeCachePolicy.builder().inputKeys("input").build();
+
+		assertEquals("A", output(cachedGraph(calls, policy, CompileConfig.builder().build()), Map.of("input", "a")));
+		assertEquals("A", output(cachedGraph(calls, policy, CompileConfig.builder().build()), Map.of("input", "a")));
+
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void sharedCacheIsNamespacedByGraph() throws Exception {
+		var calls = new AtomicInteger();
+		var cache = new MemoryNodeCache();
+		var policy = NodeCachePolicy.builder().cache(cache).inputKeys("input").build();
+
+		output(cachedGraph("first", calls, policy, CompileConfig.builder().build()), Map.of("input", "a"));
+		output(cachedGraph("second", calls, policy, CompileConfig.builder().build()), Map.of("input", "a"));
+		output(cachedGraph("first", calls, policy, CompileConfig.builder().build()), Map.of("input", "a"));
+
+		assertEquals(2, calls.get());
+		assertEquals(2, cache.size());
+		assertThrows(IllegalArgumentException.class,
+				() -> cachedGraph(calls, policy, CompileConfig.builder().build()));
+		var namespaced = NodeCachePolicy.builder().cache(cache).namespace("ns").inputKeys("input").build();
+		output(cachedGraph(calls, namespaced, CompileConfig.builder().build()), Map.of("input", "a"));
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	public void wholeStateIsHashedWithoutInputKeys() throws Exception {
+		var calls = new AtomicInteger();
+		var app = cachedGraph(calls, NodeCachePolicy.builder().build(), CompileConfig.builder().build());
+
+		output(app, Map.of("input", "a", "other", "x"));
+		output(app, Map.of("input", "a", "other", "x"));
+		output(app, Map.of("input", "a", "other", "y"));
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void expiredResultsAreRecomputed() throws Exception {
+		var calls = new AtomicInteger();
+		var policy = NodeCachePolicy.builder().inputKeys("input").ttl(Duration.ofMillis(50)).build();
+		var app = cachedGraph(calls, policy, CompileConfig.builder().build());
+
+		output(app, Map.of("input", "a"));
+		output(app, Map.of("input", "a"));
+		assertEquals(1, calls.get());
+
+		Thread.sleep(100);
+		output(app, Map.of("input", "a"));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void memoryCacheEvictsLeastRecentlyUsed() {
+		var cache = new MemoryNodeCache(2);
+
+		cache.put("a", Map.of("v", 1), null);
+		cache.put("b", Map.of("v", 2), null);
+		assertTrue(cache.get("a").isPresent());
+		cache.put("c", Map.of("v", 3), null);
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.get("a").isPresent());
+		assertFalse(cache.get("b").isPresent());
+		assertTrue(cache.get("c").isPresent());
+	}
+
+}
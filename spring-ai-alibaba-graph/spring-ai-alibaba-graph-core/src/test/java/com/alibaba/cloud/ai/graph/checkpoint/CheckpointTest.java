@@ -19,7 +19,10 @@ import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,6 +33,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CheckpointTest {
 
@@ -80,4 +84,44 @@ public class CheckpointTest {
 		assertEquals(count, size, "Checkpoint Lost during concurrency");
 	}
 
+	@Test
+	public void retentionKeepsTheLatestCheckpoints() throws Exception {
+		var memorySaver = MemorySaver.builder().maxCheckpointsPerThread(3).build();
+		var config = RunnableConfig.builder().threadId("thread-1").build();
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 5; i++) {
+			var checkpoint = Checkpoint.builder().nodeId("node" + i).nextNodeId("next").state(Map.of("step", i)).build();
+			ids.add(checkpoint.getId());
+			memorySaver.put(config, checkpoint);
+		}
+
+		assertEquals(List.of(ids.get(4), ids.get(3), ids.get(2)),
+				memorySaver.list(config).stream().map(Checkpoint::getId).toList());
+		assertEquals(ids.get(4), memorySaver.get(config).orElseThrow().getId());
+		assertEquals(ids.get(2),
+				memorySaver.get(RunnableConfig.builder(config).checkPointId(ids.get(2)).build()).orElseThrow().getId());
+		assertTrue(memorySaver.get(RunnableConfig.builder(config).checkPointId(ids.get(1)).build()).isEmpty());
+
+		var replacement = Checkpoint.builder().nodeId("replaced").nextNodeId("next").state(Map.of("step", 3)).build();
+		memorySaver.put(RunnableConfig.builder(config).checkPointId(ids.get(3)).build(), replacement);
+		assertEquals("replaced", memorySaver.get(RunnableConfig.builder(config).checkPointId(replacement.getId()).build())
+			.orElseThrow()
+			.getNodeId());
+		assertTrue(memorySaver.get(RunnableConfig.builder(config).checkPointId(ids.get(3)).build()).isEmpty());
+		assertEquals(3, memorySaver.list(config).size());
+	}
+
+	@Test
+	public void expiredCheckpointsAreEvictedButTheLatest() throws Exception {
+		var memorySaver = MemorySaver.builder().maxAge(Duration.ofMillis(50)).build();
+		var config = RunnableConfig.builder().threadId("thread-1").build();
+		memorySaver.put(config, Checkpoint.builder().nodeId("first").nextNodeId("next").state(Map.of()).build());
+		memorySaver.put(config, Checkpoint.builder().nodeId("second").nextNodeId("next").state(Map.of()).build());
+		assertEquals(2, memorySaver.list(config).size());
+
+		Thread.sleep(100);
+
+		assertEquals(List.of("second"), memorySaver.list(config).stream().map(Checkpoint::getNodeId).toList());
+	}
+
 }
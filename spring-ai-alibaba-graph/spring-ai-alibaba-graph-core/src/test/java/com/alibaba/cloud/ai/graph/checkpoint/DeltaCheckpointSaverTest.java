@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.DeltaCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.state.StateSnapshot;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static com.alibaba.cloud.ai.graph.checkpoint.constant.SaverConstant.MEMORY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeltaCheckpointSaverTest {
+
+	private final KeyStrategyFactory keyStrategyFactory = () -> {
+		Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+		keyStrategyMap.put("messages", new AppendStrategy());
+		keyStrategyMap.put("steps", new ReplaceStrategy());
+		keyStrategyMap.put("document", new ReplaceStrategy());
+		return keyStrategyMap;
+	};
+
+	private StateGraph workflow() throws Exception {
+		return new StateGraph(keyStrategyFactory).addNode("agent", node_async(state -> {
+			int steps = (int) state.value("steps").orElse(0) + 1;
+			return Map.of("messages", "step " + steps, "steps", steps);
+		}))
+			.addEdge(START, "agent")
+			.addConditionalEdges("agent", edge_async(state -> (int) state.value("steps").orElse(0) < 7 ? "agent" : END),
+					Map.of("agent", "agent", END, END));
+	}
+
+	private CompiledGraph compile(BaseCheckpointSaver saver) throws Exception {
+		return workflow().compile(CompileConfig.builder()
+			.saverConfig(SaverConfig.builder().register(MEMORY, saver).type(MEMORY).build())
+			.build());
+	}
+
+	private static List<Map<String, Object>> history(CompiledGraph app, RunnableConfig config) {
+		return app.getStateHistory(config).stream().map(StateSnapshot::state).map(s -> s.data()).toList();
+	}
+
+	@Test
+	public void historyMatchesFullCheckpoints() throws Exception {
+		var config = RunnableConfig.builder().threadId("thread_1").build();
+		var inputs = Map.<String, Object>of("messages", "hello", "document", "a large unchanged value");
+
+		var fullApp = compile(new MemorySaver());
+		fullApp.invoke(inputs, config);
+
+		var delegate = new MemorySaver();
+		var deltaApp = compile(new DeltaCheckpointSaver(delegate, workflow().getStateSerializer(), 3));
+		deltaApp.invoke(inputs, config);
+
+		assertEquals(history(fullApp, config), history(deltaApp, config));
+		assertEquals(fullApp.getState(config).state().data(), deltaApp.getState(config).state().data());
+
+		var stored = List.copyOf(delegate.list(config));
+		assertEquals(8, stored.size());
+		for (int i = 0; i < stored.size(); i++) {
+			Checkpoint checkpoint = stored.get(stored.size() - 1 - i);
+			if (i % 3 == 0) {
+				assertNull(checkpoint.getParentId());
+				assertTrue(checkpoint.getState().containsKey("document"));
+			}
+			else {
+				assertEquals(stored.get(stored.size() - i).getId(), checkpoint.getParentId());
+				assertFalse(checkpoint.getState().containsKey("document"));
+			}
+		}
+	}
+
+	@Test
+	public void pastCheckpointsAreReplayedById() throws Exception {
+		var config = RunnableConfig.builder().threadId("thread_1").build();
+		var inputs = Map.<String, Object>of("messages", "hello");
+
+		var saver = new DeltaCheckpointSaver(new MemorySaver(), workflow().getStateSerializer(), 3);
+		compile(saver).invoke(inputs, config);
+
+		// the whole history is replayed by list, each checkpoint only up to its snapshot
+		for (Checkpoint checkpoint : saver.list(config)) {
+			var byId = RunnableConfig.builder(config).checkPointId(checkpoint.getId()).build();
+			assertEquals(checkpoint.getState(), saver.get(byId).orElseThrow().getState());
+		}
+	}
+
+	@Test
+	public void replacingACheckpointKeepsLaterStates() throws Exception {
+		var config = RunnableConfig.builder().threadId("thread_1").build();
+		var delegate = new MemorySaver();
+		var app = compile(new DeltaCheckpointSaver(delegate, workflow().getStateSerializer()));
+		app.invoke(Map.of("messages", "hello"), config);
+
+		var before = history(app, config);
+		var past = List.copyOf(app.getStateHistory(config)).get(4);
+		app.updateState(past.config(), Map.of("document", "edited"));
+
+		var after = history(app, config);
+		assertEquals("edited", after.get(4).get("document"));
+		for (int i = 0; i < after.size(); i++) {
+			if (i != 4) {
+				assertEquals(before.get(i), after.get(i));
+			}
+		}
+	}
+
+	/**
+	 * A list that counts how many times it is compared.
+	 */
+	public static class CountingList extends ArrayList<String> {
+
+		int comparisons;
+
+		@Override
+		public boolean equals(Object o) {
+			comparisons++;
+			return super.equals(o);
+		}
+
+		@Override
+		public int hashCode() {
+			return super.hashCode();
+		}
+
+	}
+
+	@Test
+	public void valuesPutAgainAreNotComparedByEquals() throws Exception {
+		var config = RunnableConfig.builder().threadId("thread_1").build();
+		var delegate = new MemorySaver();
+		var saver = new DeltaCheckpointSaver(delegate, workflow().getStateSerializer());
+		var document = new CountingList();
+		document.add("a large unchanged value");
+
+		saver.put(config, Checkpoint.builder().nodeId("agent").state(Map.of("document", document, "steps", 1)).build());
+		saver.put(config, Checkpoint.builder().nodeId("agent").state(Map.of("document", document, "steps", 2)).build());
+
+		assertEquals(0, document.comparisons);
+		var latest = delegate.get(config).orElseThrow();
+		assertEquals(Map.of("steps", 2), latest.getState());
+		assertEquals(List.of("a large unchanged value"), saver.get(config).orElseThrow().getState().get("document"));
+	}
+
+	@Test
+	public void deltasOfEvictedSnapshotsAreRebased() throws Exception {
+		var config = RunnableConfig.builder().threadId("thread_1").build();
+		var inputs = Map.<String, Object>of("messages", "hello");
+
+		var fullApp = compile(new MemorySaver());
+		fullApp.invoke(inputs, config);
+
+		var delegate = MemorySaver.builder().maxCheckpointsPerThread(4).build();
+		var deltaApp = compile(new DeltaCheckpointSaver(delegate, workflow().getStateSerializer(), 3));
+		deltaApp.invoke(inputs, config);
+
+		// the 4 newest checkpoints are stored; the deltas of the evicted snapshot were
+		// rebased onto it, so all of them can be replayed
+		assertEquals(4, delegate.list(config).size());
+		assertEquals(history(fullApp, config).subList(0, 4), history(deltaApp, config));
+		assertEquals(fullApp.getState(config).state().data(), deltaApp.getState(config).state().data());
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.checkpoint;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.FileSystemSaver;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileSystemSaverTest {
+
+	@TempDir
+	Path folder;
+
+	private final RunnableConfig config = RunnableConfig.builder().threadId("thread_1").build();
+
+	private FileSystemSaver newSaver(FileSystemSaver.FsyncPolicy fsyncPolicy) {
+		return FileSystemSaver.builder()
+			.targetFolder(folder)
+			.stateSerializer(new StateGraph().getStateSerializer())
+			.fsyncPolicy(fsyncPolicy)
+			.build();
+	}
+
+	private static Checkpoint checkpoint(String nodeId, int step) {
+		return Checkpoint.builder().nodeId(nodeId).nextNodeId("next").state(Map.of("step", step)).build();
+	}
+
+	/**
+	 * Writes a checkpoint in the byte layout of the former format: id, node id, next node
+	 * id and state, without a version.
+	 */
+	private static void writeLegacy(Checkpoint checkpoint, ObjectOutputStream out) throws IOException {
+		StateSerializer stateSerializer = new StateGraph().getStateSerializer();
+		out.writeUTF(checkpoint.getId());
+		out.writeByte(1);
+		out.writeUTF(checkpoint.getNodeId());
+		out.writeByte(1);
+		out.writeUTF(checkpoint.getNextNodeId());
+		stateSerializer.write((OverAllState) stateSerializer.stateFactory().apply(checkpoint.getState()), out);
+	}
+
+	private static List<String> ids(FileSystemSaver saver, RunnableConfig config) {
+		return saver.list(config).stream().map(Checkpoint::getId).toList();
+	}
+
+	@Test
+	public void checkpointsSurviveReopening() throws Exception {
+		List<String> expected = new ArrayList<>();
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.PER_WRITE)) {
+			for (int i = 0; i < 5; i++) {
+				Checkpoint checkpoint = checkpoint("node" + i, i);
+				saver.put(config, checkpoint);
+				expected.add(0, checkpoint.getId());
+			}
+			assertEquals(expected, ids(saver, config));
+		}
+
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			assertEquals(expected, ids(saver, config));
+			Checkpoint latest = saver.get(config).orElseThrow();
+			assertEquals(expected.get(0), latest.getId());
+			assertEquals("node4", latest.getNodeId());
+			assertEquals("next", latest.getNextNodeId());
+
+			var oldest = saver.get(RunnableConfig.builder(config).checkPointId(expected.get(4)).build()).orElseThrow();
+			assertEquals(0, oldest.getState().get("step"));
+			assertFalse(saver.get(RunnableConfig.builder().threadId("missing").build()).isPresent());
+		}
+	}
+
+	@Test
+	public void replacedCheckpointsKeepTheirPositionAndAreCompacted() throws Exception {
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.BATCHED)) {
+			List<RunnableConfig> configs = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				configs.add(saver.put(config, checkpoint("node" + i, i)));
+			}
+			List<String> ids = ids(saver, config);
+
+			var replaced = saver.get(configs.get(0)).orElseThrow();
+			saver.put(configs.get(0), new Checkpoint(replaced).setState(Map.of("step", 42)));
+			long before = Files.size(folder.resolve("thread-thread_1.saver"));
+			saver.compact(config);
+			long after = Files.size(folder.resolve("thread-thread_1.saver"));
+
+			assertTrue(after < before);
+			assertEquals(ids, ids(saver, config));
+			assertEquals(42, saver.get(configs.get(0)).orElseThrow().getState().get("step"));
+			assertThrows(Exception.class, () -> saver.put(RunnableConfig.builder(config).checkPointId("missing").build(),
+					checkpoint("node", 0)));
+		}
+
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			assertEquals(3, saver.list(config).size());
+			assertEquals(42, saver.list(config).stream().toList().get(2).getState().get("step"));
+		}
+	}
+
+	@Test
+	public void tornRecordIsDiscarded() throws Exception {
+		String first;
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.ASYNC)) {
+			first = saver.put(config, checkpoint("node0", 0)).checkPointId().orElseThrow();
+			saver.put(config, checkpoint("node1", 1));
+		}
+		Path file = folder.resolve("thread-thread_1.saver");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			assertEquals(List.of(first), ids(saver, config));
+			saver.put(config, checkpoint("node2", 2));
+			assertEquals("node2", saver.get(config).orElseThrow().getNodeId());
+		}
+	}
+
+	@Test
+	public void legacyFileIsMigratedToALog() throws Exception {
+		Checkpoint oldest = checkpoint("node0", 0);
+		Checkpoint newest = checkpoint("node1", 1);
+		Path file = folder.resolve("thread-thread_1.saver");
+		// former format: the count, then the checkpoints from the newest to the oldest
+		try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(file))) {
+			oos.writeInt(2);
+			writeLegacy(newest, oos);
+			writeLegacy(oldest, oos);
+		}
+
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			assertEquals(List.of(newest.getId(), oldest.getId()), ids(saver, config));
+			assertEquals("node1", saver.get(config).orElseThrow().getNodeId());
+			assertTrue(Files.exists(folder.resolve("thread-thread_1.saver.legacy")));
+			saver.put(config, checkpoint("node2", 2));
+		}
+
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			assertEquals(3, saver.list(config).size());
+			assertEquals("node2", saver.get(config).orElseThrow().getNodeId());
+			var migrated = saver.get(RunnableConfig.builder(config).checkPointId(oldest.getId()).build());
+			assertEquals(0, migrated.orElseThrow().getState().get("step"));
+		}
+	}
+
+	@Test
+	public void releaseMovesTheFileToABackup() throws Exception {
+		try (var saver = newSaver(FileSystemSaver.FsyncPolicy.NONE)) {
+			saver.put(config, checkpoint("node0", 0));
+
+			var tag = saver.release(config);
+
+			assertEquals(1, tag.checkpoints().size());
+			assertTrue(Files.exists(folder.resolve("thread-thread_1-v1.saver")));
+			assertTrue(saver.list(config).isEmpty());
+			assertFalse(saver.clear(config));
+		}
+	}
+
+}
@@ -17,19 +17,21 @@ package com.alibaba.cloud.ai.graph.checkpoint;
 
 import com.alibaba.cloud.ai.graph.RunnableConfig;
 import com.alibaba.cloud.ai.graph.checkpoint.savers.RedisSaver;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.redisson.config.Config;
-import org.testcontainers.containers.GenericContainer;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.utility.DockerImageName;
+import redis.embedded.RedisServer;
 
+import java.io.IOException;
+import java.net.ServerSocket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -42,37 +44,42 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@Testcontainers
 class RedisSaverTest {
 
-	// 使用较为稳定的版本
-
+	static RedisServer redisServer;
 	static RedissonClient redisson;
 	static RedisSaver redisSaver;
 
-	@Container
-	private static final GenericContainer<?> redisContainer = new GenericContainer<>(
-			DockerImageName.parse("valkey/valkey:8.1.2"))
-		.withExposedPorts(6379); // #gitleaks:allow
-
 	@BeforeAll
-	static void setup() {
-		redisContainer.start();
-		// 本地单机 Redis，测试环境需保证 6379 端口可用
+	static void setup() throws IOException {
+		// 使用内嵌 Redis，在空闲端口上启动，无需 Docker
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		redisServer = new RedisServer(port);
+		redisServer.start();
 		Config config = new Config();
-		config.useSingleServer()
-			.setAddress("redis://" + redisContainer.getHost() + ":" + redisContainer.getMappedPort(6379));
+		config.useSingleServer().setAddress("redis://127.0.0.1:" + port);
 		redisson = Redisson.create(config);
 		redisSaver = new RedisSaver(redisson);
 	}
 
 	@AfterAll
-	static void tearDown() {
+	static void tearDown() throws IOException {
 		if (redisson != null) {
 			redisson.shutdown();
 		}
+		if (redisServer != null) {
+			redisServer.stop();
+		}
+	}
+
+	private static Checkpoint checkpoint(String id, String data) {
+		return Checkpoint.builder().id(id).state(Map.of("data", data)).nodeId("node1").nextNodeId("node2").build();
 	}
 
 	@Test
@@ -224,4 +231,69 @@ class RedisSaverTest {
 		// assertEquals(count, size, "Checkpoint Lost during concurrency");
 	}
 
+	@Test
+	void concurrentPutsOnTheSameThreadAreNotLost() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("test-thread-" + UUID.randomUUID()).build();
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		int count = 200;
+		var futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < count; i++) {
+			String id = "cp" + i;
+			futures.add(executorService.submit(() -> redisSaver.put(config, checkpoint(id, id))));
+		}
+		for (var future : futures) {
+			future.get(10, TimeUnit.SECONDS);
+		}
+		executorService.shutdown();
+
+		List<Checkpoint> list = (List<Checkpoint>) redisSaver.list(config);
+		assertEquals(count, list.size());
+		assertEquals(list.get(0).getId(), redisSaver.get(config).orElseThrow().getId());
+	}
+
+	@Test
+	void testReplaceWithNewIdKeepsPosition() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("test-thread-" + UUID.randomUUID()).build();
+		redisSaver.put(config, checkpoint("cp1", "data1"));
+		redisSaver.put(config, checkpoint("cp2", "data2"));
+
+		RunnableConfig configWithId = RunnableConfig.builder(config).checkPointId("cp2").build();
+		redisSaver.put(configWithId, checkpoint("cp2b", "data2b"));
+
+		List<Checkpoint> list = (List<Checkpoint>) redisSaver.list(config);
+		assertEquals(List.of("cp2b", "cp1"), list.stream().map(Checkpoint::getId).toList());
+		assertEquals("cp2b", redisSaver.get(config).orElseThrow().getId());
+		assertThrows(Exception.class, () -> redisSaver.put(configWithId, checkpoint("cp3", "data3")));
+	}
+
+	@Test
+	void testLegacyThreadIsMigrated() throws Exception {
+		String threadId = "test-thread-" + UUID.randomUUID();
+		RunnableConfig config = RunnableConfig.builder().threadId(threadId).build();
+		String legacy = new ObjectMapper()
+			.writeValueAsString(List.of(checkpoint("cp2", "data2"), checkpoint("cp1", "data1")));
+		redisson.getBucket("graph:checkpoint:content:" + threadId, StringCodec.INSTANCE).set(legacy);
+
+		redisSaver.put(config, checkpoint("cp3", "data3"));
+
+		List<Checkpoint> list = (List<Checkpoint>) redisSaver.list(config);
+		assertEquals(List.of("cp3", "cp2", "cp1"), list.stream().map(Checkpoint::getId).toList());
+		assertEquals("data1", list.get(2).getState().get("data"));
+	}
+
+	@Test
+	void testLegacyKeyIsLookedUpOncePerThread() throws Exception {
+		String threadId = "test-thread-" + UUID.randomUUID();
+		RunnableConfig config = RunnableConfig.builder().threadId(threadId).build();
+		RedisSaver saver = new RedisSaver(redisson);
+		assertTrue(saver.get(config).isEmpty());
+
+		String legacy = new ObjectMapper().writeValueAsString(List.of(checkpoint("cp1", "data1")));
+		redisson.getBucket("graph:checkpoint:content:" + threadId, StringCodec.INSTANCE).set(legacy);
+
+		// this saver already found the thread empty, a new one migrates it
+		assertTrue(saver.list(config).isEmpty());
+		assertEquals("cp1", new RedisSaver(redisson).get(config).orElseThrow().getId());
+	}
+
 }
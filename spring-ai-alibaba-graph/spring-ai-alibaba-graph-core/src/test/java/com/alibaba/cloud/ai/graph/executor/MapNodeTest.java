@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.constant.SaverConstant;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.internal.node.MapNode;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapNodeTest {
+
+	private static StateGraph mapGraph(MapNode.Builder mapNode, NodeActionWithConfig action) throws Exception {
+		return new StateGraph(() -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put("items", new ReplaceStrategy());
+			keyStrategyMap.put("results", new AppendStrategy());
+			keyStrategyMap.put("errors", new ReplaceStrategy());
+			return keyStrategyMap;
+		}).addNode("map",
+				mapNode.itemsKey("items").itemKey("item").outputKey("results").action(node_async(action)).build("map"))
+			.addEdge(START, "map")
+			.addEdge("map", END);
+	}
+
+	private static NodeActionWithConfig upperCase() {
+		return (state, config) -> Map.of("results", state.value("item", "").toUpperCase());
+	}
+
+	@Test
+	public void resultsAreReducedInItemOrder() throws Exception {
+		NodeActionWithConfig slowFirst = (state, config) -> {
+			String item = state.value("item", "");
+			if (item.equals("a")) {
+				Thread.sleep(100);
+			}
+			return Map.of("results", item.toUpperCase());
+		};
+
+		var state = mapGraph(MapNode.builder(), slowFirst).compile()
+			.invoke(Map.of("items", List.of("a", "b", "c")))
+			.orElseThrow();
+
+		assertEquals(List.of("A", "B", "C"), state.value("results").orElseThrow());
+	}
+
+	@Test
+	public void maxConcurrencyLimitsRunningItems() throws Exception {
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+		NodeActionWithConfig tracked = (state, config) -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return Map.of("results", state.value("item", ""));
+		};
+
+		var state = mapGraph(MapNode.builder().maxConcurrency(2), tracked).compile()
+			.invoke(Map.of("items", List.of("a", "b", "c", "d", "e")))
+			.orElseThrow();
+
+		assertEquals(List.of("a", "b", "c", "d", "e"), state.value("results").orElseThrow());
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	public void itemOutputsAreStreamed() throws Exception {
+		var nodes = mapGraph(MapNode.builder().maxConcurrency(1), upperCase()).compile()
+			.stream(Map.of("items", List.of("a", "b")))
+			.stream()
+			.map(NodeOutput::node)
+			.toList();
+
+		assertEquals(List.of(START, MapNode.formatItemId("map", 0), MapNode.formatItemId("map", 1), "map", END),
+				nodes);
+	}
+
+	@Test
+	public void failedItemsAreRecordedWithErrorsKey() throws Exception {
+		NodeActionWithConfig failing = (state, config) -> {
+			String item = state.value("item", "");
+			if (item.equals("b")) {
+				throw new IllegalStateException("cannot map b");
+			}
+			return Map.of("results", item.toUpperCase());
+		};
+
+		var state = mapGraph(MapNode.builder().errorsKey("errors"), failing).compile()
+			.invoke(Map.of("items", List.of("a", "b", "c")))
+			.orElseThrow();
+
+		assertEquals(List.of("A", "C"), state.value("results").orElseThrow());
+		assertEquals(List.of(Map.of("index", 1, "error", "cannot map b")), state.value("errors").orElseThrow());
+	}
+
+	@Test
+	public void failedItemFailsNodeWithoutErrorsKey() throws Exception {
+		NodeActionWithConfig failing = (state, config) -> {
+			throw new IllegalStateException("cannot map");
+		};
+
+		var app = mapGraph(MapNode.builder(), failing).compile();
+
+		assertThrows(Exception.class, () -> app.invoke(Map.of("items", List.of("a"))));
+	}
+
+	@Test
+	public void resumeRunsOnlyUncompletedItems() throws Exception {
+		var runs = new ConcurrentHashMap<String, AtomicInteger>();
+		var failC = new AtomicInteger(1);
+		NodeActionWithConfig counted = (state, config) -> {
+			String item = state.value("item", "");
+			runs.computeIfAbsent(item, k -> new AtomicInteger()).incrementAndGet();
+			if (item.equals("c") && failC.getAndDecrement() > 0) {
+				throw new IllegalStateException("cannot map c yet");
+			}
+			return Map.of("results", item.toUpperCase());
+		};
+
+		var saver = SaverConfig.builder().register(SaverConstant.MEMORY, new MemorySaver()).build();
+		var app = mapGraph(MapNode.builder().maxConcurrency(1), counted)
+			.compile(CompileConfig.builder().saverConfig(saver).build());
+		var config = RunnableConfig.builder().threadId("resume").build();
+
+		assertThrows(Exception.class, () -> app.invoke(Map.of("items", List.of("a", "b", "c")), config));
+
+		var state = app.invoke((Map<String, Object>) null, config).orElseThrow();
+
+		assertEquals(List.of("A", "B", "C"), state.value("results").orElseThrow());
+		assertEquals(1, runs.get("a").get());
+		assertEquals(1, runs.get("b").get());
+		assertEquals(2, runs.get("c").get());
+		assertTrue(state.data().keySet().stream().noneMatch(key -> key.startsWith("__MAP__")));
+	}
+
+}
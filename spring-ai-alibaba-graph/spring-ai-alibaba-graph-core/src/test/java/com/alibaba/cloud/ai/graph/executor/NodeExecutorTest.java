@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeExecutorTest {
+
+	private static CompiledGraph compile(CompileConfig compileConfig) throws Exception {
+		return new StateGraph(() -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put("thread", new ReplaceStrategy());
+			return keyStrategyMap;
+		}).addNode("agent", node_async(state -> Map.of("thread", Thread.currentThread().getName())))
+			.addEdge(START, "agent")
+			.addEdge("agent", END)
+			.compile(compileConfig);
+	}
+
+	@Test
+	public void nodesRunOnConfiguredExecutor() throws Exception {
+		var pool = Executors.newSingleThreadExecutor(r -> new Thread(r, "custom-node-executor"));
+		try {
+			var nodeExecutor = NodeExecutor.of(pool);
+			var app = compile(CompileConfig.builder().nodeExecutor(nodeExecutor).build());
+
+			var result = app.invoke(Map.of()).map(OverAllState::data).orElseThrow();
+
+			assertEquals("custom-node-executor", result.get("thread"));
+			assertEquals(0, nodeExecutor.queueDepth());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void directExecutorRunsOnCallerThread() throws Exception {
+		var app = compile(CompileConfig.builder().nodeExecutor(NodeExecutor.direct()).build());
+
+		var result = app.invoke(Map.of()).map(OverAllState::data).orElseThrow();
+
+		assertEquals(Thread.currentThread().getName(), result.get("thread"));
+	}
+
+	@Test
+	public void defaultExecutorRunsSequentialNodesOnCallerThread() throws Exception {
+		var app = compile(CompileConfig.builder().build());
+
+		var result = app.invoke(Map.of()).map(OverAllState::data).orElseThrow();
+
+		// the caller waits for the node anyway, so it is not handed to another thread
+		assertEquals(Thread.currentThread().getName(), result.get("thread"));
+	}
+
+	@Test
+	public void tracksQueuedAndActiveNodes() throws Exception {
+		var pool = Executors.newSingleThreadExecutor();
+		try {
+			var nodeExecutor = NodeExecutor.of(pool);
+			var started = new CountDownLatch(1);
+			var release = new CountDownLatch(1);
+
+			nodeExecutor.execute(() -> {
+				started.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			nodeExecutor.execute(() -> {
+			});
+
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			assertEquals(1, nodeExecutor.activeNodes());
+			assertEquals(1, nodeExecutor.queueDepth());
+
+			release.countDown();
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+			assertEquals(0, nodeExecutor.activeNodes());
+			assertEquals(0, nodeExecutor.queueDepth());
+			assertEquals(2, nodeExecutor.completedNodes());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.executor;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static com.alibaba.cloud.ai.graph.StateGraph.START;
+import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParallelNodeTest {
+
+	private static StateGraph fanOut(NodeAction... branches) throws Exception {
+		var graph = new StateGraph(() -> {
+			Map<String, KeyStrategy> keyStrategyMap = new HashMap<>();
+			keyStrategyMap.put("messages", new AppendStrategy());
+			return keyStrategyMap;
+		}).addNode("start", node_async(state -> Map.of("messages", "start")))
+			.addNode("join", node_async(state -> Map.of("messages", "join")))
+			.addEdge(START, "start")
+			.addEdge("join", END);
+		for (int i = 0; i < branches.length; i++) {
+			String id = "branch" + i;
+			graph.addNode(id, node_async(branches[i])).addEdge("start", id).addEdge(id, "join");
+		}
+		return graph;
+	}
+
+	private static NodeAction message(String message) {
+		return state -> Map.of("messages", message);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> messages(StateGraph graph, CompileConfig compileConfig) throws Exception {
+		return graph.compile(compileConfig)
+			.invoke(Map.of())
+			.map(OverAllState::data)
+			.map(data -> (List<Object>) data.get("messages"))
+			.orElseThrow();
+	}
+
+	@Test
+	public void branchesRunConcurrently() throws Exception {
+		var barrier = new CyclicBarrier(3);
+		NodeAction awaiting = state -> {
+			// only completes if all three branches are running at the same time
+			barrier.await(5, TimeUnit.SECONDS);
+			return Map.of("messages", Thread.currentThread().getName());
+		};
+
+		var messages = messages(fanOut(awaiting, awaiting, awaiting), CompileConfig.builder().build());
+
+		assertEquals(5, messages.size());
+	}
+
+	@Test
+	public void resultsAreMergedInDeclarationOrder() throws Exception {
+		NodeAction slow = state -> {
+			Thread.sleep(100);
+			return Map.of("messages", "slow");
+		};
+
+		var messages = messages(fanOut(slow, message("fast"), message("faster")), CompileConfig.builder().build());
+
+		assertEquals(List.of("start", "slow", "fast", "faster", "join"), messages);
+	}
+
+	@Test
+	public void maxParallelBranchesLimitsConcurrency() throws Exception {
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+		NodeAction tracked = state -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return Map.of("messages", "tracked");
+		};
+
+		var messages = messages(fanOut(tracked, tracked, tracked, tracked, tracked),
+				CompileConfig.builder().maxParallelBranches(2).build());
+
+		assertEquals(7, messages.size());
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	public void branchesRunOnParallelExecutor() throws Exception {
+		NodeAction threadName = state -> Map.of("messages", Thread.currentThread().getName());
+
+		var messages = messages(fanOut(threadName, threadName), CompileConfig.builder()
+			.nodeExecutor(NodeExecutor.direct())
+			.parallelExecutor(NodeExecutor.of(r -> new Thread(r, "branch-thread").start()))
+			.build());
+
+		assertEquals(List.of("start", "branch-thread", "branch-thread", "join"), messages);
+	}
+
+	@Test
+	public void recordsBranchLatencies() throws Exception {
+		var meterRegistry = new SimpleMeterRegistry();
+
+		messages(fanOut(message("a"), message("b")), CompileConfig.builder().meterRegistry(meterRegistry).build());
+
+		for (String branch : List.of("branch0", "branch1")) {
+			var timer = meterRegistry.get(ParallelNode.BRANCH_METRIC)
+				.tag("node", "start")
+				.tag("branch", branch)
+				.tag("outcome", "success")
+				.timer();
+			assertEquals(1, timer.count());
+		}
+	}
+
+	@Test
+	public void failingBranchFailsTheNode() throws Exception {
+		var started = new AtomicInteger();
+		NodeAction failing = state -> {
+			started.incrementAndGet();
+			throw new IllegalStateException("branch failed");
+		};
+		NodeAction counting = state -> {
+			started.incrementAndGet();
+			return Map.of("messages", "ok");
+		};
+		var graph = fanOut(failing, counting, counting).compile(CompileConfig.builder()
+			.maxParallelBranches(1)
+			.build());
+
+		assertThrows(Exception.class, () -> graph.invoke(Map.of()));
+		// the pending branches are not started once one failed
+		assertEquals(1, started.get());
+	}
+
+}
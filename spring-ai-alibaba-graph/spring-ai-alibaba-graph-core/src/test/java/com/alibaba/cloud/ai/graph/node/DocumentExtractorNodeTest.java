@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import com.alibaba.cloud.ai.graph.async.AsyncGeneratorQueue;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentExtractorNodeTest {
+
+	private static final List<String> FILES = List.of("document-extractor/one.txt", "document-extractor/two.txt",
+			"document-extractor/three.txt");
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void extractsFilesInOrder() throws Exception {
+		var node = DocumentExtractorNode.builder().fileList(FILES).outputKey("documents").maxConcurrency(2).build();
+
+		Map<String, Object> result = node.apply(new OverAllState());
+
+		List<String> texts = (List<String>) result.get("documents");
+		assertEquals(3, texts.size());
+		assertEquals("first document", texts.get(0));
+		assertEquals("second document, a bit longer", texts.get(1));
+		assertEquals("third document", texts.get(2));
+		assertEquals(texts, result.get("text"));
+	}
+
+	@Test
+	public void missingFileFailsTheNode() {
+		var node = DocumentExtractorNode.builder().fileList(List.of("document-extractor/missing.txt")).build();
+
+		assertThrows(RuntimeException.class, () -> node.apply(new OverAllState()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamsChunksOfEachFile() throws Exception {
+		var node = DocumentExtractorNode.builder()
+			.fileList(FILES)
+			.outputKey("documents")
+			.stream(true)
+			.chunkSize(8)
+			.build();
+
+		var generator = (AsyncGenerator<NodeOutput>) node.apply(new OverAllState()).get("documents");
+
+		Map<String, StringBuilder> streamed = new HashMap<>();
+		AsyncGenerator.Data<NodeOutput> data;
+		while (!(data = generator.next()).isDone()) {
+			var output = (StreamingOutput) data.data().join();
+			assertTrue(output.chunk().length() <= 8);
+			streamed.computeIfAbsent(output.node(), k -> new StringBuilder()).append(output.chunk());
+		}
+
+		var result = (Map<String, Object>) data.resultValue().orElseThrow();
+		List<String> texts = (List<String>) result.get("documents");
+		for (int i = 0; i < texts.size(); i++) {
+			assertEquals(texts.get(i), streamed.get(DocumentExtractorNode.formatChunkNode(i)).toString());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void slowConsumersHoldBackTheExtraction() throws Exception {
+		var executor = Executors.newSingleThreadExecutor();
+		try {
+			var node = DocumentExtractorNode.builder()
+				.fileList(FILES)
+				.outputKey("documents")
+				.stream(true)
+				.chunkSize(1)
+				.streamCapacity(2)
+				.executor(executor)
+				.build();
+
+			var generator = (AsyncGeneratorQueue.Generator<NodeOutput>) node.apply(new OverAllState())
+				.get("documents");
+			Thread.sleep(200);
+			assertEquals(2, generator.queue().size());
+
+			// the consumer gives up: the extraction stops instead of waiting forever
+			generator.close();
+			assertTrue(generator.next().isDone());
+			assertTrue(executor.submit(() -> true).get(5, TimeUnit.SECONDS));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamedTikaTextIsFormattedLikeExtractedText() throws Exception {
+		var files = List.of("document-extractor/table.csv");
+		var extracted = (List<String>) DocumentExtractorNode.builder()
+			.fileList(files)
+			.build()
+			.apply(new OverAllState())
+			.get("text");
+
+		var node = DocumentExtractorNode.builder().fileList(files).outputKey("documents").stream(true).build();
+		var generator = (AsyncGenerator<NodeOutput>) node.apply(new OverAllState()).get("documents");
+		AsyncGenerator.Data<NodeOutput> data;
+		while (!(data = generator.next()).isDone()) {
+			data.data().join();
+		}
+
+		var result = (Map<String, Object>) data.resultValue().orElseThrow();
+		assertTrue(extracted.get(0).contains("Hangzhou"));
+		assertEquals(extracted, result.get("documents"));
+	}
+
+}
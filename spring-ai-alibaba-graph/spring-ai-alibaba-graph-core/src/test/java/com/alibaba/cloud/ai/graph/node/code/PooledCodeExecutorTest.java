@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.node.code;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionConfig;
+import com.alibaba.cloud.ai.graph.node.code.entity.CodeExecutionResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class PooledCodeExecutorTest {
+
+	private static final String PID = "import os\nprint(os.getpid())";
+
+	private CodeExecutionConfig config;
+
+	private PooledCodeExecutor executor;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	void setUp() {
+		config = new CodeExecutionConfig().setWorkDir(tempDir.toString());
+		executor = PooledCodeExecutor.builder().poolSize(1).maxExecutionsPerWorker(2).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.close();
+	}
+
+	@Test
+	void workersAreReusedThenRecycled() throws Exception {
+		String first = executor.executeCode("python3", PID, config).logs();
+		String second = executor.executeCode("python3", PID, config).logs();
+		String third = executor.executeCode("python3", PID, config).logs();
+
+		assertEquals(first, second);
+		assertNotEquals(second, third);
+	}
+
+	@Test
+	void timedOutWorkerIsReplaced() throws Exception {
+		config.setTimeout(1);
+
+		CodeExecutionResult timedOut = executor.executeCode("python3", "import time\ntime.sleep(30)", config);
+		assertNotEquals(0, timedOut.exitCode());
+
+		CodeExecutionResult next = executor.executeCode("python3", "print('ok')", config);
+		assertEquals(new CodeExecutionResult(0, "ok"), next);
+	}
+
+	@Test
+	void failingCodeReportsItsError() throws Exception {
+		CodeExecutionResult result = executor.executeCode("python3", "raise ValueError('boom')", config);
+
+		assertEquals(1, result.exitCode());
+		assertEquals("ValueError: boom", result.logs().lines().reduce((a, b) -> b).orElseThrow());
+	}
+
+	@Test
+	void nodeCodeRunsWithGlobalsUntilItsCallbacksComplete() throws Exception {
+		String code = """
+				setTimeout(() => console.log('late', typeof process.pid), 100);
+				console.log('early');
+				""";
+
+		CodeExecutionResult result = executor.executeCode("node", code, config);
+		assertEquals(new CodeExecutionResult(0, "early\nlate number"), result);
+
+		CodeExecutionResult failed = executor.executeCode("node", "console.error('oops'); undefinedCall();", config);
+		assertEquals(1, failed.exitCode());
+		assertEquals("oops", failed.logs().lines().findFirst().orElseThrow());
+	}
+
+	@Test
+	void executesJavaWithCompiledClassCache() throws Exception {
+		String javaCode = """
+				public static Object main(Object[] inputs) {
+					Map<String, Object> response = new HashMap<>();
+					response.put("greeting", "Hello " + inputs[0]);
+					return response;
+				}
+				""";
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("name", "name");
+		NodeAction codeNode = CodeExecutorNodeAction.builder()
+			.codeExecutor(executor)
+			.code(javaCode)
+			.codeLanguage("java")
+			.config(config)
+			.params(params)
+			.build();
+
+		for (int i = 0; i < 3; i++) {
+			Map<String, Object> result = codeNode.apply(new OverAllState(Map.of("name", "world")));
+			assertEquals("Hello world", result.get("greeting"));
+		}
+	}
+
+}
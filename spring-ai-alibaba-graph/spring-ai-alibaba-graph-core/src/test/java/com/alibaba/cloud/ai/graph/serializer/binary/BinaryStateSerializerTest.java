@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.binary;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.serializer.binary.BinaryStateSerializer.Compression;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryStateSerializerTest {
+
+	record Money(long cents, String currency) {
+	}
+
+	static class MoneyCodec implements TypeCodec<Money> {
+
+		@Override
+		public void write(Money value, BinaryOutput out) throws IOException {
+			out.writeVarLong(value.cents());
+			out.writeString(value.currency());
+		}
+
+		@Override
+		public Money read(BinaryInput in) throws IOException {
+			return new Money(in.readVarLong(), in.readString());
+		}
+
+	}
+
+	static class Opaque {
+
+	}
+
+	private static OverAllState state(Map<String, Object> data) {
+		return new OverAllState(data);
+	}
+
+	@Test
+	public void roundTripsScalars() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var data = new HashMap<String, Object>();
+		data.put("string", "value");
+		data.put("int", -42);
+		data.put("long", Long.MAX_VALUE);
+		data.put("double", 3.5d);
+		data.put("float", 1.25f);
+		data.put("short", (short) 7);
+		data.put("byte", (byte) -1);
+		data.put("char", 'x');
+		data.put("true", true);
+		data.put("false", false);
+		data.put("decimal", new BigDecimal("1234.5678"));
+		data.put("bigint", new BigInteger("123456789012345678901234567890"));
+		data.put("unit", TimeUnit.SECONDS);
+
+		var clone = serializer.cloneObject(state(data));
+
+		assertEquals(data, clone.data());
+		assertInstanceOf(Integer.class, clone.data().get("int"));
+		assertInstanceOf(Float.class, clone.data().get("float"));
+		assertInstanceOf(Short.class, clone.data().get("short"));
+	}
+
+	@Test
+	public void roundTripsUnicode() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var text = "héllo 世界 😀 \u0000 end";
+
+		var clone = serializer.cloneObject(state(Map.of("text", text)));
+
+		assertEquals(text, clone.value("text").orElseThrow());
+	}
+
+	@Test
+	public void roundTripsCollections() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var set = new LinkedHashSet<>(List.of("b", "a", "c"));
+		var nested = Map.of("list", List.of(1, 2, List.of("x")), "map", Map.of("k", 2L));
+		var data = Map.<String, Object>of("set", set, "nested", nested, "bytes", new byte[] { 1, 2, 3 });
+
+		var clone = serializer.cloneObject(state(data));
+
+		assertEquals(List.copyOf(set), List.copyOf((LinkedHashSet<?>) clone.data().get("set")));
+		assertEquals(nested, clone.data().get("nested"));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) clone.data().get("bytes"));
+	}
+
+	@Test
+	public void mapsKeepTheirIterationOrder() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var ordered = new LinkedHashMap<String, Object>();
+		for (String key : List.of("zeta", "alpha", "mu", "beta", "omega", "gamma")) {
+			ordered.put(key, key.length());
+		}
+
+		var clone = serializer.cloneObject(state(Map.of("ordered", ordered)));
+
+		assertEquals(List.copyOf(ordered.keySet()),
+				List.copyOf(((Map<?, ?>) clone.data().get("ordered")).keySet()));
+	}
+
+	@Test
+	public void floatsTakeFourBytes() throws Exception {
+		var serializer = new BinaryStateSerializer();
+
+		byte[] asFloat = serializer.writeObject(state(Map.of("v", 1.25f)));
+		byte[] asDouble = serializer.writeObject(state(Map.of("v", 1.25d)));
+
+		assertEquals(asDouble.length - 4, asFloat.length);
+		var clone = serializer.cloneObject(state(Map.of("v", Float.MIN_VALUE)));
+		assertEquals(Float.MIN_VALUE, clone.value("v").orElseThrow());
+	}
+
+	@Test
+	public void roundTripsMessages() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var toolCall = new AssistantMessage.ToolCall("call-1", "function", "weather", "{\"city\":\"Napoli\"}");
+		List<Message> messages = List.of(new SystemMessage("be nice"),
+				UserMessage.builder().text("hi").metadata(Map.of("user", "u1")).build(),
+				new AssistantMessage("calling", Map.of("model", "qwen"), List.of(toolCall)),
+				new ToolResponseMessage(List.of(new ToolResponseMessage.ToolResponse("call-1", "weather", "sunny")),
+						Map.of()));
+
+		var clone = serializer.cloneObject(state(Map.of("messages", messages)));
+
+		@SuppressWarnings("unchecked")
+		var cloned = (List<Message>) clone.data().get("messages");
+		assertEquals(4, cloned.size());
+		assertEquals("be nice", cloned.get(0).getText());
+		assertEquals("hi", cloned.get(1).getText());
+		assertEquals("u1", cloned.get(1).getMetadata().get("user"));
+		var assistant = assertInstanceOf(AssistantMessage.class, cloned.get(2));
+		assertEquals(List.of(toolCall), assistant.getToolCalls());
+		assertEquals("qwen", assistant.getMetadata().get("model"));
+		var tool = assertInstanceOf(ToolResponseMessage.class, cloned.get(3));
+		assertEquals("sunny", tool.getResponses().get(0).responseData());
+	}
+
+	@Test
+	public void usesRegisteredCodecs() throws Exception {
+		var serializer = new BinaryStateSerializer().register(1, Money.class, new MoneyCodec());
+
+		var clone = serializer.cloneObject(state(Map.of("price", new Money(1999, "EUR"))));
+
+		assertEquals(new Money(1999, "EUR"), clone.value("price").orElseThrow());
+		assertThrows(IllegalArgumentException.class,
+				() -> serializer.register(1, LocalDate.class, new TypeCodec<LocalDate>() {
+					@Override
+					public void write(LocalDate value, BinaryOutput out) {
+					}
+
+					@Override
+					public LocalDate read(BinaryInput in) {
+						return null;
+					}
+				}));
+
+		var bytes = serializer.writeObject(state(Map.of("price", new Money(1, "USD"))));
+		assertThrows(InvalidClassException.class, () -> new BinaryStateSerializer().readObject(bytes));
+	}
+
+	@Test
+	public void fallsBackToJavaSerialization() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var date = LocalDate.of(2025, 1, 31);
+
+		var clone = serializer.cloneObject(state(Map.of("date", date)));
+
+		assertEquals(date, clone.value("date").orElseThrow());
+		assertThrows(NotSerializableException.class,
+				() -> serializer.writeObject(state(Map.of("opaque", new Opaque()))));
+	}
+
+	@Test
+	public void compressesLargePayloads() throws Exception {
+		var plain = new BinaryStateSerializer();
+		var compressed = new BinaryStateSerializer().compression(Compression.DEFLATE);
+		var state = state(Map.of("text", "lorem ipsum dolor sit amet ".repeat(500), "small", 1));
+
+		byte[] plainBytes = plain.writeObject(state);
+		byte[] compressedBytes = compressed.writeObject(state);
+
+		assertTrue(compressedBytes.length < plainBytes.length / 10);
+		assertEquals(state.data(), compressed.readObject(compressedBytes).data());
+		// readers decode both framings regardless of their own setting
+		assertEquals(state.data(), plain.readObject(compressedBytes).data());
+
+		var small = state(Map.of("small", 1));
+		assertArrayEquals(plain.writeObject(small), compressed.writeObject(small));
+	}
+
+	@Test
+	public void writesThroughObjectStreams() throws Exception {
+		var serializer = new BinaryStateSerializer();
+		var state = state(Map.of("key", "value", "count", 3));
+
+		var bytes = new ByteArrayOutputStream();
+		try (var out = new ObjectOutputStream(bytes)) {
+			serializer.write(state, out);
+			out.writeUTF("trailer");
+		}
+		try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			var read = serializer.read(in);
+			assertNotSame(state, read);
+			assertEquals(state.data(), read.data());
+			assertEquals("trailer", in.readUTF());
+		}
+	}
+
+	@Test
+	public void rejectsCorruptInput() {
+		var serializer = new BinaryStateSerializer();
+
+		assertThrows(IOException.class, () -> serializer.readObject(new byte[] { 9, 0 }));
+		assertThrows(IOException.class, () -> serializer.readObject(new byte[] { 1, 0, 15, 5 }));
+	}
+
+	@Test
+	public void serializableRecordKeepsType() throws Exception {
+		record Point(int x, int y) implements Serializable {
+		}
+		var clone = new BinaryStateSerializer().cloneObject(state(Map.of("point", new Point(1, 2))));
+
+		assertEquals(new Point(1, 2), clone.value("point").orElseThrow());
+	}
+
+}
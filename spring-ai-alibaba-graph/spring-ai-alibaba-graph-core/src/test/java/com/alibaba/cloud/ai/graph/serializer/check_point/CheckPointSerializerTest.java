@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.serializer.check_point;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckPointSerializerTest {
+
+	private final StateSerializer stateSerializer = new StateGraph().getStateSerializer();
+
+	private final CheckPointSerializer serializer = new CheckPointSerializer(stateSerializer);
+
+	/**
+	 * Writes a checkpoint the way records were written before they carried a version:
+	 * the id, the node ids and the state, nothing else.
+	 */
+	private void writeUnversioned(Checkpoint checkpoint, ObjectOutputStream out) throws IOException {
+		out.writeUTF(checkpoint.getId());
+		out.writeByte(1);
+		out.writeUTF(checkpoint.getNodeId());
+		out.writeByte(0);
+		stateSerializer.write((OverAllState) stateSerializer.stateFactory().apply(checkpoint.getState()), out);
+	}
+
+	@Test
+	public void unversionedRecordsAreReadAsFullCheckpoints() throws Exception {
+		Checkpoint first = Checkpoint.builder().nodeId("node0").state(Map.of("step", 0)).build();
+		Checkpoint second = Checkpoint.builder().nodeId("node1").state(Map.of("step", 1)).build();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			writeUnversioned(first, out);
+			writeUnversioned(second, out);
+		}
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			for (Checkpoint expected : new Checkpoint[] { first, second }) {
+				Checkpoint checkpoint = serializer.read(in);
+				assertEquals(expected.getId(), checkpoint.getId());
+				assertEquals(expected.getNodeId(), checkpoint.getNodeId());
+				assertNull(checkpoint.getNextNodeId());
+				assertEquals(expected.getState(), checkpoint.getState());
+				assertNull(checkpoint.getParentId());
+				assertTrue(checkpoint.getRemovedKeys().isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void versionedRecordsKeepTheirParentAndRemovedKeys() throws Exception {
+		Checkpoint delta = Checkpoint.builder()
+			.nodeId("node1")
+			.nextNodeId("node2")
+			.state(Map.of("step", 1))
+			.parentId("parent")
+			.removedKeys(Set.of("draft"))
+			.build();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			serializer.write(delta, out);
+		}
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Checkpoint checkpoint = serializer.read(in);
+			assertEquals(delta.getId(), checkpoint.getId());
+			assertEquals("node2", checkpoint.getNextNodeId());
+			assertEquals(delta.getState(), checkpoint.getState());
+			assertEquals("parent", checkpoint.getParentId());
+			assertEquals(Set.of("draft"), checkpoint.getRemovedKeys());
+		}
+	}
+
+	@Test
+	public void unknownVersionsAreRejected() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeShort(0xFFFF);
+			out.writeByte(2);
+		}
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertThrows(StreamCorruptedException.class, () -> serializer.read(in));
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AppendOnlyListTest {
+
+	@Test
+	public void plusKeepsPreviousVersions() {
+		AppendOnlyList<String> v1 = AppendOnlyList.<String>empty().plus("a").plus("b");
+		AppendOnlyList<String> v2 = v1.plus("c");
+		// v1 no longer owns the tail of the shared buffer: appending must branch
+		AppendOnlyList<String> v3 = v1.plus("x");
+
+		assertEquals(List.of("a", "b"), v1);
+		assertEquals(List.of("a", "b", "c"), v2);
+		assertEquals(List.of("a", "b", "x"), v3);
+		assertEquals(List.of("a", "b", "c", "d"), v2.plus("d"));
+		assertThrows(UnsupportedOperationException.class, () -> v2.add("e"));
+	}
+
+	@Test
+	public void plusAllGrowsPastInitialCapacity() {
+		AppendOnlyList<Integer> list = AppendOnlyList.empty();
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			list = i % 3 == 0 ? list.plusAll(List.of(i)) : list.plus(i);
+			expected.add(i);
+		}
+
+		assertEquals(expected, list);
+		assertSame(list, AppendOnlyList.from(list));
+	}
+
+	@Test
+	public void minusRemovesFirstMatch() {
+		AppendOnlyList<String> list = AppendOnlyList.from(List.of("a", "b", "a", "c"));
+
+		assertEquals(List.of("b", "a", "c"), list.minus(RemoveByHash.of("a")));
+		assertEquals(List.of("a", "b", "a"), list.minus((element, index) -> index == 3 ? 0 : 1));
+		assertSame(list, list.minus(RemoveByHash.of("z")));
+		assertEquals(List.of("a", "b", "a", "c"), list);
+	}
+
+	@Test
+	public void minusByHashSeesElementsAppendedAfterTheIndexIsBuilt() {
+		AppendOnlyList<String> v1 = AppendOnlyList.<String>empty().plus("a").plus("b");
+		assertEquals(List.of("b"), v1.minus(RemoveByHash.of("a")));
+		// the index built by the removal above is shared with, and extended by, v2
+		AppendOnlyList<String> v2 = v1.plus("c").plus("a");
+
+		assertEquals(List.of("a", "b", "a"), v2.minus(RemoveByHash.of("c")));
+		assertEquals(List.of("b", "c", "a"), v2.minus(RemoveByHash.of("a")));
+		// elements appended by a later version are not part of an earlier one
+		assertSame(v1, v1.minus(RemoveByHash.of("c")));
+	}
+
+	@Test
+	public void appendStrategyKeepsDuplicatesUnlessDistinct() {
+		List<String> old = List.of("a", "b");
+
+		assertEquals(List.of("a", "b", "b", "c"), new AppendStrategy().apply(old, List.of("b", "c")));
+		assertEquals(List.of("a", "b", "c"), new AppendStrategy(true).apply(old, List.of("b", "c")));
+		assertEquals(List.of("b", "d"), new AppendStrategy().apply(old, List.of(RemoveByHash.of("a"), "d")));
+		assertEquals(List.of("a"), new AppendStrategy().apply(old, RemoveByHash.of("b")));
+		assertEquals(List.of("x"), new AppendStrategy().apply(null, "x"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void serializesAsArrayList() throws Exception {
+		AppendOnlyList<String> list = AppendOnlyList.<String>empty().plus("a").plus("b");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(list);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			List<String> copy = (List<String>) in.readObject();
+			assertInstanceOf(ArrayList.class, copy);
+			assertEquals(list, copy);
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentMapTest {
+
+	/**
+	 * Key with a configurable hash code, to force collisions.
+	 */
+	record Key(String name, int hash) {
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+	@Test
+	public void plusAndMinusKeepPreviousVersions() {
+		PersistentMap<String, Object> v1 = PersistentMap.<String, Object>empty().plus("a", 1).plus("b", 2);
+		PersistentMap<String, Object> v2 = v1.plus("a", 10).plus("c", 3);
+		PersistentMap<String, Object> v3 = v2.minus("b");
+
+		assertEquals(Map.of("a", 1, "b", 2), v1);
+		assertEquals(Map.of("a", 10, "b", 2, "c", 3), v2);
+		assertEquals(Map.of("a", 10, "c", 3), v3);
+		assertEquals(2, v3.size());
+		assertSame(v3, v3.minus("missing"));
+		assertSame(v3, v3.plus("a", 10));
+	}
+
+	@Test
+	public void nullValuesAreSupported() {
+		PersistentMap<String, Object> map = PersistentMap.<String, Object>empty().plus("a", null);
+
+		assertTrue(map.containsKey("a"));
+		assertNull(map.get("a"));
+		assertEquals(1, map.size());
+		assertThrows(NullPointerException.class, () -> map.plus(null, 1));
+	}
+
+	@Test
+	public void collidingHashesAreKeptApart() {
+		PersistentMap<Key, Integer> map = PersistentMap.empty();
+		for (int i = 0; i < 10; i++) {
+			map = map.plus(new Key("k" + i, i % 2), i);
+		}
+
+		assertEquals(10, map.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, map.get(new Key("k" + i, i % 2)));
+		}
+
+		for (int i = 0; i < 10; i += 2) {
+			map = map.minus(new Key("k" + i, 0));
+		}
+		assertEquals(5, map.size());
+		assertFalse(map.containsKey(new Key("k0", 0)));
+		assertEquals(9, map.get(new Key("k9", 1)));
+	}
+
+	@Test
+	public void behavesLikeHashMap() {
+		Random random = new Random(42);
+		Map<Integer, Integer> expected = new HashMap<>();
+		PersistentMap<Integer, Integer> actual = PersistentMap.empty();
+
+		for (int i = 0; i < 20_000; i++) {
+			int key = random.nextInt(5_000);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			}
+			else {
+				expected.put(key, i);
+				actual = actual.plus(key, i);
+			}
+		}
+
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(expected.size(), actual.entrySet().stream().count());
+	}
+
+	@Test
+	public void isImmutable() {
+		PersistentMap<String, Object> map = PersistentMap.<String, Object>empty().plus("a", 1);
+
+		assertThrows(UnsupportedOperationException.class, () -> map.put("b", 2));
+		assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+		assertThrows(UnsupportedOperationException.class, map::clear);
+	}
+
+	@Test
+	public void serializesAsHashMap() throws Exception {
+		PersistentMap<String, Object> map = PersistentMap.from(Map.of("a", 1, "b", "two"));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(map);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Object read = in.readObject();
+			assertInstanceOf(HashMap.class, read);
+			assertEquals(map, read);
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.graph.streaming;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.async.AsyncGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingChatGeneratorTest {
+
+	private static ChatResponse chunk(String text) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+	}
+
+	private static ChatResponse toolCall(String text) {
+		var toolCall = new AssistantMessage.ToolCall("call-1", "function", "weather", "{}");
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text, Map.of(), List.of(toolCall)))));
+	}
+
+	/**
+	 * Drains the generator, returning the streamed chunks and the final result.
+	 */
+	private static Map<String, Object> drain(AsyncGenerator<? extends NodeOutput> generator, List<String> chunks) {
+		while (true) {
+			AsyncGenerator.Data<? extends NodeOutput> data = generator.next();
+			if (data.isDone()) {
+				@SuppressWarnings("unchecked")
+				var result = (Map<String, Object>) data.resultValue().orElseThrow();
+				return result;
+			}
+			chunks.add(((StreamingOutput) data.data().join()).chunk());
+		}
+	}
+
+	@Test
+	public void accumulatesStreamedText() {
+		var texts = IntStream.range(0, 2000).mapToObj(i -> "t" + i + " ").toList();
+		var generator = StreamingChatGenerator.builder()
+			.startingNode("llm")
+			.mapResult(response -> Map.of("messages", response.getResult().getOutput()))
+			.build(Flux.fromIterable(texts).map(StreamingChatGeneratorTest::chunk));
+
+		List<String> chunks = new ArrayList<>();
+		var result = drain(generator, chunks);
+
+		assertEquals(texts, chunks);
+		assertEquals(String.join("", texts), ((AssistantMessage) result.get("messages")).getText());
+	}
+
+	@Test
+	public void toolCallRestartsAccumulation() {
+		var generator = StreamingChatGenerator.builder()
+			.mapResult(response -> Map.of("messages", response.getResult().getOutput()))
+			.build(Flux.just(chunk("thinking"), toolCall(""), chunk("done")));
+
+		var message = (AssistantMessage) drain(generator, new ArrayList<>()).get("messages");
+
+		assertEquals("done", message.getText());
+	}
+
+	@Test
+	public void singleChunkIsReturnedAsIs() {
+		var response = toolCall("calling");
+		var generator = StreamingChatGenerator.builder()
+			.mapResult(r -> Map.of("response", r))
+			.build(Flux.just(chunk("ignored"), response));
+
+		assertSame(response, drain(generator, new ArrayList<>()).get("response"));
+	}
+
+	@Test
+	public void finalResultOnlySkipsIntermediateOutputs() {
+		var generator = StreamingChatGenerator.builder()
+			.finalResultOnly(true)
+			.mapResult(response -> Map.of("messages", response.getResult().getOutput()))
+			.build(Flux.just(chunk("a"), chunk("b"), chunk("c")));
+
+		List<String> chunks = new ArrayList<>();
+		var message = (AssistantMessage) drain(generator, chunks).get("messages");
+
+		assertTrue(chunks.isEmpty());
+		assertEquals("abc", message.getText());
+	}
+
+}
@@ -35,6 +35,7 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -193,7 +194,8 @@ public class RelectionAutoconfiguration {
 				return messageList;
 			};
 
-			List<Message> reactMessages = (List<Message>) invokeState.value(MESSAGES).orElseThrow();
+			// state lists are immutable: copy before editing
+			List<Message> reactMessages = new ArrayList<>((List<Message>) invokeState.value(MESSAGES).orElseThrow());
 			convertLastToUserMessage.apply(reactMessages);
 
 			return Map.of(MESSAGES, reactMessages);